@@ -1,6 +1,6 @@
 package action;
 
-public interface LoginViewContract {
+public interface LoginViewContract extends VistaCaricamento {
     void setController(LoginActions controller);
 
     void mostraMessaggioInfo(String msg);
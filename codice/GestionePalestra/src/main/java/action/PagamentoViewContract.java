@@ -5,7 +5,7 @@ import model.Cliente;
 
 import java.awt.Component;
 
-public interface PagamentoViewContract {
+public interface PagamentoViewContract extends VistaCaricamento {
 
     void setAction(PagamentoAction action);
 
@@ -3,6 +3,7 @@ package action;
 public interface PrenotaConsulenzaAction {
     void handleTipoSelezionato(String tipo);
     void handleDipendenteSelezionato(String nomeCompleto);
+    void handleCercaSlotLiberi();
     void handleConfermaPrenotazione();
     void handleAnnulla();
 }
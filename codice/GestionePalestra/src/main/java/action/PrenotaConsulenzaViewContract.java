@@ -2,7 +2,7 @@ package action;
 
 import java.awt.Window;
 
-public interface PrenotaConsulenzaViewContract {
+public interface PrenotaConsulenzaViewContract extends VistaCaricamento {
 
     // ---- input dalla view ----
     String getTipoSelezionato();
@@ -15,6 +15,11 @@ public interface PrenotaConsulenzaViewContract {
     void setDescrizioneTipo(String testo);
     void setDipendenti(String[] nomi);
     void setDescrizioneDipendente(String testo);
+    void setDataOra(String data, String ora);
+    void selezionaDipendente(String nomeCompleto);
+
+    /** Mostra un elenco di opzioni; ritorna l'indice scelto o -1 se annullato. */
+    int scegliOpzione(String titolo, String messaggio, String[] opzioni);
 
     // ---- lifecycle ----
     void dispose();
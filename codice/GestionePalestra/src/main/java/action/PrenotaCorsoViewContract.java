@@ -2,7 +2,7 @@ package action;
 
 import model.Cliente;
 
-public interface PrenotaCorsoViewContract {
+public interface PrenotaCorsoViewContract extends VistaCaricamento {
 
     // wiring (la view espone solo l’interfaccia delle azioni)
     void setAction(PrenotaCorsoAction action);
@@ -20,6 +20,7 @@ public interface PrenotaCorsoViewContract {
     // messaggi (così il controller non usa direttamente ThemedDialog)
     void mostraInfo(String titolo, String messaggio);
     void mostraErrore(String titolo, String messaggio);
+    boolean chiediConferma(String titolo, String messaggio);
 
     // navigazione base
     void close();
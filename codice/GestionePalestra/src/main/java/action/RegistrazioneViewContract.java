@@ -2,7 +2,7 @@ package action;
 
 import java.awt.Window;
 
-public interface RegistrazioneViewContract {
+public interface RegistrazioneViewContract extends VistaCaricamento {
     void setActions(RegistrazioneActions actions);
 
     void mostraMessaggioInfo(String msg);
@@ -0,0 +1,10 @@
+package action;
+
+/**
+ * View in grado di segnalare un'operazione in corso (cursore di attesa,
+ * comandi disabilitati) mentre il controller lavora fuori dal thread grafico.
+ */
+public interface VistaCaricamento {
+
+    void setInCaricamento(boolean inCorso);
+}
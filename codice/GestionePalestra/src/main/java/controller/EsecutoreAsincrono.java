@@ -0,0 +1,197 @@
+package controller;
+
+import action.VistaCaricamento;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.swing.SwingUtilities;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Esegue il lavoro dei controller (DAO, servizi, BCrypt) fuori dal thread grafico.
+ *
+ * L'attività gira su un pool di thread dedicato; l'esito (successo o errore)
+ * viene consegnato sull'Event Dispatch Thread, dove i controller possono
+ * aggiornare la view come prima. Mentre l'operazione è in corso la view
+ * passata viene messa in stato di caricamento.
+ *
+ * L'annullamento è cooperativo: l'attività già avviata non viene interrotta
+ * (un interrupt a metà di una query può chiudere il file del DB), ma il suo
+ * esito viene scartato e la view esce subito dal caricamento.
+ */
+public final class EsecutoreAsincrono {
+
+    private static final Logger logger = LogManager.getLogger(EsecutoreAsincrono.class);
+
+    private static final int THREAD = 4;
+
+    @FunctionalInterface
+    public interface Attivita<T> {
+        T esegui() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface AttivitaSenzaRisultato {
+        void esegui() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Esito<T> {
+        void accetta(T valore);
+    }
+
+    private static final AtomicInteger PROGRESSIVO = new AtomicInteger();
+
+    private static final ExecutorService ESECUTORE = Executors.newFixedThreadPool(THREAD, r -> {
+        Thread t = new Thread(r, "palestra-async-" + PROGRESSIVO.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    // operazioni in corso per view: letto e scritto solo sull'EDT
+    private static final Map<VistaCaricamento, Integer> IN_CORSO = new WeakHashMap<>();
+
+    private EsecutoreAsincrono() {
+        // utility class
+    }
+
+    /**
+     * Avvia l'attività in background.
+     *
+     * @param vista    view da mettere in caricamento (può essere null)
+     * @param attivita lavoro da svolgere fuori dall'EDT
+     * @param successo chiamato sull'EDT con il risultato
+     * @param errore   chiamato sull'EDT con l'eccezione (se null l'errore viene solo loggato)
+     */
+    public static <T> Operazione esegui(VistaCaricamento vista,
+                                        Attivita<T> attivita,
+                                        Esito<? super T> successo,
+                                        Esito<? super Exception> errore) {
+        Operazione op = new Operazione(vista);
+        suEdt(() -> inizioCaricamento(vista));
+
+        op.future = ESECUTORE.submit(() -> {
+            try {
+                T risultato = attivita.esegui();
+                op.consegna(() -> successo.accetta(risultato));
+            } catch (Exception e) {
+                op.consegna(() -> {
+                    if (errore != null) {
+                        errore.accetta(e);
+                    } else {
+                        logger.error("Errore in un'operazione asincrona", e);
+                    }
+                });
+            }
+        });
+        return op;
+    }
+
+    /** Come {@link #esegui(VistaCaricamento, Attivita, Esito, Esito)}, per attività senza risultato. */
+    public static Operazione eseguiAzione(VistaCaricamento vista,
+                                          AttivitaSenzaRisultato attivita,
+                                          Runnable successo,
+                                          Esito<? super Exception> errore) {
+        return esegui(vista, () -> {
+            attivita.esegui();
+            return null;
+        }, nessuno -> successo.run(), errore);
+    }
+
+    // ==========================================================
+    //  OPERAZIONE (handle per l'annullamento)
+    // ==========================================================
+
+    public static final class Operazione {
+
+        private final VistaCaricamento vista;
+        private final AtomicBoolean chiusa = new AtomicBoolean(false);
+        private volatile boolean annullata = false;
+        private volatile Future<?> future;
+
+        private Operazione(VistaCaricamento vista) {
+            this.vista = vista;
+        }
+
+        /** Scarta l'esito dell'operazione; se non è ancora partita non verrà eseguita. */
+        public void annulla() {
+            annullata = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+            suEdt(this::chiudi);
+        }
+
+        public boolean isAnnullata() {
+            return annullata;
+        }
+
+        public boolean isTerminata() {
+            return chiusa.get();
+        }
+
+        private void consegna(Runnable callback) {
+            SwingUtilities.invokeLater(() -> {
+                if (annullata) {
+                    return;
+                }
+                // prima esco dal caricamento: la callback può aprire dialog o nuove operazioni
+                chiudi();
+                try {
+                    callback.run();
+                } catch (RuntimeException e) {
+                    logger.error("Errore nella gestione dell'esito di un'operazione asincrona", e);
+                }
+            });
+        }
+
+        private void chiudi() {
+            if (chiusa.compareAndSet(false, true)) {
+                fineCaricamento(vista);
+            }
+        }
+    }
+
+    // ==========================================================
+    //  SUPPORTO
+    // ==========================================================
+
+    private static void inizioCaricamento(VistaCaricamento vista) {
+        if (vista == null) {
+            return;
+        }
+        int n = IN_CORSO.getOrDefault(vista, 0);
+        IN_CORSO.put(vista, n + 1);
+        if (n == 0) {
+            vista.setInCaricamento(true);
+        }
+    }
+
+    private static void fineCaricamento(VistaCaricamento vista) {
+        if (vista == null) {
+            return;
+        }
+        int n = IN_CORSO.getOrDefault(vista, 0);
+        if (n <= 1) {
+            IN_CORSO.remove(vista);
+            vista.setInCaricamento(false);
+        } else {
+            IN_CORSO.put(vista, n - 1);
+        }
+    }
+
+    private static void suEdt(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            r.run();
+        } else {
+            SwingUtilities.invokeLater(r);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package controller;
 
 import action.HomeAction;
 
+import db.cache.CacheCliente;
+import db.cache.CacheCliente.Dato;
 import db.dao.AbbonamentoDAO;
 import db.dao.ConsulenzaDAO;
 import db.dao.corso.CorsoDAO;
@@ -19,6 +21,8 @@ import service.PanoramicaPalestraServiceIf;
 import view.*;
 import view.dialog.*;
 
+import java.time.LocalDateTime;
+
 public class HomeController implements HomeAction {
 
     private static final Logger logger =
@@ -61,26 +65,28 @@ public class HomeController implements HomeAction {
 
     /** Apertura schermata prenotazione corso (solo abbonamento CORSI). */
     public void handlePrenotaCorso() {
-        try {
-            if (!CorsoDAO.esistonoCorsi()) {
-                view.mostraMessaggioErrore(
-                        "Al momento non sono presenti corsi a catalogo.\n" +
-                        "Contatta la palestra per maggiori informazioni.");
-                return;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraMessaggioErrore(
-                    "Si è verificato un errore nel caricamento dei corsi.\n" +
-                    "Riprova più tardi.");
-            return;
-        }
-
-        view.dispose();
-
-        PrenotaCorsoView v = new PrenotaCorsoView(cliente);
-        new PrenotaCorsoController(v, cliente);
-        v.setVisible(true);
+        EsecutoreAsincrono.esegui(view,
+                CorsoDAO::esistonoCorsi,
+                esistono -> {
+                    if (!esistono) {
+                        view.mostraMessaggioErrore(
+                                "Al momento non sono presenti corsi a catalogo.\n" +
+                                "Contatta la palestra per maggiori informazioni.");
+                        return;
+                    }
+
+                    view.dispose();
+
+                    PrenotaCorsoView v = new PrenotaCorsoView(cliente);
+                    new PrenotaCorsoController(v, cliente);
+                    v.setVisible(true);
+                },
+                e -> {
+                    logger.error("Caricamento dei corsi non riuscito", e);
+                    view.mostraMessaggioErrore(
+                            "Si è verificato un errore nel caricamento dei corsi.\n" +
+                            "Riprova più tardi.");
+                });
     }
 
     /** Vedi dettaglio abbonamento. */
@@ -100,30 +106,36 @@ public class HomeController implements HomeAction {
 
     /** Vedi corsi prenotati */
     public void handleVediCorsi() {
-        try {
-            String testo = IscrizioneDAO.buildDettaglioIscrizioniPerCliente(cliente.getIdCliente());
-            view.setVisible(false);
-            view.mostraDettaglioCorsi(testo);
-            view.setVisible(true);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraMessaggioErrore("Errore nel caricamento dei corsi prenotati.");
-        }
+        EsecutoreAsincrono.esegui(view,
+                () -> IscrizioneDAO.formattaDettaglioIscrizioni(
+                        CacheCliente.leggi(cliente.getIdCliente(), Dato.DETTAGLIO_CORSI,
+                                () -> IscrizioneDAO.getDettaglioIscrizioniPerCliente(cliente.getIdCliente())),
+                        LocalDateTime.now()),
+                testo -> {
+                    view.setVisible(false);
+                    view.mostraDettaglioCorsi(testo);
+                    view.setVisible(true);
+                },
+                e -> {
+                    logger.error("Caricamento dei corsi prenotati non riuscito per il cliente {}", cliente.getIdCliente(), e);
+                    view.mostraMessaggioErrore("Errore nel caricamento dei corsi prenotati.");
+                });
     }
 
     /** Vedi consulenze prenotate */
     public void handleVediConsulenza() {
-        try {
-            String dettaglio = ConsulenzaDAO.buildDettaglioConsulenzePerCliente(cliente.getIdCliente());
-            view.setVisible(false);
-            view.mostraDettaglioConsulenza(dettaglio);
-            view.setVisible(true);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraMessaggioErrore("Errore nel caricamento delle consulenze.");
-        }
+        EsecutoreAsincrono.esegui(view,
+                () -> CacheCliente.leggi(cliente.getIdCliente(), Dato.DETTAGLIO_CONSULENZE,
+                        () -> ConsulenzaDAO.buildDettaglioConsulenzePerCliente(cliente.getIdCliente())),
+                dettaglio -> {
+                    view.setVisible(false);
+                    view.mostraDettaglioConsulenza(dettaglio);
+                    view.setVisible(true);
+                },
+                e -> {
+                    logger.error("Caricamento delle consulenze non riuscito per il cliente {}", cliente.getIdCliente(), e);
+                    view.mostraMessaggioErrore("Errore nel caricamento delle consulenze.");
+                });
     }
 
     /** Disdetta abbonamento (bloccata se ci sono consulenze o corsi futuri) */
@@ -134,27 +146,33 @@ public class HomeController implements HomeAction {
             return;
         }
 
-        try {
-            if (ConsulenzaDAO.esistonoConsulenzeFuturePerCliente(cliente.getIdCliente())) {
-                view.mostraMessaggioErrore(
-                        "Non puoi disdire l'abbonamento perché hai consulenze future prenotate.");
-                return;
-            }
-
-            if (IscrizioneDAO.esistonoIscrizioniFuturePerCliente(cliente.getIdCliente())) {
-                view.mostraMessaggioErrore(
-                        "Non puoi disdire l'abbonamento perché hai corsi futuri prenotati.");
-                return;
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraMessaggioErrore(
-                    "Errore nel controllo di consulenze/corsi futuri.\n" +
-                    "Riprova più tardi.");
-            return;
-        }
+        // 1) controllo impegni futuri fuori dall'EDT: null = nessun impedimento
+        EsecutoreAsincrono.esegui(view,
+                () -> {
+                    if (consulenzeFuture()) {
+                        return "Non puoi disdire l'abbonamento perché hai consulenze future prenotate.";
+                    }
+                    if (iscrizioniFuture()) {
+                        return "Non puoi disdire l'abbonamento perché hai corsi futuri prenotati.";
+                    }
+                    return null;
+                },
+                impedimento -> {
+                    if (impedimento != null) {
+                        view.mostraMessaggioErrore(impedimento);
+                        return;
+                    }
+                    confermaDisdetta();
+                },
+                e -> {
+                    logger.error("Controllo di consulenze/corsi futuri non riuscito per il cliente {}", cliente.getIdCliente(), e);
+                    view.mostraMessaggioErrore(
+                            "Errore nel controllo di consulenze/corsi futuri.\n" +
+                            "Riprova più tardi.");
+                });
+    }
 
+    private void confermaDisdetta() {
         boolean conferma = ThemedDialog.showConfirm(
                 view,
                 "Conferma disdetta",
@@ -163,28 +181,31 @@ public class HomeController implements HomeAction {
 
         if (!conferma) return;
 
-        try {
-            AbbonamentoDAO.disdiciAbbonamentoPerUsername(cliente.getUsername());
-            cliente.setAbbonamento(null);
-
-            view.mostraMessaggioInfo("Abbonamento disdetto con successo.");
-            logger.info("Abbonamento disdetto per utente {}", cliente.getUsername());
-
-            SelezionaAbbonamentoView sView = new SelezionaAbbonamentoView(cliente);
-            new SelezionaAbbonamentoController(sView, cliente);
-            sView.setVisible(true);
-            view.dispose();
-
-        } catch (Exception e) {
-            logger.error("Errore durante la disdetta per utente {}", cliente.getUsername(), e);
-            view.mostraMessaggioErrore(
-                    "Si è verificato un errore durante la disdetta dell’abbonamento.");
-        }
+        // 2) disdetta vera e propria
+        EsecutoreAsincrono.eseguiAzione(view,
+                () -> AbbonamentoDAO.disdiciAbbonamentoPerUsername(cliente.getUsername()),
+                () -> {
+                    cliente.setAbbonamento(null);
+
+                    view.mostraMessaggioInfo("Abbonamento disdetto con successo.");
+                    logger.info("Abbonamento disdetto per utente {}", cliente.getUsername());
+
+                    SelezionaAbbonamentoView sView = new SelezionaAbbonamentoView(cliente);
+                    new SelezionaAbbonamentoController(sView, cliente);
+                    sView.setVisible(true);
+                    view.dispose();
+                },
+                e -> {
+                    logger.error("Errore durante la disdetta per utente {}", cliente.getUsername(), e);
+                    view.mostraMessaggioErrore(
+                            "Si è verificato un errore durante la disdetta dell’abbonamento.");
+                });
     }
 
     /** Logout utente */
     public void handleLogout() {
         logger.info("Logout utente {}", cliente.getUsername());
+        CacheCliente.chiudiSessione(cliente.getIdCliente());
         view.dispose();
 
         LoginView loginView = new LoginView();
@@ -194,40 +215,54 @@ public class HomeController implements HomeAction {
 
     /** Apertura dialog disdetta consulenza */
     public void handleApriDisdettaConsulenza() {
-        try {
-            if (!ConsulenzaDAO.esistonoConsulenzeFuturePerCliente(cliente.getIdCliente())) {
-                view.mostraMessaggioInfo("Non hai consulenze future prenotate da poter disdire.");
-                return;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraMessaggioErrore(
-                    "Errore nel caricamento delle consulenze future.\n" +
-                    "Riprova più tardi.");
-            return;
-        }
-
-        DisdiciConsulenzaDialog dialog = new DisdiciConsulenzaDialog(view, cliente);
-        dialog.setVisible(true);
+        EsecutoreAsincrono.esegui(view,
+                this::consulenzeFuture,
+                esistono -> {
+                    if (!esistono) {
+                        view.mostraMessaggioInfo("Non hai consulenze future prenotate da poter disdire.");
+                        return;
+                    }
+                    DisdiciConsulenzaDialog dialog = new DisdiciConsulenzaDialog(view, cliente);
+                    dialog.setVisible(true);
+                },
+                e -> {
+                    logger.error("Caricamento delle consulenze future non riuscito per il cliente {}", cliente.getIdCliente(), e);
+                    view.mostraMessaggioErrore(
+                            "Errore nel caricamento delle consulenze future.\n" +
+                            "Riprova più tardi.");
+                });
     }
 
     /** Apertura dialog disdetta corso */
     public void handleApriDisdettaCorso() {
-        try {
-            if (!IscrizioneDAO.esistonoIscrizioniFuturePerCliente(cliente.getIdCliente())) {
-                view.mostraMessaggioInfo("Non hai corsi futuri prenotati da poter disdire.");
-                return;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraMessaggioErrore(
-                    "Errore nel caricamento dei corsi prenotati.\n" +
-                    "Riprova più tardi.");
-            return;
-        }
+        EsecutoreAsincrono.esegui(view,
+                this::iscrizioniFuture,
+                esistono -> {
+                    if (!esistono) {
+                        view.mostraMessaggioInfo("Non hai corsi futuri prenotati da poter disdire.");
+                        return;
+                    }
+                    DisdiciCorsoDialog dialog = new DisdiciCorsoDialog(view, cliente);
+                    dialog.setVisible(true);
+                },
+                e -> {
+                    logger.error("Caricamento dei corsi futuri non riuscito per il cliente {}", cliente.getIdCliente(), e);
+                    view.mostraMessaggioErrore(
+                            "Errore nel caricamento dei corsi prenotati.\n" +
+                            "Riprova più tardi.");
+                });
+    }
+
+    // ====== letture dalla cache di sessione (fuori dall'EDT) ======
 
-        DisdiciCorsoDialog dialog = new DisdiciCorsoDialog(view, cliente);
-        dialog.setVisible(true);
+    private boolean consulenzeFuture() throws Exception {
+        return CacheCliente.leggi(cliente.getIdCliente(), Dato.CONSULENZE_FUTURE,
+                () -> ConsulenzaDAO.esistonoConsulenzeFuturePerCliente(cliente.getIdCliente()));
+    }
+
+    private boolean iscrizioniFuture() throws Exception {
+        return CacheCliente.leggi(cliente.getIdCliente(), Dato.ISCRIZIONI_FUTURE,
+                () -> IscrizioneDAO.esistonoIscrizioniFuturePerCliente(cliente.getIdCliente()));
     }
 
     public void handlePanoramicaPalestra() {
@@ -239,25 +274,25 @@ public class HomeController implements HomeAction {
             return;
         }
 
-        try {
-            String testo = panoramicaService.generaPanoramica(cliente);
-
-            if (testo == null || testo.isEmpty()) {
-                view.mostraMessaggioInfo(
-                        "Per il tuo tipo di abbonamento non è disponibile alcuna area da visualizzare.");
-                return;
-            }
-
-            view.setVisible(false);
-            view.mostraPanoramicaPalestra(testo);
-            view.setVisible(true);
-
-        } catch (Exception e) {
-            logger.error("Errore nel caricamento panoramica palestra per utente {}",
-                    cliente.getUsername(), e);
-            view.mostraMessaggioErrore(
-                    "Si è verificato un errore nel caricamento della panoramica palestra.\n" +
-                    "Riprova più tardi.");
-        }
+        EsecutoreAsincrono.esegui(view,
+                () -> panoramicaService.generaPanoramica(cliente),
+                testo -> {
+                    if (testo == null || testo.isEmpty()) {
+                        view.mostraMessaggioInfo(
+                                "Per il tuo tipo di abbonamento non è disponibile alcuna area da visualizzare.");
+                        return;
+                    }
+
+                    view.setVisible(false);
+                    view.mostraPanoramicaPalestra(testo);
+                    view.setVisible(true);
+                },
+                e -> {
+                    logger.error("Errore nel caricamento panoramica palestra per utente {}",
+                            cliente.getUsername(), e);
+                    view.mostraMessaggioErrore(
+                            "Si è verificato un errore nel caricamento della panoramica palestra.\n" +
+                            "Riprova più tardi.");
+                });
     }
 }
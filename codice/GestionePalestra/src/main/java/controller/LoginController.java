@@ -40,32 +40,37 @@ public class LoginController implements LoginActions {
             return;
         }
 
-        try {
-            Cliente cliente = service.autentica(username, password);
-            Abbonamento abb = cliente.getAbbonamento();
-
-            if (abb != null) {
-                view.mostraMessaggioInfo("Benvenuto, accesso effettuato. Abbonamento attivo trovato.");
-                view.dispose();
-
-                HomeView hView = new HomeView(cliente);
-                new HomeController(hView, cliente);
-                hView.setVisible(true);
-
-            } else {
-                view.mostraMessaggioInfo("Accesso effettuato. Nessun abbonamento attivo, selezionane uno.");
-                view.dispose();
-
-                SelezionaAbbonamentoView sView = new SelezionaAbbonamentoView(cliente);
-                new SelezionaAbbonamentoController(sView, cliente);
-                sView.setVisible(true);
-            }
-
-        } catch (LoginException e) {
-            view.mostraMessaggioErrore(e.getMessage());
-        } catch (Exception e) {
-            logger.error("Errore inatteso durante il login di {}", username, e);
-            view.mostraMessaggioErrore("Errore di sistema durante il login. Riprova più tardi.");
+        EsecutoreAsincrono.esegui(view,
+                () -> service.autentica(username, password),
+                this::apriAreaCliente,
+                e -> {
+                    if (e instanceof LoginException) {
+                        view.mostraMessaggioErrore(e.getMessage());
+                    } else {
+                        logger.error("Errore inatteso durante il login di {}", username, e);
+                        view.mostraMessaggioErrore("Errore di sistema durante il login. Riprova più tardi.");
+                    }
+                });
+    }
+
+    private void apriAreaCliente(Cliente cliente) {
+        Abbonamento abb = cliente.getAbbonamento();
+
+        if (abb != null) {
+            view.mostraMessaggioInfo("Benvenuto, accesso effettuato. Abbonamento attivo trovato.");
+            view.dispose();
+
+            HomeView hView = new HomeView(cliente);
+            new HomeController(hView, cliente);
+            hView.setVisible(true);
+
+        } else {
+            view.mostraMessaggioInfo("Accesso effettuato. Nessun abbonamento attivo, selezionane uno.");
+            view.dispose();
+
+            SelezionaAbbonamentoView sView = new SelezionaAbbonamentoView(cliente);
+            new SelezionaAbbonamentoController(sView, cliente);
+            sView.setVisible(true);
         }
     }
 
@@ -82,14 +87,22 @@ public class LoginController implements LoginActions {
             return;
         }
 
-        String codiceGenerato;
-        try {
-            codiceGenerato = service.creaTokenReset(email);
-        } catch (PasswordResetException e) {
-            view.mostraMessaggioErrore(e.getMessage());
-            return;
-        }
+        final String emailReset = email;
+        EsecutoreAsincrono.esegui(view,
+                () -> service.creaTokenReset(emailReset),
+                this::completaResetPassword,
+                e -> {
+                    if (e instanceof PasswordResetException) {
+                        view.mostraMessaggioErrore(e.getMessage());
+                    } else {
+                        logger.error("Errore inatteso durante la richiesta di reset password", e);
+                        view.mostraMessaggioErrore(
+                                "Errore di sistema durante il reset della password. Riprova più tardi.");
+                    }
+                });
+    }
 
+    private void completaResetPassword(String codiceGenerato) {
         StringBuilder msg = new StringBuilder(
                 "Ti è stato inviato un codice di reset all'email indicata.\n");
         if (codiceGenerato != null) {
@@ -119,17 +132,19 @@ public class LoginController implements LoginActions {
             return;
         }
 
-        try {
-            service.resetPasswordConToken(codiceInserito, nuovaPass);
-            view.mostraMessaggioInfo(
-                    "Password aggiornata con successo. Ora puoi effettuare il login.");
-        } catch (PasswordResetException e) {
-            view.mostraMessaggioErrore(e.getMessage());
-        } catch (Exception e) {
-            logger.error("Errore inatteso durante il reset password", e);
-            view.mostraMessaggioErrore(
-                    "Errore di sistema durante il reset della password. Riprova più tardi.");
-        }
+        EsecutoreAsincrono.eseguiAzione(view,
+                () -> service.resetPasswordConToken(codiceInserito, nuovaPass),
+                () -> view.mostraMessaggioInfo(
+                        "Password aggiornata con successo. Ora puoi effettuare il login."),
+                e -> {
+                    if (e instanceof PasswordResetException) {
+                        view.mostraMessaggioErrore(e.getMessage());
+                    } else {
+                        logger.error("Errore inatteso durante il reset password", e);
+                        view.mostraMessaggioErrore(
+                                "Errore di sistema durante il reset della password. Riprova più tardi.");
+                    }
+                });
     }
 
     // ====================== REGISTRAZIONE ======================
@@ -34,41 +34,46 @@ public class PagamentoController implements PagamentoAction {
 
     @Override
     public void handlePaga(String metodo) {
-        try {
-            // 1) crea pagamento in memoria
-            Pagamento pagamento = new Pagamento(metodo, abbonamento.getPrezzo(), new Date());
-            pagamento.pagamentoEffettuato();
-
-            // 2) collega abbonamento + pagamento al cliente (in memoria)
-            cliente.sottoscriviAbbonamento(abbonamento, pagamento);
-
-            // 3) persistenza su DB: ABBONAMENTO + PAGAMENTO
-            if (cliente.getIdCliente() <= 0) {
-                logger.warn("ID cliente non valido ({}): impossibile salvare su DB", cliente.getIdCliente());
-            } else {
-                AbbonamentoDAO.salvaAbbonamento(abbonamento, cliente.getIdCliente());
-
-                PagamentoDAO.salvaPagamento(
-                        pagamento,
-                        cliente.getIdCliente(),
-                        abbonamento.getIdAbbonamento()
-                );
-            }
-
-            logger.info("Pagamento completato per utente {}. Abbonamento {}",
-                    cliente.getUsername(), abbonamento.getTipo());
-
-            view.mostraMessaggioInfo("Pagamento completato con successo!\nAbbonamento attivato.");
-            view.dispose();
-
-            HomeView hView = new HomeView(cliente);
-            new HomeController(hView, cliente);
-            hView.setVisible(true);
-
-        } catch (Exception e) {
-            logger.error("Errore durante il pagamento", e);
-            view.mostraMessaggioErrore("Errore di sistema durante il pagamento. Riprova più tardi.");
+        // 1) crea pagamento in memoria
+        Pagamento pagamento = new Pagamento(metodo, abbonamento.getPrezzo(), new Date());
+        pagamento.pagamentoEffettuato();
+
+        // 2) collega abbonamento + pagamento al cliente (in memoria)
+        cliente.sottoscriviAbbonamento(abbonamento, pagamento);
+
+        // 3) persistenza su DB: ABBONAMENTO + PAGAMENTO (fuori dall'EDT)
+        EsecutoreAsincrono.eseguiAzione(view,
+                () -> salva(pagamento),
+                () -> {
+                    logger.info("Pagamento completato per utente {}. Abbonamento {}",
+                            cliente.getUsername(), abbonamento.getTipo());
+
+                    view.mostraMessaggioInfo("Pagamento completato con successo!\nAbbonamento attivato.");
+                    view.dispose();
+
+                    HomeView hView = new HomeView(cliente);
+                    new HomeController(hView, cliente);
+                    hView.setVisible(true);
+                },
+                e -> {
+                    logger.error("Errore durante il pagamento", e);
+                    view.mostraMessaggioErrore("Errore di sistema durante il pagamento. Riprova più tardi.");
+                });
+    }
+
+    private void salva(Pagamento pagamento) throws Exception {
+        if (cliente.getIdCliente() <= 0) {
+            logger.warn("ID cliente non valido ({}): impossibile salvare su DB", cliente.getIdCliente());
+            return;
         }
+
+        AbbonamentoDAO.salvaAbbonamento(abbonamento, cliente.getIdCliente());
+
+        PagamentoDAO.salvaPagamento(
+                pagamento,
+                cliente.getIdCliente(),
+                abbonamento.getIdAbbonamento()
+        );
     }
 
     @Override
@@ -7,6 +7,9 @@ import db.dao.DipendenteDAO;
 import db.dao.DipendenteDAO.DipendenteInfo;
 import model.Cliente;
 import model.Consulenza;
+import model.SlotLibero;
+import service.SlotLiberiService;
+import service.SlotLiberiServiceIf;
 import view.HomeView;
 import view.PrenotaConsulenzaView;
 import view.dialog.ThemedDialog;
@@ -18,12 +21,29 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 public class PrenotaConsulenzaController implements PrenotaConsulenzaAction {
 
+    private static final Logger logger =
+            LogManager.getLogger(PrenotaConsulenzaController.class);
+
     private final PrenotaConsulenzaViewContract view;
     private final Cliente cliente;
 
+    private static final int SLOT_PROPOSTI = 10;
+    private static final int GIORNI_RICERCA_SLOT = 14;
+
     private final Map<String, Integer> mappaDipendenti = new HashMap<>();
+    private final SlotLiberiServiceIf slotLiberiService = new SlotLiberiService();
+
+    // esito dei controlli svolti in background prima dell'inserimento
+    private enum EsitoPrenotazione { PRENOTATA, NON_DISPONIBILE, CONFLITTO }
+
+    // caricamenti legati alla selezione corrente: una nuova selezione li rende obsoleti
+    private EsecutoreAsincrono.Operazione caricamentoDipendenti;
+    private EsecutoreAsincrono.Operazione caricamentoDescrizione;
 
     public PrenotaConsulenzaController(PrenotaConsulenzaViewContract view, Cliente cliente) {
         this.view = view;
@@ -73,31 +93,37 @@ public class PrenotaConsulenzaController implements PrenotaConsulenzaAction {
 
         view.setDescrizioneTipo(descr);
 
-        try {
-            List<DipendenteInfo> lista = DipendenteDAO.findByRuolo(ruoloDb);
-            mappaDipendenti.clear();
-
-            String[] nomi = new String[lista.size()];
-            for (int i = 0; i < lista.size(); i++) {
-                DipendenteInfo info = lista.get(i);
-                nomi[i] = info.nomeCompleto;
-                mappaDipendenti.put(info.nomeCompleto, info.id);
-            }
+        annulla(caricamentoDipendenti);
+        caricamentoDipendenti = EsecutoreAsincrono.esegui(view,
+                () -> DipendenteDAO.findByRuolo(ruoloDb),
+                this::mostraDipendenti,
+                e -> {
+                    logger.error("Caricamento dei dipendenti ({}) non riuscito", ruoloDb, e);
+                    ThemedDialog.showMessage(view.asWindow(),
+                            "Errore",
+                            "Errore nel caricamento dei dipendenti dal database.",
+                            true);
+                });
+    }
 
-            view.setDipendenti(nomi);
-            view.setDescrizioneDipendente("");
+    private void mostraDipendenti(List<DipendenteInfo> lista) {
+        mappaDipendenti.clear();
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            ThemedDialog.showMessage(view.asWindow(),
-                    "Errore",
-                    "Errore nel caricamento dei dipendenti dal database.",
-                    true);
+        String[] nomi = new String[lista.size()];
+        for (int i = 0; i < lista.size(); i++) {
+            DipendenteInfo info = lista.get(i);
+            nomi[i] = info.nomeCompleto;
+            mappaDipendenti.put(info.nomeCompleto, info.id);
         }
+
+        view.setDipendenti(nomi);
+        view.setDescrizioneDipendente("");
     }
 
     @Override
     public void handleDipendenteSelezionato(String nomeCompleto) {
+        annulla(caricamentoDescrizione);
+
         if (nomeCompleto == null || nomeCompleto.isEmpty()) {
             view.setDescrizioneDipendente("");
             return;
@@ -109,14 +135,59 @@ public class PrenotaConsulenzaController implements PrenotaConsulenzaAction {
             return;
         }
 
-        try {
-            String descr = DipendenteDAO.getDescrizioneDipendente(idDip);
-            view.setDescrizioneDipendente(descr);
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.setDescrizioneDipendente(
-                    "Impossibile caricare i dettagli del dipendente selezionato.");
+        caricamentoDescrizione = EsecutoreAsincrono.esegui(view,
+                () -> DipendenteDAO.getDescrizioneDipendente(idDip),
+                view::setDescrizioneDipendente,
+                e -> {
+                    logger.error("Caricamento della descrizione del dipendente {} non riuscito", idDip, e);
+                    view.setDescrizioneDipendente(
+                            "Impossibile caricare i dettagli del dipendente selezionato.");
+                });
+    }
+
+    @Override
+    public void handleCercaSlotLiberi() {
+        String tipo = view.getTipoSelezionato();
+        LocalDate oggi = LocalDate.now();
+
+        EsecutoreAsincrono.esegui(view,
+                () -> slotLiberiService.cercaSlotLiberi(
+                        tipo, cliente.getIdCliente(), oggi, oggi.plusDays(GIORNI_RICERCA_SLOT), SLOT_PROPOSTI),
+                this::proponiSlot,
+                e -> {
+                    logger.error("Ricerca degli orari liberi non riuscita per il cliente {}", cliente.getIdCliente(), e);
+                    ThemedDialog.showMessage(view.asWindow(),
+                            "Errore",
+                            "Errore durante la ricerca degli orari liberi.",
+                            true);
+                });
+    }
+
+    private void proponiSlot(List<SlotLibero> slot) {
+        if (slot.isEmpty()) {
+            ThemedDialog.showMessage(view.asWindow(),
+                    "Info",
+                    "Nessun orario libero nei prossimi " + GIORNI_RICERCA_SLOT + " giorni\n" +
+                    "per questo tipo di consulenza.",
+                    false);
+            return;
+        }
+
+        String[] opzioni = new String[slot.size()];
+        for (int i = 0; i < slot.size(); i++) {
+            opzioni[i] = slot.get(i).toString();
         }
+
+        int scelta = view.scegliOpzione("Orari liberi",
+                "Primi orari disponibili. Scegline uno per compilare la prenotazione.",
+                opzioni);
+        if (scelta < 0) {
+            return;
+        }
+
+        SlotLibero s = slot.get(scelta);
+        view.setDataOra(s.getData().toString(), s.getOra().toString());
+        view.selezionaDipendente(s.getNomeDipendente());
     }
 
     @Override
@@ -157,70 +228,91 @@ public class PrenotaConsulenzaController implements PrenotaConsulenzaAction {
             return;
         }
 
-        try {
-            // ==========================================================
-            //  NUOVO CONTROLLO: disponibilità del dipendente (ORARIO_DISP)
-            // ==========================================================
-            int durata = ConsulenzaDAO.durataStimataMinuti(tipo);
-            if (!DipendenteDAO.isDisponibile(idDip, data, ora, durata)) {
-                ThemedDialog.showMessage(view.asWindow(),
-                        "Errore",
-                        "Il professionista selezionato non è disponibile in quell'orario.\n" +
-                        "Seleziona una fascia compatibile con la sua disponibilità.",
-                        true);
-                return;
-            }
-
-            // ==========================================================
-            //  CONTROLLO CONFLITTO: sovrapposizione con consulenze esistenti
-            // ==========================================================
-            if (ConsulenzaDAO.esisteConflitto(
-                    cliente.getIdCliente(), idDip, tipo, data, ora)) {
-
-                ThemedDialog.showMessage(view.asWindow(),
-                        "Errore",
-                        "Esiste già una consulenza nello stesso intervallo orario\n" +
-                        "per il cliente o per il professionista selezionato.\n" +
-                        "Modifica l'orario o il giorno della nuova prenotazione.",
-                        true);
-                return;
-            }
-
-            Consulenza nuova = new Consulenza(
-                    cliente.getIdCliente(),
-                    idDip,
-                    tipo,
-                    data,
-                    ora,
-                    note
-            );
-            ConsulenzaDAO.inserisci(nuova);
-
-            ThemedDialog.showMessage(view.asWindow(),
-                    "Info",
-                    "Consulenza prenotata con successo.\n\n" + nuova,
-                    false);
+        Consulenza nuova = new Consulenza(
+                cliente.getIdCliente(),
+                idDip,
+                tipo,
+                data,
+                ora,
+                note
+        );
+
+        EsecutoreAsincrono.esegui(view,
+                () -> prenota(nuova),
+                esito -> {
+                    switch (esito) {
+                        case NON_DISPONIBILE:
+                            ThemedDialog.showMessage(view.asWindow(),
+                                    "Errore",
+                                    "Il professionista selezionato non è disponibile in quell'orario.\n" +
+                                    "Seleziona una fascia compatibile con la sua disponibilità.",
+                                    true);
+                            return;
+                        case CONFLITTO:
+                            ThemedDialog.showMessage(view.asWindow(),
+                                    "Errore",
+                                    "Esiste già una consulenza nello stesso intervallo orario\n" +
+                                    "per il cliente o per il professionista selezionato.\n" +
+                                    "Modifica l'orario o il giorno della nuova prenotazione.",
+                                    true);
+                            return;
+                        default:
+                            break;
+                    }
+
+                    ThemedDialog.showMessage(view.asWindow(),
+                            "Info",
+                            "Consulenza prenotata con successo.\n\n" + nuova,
+                            false);
+
+                    view.dispose();
+                    HomeView home = new HomeView(cliente);
+                    new HomeController(home, cliente);
+                    home.setVisible(true);
+                },
+                e -> {
+                    logger.error("Salvataggio della consulenza non riuscito per il cliente {}", cliente.getIdCliente(), e);
+                    ThemedDialog.showMessage(view.asWindow(),
+                            "Errore",
+                            "Si è verificato un errore durante il salvataggio della consulenza.",
+                            true);
+                });
+    }
 
-            view.dispose();
-            HomeView home = new HomeView(cliente);
-            new HomeController(home, cliente);
-            home.setVisible(true);
+    /** Controlli e inserimento: gira fuori dall'EDT, non tocca la view. */
+    private EsitoPrenotazione prenota(Consulenza nuova) throws Exception {
+        // ==========================================================
+        //  NUOVO CONTROLLO: disponibilità del dipendente (ORARIO_DISP)
+        // ==========================================================
+        int durata = ConsulenzaDAO.durataStimataMinuti(nuova.getTipo());
+        if (!DipendenteDAO.isDisponibile(nuova.getIdDipendente(), nuova.getData(), nuova.getOra(), durata)) {
+            return EsitoPrenotazione.NON_DISPONIBILE;
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            ThemedDialog.showMessage(view.asWindow(),
-                    "Errore",
-                    "Si è verificato un errore durante il salvataggio della consulenza.",
-                    true);
+        // ==========================================================
+        //  INSERIMENTO: il controllo dei conflitti con le consulenze
+        //  esistenti avviene nella stessa transazione
+        // ==========================================================
+        if (!ConsulenzaDAO.inserisci(nuova)) {
+            return EsitoPrenotazione.CONFLITTO;
         }
+        return EsitoPrenotazione.PRENOTATA;
     }
 
     @Override
     public void handleAnnulla() {
+        annulla(caricamentoDipendenti);
+        annulla(caricamentoDescrizione);
         view.dispose();
 
         HomeView home = new HomeView(cliente);
         new HomeController(home, cliente);
         home.setVisible(true);
     }
+
+    private static void annulla(EsecutoreAsincrono.Operazione op) {
+        if (op != null) {
+            op.annulla();
+        }
+    }
 }
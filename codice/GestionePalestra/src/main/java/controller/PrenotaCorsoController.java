@@ -4,26 +4,35 @@ import action.PrenotaCorsoAction;
 import action.PrenotaCorsoViewContract;
 import model.Cliente;
 import model.corsi.CorsoInfo;
+import model.corsi.EsitoIscrizione;
 import model.corsi.LezioneInfo;
 import view.HomeView;
 
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import db.dao.corso.CorsoDAO;
 import db.dao.corso.IscrizioneDAO;
 import db.dao.corso.LezioneDAO;
+import db.dao.corso.ListaAttesaDAO;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class PrenotaCorsoController implements PrenotaCorsoAction {
 
+    private static final Logger logger =
+            LogManager.getLogger(PrenotaCorsoController.class);
+
     private final PrenotaCorsoViewContract view;
     private final Cliente cliente;
 
     private final List<CorsoInfo> corsi = new ArrayList<>();
     private final List<LezioneInfo> lezioniCorsoSelezionato = new ArrayList<>();
 
+    // caricamento lezioni in corso: una nuova selezione lo rende obsoleto
+    private EsecutoreAsincrono.Operazione caricamentoLezioni;
+
     public PrenotaCorsoController(PrenotaCorsoViewContract view, Cliente cliente) {
         this.view = view;
         this.cliente = cliente;
@@ -35,37 +44,34 @@ public class PrenotaCorsoController implements PrenotaCorsoAction {
     }
 
     private void caricaCorsi() {
-        try {
-            LezioneDAO.aggiornaDateLezioniAllaSettimanaCorrente();
-        } catch (Exception e) {
-            // non blocco tutto: al massimo i dati saranno meno “puliti”
-            e.printStackTrace();
-        }
-
-        try {
-            corsi.clear();
-            corsi.addAll(CorsoDAO.getTuttiICorsi());
-
-            String[] nomi = corsi.stream()
-                    .map(c -> c.nome)
-                    .toArray(String[]::new);
-
-            view.setCorsi(nomi);
-
-            if (!corsi.isEmpty()) {
-                view.setDescrizioneCorso(corsi.get(0).descrizione +
-                        "\n\nDurata: " + corsi.get(0).durataMinuti + " minuti.");
-                onCorsoSelezionato(0);
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraErrore("Errore", "Errore nel caricamento dei corsi dal database.");
-        }
+        EsecutoreAsincrono.esegui(view,
+                CorsoDAO::getTuttiICorsi,
+                trovati -> {
+                    corsi.clear();
+                    corsi.addAll(trovati);
+
+                    String[] nomi = corsi.stream()
+                            .map(c -> c.nome)
+                            .toArray(String[]::new);
+
+                    view.setCorsi(nomi);
+
+                    if (!corsi.isEmpty()) {
+                        view.setDescrizioneCorso(corsi.get(0).descrizione +
+                                "\n\nDurata: " + corsi.get(0).durataMinuti + " minuti.");
+                        onCorsoSelezionato(0);
+                    }
+                },
+                e -> {
+                    logger.error("Caricamento del catalogo corsi non riuscito", e);
+                    view.mostraErrore("Errore", "Errore nel caricamento dei corsi dal database.");
+                });
     }
 
     @Override
     public void onCorsoSelezionato(int index) {
+        annullaCaricamentoLezioni();
+
         if (index < 0 || index >= corsi.size()) {
             view.setDescrizioneCorso("");
             view.setLezioni(new String[0]);
@@ -79,25 +85,35 @@ public class PrenotaCorsoController implements PrenotaCorsoAction {
                 "\n\nDurata: " + corso.durataMinuti + " minuti.";
         view.setDescrizioneCorso(descrEstesa);
 
-        try {
-            lezioniCorsoSelezionato.clear();
-            lezioniCorsoSelezionato.addAll(
-                    LezioneDAO.getLezioniPerCorso(corso.idCorso)
-            );
-
-            String[] righe = lezioniCorsoSelezionato.stream()
-                    .map(l -> String.format(
-                            "%s ore %s - Istruttore: %s - Posti rimanenti: %d",
-                            l.data, l.ora, l.nomeIstruttore, l.postiDisponibili()))
-                    .toArray(String[]::new);
-
-            view.setLezioni(righe);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraErrore("Errore",
-                    "Errore nel caricamento delle lezioni per il corso selezionato.");
-            view.setLezioni(new String[0]);
+        // finché non arrivano le nuove lezioni non deve restare selezionabile quelle del corso precedente
+        lezioniCorsoSelezionato.clear();
+        view.setLezioni(new String[0]);
+
+        caricamentoLezioni = EsecutoreAsincrono.esegui(view,
+                () -> LezioneDAO.getLezioniPerCorso(corso.idCorso),
+                lezioni -> {
+                    lezioniCorsoSelezionato.addAll(lezioni);
+
+                    String[] righe = lezioniCorsoSelezionato.stream()
+                            .map(l -> String.format(
+                                    "%s ore %s - Istruttore: %s - Posti rimanenti: %d",
+                                    l.data, l.ora, l.nomeIstruttore, l.postiDisponibili()))
+                            .toArray(String[]::new);
+
+                    view.setLezioni(righe);
+                },
+                e -> {
+                    logger.error("Caricamento delle lezioni del corso non riuscito", e);
+                    view.mostraErrore("Errore",
+                            "Errore nel caricamento delle lezioni per il corso selezionato.");
+                    view.setLezioni(new String[0]);
+                });
+    }
+
+    private void annullaCaricamentoLezioni() {
+        if (caricamentoLezioni != null) {
+            caricamentoLezioni.annulla();
+            caricamentoLezioni = null;
         }
     }
 
@@ -118,50 +134,78 @@ public class PrenotaCorsoController implements PrenotaCorsoAction {
         CorsoInfo corso = corsi.get(idxCorso);
         LezioneInfo lezione = lezioniCorsoSelezionato.get(idxLezione);
 
-        try {
-            if (!IscrizioneDAO.haPostiDisponibili(lezione.idLezione)) {
-                view.mostraErrore("Posti esauriti",
-                        "Per questa data del corso i posti sono terminati.\nSeleziona un altro orario.");
+        // posti e conflitti sono verificati dal DAO nella stessa transazione della prenotazione
+        EsecutoreAsincrono.esegui(view,
+                () -> IscrizioneDAO.iscriviClienteALezione(cliente.getIdCliente(), lezione.idLezione),
+                esito -> gestisciEsitoIscrizione(esito, idxCorso, corso, lezione),
+                e -> {
+                    logger.error("Iscrizione del cliente {} alla lezione {} non riuscita", cliente.getIdCliente(), lezione.idLezione, e);
+                    view.mostraErrore("Errore",
+                            "Si è verificato un errore durante l'iscrizione al corso.");
+                });
+    }
+
+    private void gestisciEsitoIscrizione(EsitoIscrizione esito, int idxCorso,
+                                         CorsoInfo corso, LezioneInfo lezione) {
+        switch (esito) {
+            case POSTI_ESAURITI:
+                proponiListaAttesa(lezione);
                 onCorsoSelezionato(idxCorso);
                 return;
-            }
-
-            LocalDate data = lezione.data;
-            LocalTime ora  = lezione.ora;
-            int durata     = lezione.durataMinuti;
-
-            if (IscrizioneDAO.esisteConflittoPerCliente(
-                    cliente.getIdCliente(), data, ora, durata)) {
-
+            case CONFLITTO_ORARIO:
                 view.mostraErrore("Conflitto orario",
                         "Hai già un altro corso prenotato in questo intervallo di tempo.\nScegli un orario differente.");
                 return;
-            }
-
-            IscrizioneDAO.iscriviClienteALezione(cliente.getIdCliente(), lezione.idLezione);
+            case GIA_ISCRITTO:
+                view.mostraErrore("Già iscritto",
+                        "Risulti già iscritto a questa lezione.");
+                return;
+            case LEZIONE_INESISTENTE:
+                view.mostraErrore("Lezione non disponibile",
+                        "La lezione selezionata non è più disponibile.\nSeleziona un altro orario.");
+                onCorsoSelezionato(idxCorso);
+                return;
+            default:
+                break;
+        }
 
-            String msg = String.format(
-                    "Iscrizione completata.\n\nCorso: %s\nData: %s ore %s\nIstruttore: %s\nDurata: %d minuti",
-                    corso.nome, lezione.data, lezione.ora,
-                    lezione.nomeIstruttore, lezione.durataMinuti
-            );
+        String msg = String.format(
+                "Iscrizione completata.\n\nCorso: %s\nData: %s ore %s\nIstruttore: %s\nDurata: %d minuti",
+                corso.nome, lezione.data, lezione.ora,
+                lezione.nomeIstruttore, lezione.durataMinuti
+        );
 
-            view.mostraInfo("Info", msg);
+        view.mostraInfo("Info", msg);
 
-            view.close();
-            HomeView home = new HomeView(cliente);
-            new HomeController(home, cliente);
-            home.setVisible(true);
+        view.close();
+        HomeView home = new HomeView(cliente);
+        new HomeController(home, cliente);
+        home.setVisible(true);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            view.mostraErrore("Errore",
-                    "Si è verificato un errore durante l'iscrizione al corso.");
+    private void proponiListaAttesa(LezioneInfo lezione) {
+        boolean conferma = view.chiediConferma("Posti esauriti",
+                "Per questa data del corso i posti sono terminati.\n" +
+                "Vuoi entrare in lista d'attesa? Se si libera un posto verrai iscritto automaticamente.");
+        if (!conferma) {
+            return;
         }
+
+        EsecutoreAsincrono.esegui(view,
+                () -> ListaAttesaDAO.inserisciInListaAttesa(cliente.getIdCliente(), lezione.idLezione),
+                posizione -> view.mostraInfo("Lista d'attesa",
+                        String.format("Sei in lista d'attesa per la lezione del %s ore %s.\nPosizione in coda: %d",
+                                lezione.data, lezione.ora, posizione)),
+                e -> {
+                    logger.error("Inserimento in lista d'attesa del cliente {} per la lezione {} non riuscito", cliente.getIdCliente(), lezione.idLezione, e);
+                    view.mostraErrore("Errore",
+                            "Si è verificato un errore durante l'inserimento in lista d'attesa.");
+                });
     }
 
     @Override
     public void onAnnulla() {
+        annullaCaricamentoLezioni();
         view.close();
         HomeView home = new HomeView(cliente);
         new HomeController(home, cliente);
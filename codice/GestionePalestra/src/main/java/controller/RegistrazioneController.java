@@ -34,20 +34,22 @@ public class RegistrazioneController implements RegistrazioneActions {
                               String iban,
                               String email) {
 
-        try {
-            service.registraNuovoCliente(username, password, nome, cognome,
-                    cf, luogoNascita, dataNascita, iban, email);
-
-            view.mostraMessaggioInfo("Registrazione completata con successo!");
-            apriLogin();
-
-        } catch (RegistrazioneException e) {
-            view.mostraMessaggioErrore(e.getMessage());
-        } catch (Exception e) {
-            logger.error("Errore inatteso durante la registrazione", e);
-            view.mostraMessaggioErrore(
-                    "Errore di sistema durante la registrazione. Riprova più tardi.");
-        }
+        EsecutoreAsincrono.eseguiAzione(view,
+                () -> service.registraNuovoCliente(username, password, nome, cognome,
+                        cf, luogoNascita, dataNascita, iban, email),
+                () -> {
+                    view.mostraMessaggioInfo("Registrazione completata con successo!");
+                    apriLogin();
+                },
+                e -> {
+                    if (e instanceof RegistrazioneException) {
+                        view.mostraMessaggioErrore(e.getMessage());
+                    } else {
+                        logger.error("Errore inatteso durante la registrazione", e);
+                        view.mostraMessaggioErrore(
+                                "Errore di sistema durante la registrazione. Riprova più tardi.");
+                    }
+                });
     }
 
     private void apriLogin() {
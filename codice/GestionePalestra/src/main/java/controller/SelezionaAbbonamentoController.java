@@ -2,6 +2,7 @@ package controller;
 
 import action.SelezionaAbbonamentoActions;
 import action.SelezionaAbbonamentoViewContract;
+import db.cache.CacheCliente;
 import model.Abbonamento;
 import model.Cliente;
 import view.LoginView;
@@ -40,6 +41,8 @@ public class SelezionaAbbonamentoController implements SelezionaAbbonamentoActio
 
     @Override
     public void onAnnulla() {
+        // si torna al login: fine della sessione del cliente
+        CacheCliente.chiudiSessione(cliente.getIdCliente());
         view.close();
 
         LoginView loginView = new LoginView();
@@ -1,16 +1,27 @@
 package db;
 
 
+import db.pool.ConfigurazionePool;
+import db.pool.ConnectionPool;
+import db.pool.StatistichePool;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 public class GestioneDB {
+
+    private static final Logger logger =
+            LogManager.getLogger(GestioneDB.class);
 	
 	 // Il file del DB verrà creato nella cartella "data" del progetto
-    private static final String JDBC_URL = "jdbc:h2:./data/palestra;AUTO_SERVER=TRUE";
+    // (sovrascrivibile con -Dpalestra.db.url, es. per test e benchmark su DB in memoria)
+    private static final String JDBC_URL =
+            System.getProperty("palestra.db.url", "jdbc:h2:./data/palestra;AUTO_SERVER=TRUE");
     private static final String JDBC_USER = "sa";
     private static final String JDBC_PASSWORD = "";
 
@@ -23,8 +34,28 @@ public class GestioneDB {
         }
     }
 
+    // Pool creato alla prima richiesta (idioma holder: thread-safe senza synchronized)
+    private static final class PoolHolder {
+        static final ConnectionPool POOL = new ConnectionPool(
+                JDBC_URL, JDBC_USER, JDBC_PASSWORD, ConfigurazionePool.daProprietaDiSistema());
+    }
+
+    /**
+     * Restituisce una connessione presa dal pool.
+     * La close() la rimette nel pool: i DAO continuano a usare il try-with-resources.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        return PoolHolder.POOL.getConnection();
+    }
+
+    /** Metriche correnti del pool di connessioni. */
+    public static StatistichePool getStatistichePool() {
+        return PoolHolder.POOL.getStatistiche();
+    }
+
+    /** Chiude il pool (da chiamare in fase di spegnimento dell'applicazione). */
+    public static void chiudiPool() {
+        PoolHolder.POOL.chiudi();
     }
 
     public static void stampaClienti() {
@@ -42,7 +73,7 @@ public class GestioneDB {
                 );
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            logger.error("Lettura dei clienti non riuscita", e);
         }
     }
 }
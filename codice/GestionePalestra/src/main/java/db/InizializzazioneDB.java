@@ -5,6 +5,11 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+import db.migrazioni.Migrazione;
+import db.migrazioni.MigrazioneSql;
+import db.migrazioni.MotoreMigrazioni;
 
 public final class InizializzazioneDB {
 
@@ -12,267 +17,30 @@ public final class InizializzazioneDB {
         // utility class
     }
 
-    public static void init() {
-        try (Connection conn = GestioneDB.getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // 1) Creazione tabelle
-            creaTabelleStruttureFisiche(stmt);
-            creaTabelleClientiAbbonamenti(stmt);
-            creaTabelleDipendentiECorsi(stmt);
-            creaTabelleConsulenzeEMacchinari(stmt);
-
-            // 2) Popolamento dati statici
-            popolaDipendenti(conn);
-            popolaSaleESpa(conn);
-            popolaSpogliatoi(conn);
-            popolaMacchinari(conn);
-
-            // 3) Corsi e lezioni delegati alla classe dedicata
-            InizializzazioneCorsiDB.popolaCorsiELezioni(conn);
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    /** Migrazioni dello schema, in ordine di versione. */
+    public static MotoreMigrazioni creaMotoreMigrazioni() {
+        return new MotoreMigrazioni(Arrays.<Migrazione>asList(
+                new MigrazioneSql(1, "Schema iniziale", "V1__schema_iniziale.sql"),
+                new MigrazioneSql(2, "Indici secondari e vincolo UNIQUE (cliente, lezione)",
+                        "V2__indici_secondari.sql"),
+                new MigrazioneDatiIniziali(),
+                new MigrazioneSql(4, "Lista d'attesa delle lezioni", "V4__lista_attesa.sql"),
+                new MigrazioneSql(5, "Template di ricorrenza delle lezioni", "V5__lezione_template.sql")
+        ));
     }
 
-    // =========================================================
-    // CREAZIONE TABELLE
-    // =========================================================
-
-    static void creaTabelleStruttureFisiche(Statement stmt) throws SQLException {
-        // SPOGLIATOIO
-        String sqlSpogliatoio = "CREATE TABLE IF NOT EXISTS SPOGLIATOIO (" +
-                "ID_SPOGLIATOIO INT AUTO_INCREMENT PRIMARY KEY, " +
-                "NUM_ARMADIETTI INT NOT NULL, " +
-                "NUM_DOCCE INT NOT NULL, " +
-                "NUM_ARMADIETTI_LIBERI INT NOT NULL" +
-                ");";
-
-        // SALA (padre)
-        String sqlSala = "CREATE TABLE IF NOT EXISTS SALA (" +
-                "ID_SALA INT AUTO_INCREMENT PRIMARY KEY, " +
-                "ORARI_APERTURA VARCHAR(100) NOT NULL, " +
-                "CAPIENZA INT NOT NULL, " +
-                "DISPONIBILITA BOOLEAN NOT NULL" +
-                ");";
-
-        // SALA_PESI
-        String sqlSalaPesi = "CREATE TABLE IF NOT EXISTS SALA_PESI (" +
-                "ID_SALA INT PRIMARY KEY, " +
-                "METRATURA INT NOT NULL, " +
-                "NUM_MACCHINARI INT NOT NULL, " +
-                "NUM_PANCHE INT NOT NULL, " +
-                "NUM_PESI_LIBERI INT NOT NULL, " +
-                "FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)" +
-                ");";
-
-        // SALA_CORSI
-        String sqlSalaCorsi = "CREATE TABLE IF NOT EXISTS SALA_CORSI (" +
-                "ID_SALA INT PRIMARY KEY, " +
-                "ORARIO_CORSO VARCHAR(100) NOT NULL, " +
-                "FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)" +
-                ");";
-
-        // SPA
-        String sqlSpa = "CREATE TABLE IF NOT EXISTS SPA (" +
-                "ID_SALA INT PRIMARY KEY, " +
-                "NUM_SAUNE INT NOT NULL, " +
-                "NUM_PISCINE INT NOT NULL, " +
-                "FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)" +
-                ");";
-
-        stmt.execute(sqlSpogliatoio);
-        stmt.execute(sqlSala);
-        stmt.execute(sqlSalaPesi);
-        stmt.execute(sqlSalaCorsi);
-        stmt.execute(sqlSpa);
-    }
-
-    static void creaTabelleClientiAbbonamenti(Statement stmt) throws SQLException {
-        // CLIENTE
-        String sqlCliente = "CREATE TABLE IF NOT EXISTS CLIENTE (" +
-                "ID_CLIENTE INT AUTO_INCREMENT PRIMARY KEY, " +
-                "USERNAME VARCHAR(50) NOT NULL UNIQUE, " +
-                "EMAIL VARCHAR(100) NOT NULL UNIQUE, " +
-                "NOME VARCHAR(100) NOT NULL, " +
-                "COGNOME VARCHAR(100) NOT NULL, " +
-                "CF VARCHAR(16) NOT NULL UNIQUE, " +
-                "LUOGO_NASCITA VARCHAR(100) NOT NULL, " +
-                "DATA_NASCITA DATE NOT NULL, " +
-                "IBAN VARCHAR(34), " +
-                "PASSWORD VARCHAR(100) NOT NULL" +
-                ");";
-
-        // PASSWORD_RESET_TOKEN
-        String sqlPasswordReset = "CREATE TABLE IF NOT EXISTS PASSWORD_RESET_TOKEN (" +
-                "ID_TOKEN INT AUTO_INCREMENT PRIMARY KEY, " +
-                "ID_CLIENTE INT NOT NULL, " +
-                "TOKEN VARCHAR(20) NOT NULL, " +
-                "SCADENZA TIMESTAMP NOT NULL, " +
-                "UTILIZZATO BOOLEAN NOT NULL DEFAULT FALSE, " +
-                "FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE)" +
-                ");";
-
-        // ABBONAMENTO
-        String sqlAbbonamento = "CREATE TABLE IF NOT EXISTS ABBONAMENTO (" +
-                "ID_ABBONAMENTO INT AUTO_INCREMENT PRIMARY KEY, " +
-                "TIPO VARCHAR(20) NOT NULL, " +
-                "SCADENZA DATE, " +
-                "ID_SPOGLIATOIO INT, " +
-                "ID_CLIENTE INT NOT NULL, " +
-                "FASCIA_ORARIA_CONSENTITA VARCHAR(100), " +
-                "PREZZO INT NOT NULL, " +
-                "ATTIVO BOOLEAN DEFAULT TRUE, " +
-                "FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE), " +
-                "FOREIGN KEY (ID_SPOGLIATOIO) REFERENCES SPOGLIATOIO(ID_SPOGLIATOIO)" +
-                ");";
-
-        // SOTTOCLASSI ABBONAMENTO
-        String sqlAbbonamentoBasico = "CREATE TABLE IF NOT EXISTS ABBONAMENTO_BASICO (" +
-                "ID_ABBONAMENTO INT PRIMARY KEY, " +
-                "ID_SALA_PESI INT NOT NULL, " +
-                "LIMITE_INGRESSI_MENSILI INT NOT NULL, " +
-                "FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO), " +
-                "FOREIGN KEY (ID_SALA_PESI) REFERENCES SALA_PESI(ID_SALA)" +
-                ");";
-
-        String sqlAbbonamentoCompleto = "CREATE TABLE IF NOT EXISTS ABBONAMENTO_COMPLETO (" +
-                "ID_ABBONAMENTO INT PRIMARY KEY, " +
-                "ID_SALA INT NOT NULL, " +
-                "SOGLIA_SCONTO INT NOT NULL, " +
-                "FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO), " +
-                "FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)" +
-                ");";
-
-        String sqlAbbonamentoCorsi = "CREATE TABLE IF NOT EXISTS ABBONAMENTO_CORSI (" +
-                "ID_ABBONAMENTO INT PRIMARY KEY, " +
-                "ID_SALA_CORSI INT NOT NULL, " +
-                "NUM_CORSI_INCLUSI INT NOT NULL, " +
-                "FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO), " +
-                "FOREIGN KEY (ID_SALA_CORSI) REFERENCES SALA_CORSI(ID_SALA)" +
-                ");";
-
-        // PAGAMENTO
-        String sqlPagamento = "CREATE TABLE IF NOT EXISTS PAGAMENTO (" +
-                "ID_PAGAMENTO INT AUTO_INCREMENT PRIMARY KEY, " +
-                "METODO VARCHAR(50) NOT NULL, " +
-                "IMPORTO INT NOT NULL, " +
-                "DATA_PAGAMENTO DATE NOT NULL, " +
-                "ID_CLIENTE INT NOT NULL, " +
-                "ID_ABBONAMENTO INT NOT NULL, " +
-                "FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE), " +
-                "FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO)" +
-                ");";
-
-        stmt.execute(sqlCliente);
-        stmt.execute(sqlPasswordReset);
-        stmt.execute(sqlAbbonamento);
-        stmt.execute(sqlAbbonamentoBasico);
-        stmt.execute(sqlAbbonamentoCompleto);
-        stmt.execute(sqlAbbonamentoCorsi);
-        stmt.execute(sqlPagamento);
-    }
-
-    static void creaTabelleDipendentiECorsi(Statement stmt) throws SQLException {
-        // DIPENDENTE
-        String sqlDipendente = "CREATE TABLE IF NOT EXISTS DIPENDENTE (" +
-                "ID_DIPENDENTE INT AUTO_INCREMENT PRIMARY KEY, " +
-                "NOME VARCHAR(100) NOT NULL, " +
-                "COGNOME VARCHAR(100) NOT NULL, " +
-                "RUOLO VARCHAR(30) NOT NULL, " +
-                "ORARIO_DISP VARCHAR(100)" +
-                ");";
-
-        // CORSO
-        String sqlCorso = "CREATE TABLE IF NOT EXISTS CORSO (" +
-                "ID_CORSO INT AUTO_INCREMENT PRIMARY KEY, " +
-                "NOME VARCHAR(100) NOT NULL, " +
-                "DESCRIZIONE VARCHAR(500) NOT NULL, " +
-                "DURATA_MINUTI INT NOT NULL" +
-                ");";
-
-        // LEZIONE_CORSO
-        String sqlLezioneCorso = "CREATE TABLE IF NOT EXISTS LEZIONE_CORSO (" +
-                "ID_LEZIONE INT AUTO_INCREMENT PRIMARY KEY, " +
-                "ID_CORSO INT NOT NULL, " +
-                "DATA_LEZIONE DATE NOT NULL, " +
-                "ORA_LEZIONE TIME NOT NULL, " +
-                "POSTI_TOTALI INT NOT NULL, " +
-                "POSTI_PRENOTATI INT NOT NULL DEFAULT 0, " +
-                "ID_ISTRUTTORE INT NOT NULL, " +
-                "FOREIGN KEY (ID_CORSO) REFERENCES CORSO(ID_CORSO), " +
-                "FOREIGN KEY (ID_ISTRUTTORE) REFERENCES DIPENDENTE(ID_DIPENDENTE)" +
-                ");";
-
-        // ISCRIZIONE_CORSO
-        String sqlIscrizioneCorso = "CREATE TABLE IF NOT EXISTS ISCRIZIONE_CORSO (" +
-                "ID_ISCRIZIONE INT AUTO_INCREMENT PRIMARY KEY, " +
-                "ID_CLIENTE INT NOT NULL, " +
-                "ID_LEZIONE INT NOT NULL, " +
-                "FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE), " +
-                "FOREIGN KEY (ID_LEZIONE) REFERENCES LEZIONE_CORSO(ID_LEZIONE)" +
-                ");";
-
-        stmt.execute(sqlDipendente);
-        stmt.execute(sqlCorso);
-        stmt.execute(sqlLezioneCorso);
-        stmt.execute(sqlIscrizioneCorso);
-    }
-
-    static void creaTabelleConsulenzeEMacchinari(Statement stmt) throws SQLException {
-        // CONSULENZA
-        String sqlConsulenza = "CREATE TABLE IF NOT EXISTS CONSULENZA (" +
-                "ID_CONSULENZA INT AUTO_INCREMENT PRIMARY KEY, " +
-                "ID_CLIENTE INT NOT NULL, " +
-                "ID_DIPENDENTE INT NOT NULL, " +
-                "TIPO VARCHAR(30) NOT NULL, " +
-                "DATA_CONSULENZA DATE NOT NULL, " +
-                "ORA_CONSULENZA TIME NOT NULL, " +
-                "NOTE VARCHAR(255), " +
-                "FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE), " +
-                "FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)" +
-                ");";
-
-        // PERSONAL_TRAINER
-        String sqlPersonalTrainer = "CREATE TABLE IF NOT EXISTS PERSONAL_TRAINER (" +
-                "ID_DIPENDENTE INT PRIMARY KEY, " +
-                "PARTITA_IVA VARCHAR(20), " +
-                "ANNI_ESPERIENZA INT, " +
-                "CERTIFICATI VARCHAR(255), " +
-                "FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)" +
-                ");";
-
-        // ISTRUTTORE_CORSO
-        String sqlIstruttoreCorso = "CREATE TABLE IF NOT EXISTS ISTRUTTORE_CORSO (" +
-                "ID_DIPENDENTE INT PRIMARY KEY, " +
-                "TIPO_CORSO_INSEGNATO VARCHAR(100) NOT NULL, " +
-                "FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)" +
-                ");";
-
-        // NUTRIZIONISTA
-        String sqlNutrizionista = "CREATE TABLE IF NOT EXISTS NUTRIZIONISTA (" +
-                "ID_DIPENDENTE INT PRIMARY KEY, " +
-                "PARCELLA VARCHAR(50), " +
-                "FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)" +
-                ");";
-
-        // MACCHINARIO
-        String sqlMacchinario = "CREATE TABLE IF NOT EXISTS MACCHINARIO (" +
-                "ID_MACCHINARIO INT AUTO_INCREMENT PRIMARY KEY, " +
-                "NOME VARCHAR(100) NOT NULL, " +
-                "MARCA VARCHAR(100), " +
-                "CAPACITA_CARICO INT, " +
-                "OCCUPATO BOOLEAN NOT NULL, " +
-                "ID_SALA_PESI INT, " +
-                "FOREIGN KEY (ID_SALA_PESI) REFERENCES SALA_PESI(ID_SALA)" +
-                ");";
-
-        stmt.execute(sqlConsulenza);
-        stmt.execute(sqlPersonalTrainer);
-        stmt.execute(sqlIstruttoreCorso);
-        stmt.execute(sqlNutrizionista);
-        stmt.execute(sqlMacchinario);
+    /**
+     * Porta lo schema all'ultima versione. Una migrazione fallita o un checksum
+     * non corrispondente vengono propagati: l'applicazione non deve partire
+     * su uno schema aggiornato a metà.
+     */
+    public static void init() throws SQLException {
+        try (Connection conn = GestioneDB.getConnection()) {
+
+            // Schema e dati di partenza: se il DB è già aggiornato
+            // il motore si limita a leggere SCHEMA_VERSION
+            creaMotoreMigrazioni().migra(conn);
+        }
     }
 
     // =========================================================
@@ -0,0 +1,47 @@
+package db;
+
+import db.migrazioni.Migrazione;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * V3: dati statici di partenza (dipendenti, sale, spogliatoi, macchinari,
+ * corsi e lezioni).
+ *
+ * Viene eseguita una sola volta; i controlli "tabella vuota" restano
+ * per non duplicare i dati di un database creato prima del motore di migrazione.
+ */
+final class MigrazioneDatiIniziali implements Migrazione {
+
+    static final int VERSIONE = 3;
+
+    // da incrementare se si modifica il contenuto del popolamento
+    private static final String CHECKSUM = "java:dati-iniziali:1";
+
+    @Override
+    public int getVersione() {
+        return VERSIONE;
+    }
+
+    @Override
+    public String getDescrizione() {
+        return "Dati iniziali (dipendenti, sale, macchinari, corsi)";
+    }
+
+    @Override
+    public String getChecksum() {
+        return CHECKSUM;
+    }
+
+    @Override
+    public void applica(Connection conn) throws SQLException {
+        InizializzazioneDB.popolaDipendenti(conn);
+        InizializzazioneDB.popolaSaleESpa(conn);
+        InizializzazioneDB.popolaSpogliatoi(conn);
+        InizializzazioneDB.popolaMacchinari(conn);
+
+        // corsi e lezioni delegati alla classe dedicata
+        InizializzazioneCorsiDB.popolaCorsiELezioni(conn);
+    }
+}
@@ -0,0 +1,145 @@
+package db.cache;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache di sessione dei dati del cliente mostrati nella Home
+ * (iscrizioni ai corsi, consulenze): la prima lettura va a DB, le successive
+ * no finché un DAO di prenotazione/disdetta non invalida l'area interessata.
+ *
+ * I dati dipendono da "oggi" (solo corsi e consulenze future): un valore letto
+ * in un giorno precedente viene considerato scaduto e ricaricato. Quello che
+ * dipende dall'ora (es. corsi futuri/svolti nel dettaglio) va memorizzato grezzo
+ * e diviso a ogni lettura.
+ *
+ * La sessione nasce alla prima lettura e va chiusa al logout con
+ * {@link #chiudiSessione(int)}. Le invalidazioni per clienti senza sessione
+ * aperta (es. chi viene promosso dalla lista d'attesa) non costano nulla.
+ */
+public final class CacheCliente {
+
+    /** Gruppi di dati invalidati insieme. */
+    public enum Area { CORSI, CONSULENZE }
+
+    /** Dati memorizzabili per ogni cliente. */
+    public enum Dato {
+        DETTAGLIO_CORSI(Area.CORSI),
+        ISCRIZIONI_FUTURE(Area.CORSI),
+        DETTAGLIO_CONSULENZE(Area.CONSULENZE),
+        CONSULENZE_FUTURE(Area.CONSULENZE);
+
+        final Area area;
+
+        Dato(Area area) {
+            this.area = area;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Caricatore<T> {
+        T carica() throws Exception;
+    }
+
+    private static final Map<Integer, Sessione> SESSIONI = new ConcurrentHashMap<>();
+
+    private static final AtomicLong letture     = new AtomicLong();
+    private static final AtomicLong caricamenti = new AtomicLong();
+
+    private CacheCliente() {
+        // utility class
+    }
+
+    /**
+     * Restituisce il dato del cliente dalla cache, oppure lo carica con il caricatore
+     * e lo memorizza. Se durante il caricamento l'area viene invalidata, il valore
+     * appena letto viene restituito ma non memorizzato.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T leggi(int idCliente, Dato dato, Caricatore<T> caricatore) throws Exception {
+        letture.incrementAndGet();
+        Sessione sessione = SESSIONI.computeIfAbsent(idCliente, id -> new Sessione());
+        LocalDate oggi = LocalDate.now();
+
+        long versione;
+        synchronized (sessione) {
+            Valore v = sessione.valori.get(dato);
+            if (v != null && v.giorno.equals(oggi)) {
+                return (T) v.valore;
+            }
+            versione = sessione.versioni.get(dato.area);
+        }
+
+        caricamenti.incrementAndGet();
+        T valore = caricatore.carica();
+
+        synchronized (sessione) {
+            if (sessione.versioni.get(dato.area) == versione) {
+                sessione.valori.put(dato, new Valore(valore, oggi));
+            }
+        }
+        return valore;
+    }
+
+    // ===================== INVALIDAZIONE =====================
+
+    public static void invalida(int idCliente, Area area) {
+        Sessione sessione = SESSIONI.get(idCliente);
+        if (sessione == null) {
+            return;
+        }
+        synchronized (sessione) {
+            sessione.versioni.merge(area, 1L, Long::sum);
+            sessione.valori.keySet().removeIf(d -> d.area == area);
+        }
+    }
+
+    /** Invalida tutti i dati del cliente (es. dopo la disdetta dell'abbonamento). */
+    public static void invalidaCliente(int idCliente) {
+        for (Area area : Area.values()) {
+            invalida(idCliente, area);
+        }
+    }
+
+    /** Fine sessione (logout): i dati del cliente vengono scartati. */
+    public static void chiudiSessione(int idCliente) {
+        SESSIONI.remove(idCliente);
+    }
+
+    // ===================== METRICHE =====================
+
+    public static long getLetture() {
+        return letture.get();
+    }
+
+    /** Letture che sono dovute andare a DB. */
+    public static long getCaricamenti() {
+        return caricamenti.get();
+    }
+
+    // ==========================================================
+
+    private static final class Sessione {
+        final Map<Dato, Valore> valori = new EnumMap<>(Dato.class);
+        final Map<Area, Long> versioni = new EnumMap<>(Area.class);
+
+        Sessione() {
+            for (Area area : Area.values()) {
+                versioni.put(area, 0L);
+            }
+        }
+    }
+
+    private static final class Valore {
+        final Object valore;
+        final LocalDate giorno;
+
+        Valore(Object valore, LocalDate giorno) {
+            this.valore = valore;
+            this.giorno = giorno;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package db.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache read-through per i dati di riferimento quasi statici
+ * (catalogo corsi, sale, macchinari, personale).
+ *
+ * - ogni voce scade dopo il TTL; alla lettura successiva viene ricaricata
+ * - per una stessa chiave un solo thread alla volta va a DB, gli altri
+ *   aspettano e ricevono il valore appena caricato
+ * - {@link #invalida(Object)} e {@link #invalidaTutto()} scartano subito i valori;
+ *   un caricamento in corso durante l'invalidazione non viene memorizzato
+ * - metriche (hit, miss, caricamenti, scadenze, invalidazioni) e ascoltatori
+ *   avvisati a ogni invalidazione
+ *
+ * I valori sono condivisi tra tutti i chiamanti: vanno restituiti immutabili.
+ *
+ * @param <K> chiave (per i dati senza parametri basta una costante)
+ * @param <V> valore; null è ammesso
+ */
+public class CacheRiferimento<K, V> {
+
+    /** TTL di default, sovrascrivibile con -Dpalestra.cache.ttlMinuti. */
+    public static final Duration TTL_PREDEFINITO =
+            Duration.ofMinutes(Long.getLong("palestra.cache.ttlMinuti", 30L));
+
+    @FunctionalInterface
+    public interface Caricatore<K, V> {
+        V carica(K chiave) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Ascoltatore<K> {
+        /** @param chiave chiave invalidata, null se è stata svuotata l'intera cache */
+        void invalidata(K chiave);
+    }
+
+    // tutte le cache create, per metriche e invalidazioni globali
+    private static final List<CacheRiferimento<?, ?>> REGISTRO = new CopyOnWriteArrayList<>();
+
+    private final String nome;
+    private final long ttlNanos;
+    private final Caricatore<K, V> caricatore;
+    private final LongSupplier orologioNanos;
+
+    private final Map<K, Voce<V>> voci = new ConcurrentHashMap<>();
+    private final Map<K, Object> lock = new ConcurrentHashMap<>();
+    private final List<Ascoltatore<K>> ascoltatori = new CopyOnWriteArrayList<>();
+
+    // incrementata a ogni invalidazione: un caricamento iniziato prima non viene salvato
+    private final AtomicLong generazione = new AtomicLong();
+
+    // ===================== METRICHE =====================
+    private final AtomicLong hit           = new AtomicLong();
+    private final AtomicLong miss          = new AtomicLong();
+    private final AtomicLong caricamenti   = new AtomicLong();
+    private final AtomicLong scadute       = new AtomicLong();
+    private final AtomicLong invalidazioni = new AtomicLong();
+
+    public CacheRiferimento(String nome, Duration ttl, Caricatore<K, V> caricatore) {
+        this(nome, ttl, caricatore, System::nanoTime);
+    }
+
+    public CacheRiferimento(String nome, Duration ttl, Caricatore<K, V> caricatore, LongSupplier orologioNanos) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Il TTL deve essere positivo");
+        }
+        this.nome = nome;
+        this.ttlNanos = ttl.toNanos();
+        this.caricatore = caricatore;
+        this.orologioNanos = orologioNanos;
+        REGISTRO.add(this);
+    }
+
+    // ==========================================================
+    //  LETTURA
+    // ==========================================================
+
+    public V get(K chiave) throws Exception {
+        Voce<V> voce = voci.get(chiave);
+        if (voce != null && !voce.scaduta(orologioNanos.getAsLong())) {
+            hit.incrementAndGet();
+            return voce.valore;
+        }
+
+        synchronized (lock.computeIfAbsent(chiave, k -> new Object())) {
+            // nel frattempo un altro thread potrebbe averla già caricata
+            long adesso = orologioNanos.getAsLong();
+            voce = voci.get(chiave);
+            if (voce != null && !voce.scaduta(adesso)) {
+                hit.incrementAndGet();
+                return voce.valore;
+            }
+            miss.incrementAndGet();
+            if (voce != null) {
+                scadute.incrementAndGet();
+            }
+
+            long gen = generazione.get();
+            V valore = caricatore.carica(chiave);
+            caricamenti.incrementAndGet();
+
+            if (generazione.get() == gen) {
+                voci.put(chiave, new Voce<>(valore, adesso + ttlNanos));
+            }
+            return valore;
+        }
+    }
+
+    // ==========================================================
+    //  INVALIDAZIONE
+    // ==========================================================
+
+    public void invalida(K chiave) {
+        generazione.incrementAndGet();
+        voci.remove(chiave);
+        invalidazioni.incrementAndGet();
+        avvisa(chiave);
+    }
+
+    public void invalidaTutto() {
+        generazione.incrementAndGet();
+        voci.clear();
+        invalidazioni.incrementAndGet();
+        avvisa(null);
+    }
+
+    public void aggiungiAscoltatore(Ascoltatore<K> ascoltatore) {
+        ascoltatori.add(ascoltatore);
+    }
+
+    public void rimuoviAscoltatore(Ascoltatore<K> ascoltatore) {
+        ascoltatori.remove(ascoltatore);
+    }
+
+    private void avvisa(K chiave) {
+        for (Ascoltatore<K> a : ascoltatori) {
+            a.invalidata(chiave);
+        }
+    }
+
+    /** Svuota tutte le cache di riferimento (es. dopo modifiche fatte fuori dai DAO). */
+    public static void invalidaTutte() {
+        for (CacheRiferimento<?, ?> cache : REGISTRO) {
+            cache.invalidaTutto();
+        }
+    }
+
+    // ==========================================================
+    //  METRICHE
+    // ==========================================================
+
+    public String getNome() {
+        return nome;
+    }
+
+    public StatisticheCache getStatistiche() {
+        return new StatisticheCache(
+                nome,
+                voci.size(),
+                hit.get(),
+                miss.get(),
+                caricamenti.get(),
+                scadute.get(),
+                invalidazioni.get()
+        );
+    }
+
+    public static List<StatisticheCache> getStatisticheTutte() {
+        List<StatisticheCache> result = new ArrayList<>();
+        for (CacheRiferimento<?, ?> cache : REGISTRO) {
+            result.add(cache.getStatistiche());
+        }
+        return result;
+    }
+
+    // ==========================================================
+
+    private static final class Voce<V> {
+        final V valore;
+        final long scadenzaNanos;
+
+        Voce(V valore, long scadenzaNanos) {
+            this.valore = valore;
+            this.scadenzaNanos = scadenzaNanos;
+        }
+
+        boolean scaduta(long adessoNanos) {
+            return adessoNanos - scadenzaNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package db.cache;
+
+/**
+ * Fotografia (immutabile) delle metriche di una {@link CacheRiferimento}.
+ */
+public final class StatisticheCache {
+
+    public final String nome;
+    public final int voci;
+    public final long hit;
+    public final long miss;
+    public final long caricamenti;
+    public final long scadute;
+    public final long invalidazioni;
+
+    public StatisticheCache(String nome,
+                            int voci,
+                            long hit,
+                            long miss,
+                            long caricamenti,
+                            long scadute,
+                            long invalidazioni) {
+        this.nome = nome;
+        this.voci = voci;
+        this.hit = hit;
+        this.miss = miss;
+        this.caricamenti = caricamenti;
+        this.scadute = scadute;
+        this.invalidazioni = invalidazioni;
+    }
+
+    /** Frazione delle letture servite dalla cache (0 se non ci sono letture). */
+    public double hitRatio() {
+        long letture = hit + miss;
+        return letture == 0 ? 0.0 : (double) hit / letture;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Cache %s[voci=%d, hit=%d, miss=%d, hitRatio=%.1f%%, caricamenti=%d, scadute=%d, invalidazioni=%d]",
+                nome, voci, hit, miss, hitRatio() * 100, caricamenti, scadute, invalidazioni);
+    }
+}
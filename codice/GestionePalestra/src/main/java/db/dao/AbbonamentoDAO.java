@@ -1,12 +1,18 @@
 package db.dao;
 
 import db.GestioneDB;
+import db.cache.CacheCliente;
+import db.dao.corso.IscrizioneDAO;
+import metriche.RegistroMetriche;
 import model.Abbonamento;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 public class AbbonamentoDAO {
 
@@ -27,6 +33,23 @@ public class AbbonamentoDAO {
             " FASCIA_ORARIA_CONSENTITA, PREZZO) " +
             "VALUES (?, ?, NULL, ?, ?, ?)";
 
+    // i posti delle lezioni vanno liberati prima di cancellare le iscrizioni
+    private static final String SQL_RILASCIA_POSTI_LEZIONI =
+            "UPDATE LEZIONE_CORSO L SET POSTI_PRENOTATI = POSTI_PRENOTATI - 1 " +
+            "WHERE POSTI_PRENOTATI > 0 AND EXISTS (" +
+            "    SELECT 1 FROM ISCRIZIONE_CORSO I WHERE I.ID_LEZIONE = L.ID_LEZIONE AND I.ID_CLIENTE = ?" +
+            ")";
+
+    // lezioni future del cliente: il posto liberato passa al primo in lista d'attesa
+    private static final String SQL_LEZIONI_FUTURE_CLIENTE =
+            "SELECT I.ID_LEZIONE FROM ISCRIZIONE_CORSO I " +
+            "JOIN LEZIONE_CORSO L ON I.ID_LEZIONE = L.ID_LEZIONE " +
+            "WHERE I.ID_CLIENTE = ? AND L.DATA_LEZIONE >= ? " +
+            "ORDER BY I.ID_LEZIONE";
+
+    private static final String SQL_DELETE_LISTA_ATTESA =
+            "DELETE FROM LISTA_ATTESA WHERE ID_CLIENTE = ?";
+
     private static final String SQL_DELETE_ISCRIZIONI_CORSO =
             "DELETE FROM ISCRIZIONE_CORSO WHERE ID_CLIENTE = ?";
 
@@ -55,27 +78,38 @@ public class AbbonamentoDAO {
      * altrimenti null.
      */
     public static Abbonamento getAbbonamentoByClienteId(int idCliente) {
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ABBONAMENTO_BY_CLIENTE)) {
+        return RegistroMetriche.misura("AbbonamentoDAO.getAbbonamentoByClienteId", () -> {
+            try (Connection conn = GestioneDB.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_SELECT_ABBONAMENTO_BY_CLIENTE)) {
 
-            ps.setInt(1, idCliente);
+                ps.setInt(1, idCliente);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    return null;
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    return creaAbbonamentoDaResultSet(rs, idCliente);
                 }
-                return creaAbbonamentoDaResultSet(rs, idCliente);
-            }
 
-        } catch (SQLException e) {
-            logger.error("Errore nel recupero abbonamento per cliente {}", idCliente, e);
-            return null;
-        }
+            } catch (SQLException e) {
+                logger.error("Errore nel recupero abbonamento per cliente {}", idCliente, e);
+                return null;
+            }
+        });
     }
 
-    private static Abbonamento creaAbbonamentoDaResultSet(ResultSet rs,
-                                                          int idCliente) throws SQLException {
+    /**
+     * Costruisce l'abbonamento dalla riga corrente del ResultSet, che deve contenere
+     * le colonne ID_ABBONAMENTO, TIPO, SCADENZA, FASCIA_ORARIA_CONSENTITA e PREZZO
+     * (anche come parte di una JOIN). Restituisce null se ID_ABBONAMENTO è NULL,
+     * ad es. per un cliente senza abbonamento in una LEFT JOIN.
+     */
+    public static Abbonamento creaAbbonamentoDaResultSet(ResultSet rs,
+                                                         int idCliente) throws SQLException {
         int idAbbonamentoInt = rs.getInt("ID_ABBONAMENTO");
+        if (rs.wasNull()) {
+            return null;
+        }
         String tipo          = rs.getString("TIPO");
         Date scadenza        = leggiScadenza(rs);
         String fascia        = rs.getString("FASCIA_ORARIA_CONSENTITA");
@@ -113,17 +147,19 @@ public class AbbonamentoDAO {
      * Usa ID_ABBONAMENTO INT AUTO_INCREMENT generato dal database.
      */
     public static void salvaAbbonamento(Abbonamento abbonamento, int idCliente) {
-        if (!isAbbonamentoValido(abbonamento, idCliente)) {
-            return;
-        }
+        RegistroMetriche.misuraAzione("AbbonamentoDAO.salvaAbbonamento", () -> {
+            if (!isAbbonamentoValido(abbonamento, idCliente)) {
+                return;
+            }
 
-        String tipo = abbonamento.getTipo();
+            String tipo = abbonamento.getTipo();
 
-        try (Connection conn = GestioneDB.getConnection()) {
-            inserisciAbbonamento(conn, abbonamento, idCliente, tipo);
-        } catch (SQLException e) {
-            logger.error("Errore nel salvataggio abbonamento per cliente {}", idCliente, e);
-        }
+            try (Connection conn = GestioneDB.getConnection()) {
+                inserisciAbbonamento(conn, abbonamento, idCliente, tipo);
+            } catch (SQLException e) {
+                logger.error("Errore nel salvataggio abbonamento per cliente {}", idCliente, e);
+            }
+        });
     }
 
     private static boolean isAbbonamentoValido(Abbonamento abbonamento, int idCliente) {
@@ -201,28 +237,34 @@ public class AbbonamentoDAO {
      * Elimina anche pagamenti, iscrizioni ai corsi e consulenze collegate.
      */
     public static void disdiciAbbonamentoPerCliente(int idCliente) {
-
-        try (Connection conn = GestioneDB.getConnection()) {
-
-            try {
-                conn.setAutoCommit(false);
-
-                eseguiDisdettaAbbonamento(conn, idCliente);
-
-                conn.commit();
-                logger.info("Abbonamento, pagamenti, corsi e consulenze disdetti per cliente {}",
-                        idCliente);
+        RegistroMetriche.misuraAzione("AbbonamentoDAO.disdiciAbbonamentoPerCliente", () -> {
+            try (Connection conn = GestioneDB.getConnection()) {
+
+                try {
+                    conn.setAutoCommit(false);
+
+                    List<Integer> promossi = eseguiDisdettaAbbonamento(conn, idCliente);
+
+                    conn.commit();
+                    ConsulenzaDAO.rimuoviClienteDaIndice(idCliente);
+                    CacheCliente.invalidaCliente(idCliente);
+                    for (int promosso : promossi) {
+                        CacheCliente.invalida(promosso, CacheCliente.Area.CORSI);
+                    }
+                    logger.info("Abbonamento, pagamenti, corsi e consulenze disdetti per cliente {}",
+                            idCliente);
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    logger.error("Errore durante la disdetta abbonamento per cliente {}", idCliente, e);
+                } finally {
+                    conn.setAutoCommit(true);
+                }
 
             } catch (SQLException e) {
-                conn.rollback();
-                logger.error("Errore durante la disdetta abbonamento per cliente {}", idCliente, e);
-            } finally {
-                conn.setAutoCommit(true);
+                logger.error("Errore di connessione in disdiciAbbonamentoPerCliente", e);
             }
-
-        } catch (SQLException e) {
-            logger.error("Errore di connessione in disdiciAbbonamentoPerCliente", e);
-        }
+        });
     }
 
     /**
@@ -230,15 +272,16 @@ public class AbbonamentoDAO {
      * Elimina anche pagamenti, iscrizioni ai corsi e consulenze collegate.
      */
     public static void disdiciAbbonamentoPerUsername(String username) {
+        RegistroMetriche.misuraAzione("AbbonamentoDAO.disdiciAbbonamentoPerUsername", () -> {
+            Integer idCliente = getIdClienteByUsername(username);
+            if (idCliente == null) {
+                logger.warn("Nessun cliente trovato per username {} in disdiciAbbonamentoPerUsername",
+                        username);
+                return;
+            }
 
-        Integer idCliente = getIdClienteByUsername(username);
-        if (idCliente == null) {
-            logger.warn("Nessun cliente trovato per username {} in disdiciAbbonamentoPerUsername",
-                    username);
-            return;
-        }
-
-        disdiciAbbonamentoPerCliente(idCliente);
+            disdiciAbbonamentoPerCliente(idCliente);
+        });
     }
 
     private static Integer getIdClienteByUsername(String username) {
@@ -262,14 +305,62 @@ public class AbbonamentoDAO {
 
     /**
      * Esegue fisicamente le DELETE su tutte le tabelle collegate all'abbonamento.
-     * (iscrizioni corsi, consulenze, pagamenti, abbonamenti).
+     * (lista d'attesa, iscrizioni corsi, consulenze, pagamenti, abbonamenti).
+     * I posti liberati nelle lezioni future passano, nella stessa transazione,
+     * al primo in lista d'attesa (come per la disiscrizione singola).
+     *
+     * @return i clienti promossi dalla lista d'attesa
      */
-    private static void eseguiDisdettaAbbonamento(Connection conn,
-                                                  int idCliente) throws SQLException {
+    private static List<Integer> eseguiDisdettaAbbonamento(Connection conn,
+                                                           int idCliente) throws SQLException {
+        deleteListaAttesa(conn, idCliente);
+        List<Integer> lezioniFuture = getLezioniFuture(conn, idCliente);
+        rilasciaPostiLezioni(conn, idCliente);
         deleteIscrizioniCorso(conn, idCliente);
+
+        List<Integer> promossi = new ArrayList<>();
+        for (int idLezione : lezioniFuture) {
+            int promosso = IscrizioneDAO.promuoviDaListaAttesa(conn, idLezione);
+            if (promosso > 0) {
+                promossi.add(promosso);
+            }
+        }
+
         deleteConsulenze(conn, idCliente);
         deletePagamenti(conn, idCliente);
         deleteAbbonamenti(conn, idCliente);
+        return promossi;
+    }
+
+    private static List<Integer> getLezioniFuture(Connection conn,
+                                                  int idCliente) throws SQLException {
+        List<Integer> lezioni = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_LEZIONI_FUTURE_CLIENTE)) {
+            ps.setInt(1, idCliente);
+            ps.setDate(2, java.sql.Date.valueOf(LocalDate.now()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lezioni.add(rs.getInt("ID_LEZIONE"));
+                }
+            }
+        }
+        return lezioni;
+    }
+
+    private static void deleteListaAttesa(Connection conn,
+                                          int idCliente) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_LISTA_ATTESA)) {
+            ps.setInt(1, idCliente);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void rilasciaPostiLezioni(Connection conn,
+                                             int idCliente) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_RILASCIA_POSTI_LEZIONI)) {
+            ps.setInt(1, idCliente);
+            ps.executeUpdate();
+        }
     }
 
     private static void deleteIscrizioniCorso(Connection conn,
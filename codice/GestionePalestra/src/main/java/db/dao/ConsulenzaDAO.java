@@ -1,12 +1,15 @@
 package db.dao;
 
 import db.GestioneDB;
+import db.cache.CacheCliente;
+import metriche.RegistroMetriche;
 import model.Consulenza;
 
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.SQLException;
 
@@ -71,11 +74,23 @@ public class ConsulenzaDAO {
     private static final String SQL_ORDER_PAST =
             "ORDER BY C.DATA_CONSULENZA DESC, C.ORA_CONSULENZA DESC";
 
+    // impegni del cliente e del dipendente dal giorno prima al giorno dopo
+    // (una consulenza può scavalcare la mezzanotte); due rami per sfruttare
+    // IDX_CONSULENZA_CLIENTE_DATA e IDX_CONSULENZA_DIPENDENTE_DATA
     private static final String SQL_CONFLITTO =
-            "SELECT ID_CLIENTE, ID_DIPENDENTE, TIPO, DATA_CONSULENZA, ORA_CONSULENZA " +
-            "FROM CONSULENZA " +
-            "WHERE DATA_CONSULENZA = ? " +
-            "  AND (ID_CLIENTE = ? OR ID_DIPENDENTE = ?)";
+            "SELECT TIPO, DATA_CONSULENZA, ORA_CONSULENZA FROM CONSULENZA " +
+            "WHERE ID_CLIENTE = ? AND DATA_CONSULENZA BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT TIPO, DATA_CONSULENZA, ORA_CONSULENZA FROM CONSULENZA " +
+            "WHERE ID_DIPENDENTE = ? AND DATA_CONSULENZA BETWEEN ? AND ?";
+
+    // lock di riga tenuti fino al commit: serializzano le prenotazioni della stessa
+    // persona anche tra postazioni diverse collegate allo stesso DB (AUTO_SERVER)
+    private static final String SQL_BLOCCA_DIPENDENTE =
+            "SELECT ID_DIPENDENTE FROM DIPENDENTE WHERE ID_DIPENDENTE = ? FOR UPDATE";
+
+    private static final String SQL_BLOCCA_CLIENTE =
+            "SELECT ID_CLIENTE FROM CLIENTE WHERE ID_CLIENTE = ? FOR UPDATE";
 
     private static final String SQL_INSERISCI =
             "INSERT INTO CONSULENZA " +
@@ -86,8 +101,24 @@ public class ConsulenzaDAO {
             "SELECT COUNT(*) FROM CONSULENZA " +
             "WHERE ID_CLIENTE = ? AND DATA_CONSULENZA >= ?";
 
+    // restituisce il cliente della consulenza cancellata (per invalidarne la cache di sessione)
     private static final String SQL_DELETE_CONSULENZA =
-            "DELETE FROM CONSULENZA WHERE ID_CONSULENZA = ?";
+            "SELECT ID_CLIENTE FROM OLD TABLE (DELETE FROM CONSULENZA WHERE ID_CONSULENZA = ?)";
+
+    private static final String SQL_CARICA_INDICE =
+            "SELECT ID_CONSULENZA, ID_CLIENTE, ID_DIPENDENTE, TIPO, DATA_CONSULENZA, ORA_CONSULENZA " +
+            "FROM CONSULENZA WHERE DATA_CONSULENZA >= ?";
+
+    // ==========================================================
+    //  INDICE DEGLI INTERVALLI OCCUPATI (in memoria)
+    // ==========================================================
+
+    // contiene le consulenze dal giorno prima del caricamento in poi (quelle che
+    // terminano dopo mezzanotte contano per il giorno successivo). Serve solo da
+    // filtro veloce per la ricerca degli slot liberi: non vede le prenotazioni fatte
+    // da altri processi, per cui il controllo vincolante è quello su CONSULENZA
+    // fatto da inserisci()
+    private static final IndiceConsulenze INDICE = new IndiceConsulenze(ConsulenzaDAO::caricaIndice);
 
     // ==========================================================
     //  CONTROLLO CONFLITTO PER INSERIMENTO NUOVA CONSULENZA
@@ -99,25 +130,37 @@ public class ConsulenzaDAO {
      * - stesso DIPENDENTE con un’altra consulenza sovrapposta
      *   (anche con cliente diverso)
      *
-     * Il controllo è fatto considerando la durata stimata del tipo
-     * di consulenza.
+     * Il controllo è fatto sul DB considerando la durata stimata del tipo
+     * di consulenza. È solo indicativo: {@link #inserisci} lo ripete
+     * nella transazione dell'inserimento.
      */
     public static boolean esisteConflitto(int idCliente,
                                           int idDipendente,
                                           String tipoNuovo,
                                           LocalDate data,
                                           LocalTime oraInizioNuova) throws Exception {
+        return UtilsDAO.withConnection("ConsulenzaDAO.esisteConflitto",
+                conn -> esisteConflittoSuDB(conn, idCliente, idDipendente, tipoNuovo, data, oraInizioNuova));
+    }
 
-        int durataNuova = durataStimataMinuti(tipoNuovo);
+    private static boolean esisteConflittoSuDB(Connection conn,
+                                               int idCliente,
+                                               int idDipendente,
+                                               String tipoNuovo,
+                                               LocalDate data,
+                                               LocalTime oraInizioNuova) throws SQLException {
         LocalDateTime startNuova = LocalDateTime.of(data, oraInizioNuova);
-        LocalDateTime endNuova   = startNuova.plusMinutes(durataNuova);
+        LocalDateTime endNuova   = startNuova.plusMinutes(durataStimataMinuti(tipoNuovo));
+        Date dal = Date.valueOf(data.minusDays(1));
+        Date al  = Date.valueOf(data.plusDays(1));
 
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_CONFLITTO)) {
-
-            ps.setDate(1, Date.valueOf(data));
-            ps.setInt(2, idCliente);
-            ps.setInt(3, idDipendente);
+        try (PreparedStatement ps = conn.prepareStatement(SQL_CONFLITTO)) {
+            ps.setInt(1, idCliente);
+            ps.setDate(2, dal);
+            ps.setDate(3, al);
+            ps.setInt(4, idDipendente);
+            ps.setDate(5, dal);
+            ps.setDate(6, al);
 
             try (ResultSet rs = ps.executeQuery()) {
                 return hasConflictWithExisting(startNuova, endNuova, rs);
@@ -152,47 +195,126 @@ public class ConsulenzaDAO {
         return !(e1.compareTo(s2) <= 0 || s1.compareTo(e2) >= 0);
     }
 
+    /**
+     * Intervalli [inizio, fine) (minuti dall'epoch, vedi {@link IndiceConsulenze#minutiEpoch})
+     * già occupati dal cliente o dal dipendente tra {@code da} e {@code a}, ordinati per inizio.
+     * Letti dall'indice in memoria: {@code da} non deve precedere la giornata di ieri.
+     */
+    public static List<IndiceConsulenze.Voce> getIntervalliOccupati(int idCliente,
+                                                                    int idDipendente,
+                                                                    LocalDateTime da,
+                                                                    LocalDateTime a) throws SQLException {
+        return RegistroMetriche.misura("ConsulenzaDAO.getIntervalliOccupati",
+                () -> INDICE.occupati(idCliente, idDipendente,
+                        IndiceConsulenze.minutiEpoch(da), IndiceConsulenze.minutiEpoch(a)));
+    }
+
     // ==========================================================
     //  INSERIMENTO NUOVA CONSULENZA
     // ==========================================================
-    public static void inserisci(Consulenza c) throws Exception {
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_INSERISCI)) {
+    /**
+     * Inserisce la consulenza se né il cliente né il dipendente hanno già
+     * una consulenza sovrapposta. Righe di dipendente e cliente bloccate
+     * (sempre in quest'ordine), controllo su CONSULENZA e INSERT avvengono
+     * nella stessa transazione: due prenotazioni concorrenti per la stessa
+     * persona vengono serializzate e la seconda trova il conflitto.
+     *
+     * @return false (nessun inserimento) se c'è un conflitto di orario
+     */
+    public static boolean inserisci(Consulenza c) throws Exception {
+        boolean inserita = UtilsDAO.withConnection("ConsulenzaDAO.inserisci", conn -> inserisci(conn, c));
+
+        if (inserita) {
+            INDICE.aggiungi(creaVoceIndice(c.getIdConsulenza(), c.getIdCliente(), c.getIdDipendente(),
+                    c.getTipo(), c.getData(), c.getOra()));
+            CacheCliente.invalida(c.getIdCliente(), CacheCliente.Area.CONSULENZE);
+        } else if (INDICE.isCaricato() && !esisteSovrapposizioneInIndice(c)) {
+            // il conflitto viene da una consulenza che l'indice non conosce
+            // (scritta da un altro processo): lo ricarico per la ricerca degli slot
+            INDICE.invalida();
+        }
+        return inserita;
+    }
+
+    private static boolean inserisci(Connection conn, Consulenza c) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            blocca(conn, SQL_BLOCCA_DIPENDENTE, c.getIdDipendente());
+            blocca(conn, SQL_BLOCCA_CLIENTE, c.getIdCliente());
+
+            if (esisteConflittoSuDB(conn, c.getIdCliente(), c.getIdDipendente(),
+                    c.getTipo(), c.getData(), c.getOra())) {
+                conn.rollback();
+                return false;
+            }
 
-            ps.setInt(1, c.getIdCliente());
-            ps.setInt(2, c.getIdDipendente());
-            ps.setString(3, c.getTipo());
-            ps.setDate(4, Date.valueOf(c.getData()));
-            ps.setTime(5, Time.valueOf(c.getOra()));
-            ps.setString(6, c.getNote());
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERISCI, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, c.getIdCliente());
+                ps.setInt(2, c.getIdDipendente());
+                ps.setString(3, c.getTipo());
+                ps.setDate(4, Date.valueOf(c.getData()));
+                ps.setTime(5, Time.valueOf(c.getOra()));
+                ps.setString(6, c.getNote());
 
-            ps.executeUpdate();
+                ps.executeUpdate();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        c.setIdConsulenza(keys.getInt(1));
+                    }
+                }
+            }
+
+            conn.commit();
+            return true;
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            conn.setAutoCommit(true);
         }
     }
 
+    private static void blocca(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+        }
+    }
+
+    private static boolean esisteSovrapposizioneInIndice(Consulenza c) throws SQLException {
+        IndiceConsulenze.Voce voce = creaVoceIndice(0, c.getIdCliente(), c.getIdDipendente(),
+                c.getTipo(), c.getData(), c.getOra());
+        return INDICE.esisteSovrapposizione(voce.idCliente, voce.idDipendente, voce.inizio, voce.fine);
+    }
+
     // ==========================================================
     //  TESTO DETTAGLI CONSULENZE (HOME)
     // ==========================================================
     public static String buildDettaglioConsulenzePerCliente(int idCliente) throws Exception {
-        LocalDate today = LocalDate.now();
-        StringBuilder sb = new StringBuilder();
+        return RegistroMetriche.misura("ConsulenzaDAO.buildDettaglioConsulenzePerCliente", () -> {
+            LocalDate today = LocalDate.now();
+            StringBuilder sb = new StringBuilder();
 
-        // Future / programmate
-        List<ConsulenzaInfo> future =
-                caricaConsulenzePerCliente(idCliente, today, true);
+            // Future / programmate
+            List<ConsulenzaInfo> future =
+                    caricaConsulenzePerCliente(idCliente, today, true);
 
-        sb.append("CONSULENZE FUTURE / PROGRAMMATE\n\n");
-        appendConsulenzeDettaglio(sb, future, "Nessuna consulenza futura programmata.");
+            sb.append("CONSULENZE FUTURE / PROGRAMMATE\n\n");
+            appendConsulenzeDettaglio(sb, future, "Nessuna consulenza futura programmata.");
 
-        // Passate
-        List<ConsulenzaInfo> past =
-                caricaConsulenzePerCliente(idCliente, today, false);
+            // Passate
+            List<ConsulenzaInfo> past =
+                    caricaConsulenzePerCliente(idCliente, today, false);
 
-        sb.append("-------------------------------------\n");
-        sb.append("CONSULENZE PASSATE\n\n");
-        appendConsulenzeDettaglio(sb, past, "Nessuna consulenza passata registrata.\n");
+            sb.append("-------------------------------------\n");
+            sb.append("CONSULENZE PASSATE\n\n");
+            appendConsulenzeDettaglio(sb, past, "Nessuna consulenza passata registrata.\n");
 
-        return sb.toString();
+            return sb.toString();
+        });
     }
 
     // Carica consulenze future o passate per un cliente
@@ -290,35 +412,96 @@ public class ConsulenzaDAO {
     //  ESISTONO CONSULENZE FUTURE PER IL CLIENTE?
     // ==========================================================
     public static boolean esistonoConsulenzeFuturePerCliente(int idCliente) throws Exception {
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_CONSULENZE_FUTURE_COUNT)) {
+        return RegistroMetriche.misura("ConsulenzaDAO.esistonoConsulenzeFuturePerCliente", () -> {
+            try (Connection conn = GestioneDB.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_CONSULENZE_FUTURE_COUNT)) {
 
-            ps.setInt(1, idCliente);
-            ps.setDate(2, Date.valueOf(LocalDate.now()));
+                ps.setInt(1, idCliente);
+                ps.setDate(2, Date.valueOf(LocalDate.now()));
 
-            try (ResultSet rs = ps.executeQuery()) {
-                rs.next();
-                return rs.getInt(1) > 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1) > 0;
+                }
             }
-        }
+        });
     }
 
     // ==========================================================
     //  ELENCO CONSULENZE FUTURE (PER LA DISDETTA)
     // ==========================================================
     public static List<ConsulenzaInfo> getConsulenzeFuturePerCliente(int idCliente) throws Exception {
-        return caricaConsulenzePerCliente(idCliente, LocalDate.now(), true);
+        return RegistroMetriche.misura("ConsulenzaDAO.getConsulenzeFuturePerCliente",
+                () -> caricaConsulenzePerCliente(idCliente, LocalDate.now(), true));
     }
 
     // ==========================================================
     //  CANCELLAZIONE DI UNA SINGOLA CONSULENZA
     // ==========================================================
     public static void disdiciConsulenza(int idConsulenza) throws Exception {
+        RegistroMetriche.misuraAzione("ConsulenzaDAO.disdiciConsulenza", () -> {
+            try (Connection conn = GestioneDB.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_DELETE_CONSULENZA)) {
+
+                ps.setInt(1, idConsulenza);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        CacheCliente.invalida(rs.getInt(1), CacheCliente.Area.CONSULENZE);
+                    }
+                }
+            }
+
+            INDICE.rimuovi(idConsulenza);
+        });
+    }
+
+    // ==========================================================
+    //  CARICAMENTO / SINCRONIZZAZIONE INDICE
+    // ==========================================================
+
+    /** Da chiamare dopo aver cancellato in blocco le consulenze di un cliente. */
+    static void rimuoviClienteDaIndice(int idCliente) {
+        INDICE.rimuoviCliente(idCliente);
+    }
+
+    /** Forza il ricaricamento dell'indice dei conflitti alla prossima prenotazione. */
+    public static void invalidaIndiceConflitti() {
+        INDICE.invalida();
+    }
+
+    private static List<IndiceConsulenze.Voce> caricaIndice() throws SQLException {
+        LocalDate dal = LocalDate.now().minusDays(1);
+        List<IndiceConsulenze.Voce> voci = new ArrayList<>();
+
         try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL_DELETE_CONSULENZA)) {
+             PreparedStatement ps = conn.prepareStatement(SQL_CARICA_INDICE)) {
+
+            ps.setDate(1, Date.valueOf(dal));
 
-            ps.setInt(1, idConsulenza);
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    voci.add(creaVoceIndice(
+                            rs.getInt("ID_CONSULENZA"),
+                            rs.getInt("ID_CLIENTE"),
+                            rs.getInt("ID_DIPENDENTE"),
+                            rs.getString("TIPO"),
+                            rs.getDate("DATA_CONSULENZA").toLocalDate(),
+                            rs.getTime("ORA_CONSULENZA").toLocalTime()));
+                }
+            }
         }
+
+        return voci;
+    }
+
+    private static IndiceConsulenze.Voce creaVoceIndice(int idConsulenza,
+                                                        int idCliente,
+                                                        int idDipendente,
+                                                        String tipo,
+                                                        LocalDate data,
+                                                        LocalTime ora) {
+        long inizio = IndiceConsulenze.minutiEpoch(LocalDateTime.of(data, ora));
+        return new IndiceConsulenze.Voce(idConsulenza, idCliente, idDipendente,
+                inizio, inizio + durataStimataMinuti(tipo));
     }
 }
@@ -1,18 +1,22 @@
 package db.dao;
 
 import db.GestioneDB;
+import db.cache.CacheRiferimento;
+import metriche.RegistroMetriche;
+import model.OrarioDisponibilita;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class DipendenteDAO {
 
@@ -26,8 +30,28 @@ public class DipendenteDAO {
         }
     }
 
+    // ===================== CACHE DATI DI RIFERIMENTO =====================
+
+    private static final CacheRiferimento<String, List<DipendenteInfo>> PER_RUOLO =
+            new CacheRiferimento<>("dipendentiPerRuolo", CacheRiferimento.TTL_PREDEFINITO,
+                    DipendenteDAO::caricaPerRuolo);
+
+    private static final CacheRiferimento<Integer, String> DESCRIZIONI =
+            new CacheRiferimento<>("descrizioniDipendenti", CacheRiferimento.TTL_PREDEFINITO,
+                    DipendenteDAO::caricaDescrizione);
+
+    /** Da chiamare dopo aver modificato il personale (inserimenti, cambi di ruolo, dati anagrafici). */
+    public static void invalidaCacheDipendenti() {
+        PER_RUOLO.invalidaTutto();
+        DESCRIZIONI.invalidaTutto();
+    }
+
     /** Ritorna l’elenco dei dipendenti per ruolo (per popolare la combo) */
     public static List<DipendenteInfo> findByRuolo(String ruolo) throws Exception {
+        return RegistroMetriche.misura("DipendenteDAO.findByRuolo", () -> PER_RUOLO.get(ruolo));
+    }
+
+    private static List<DipendenteInfo> caricaPerRuolo(String ruolo) throws Exception {
         String sql = "SELECT ID_DIPENDENTE, NOME, COGNOME " +
                      "FROM DIPENDENTE WHERE RUOLO = ? ORDER BY COGNOME, NOME";
 
@@ -47,7 +71,7 @@ public class DipendenteDAO {
             }
         }
 
-        return lista;
+        return Collections.unmodifiableList(lista);
     }
 
     /**
@@ -56,7 +80,11 @@ public class DipendenteDAO {
      * (PERSONAL_TRAINER, NUTRIZIONISTA, ISTRUTTORE_CORSO).
      */
     public static String getDescrizioneDipendente(int idDipendente) throws Exception {
+        return RegistroMetriche.misura("DipendenteDAO.getDescrizioneDipendente",
+                () -> DESCRIZIONI.get(idDipendente));
+    }
 
+    private static String caricaDescrizione(int idDipendente) throws Exception {
         String sql =
                 "SELECT d.NOME, d.COGNOME, d.RUOLO, d.ORARIO_DISP, " +
                 "       pt.ANNI_ESPERIENZA, pt.CERTIFICATI, pt.PARTITA_IVA, " +
@@ -125,6 +153,19 @@ public class DipendenteDAO {
     //  NUOVO: VALIDAZIONE DISPONIBILITÀ DIPENDENTE (ORARIO_DISP)
     // ==========================================================
 
+    private static final String SQL_ORARI_TUTTI =
+            "SELECT ID_DIPENDENTE, ORARIO_DISP FROM DIPENDENTE";
+
+    private static final String SQL_ORARIO_DIPENDENTE =
+            "SELECT ORARIO_DISP FROM DIPENDENTE WHERE ID_DIPENDENTE = ?";
+
+    private static final String SQL_AGGIORNA_ORARIO =
+            "UPDATE DIPENDENTE SET ORARIO_DISP = ? WHERE ID_DIPENDENTE = ?";
+
+    // Orari già compilati, per id dipendente. Caricati tutti insieme alla prima richiesta.
+    private static final Map<Integer, OrarioDisponibilita> ORARI = new ConcurrentHashMap<>();
+    private static volatile boolean orariCaricati = false;
+
     /**
      * Verifica se un dipendente è disponibile nella fascia richiesta, in base al campo ORARIO_DISP.
      *
@@ -136,132 +177,95 @@ public class DipendenteDAO {
      *
      * Se ORARIO_DISP non contiene una fascia oraria (es. "Corsi serali"), il metodo ritorna true
      * per non alterare il comportamento pre-esistente (gestione non vincolata a orari).
+     *
+     * L'orario è compilato una sola volta ({@link OrarioDisponibilita}) e tenuto in cache:
+     * dopo il primo accesso la verifica non tocca il DB.
      */
     public static boolean isDisponibile(int idDipendente,
                                         LocalDate data,
                                         LocalTime oraInizio,
                                         int durataMinuti) throws Exception {
+        return RegistroMetriche.misura("DipendenteDAO.isDisponibile",
+                () -> getOrarioCompilato(idDipendente).isDisponibile(data, oraInizio, durataMinuti));
+    }
 
-        String orarioDisp = getOrarioDisponibilita(idDipendente);
-
-        // Nessuna info -> non blocco
-        if (orarioDisp == null || orarioDisp.trim().isEmpty()) {
-            return true;
-        }
+    /**
+     * Primo inizio possibile (da {@code da} in avanti, entro una settimana) per
+     * un appuntamento di {@code durataMinuti} con il dipendente, oppure null.
+     */
+    public static LocalDateTime prossimoSlotDisponibile(int idDipendente,
+                                                        LocalDateTime da,
+                                                        int durataMinuti) throws Exception {
+        return RegistroMetriche.misura("DipendenteDAO.prossimoSlotDisponibile",
+                () -> getOrarioCompilato(idDipendente).prossimoSlot(da, durataMinuti));
+    }
 
-        // Disponibilità non oraria (es. "Corsi serali") -> non blocco
-        if (!containsTimeRange(orarioDisp)) {
-            return true;
+    /** Orario compilato del dipendente (senza vincoli se il dipendente non esiste). */
+    public static OrarioDisponibilita getOrarioCompilato(int idDipendente) throws Exception {
+        if (!orariCaricati) {
+            caricaOrari();
         }
-
-        LocalTime oraFine = oraInizio.plusMinutes(durataMinuti);
-        DayOfWeek giorno = data.getDayOfWeek();
-
-        // Supporta più segmenti separati da ; o ,
-        String[] segmenti = orarioDisp.split("[;,]");
-        for (String seg : segmenti) {
-            if (matchesSegment(seg.trim(), giorno, oraInizio, oraFine)) {
-                return true;
-            }
+        OrarioDisponibilita orario = ORARI.get(idDipendente);
+        if (orario == null) {
+            // dipendente inserito dopo il caricamento
+            orario = OrarioDisponibilita.compila(getOrarioDisponibilita(idDipendente));
+            ORARI.put(idDipendente, orario);
         }
-        return false;
+        return orario;
     }
 
-    private static String getOrarioDisponibilita(int idDipendente) throws Exception {
-        String sql = "SELECT ORARIO_DISP FROM DIPENDENTE WHERE ID_DIPENDENTE = ?";
-
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+    /** Aggiorna ORARIO_DISP e sostituisce l'orario compilato in cache. */
+    public static void aggiornaOrarioDisponibilita(int idDipendente, String orarioDisp) throws Exception {
+        RegistroMetriche.misuraAzione("DipendenteDAO.aggiornaOrarioDisponibilita", () -> {
+            try (Connection conn = GestioneDB.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(SQL_AGGIORNA_ORARIO)) {
 
-            ps.setInt(1, idDipendente);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("ORARIO_DISP");
+                ps.setString(1, orarioDisp);
+                ps.setInt(2, idDipendente);
+                if (ps.executeUpdate() == 0) {
+                    throw new Exception("Dipendente non trovato: " + idDipendente);
                 }
             }
-        }
-        return null;
+            ORARI.put(idDipendente, OrarioDisponibilita.compila(orarioDisp));
+            // la descrizione riporta la disponibilità
+            DESCRIZIONI.invalida(idDipendente);
+        });
     }
 
-    private static final Pattern TIME_RANGE =
-            Pattern.compile("(\\d{1,2}:\\d{2})\\s*-\\s*(\\d{1,2}:\\d{2})");
-
-    private static boolean containsTimeRange(String s) {
-        return TIME_RANGE.matcher(s).find();
+    /** Da chiamare se ORARIO_DISP viene modificato fuori da questo DAO. */
+    public static void invalidaCacheOrari() {
+        orariCaricati = false;
+        ORARI.clear();
+        DESCRIZIONI.invalidaTutto();
     }
 
-    private static boolean matchesSegment(String segment,
-                                          DayOfWeek giorno,
-                                          LocalTime oraInizio,
-                                          LocalTime oraFine) {
-
-        if (segment == null || segment.isEmpty()) return false;
-
-        // Il token dei giorni è il primo elemento (es. "Sab" o "Lun-Ven")
-        String[] parts = segment.split("\\s+");
-        if (parts.length < 2) return false;
-
-        String giorniToken = parts[0].trim();
-
-        Matcher m = TIME_RANGE.matcher(segment);
-        if (!m.find()) return false;
-
-        LocalTime dispStart;
-        LocalTime dispEnd;
-        try {
-            dispStart = LocalTime.parse(m.group(1));
-            dispEnd   = LocalTime.parse(m.group(2));
-        } catch (Exception e) {
-            return false;
+    private static synchronized void caricaOrari() throws Exception {
+        if (orariCaricati) {
+            return;
         }
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_ORARI_TUTTI);
+             ResultSet rs = ps.executeQuery()) {
 
-        if (!dayMatches(giorniToken, giorno)) {
-            return false;
+            while (rs.next()) {
+                ORARI.put(rs.getInt("ID_DIPENDENTE"),
+                          OrarioDisponibilita.compila(rs.getString("ORARIO_DISP")));
+            }
         }
-
-        // Intervallo richiesto [oraInizio, oraFine) deve stare dentro [dispStart, dispEnd]
-        return !oraInizio.isBefore(dispStart) && !oraFine.isAfter(dispEnd);
+        orariCaricati = true;
     }
 
-    private static boolean dayMatches(String token, DayOfWeek day) {
-        token = token.trim();
-
-        if (!token.contains("-")) {
-            DayOfWeek single = parseItDay(token);
-            return single != null && single == day;
-        }
-
-        String[] ab = token.split("-");
-        if (ab.length != 2) return false;
-
-        DayOfWeek start = parseItDay(ab[0].trim());
-        DayOfWeek end   = parseItDay(ab[1].trim());
-        if (start == null || end == null) return false;
-
-        int s = start.getValue(); // MON=1 ... SUN=7
-        int e = end.getValue();
-        int d = day.getValue();
+    private static String getOrarioDisponibilita(int idDipendente) throws Exception {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_ORARIO_DIPENDENTE)) {
 
-        // Range normale (es. Lun-Ven)
-        if (s <= e) {
-            return d >= s && d <= e;
+            ps.setInt(1, idDipendente);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("ORARIO_DISP");
+                }
+            }
         }
-
-        // Range che attraversa la domenica (robustezza, es. Ven-Lun)
-        return d >= s || d <= e;
-    }
-
-    private static DayOfWeek parseItDay(String abbr) {
-        String a = abbr.toLowerCase();
-
-        // accettiamo sia abbreviazioni che forme estese (robustezza)
-        if (a.startsWith("lun")) return DayOfWeek.MONDAY;
-        if (a.startsWith("mar")) return DayOfWeek.TUESDAY;
-        if (a.startsWith("mer")) return DayOfWeek.WEDNESDAY;
-        if (a.startsWith("gio")) return DayOfWeek.THURSDAY;
-        if (a.startsWith("ven")) return DayOfWeek.FRIDAY;
-        if (a.startsWith("sab")) return DayOfWeek.SATURDAY;
-        if (a.startsWith("dom")) return DayOfWeek.SUNDAY;
         return null;
     }
 }
@@ -0,0 +1,273 @@
+package db.dao;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indice in memoria degli intervalli occupati dalle consulenze,
+ * per cliente e per dipendente.
+ *
+ * Per ogni persona gli intervalli sono in una TreeMap ordinata per minuto di inizio
+ * (minuti dall'epoch): una sovrapposizione con [inizio, fine) può venire solo da
+ * intervalli che iniziano in (inizio - durataMassima, fine), per cui il controllo
+ * costa O(log n + k) senza accedere al DB.
+ *
+ * L'indice è caricato alla prima interrogazione e aggiornato da {@link ConsulenzaDAO}
+ * a ogni inserimento e disdetta. Non vede le consulenze scritte da altri processi
+ * collegati allo stesso DB: è un filtro veloce per la ricerca degli slot, mentre
+ * il controllo vincolante resta quello fatto su CONSULENZA al momento dell'inserimento.
+ */
+public final class IndiceConsulenze {
+
+    /** Carica le consulenze da indicizzare (tipicamente da oggi in poi). */
+    @FunctionalInterface
+    public interface Caricatore {
+        Collection<Voce> carica() throws SQLException;
+    }
+
+    /** Intervallo [inizio, fine) di una consulenza, in minuti dall'epoch. */
+    public static final class Voce {
+        public final int idConsulenza;
+        public final int idCliente;
+        public final int idDipendente;
+        public final long inizio;
+        public final long fine;
+
+        public Voce(int idConsulenza, int idCliente, int idDipendente, long inizio, long fine) {
+            this.idConsulenza = idConsulenza;
+            this.idCliente = idCliente;
+            this.idDipendente = idDipendente;
+            this.inizio = inizio;
+            this.fine = fine;
+        }
+    }
+
+    private final Caricatore caricatore;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, NavigableMap<Long, List<Voce>>> perCliente = new HashMap<>();
+    private final Map<Integer, NavigableMap<Long, List<Voce>>> perDipendente = new HashMap<>();
+    private final Map<Integer, Voce> perId = new HashMap<>();
+
+    private long durataMassima = 0;
+    private volatile boolean caricato = false;
+
+    public IndiceConsulenze(Caricatore caricatore) {
+        this.caricatore = caricatore;
+    }
+
+    public static long minutiEpoch(LocalDateTime istante) {
+        return istante.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // ==========================================================
+    //  INTERROGAZIONE
+    // ==========================================================
+
+    /**
+     * True se il cliente o il dipendente hanno già una consulenza
+     * che si sovrappone a [inizio, fine).
+     */
+    public boolean esisteSovrapposizione(int idCliente, int idDipendente,
+                                         long inizio, long fine) throws SQLException {
+        assicuraCaricato();
+        lock.readLock().lock();
+        try {
+            return sovrapposto(perCliente.get(idCliente), inizio, fine)
+                    || sovrapposto(perDipendente.get(idDipendente), inizio, fine);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean sovrapposto(NavigableMap<Long, List<Voce>> intervalli, long inizio, long fine) {
+        if (intervalli == null) {
+            return false;
+        }
+        for (List<Voce> stessoInizio : intervalli.subMap(inizio - durataMassima, false, fine, false).values()) {
+            for (Voce v : stessoInizio) {
+                if (v.fine > inizio && v.inizio < fine) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Consulenze del cliente o del dipendente che si sovrappongono a [da, a),
+     * ordinate per inizio. Usato dalla ricerca degli slot liberi.
+     */
+    public List<Voce> occupati(int idCliente, int idDipendente, long da, long a) throws SQLException {
+        assicuraCaricato();
+        List<Voce> risultato = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            raccogli(perCliente.get(idCliente), da, a, risultato);
+            raccogli(perDipendente.get(idDipendente), da, a, risultato);
+        } finally {
+            lock.readLock().unlock();
+        }
+        risultato.sort(Comparator.comparingLong(v -> v.inizio));
+        return risultato;
+    }
+
+    private void raccogli(NavigableMap<Long, List<Voce>> intervalli, long da, long a, List<Voce> risultato) {
+        if (intervalli == null) {
+            return;
+        }
+        for (List<Voce> stessoInizio : intervalli.subMap(da - durataMassima, false, a, false).values()) {
+            for (Voce v : stessoInizio) {
+                if (v.fine > da && v.inizio < a) {
+                    risultato.add(v);
+                }
+            }
+        }
+    }
+
+    public boolean isCaricato() {
+        return caricato;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return perId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    //  AGGIORNAMENTO
+    // ==========================================================
+
+    /** Aggiunge una consulenza appena salvata (ignorata se l'indice non è ancora caricato). */
+    public void aggiungi(Voce voce) {
+        // controllo sotto lock: un caricamento in corso tiene il lock in scrittura
+        lock.writeLock().lock();
+        try {
+            if (caricato) {
+                inserisciVoce(voce);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rimuovi(int idConsulenza) {
+        lock.writeLock().lock();
+        try {
+            Voce voce = perId.remove(idConsulenza);
+            if (voce != null) {
+                togli(perCliente, voce.idCliente, voce);
+                togli(perDipendente, voce.idDipendente, voce);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rimuoviCliente(int idCliente) {
+        lock.writeLock().lock();
+        try {
+            NavigableMap<Long, List<Voce>> delCliente = perCliente.remove(idCliente);
+            if (delCliente == null) {
+                return;
+            }
+            for (List<Voce> voci : delCliente.values()) {
+                for (Voce voce : voci) {
+                    perId.remove(voce.idConsulenza);
+                    togli(perDipendente, voce.idDipendente, voce);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Svuota l'indice: verrà ricaricato alla prossima interrogazione. */
+    public void invalida() {
+        lock.writeLock().lock();
+        try {
+            caricato = false;
+            svuota();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==========================================================
+    //  SUPPORTO
+    // ==========================================================
+
+    private void assicuraCaricato() throws SQLException {
+        if (caricato) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (caricato) {
+                return;
+            }
+            svuota();
+            for (Voce voce : caricatore.carica()) {
+                inserisciVoce(voce);
+            }
+            caricato = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void inserisciVoce(Voce voce) {
+        // idempotente: un inserimento concorrente al caricamento può arrivare due volte
+        if (perId.putIfAbsent(voce.idConsulenza, voce) != null) {
+            return;
+        }
+        metti(perCliente, voce.idCliente, voce);
+        metti(perDipendente, voce.idDipendente, voce);
+        durataMassima = Math.max(durataMassima, voce.fine - voce.inizio);
+    }
+
+    private static void metti(Map<Integer, NavigableMap<Long, List<Voce>>> indice, int chiave, Voce voce) {
+        indice.computeIfAbsent(chiave, k -> new TreeMap<>())
+              .computeIfAbsent(voce.inizio, k -> new ArrayList<>(1))
+              .add(voce);
+    }
+
+    private static void togli(Map<Integer, NavigableMap<Long, List<Voce>>> indice, int chiave, Voce voce) {
+        NavigableMap<Long, List<Voce>> intervalli = indice.get(chiave);
+        if (intervalli == null) {
+            return;
+        }
+        List<Voce> stessoInizio = intervalli.get(voce.inizio);
+        if (stessoInizio != null) {
+            stessoInizio.remove(voce);
+            if (stessoInizio.isEmpty()) {
+                intervalli.remove(voce.inizio);
+            }
+        }
+        if (intervalli.isEmpty()) {
+            indice.remove(chiave);
+        }
+    }
+
+    private void svuota() {
+        perCliente.clear();
+        perDipendente.clear();
+        perId.clear();
+        durataMassima = 0;
+    }
+}
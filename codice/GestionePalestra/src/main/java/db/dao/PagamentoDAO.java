@@ -1,6 +1,7 @@
 package db.dao;
 
 import db.GestioneDB;
+import metriche.RegistroMetriche;
 import model.Pagamento;
 
 import org.apache.logging.log4j.LogManager;
@@ -20,38 +21,39 @@ public class PagamentoDAO {
     public static void salvaPagamento(Pagamento pagamento,
                                       int idCliente,
                                       String idAbbonamento) {
+        RegistroMetriche.misuraAzione("PagamentoDAO.salvaPagamento", () -> {
+            if (pagamento == null || idAbbonamento == null) {
+                return;
+            }
 
-        if (pagamento == null || idAbbonamento == null) {
-            return;
-        }
+            String sql = "INSERT INTO PAGAMENTO " +
+                         "(METODO, IMPORTO, DATA_PAGAMENTO, ID_CLIENTE, ID_ABBONAMENTO) " +
+                         "VALUES (?, ?, ?, ?, ?)";
 
-        String sql = "INSERT INTO PAGAMENTO " +
-                     "(METODO, IMPORTO, DATA_PAGAMENTO, ID_CLIENTE, ID_ABBONAMENTO) " +
-                     "VALUES (?, ?, ?, ?, ?)";
+            try (Connection conn = GestioneDB.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
 
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, pagamento.getMetodo());
+                ps.setInt(2, (int) pagamento.getImporto());
 
-            ps.setString(1, pagamento.getMetodo());
-            ps.setInt(2, (int) pagamento.getImporto());
+                Date data = pagamento.getDataPagamento();
+                java.sql.Date dataSql = new java.sql.Date(data.getTime());
+                ps.setDate(3, dataSql);
 
-            Date data = pagamento.getDataPagamento();
-            java.sql.Date dataSql = new java.sql.Date(data.getTime());
-            ps.setDate(3, dataSql);
+                ps.setInt(4, idCliente);
+                ps.setString(5, idAbbonamento);
 
-            ps.setInt(4, idCliente);
-            ps.setString(5, idAbbonamento);
+                int rows = ps.executeUpdate();
+                if (rows > 0) {
+                    logger.info("Pagamento salvato per cliente {} e abbonamento {}",
+                            idCliente, idAbbonamento);
+                } else {
+                    logger.warn("Nessun pagamento salvato per cliente {}", idCliente);
+                }
 
-            int rows = ps.executeUpdate();
-            if (rows > 0) {
-                logger.info("Pagamento salvato per cliente {} e abbonamento {}",
-                        idCliente, idAbbonamento);
-            } else {
-                logger.warn("Nessun pagamento salvato per cliente {}", idCliente);
+            } catch (SQLException e) {
+                logger.error("Errore nel salvataggio pagamento per cliente {}", idCliente, e);
             }
-
-        } catch (SQLException e) {
-            logger.error("Errore nel salvataggio pagamento per cliente {}", idCliente, e);
-        }
+        });
     }
 }
@@ -1,9 +1,12 @@
 package db.dao;
 
 import db.GestioneDB;
+import db.cache.CacheRiferimento;
+import metriche.RegistroMetriche;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -11,6 +14,9 @@ import java.util.List;
  * - sala pesi (info generali + elenco macchinari)
  * - SPA
  * - sale corsi
+ *
+ * I dati cambiano solo per interventi amministrativi: le letture passano da
+ * una {@link CacheRiferimento} con TTL, svuotabile con {@link #invalidaCache()}.
  */
 public class PalestraDAO {
 
@@ -122,10 +128,56 @@ public class PalestraDAO {
         }
     }
 
+    // ===================== CACHE =====================
+
+    // dati senza parametri: una sola voce per cache
+    private static final String UNICA = "UNICA";
+
+    private static final CacheRiferimento<String, SalaPesiInfo> SALA_PESI =
+            new CacheRiferimento<>("salaPesi", CacheRiferimento.TTL_PREDEFINITO,
+                    chiave -> caricaSalaPesiInfo());
+
+    private static final CacheRiferimento<String, List<MacchinarioInfo>> MACCHINARI =
+            new CacheRiferimento<>("macchinari", CacheRiferimento.TTL_PREDEFINITO,
+                    chiave -> caricaMacchinariSalaPesi());
+
+    private static final CacheRiferimento<String, SpaInfo> SPA =
+            new CacheRiferimento<>("spa", CacheRiferimento.TTL_PREDEFINITO,
+                    chiave -> caricaSpaInfo());
+
+    private static final CacheRiferimento<String, List<SalaCorsoInfo>> SALE_CORSI =
+            new CacheRiferimento<>("saleCorsi", CacheRiferimento.TTL_PREDEFINITO,
+                    chiave -> caricaSaleCorsiInfo());
+
+    /** Da chiamare dopo aver modificato sale o macchinari. */
+    public static void invalidaCache() {
+        SALA_PESI.invalidaTutto();
+        MACCHINARI.invalidaTutto();
+        SPA.invalidaTutto();
+        SALE_CORSI.invalidaTutto();
+    }
+
+    /** Avvisa l'ascoltatore a ogni invalidazione dei dati di sale e macchinari. */
+    public static void aggiungiAscoltatoreCache(Runnable ascoltatore) {
+        SALA_PESI.aggiungiAscoltatore(chiave -> ascoltatore.run());
+        MACCHINARI.aggiungiAscoltatore(chiave -> ascoltatore.run());
+        SPA.aggiungiAscoltatore(chiave -> ascoltatore.run());
+        SALE_CORSI.aggiungiAscoltatore(chiave -> ascoltatore.run());
+    }
+
     // ===================== SALA PESI =====================
 
     /** Ritorna l’unica sala pesi (join SALA + SALA_PESI). */
     public static SalaPesiInfo getSalaPesiInfo() throws Exception {
+        return RegistroMetriche.misura("PalestraDAO.getSalaPesiInfo", () -> SALA_PESI.get(UNICA));
+    }
+
+    /** Elenco dei macchinari in sala pesi. */
+    public static List<MacchinarioInfo> getMacchinariSalaPesi() throws Exception {
+        return RegistroMetriche.misura("PalestraDAO.getMacchinariSalaPesi", () -> MACCHINARI.get(UNICA));
+    }
+
+    private static SalaPesiInfo caricaSalaPesiInfo() throws Exception {
         String sql =
                 "SELECT s.ID_SALA, s.ORARI_APERTURA, s.CAPIENZA, s.DISPONIBILITA, " +
                 "       p.METRATURA, p.NUM_MACCHINARI, p.NUM_PANCHE, p.NUM_PESI_LIBERI " +
@@ -156,8 +208,7 @@ public class PalestraDAO {
         }
     }
 
-    /** Elenco dei macchinari in sala pesi. */
-    public static List<MacchinarioInfo> getMacchinariSalaPesi() throws Exception {
+    private static List<MacchinarioInfo> caricaMacchinariSalaPesi() throws Exception {
         String sql =
                 "SELECT ID_MACCHINARIO, NOME, MARCA, CAPACITA_CARICO, OCCUPATO " +
                 "FROM MACCHINARIO " +
@@ -181,13 +232,17 @@ public class PalestraDAO {
             }
         }
 
-        return list;
+        return Collections.unmodifiableList(list);
     }
 
     // ===================== SPA =====================
 
     /** Ritorna la SPA (join SALA + SPA). */
     public static SpaInfo getSpaInfo() throws Exception {
+        return RegistroMetriche.misura("PalestraDAO.getSpaInfo", () -> SPA.get(UNICA));
+    }
+
+    private static SpaInfo caricaSpaInfo() throws Exception {
         String sql =
                 "SELECT s.ID_SALA, s.ORARI_APERTURA, s.CAPIENZA, s.DISPONIBILITA, " +
                 "       sp.NUM_SAUNE, sp.NUM_PISCINE " +
@@ -217,6 +272,10 @@ public class PalestraDAO {
 
     /** Ritorna le info delle sale corsi (Spinning, Pilates, AcquaGym, …). */
     public static List<SalaCorsoInfo> getSaleCorsiInfo() throws Exception {
+        return RegistroMetriche.misura("PalestraDAO.getSaleCorsiInfo", () -> SALE_CORSI.get(UNICA));
+    }
+
+    private static List<SalaCorsoInfo> caricaSaleCorsiInfo() throws Exception {
         String sql =
                 "SELECT s.ID_SALA, s.ORARI_APERTURA, s.CAPIENZA, s.DISPONIBILITA, " +
                 "       c.ORARIO_CORSO " +
@@ -243,6 +302,6 @@ public class PalestraDAO {
             }
         }
 
-        return list;
+        return Collections.unmodifiableList(list);
     }
 }
@@ -1,6 +1,7 @@
 package db.dao;
 
 import db.GestioneDB;
+import metriche.RegistroMetriche;
 
 import java.sql.Connection;
 
@@ -18,9 +19,15 @@ public final class UtilsDAO {
         T execute(Connection conn) throws Exception;
     }
 
-    public static <T> T withConnection(SqlAction<T> action) throws Exception {
-        try (Connection conn = GestioneDB.getConnection()) {
-            return action.execute(conn);
-        }
+    /**
+     * Esegue l'azione con una connessione del pool, misurandone il tempo
+     * (attesa della connessione compresa) nel timer {@code nome} del registro metriche.
+     */
+    public static <T> T withConnection(String nome, SqlAction<T> action) throws Exception {
+        return RegistroMetriche.misura(nome, () -> {
+            try (Connection conn = GestioneDB.getConnection()) {
+                return action.execute(conn);
+            }
+        });
     }
 }
@@ -1,6 +1,8 @@
 package db.dao.corso;
 
+import db.cache.CacheRiferimento;
 import db.dao.UtilsDAO;
+import metriche.RegistroMetriche;
 import model.corsi.CorsoInfo;
 
 import java.sql.Connection;
@@ -8,6 +10,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class CorsoDAO {
@@ -16,13 +19,28 @@ public class CorsoDAO {
             "SELECT ID_CORSO, NOME, DESCRIZIONE, DURATA_MINUTI " +
             "FROM CORSO ORDER BY NOME";
 
-    private static final String SQL_COUNT_CORSI =
-            "SELECT COUNT(*) FROM CORSO";
+    // il catalogo cambia di rado: viene letto una volta e condiviso tra le schermate
+    private static final String CATALOGO_COMPLETO = "TUTTI";
+
+    private static final CacheRiferimento<String, List<CorsoInfo>> CATALOGO =
+            new CacheRiferimento<>("catalogoCorsi", CacheRiferimento.TTL_PREDEFINITO,
+                    chiave -> Collections.unmodifiableList(
+                            UtilsDAO.withConnection("CorsoDAO.caricaCatalogo", CorsoDAO::getTuttiICorsi)));
 
     // ===================== CORSI =====================
 
     public static List<CorsoInfo> getTuttiICorsi() throws Exception {
-        return UtilsDAO.withConnection(CorsoDAO::getTuttiICorsi);
+        return RegistroMetriche.misura("CorsoDAO.getTuttiICorsi", () -> CATALOGO.get(CATALOGO_COMPLETO));
+    }
+
+    /** Da chiamare dopo aver modificato il catalogo dei corsi. */
+    public static void invalidaCache() {
+        CATALOGO.invalidaTutto();
+    }
+
+    /** Avvisa l'ascoltatore a ogni invalidazione del catalogo. */
+    public static void aggiungiAscoltatoreCache(Runnable ascoltatore) {
+        CATALOGO.aggiungiAscoltatore(chiave -> ascoltatore.run());
     }
 
     private static List<CorsoInfo> getTuttiICorsi(Connection conn) throws SQLException {
@@ -47,17 +65,6 @@ public class CorsoDAO {
     // ===================== CHECK DI ESISTENZA =====================
 
     public static boolean esistonoCorsi() throws Exception {
-        return UtilsDAO.withConnection(CorsoDAO::esistonoCorsi);
-    }
-
-    private static boolean esistonoCorsi(Connection conn) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_COUNT_CORSI);
-             ResultSet rs = ps.executeQuery()) {
-
-            if (!rs.next()) {
-                return false;
-            }
-            return rs.getInt(1) > 0;
-        }
+        return !getTuttiICorsi().isEmpty();
     }
 }
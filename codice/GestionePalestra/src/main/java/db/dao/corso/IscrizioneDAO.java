@@ -1,7 +1,12 @@
 package db.dao.corso;
 
+import db.cache.CacheCliente;
 import db.dao.UtilsDAO;
+import metriche.RegistroMetriche;
+import model.corsi.EsitoIscrizione;
 import model.corsi.IscrizioneInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.sql.Connection;
 import java.sql.Date;
@@ -18,25 +23,64 @@ import java.util.List;
 
 public class IscrizioneDAO {
 
-    private static final String SQL_CONFLITTO_CLIENTE =
-            "SELECT L.DATA_LEZIONE, L.ORA_LEZIONE, C.DURATA_MINUTI " +
-            "FROM ISCRIZIONE_CORSO I " +
-            "JOIN LEZIONE_CORSO L ON I.ID_LEZIONE = L.ID_LEZIONE " +
-            "JOIN CORSO C ON L.ID_CORSO = C.ID_CORSO " +
-            "WHERE I.ID_CLIENTE = ? AND L.DATA_LEZIONE = ?";
+    private static final Logger logger =
+            LogManager.getLogger(IscrizioneDAO.class);
 
-    private static final String SQL_LEZIONE_POSTI =
-            "SELECT POSTI_TOTALI, POSTI_PRENOTATI FROM LEZIONE_CORSO WHERE ID_LEZIONE = ?";
+    // ===================== DTO =====================
 
-    private static final String SQL_LEZIONE_POSTI_FOR_UPDATE =
-            "SELECT POSTI_TOTALI, POSTI_PRENOTATI FROM LEZIONE_CORSO " +
-            "WHERE ID_LEZIONE = ? FOR UPDATE";
+    /** Una lezione del dettaglio iscrizioni: inizio e testo già formattato. */
+    public static class RigaDettaglioIscrizione {
+        public final LocalDateTime inizio;
+        public final String testo;
 
-    private static final String SQL_UPDATE_POSTI_INC =
-            "UPDATE LEZIONE_CORSO SET POSTI_PRENOTATI = POSTI_PRENOTATI + 1 WHERE ID_LEZIONE = ?";
+        public RigaDettaglioIscrizione(LocalDateTime inizio, String testo) {
+            this.inizio = inizio;
+            this.testo = testo;
+        }
+    }
+
+    /*
+     * Altra lezione del cliente (I / L2 / C2), nello stesso giorno, che si sovrappone
+     * alla lezione L del corso C (estremi inclusi). Gli orari sono confrontati
+     * in minuti dall'inizio della giornata.
+     */
+    private static final String COND_SOVRAPPOSIZIONE =
+            "      SELECT 1 FROM ISCRIZIONE_CORSO I " +
+            "      JOIN LEZIONE_CORSO L2 ON I.ID_LEZIONE = L2.ID_LEZIONE " +
+            "      JOIN CORSO C2 ON L2.ID_CORSO = C2.ID_CORSO " +
+            "      JOIN CORSO C ON C.ID_CORSO = L.ID_CORSO " +
+            "      WHERE I.ID_CLIENTE = ? " +
+            "        AND L2.DATA_LEZIONE = L.DATA_LEZIONE " +
+            "        AND HOUR(L.ORA_LEZIONE) * 60 + MINUTE(L.ORA_LEZIONE) " +
+            "            <= HOUR(L2.ORA_LEZIONE) * 60 + MINUTE(L2.ORA_LEZIONE) + C2.DURATA_MINUTI " +
+            "        AND HOUR(L.ORA_LEZIONE) * 60 + MINUTE(L.ORA_LEZIONE) + C.DURATA_MINUTI " +
+            "            >= HOUR(L2.ORA_LEZIONE) * 60 + MINUTE(L2.ORA_LEZIONE)";
+
+    /*
+     * Prenotazione del posto in un'unica istruzione: il contatore sale solo se
+     * - la lezione ha ancora posti liberi
+     * - il cliente non ha un'altra lezione sovrapposta
+     *   (vale anche per la lezione stessa = già iscritto).
+     * Il lock di riga dura solo fino al commit dell'INSERT che segue.
+     */
+    private static final String SQL_PRENOTA_POSTO =
+            "UPDATE LEZIONE_CORSO L SET POSTI_PRENOTATI = POSTI_PRENOTATI + 1 " +
+            "WHERE L.ID_LEZIONE = ? " +
+            "  AND L.POSTI_PRENOTATI < L.POSTI_TOTALI " +
+            "  AND NOT EXISTS (" + COND_SOVRAPPOSIZIONE + ")";
+
+    // Eseguita solo se la prenotazione fallisce, per spiegare il motivo all'utente:
+    // ogni motivo è verificato esplicitamente (la sovrapposizione esclude la lezione stessa)
+    private static final String SQL_DIAGNOSI_ISCRIZIONE =
+            "SELECT L.POSTI_TOTALI, L.POSTI_PRENOTATI, " +
+            "       EXISTS (SELECT 1 FROM ISCRIZIONE_CORSO I " +
+            "               WHERE I.ID_LEZIONE = L.ID_LEZIONE AND I.ID_CLIENTE = ?) AS GIA_ISCRITTO, " +
+            "       EXISTS (" + COND_SOVRAPPOSIZIONE + " AND L2.ID_LEZIONE <> L.ID_LEZIONE) AS SOVRAPPOSTA " +
+            "FROM LEZIONE_CORSO L WHERE L.ID_LEZIONE = ?";
 
     private static final String SQL_UPDATE_POSTI_DEC =
-            "UPDATE LEZIONE_CORSO SET POSTI_PRENOTATI = POSTI_PRENOTATI - 1 WHERE ID_LEZIONE = ?";
+            "UPDATE LEZIONE_CORSO SET POSTI_PRENOTATI = POSTI_PRENOTATI - 1 " +
+            "WHERE ID_LEZIONE = ? AND POSTI_PRENOTATI > 0";
 
     private static final String SQL_INSERT_ISCRIZIONE =
             "INSERT INTO ISCRIZIONE_CORSO (ID_CLIENTE, ID_LEZIONE) VALUES (?, ?)";
@@ -72,136 +116,75 @@ public class IscrizioneDAO {
             "JOIN LEZIONE_CORSO L ON I.ID_LEZIONE = L.ID_LEZIONE " +
             "WHERE I.ID_CLIENTE = ? AND L.DATA_LEZIONE >= ?";
 
-    // ===================== CONFLITTI =====================
-
-    public static boolean esisteConflittoPerCliente(int idCliente,
-                                                    LocalDate dataNuova,
-                                                    LocalTime oraNuova,
-                                                    int durataNuovaMin) throws Exception {
-
-        LocalDateTime inizioNuovo = LocalDateTime.of(dataNuova, oraNuova);
-        LocalDateTime fineNuovo   = inizioNuovo.plusMinutes(durataNuovaMin);
-
-        return UtilsDAO.withConnection(conn ->
-                esisteConflittoPerCliente(conn, idCliente, dataNuova, inizioNuovo, fineNuovo));
-    }
-
-    private static boolean esisteConflittoPerCliente(Connection conn,
-                                                     int idCliente,
-                                                     LocalDate dataNuova,
-                                                     LocalDateTime inizioNuovo,
-                                                     LocalDateTime fineNuovo) throws SQLException {
-
-        try (PreparedStatement ps = conn.prepareStatement(SQL_CONFLITTO_CLIENTE)) {
-            ps.setInt(1, idCliente);
-            ps.setDate(2, Date.valueOf(dataNuova));
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    if (esisteOverlapConIscrizioneEsistente(rs, inizioNuovo, fineNuovo)) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
-    }
-
-    private static boolean esisteOverlapConIscrizioneEsistente(ResultSet rs,
-                                                               LocalDateTime inizioNuovo,
-                                                               LocalDateTime fineNuovo) throws SQLException {
-
-        LocalDate dataEsistente = rs.getDate("DATA_LEZIONE").toLocalDate();
-        LocalTime oraEsistente  = rs.getTime("ORA_LEZIONE").toLocalTime();
-        int durataEsistente     = rs.getInt("DURATA_MINUTI");
-
-        LocalDateTime inizioEsistente = LocalDateTime.of(dataEsistente, oraEsistente);
-        LocalDateTime fineEsistente   = inizioEsistente.plusMinutes(durataEsistente);
-
-        return intervalliSiSovrappongono(inizioNuovo, fineNuovo, inizioEsistente, fineEsistente);
-    }
-
-    private static boolean intervalliSiSovrappongono(LocalDateTime inizio1,
-                                                     LocalDateTime fine1,
-                                                     LocalDateTime inizio2,
-                                                     LocalDateTime fine2) {
-        return !inizio1.isAfter(fine2) && !fine1.isBefore(inizio2);
-    }
-
-    // ===================== POSTI DISPONIBILI =====================
-
-    public static boolean haPostiDisponibili(int idLezione) throws Exception {
-        return UtilsDAO.withConnection(conn -> haPostiDisponibili(conn, idLezione));
-    }
-
-    private static boolean haPostiDisponibili(Connection conn,
-                                              int idLezione) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement(SQL_LEZIONE_POSTI)) {
-            ps.setInt(1, idLezione);
-            try (ResultSet rs = ps.executeQuery()) {
-                return verificaPostiDisponibili(rs);
-            }
-        }
-    }
-
-    private static boolean verificaPostiDisponibili(ResultSet rs) throws SQLException {
-        if (!rs.next()) {
-            return false;
-        }
-        int tot = rs.getInt("POSTI_TOTALI");
-        int pren = rs.getInt("POSTI_PRENOTATI");
-        return pren < tot;
-    }
-
     // ===================== ISCRIZIONE =====================
 
-    public static void iscriviClienteALezione(int idCliente, int idLezione) throws Exception {
-    	UtilsDAO.withConnection(conn -> {
-            iscriviClienteALezione(conn, idCliente, idLezione);
-            return null;
-        });
+    /**
+     * Iscrive il cliente alla lezione: controllo posti, controllo conflitti orari,
+     * incremento del contatore e inserimento dell'iscrizione avvengono
+     * in un'unica transazione breve, senza letture preliminari.
+     */
+    public static EsitoIscrizione iscriviClienteALezione(int idCliente, int idLezione) throws Exception {
+        EsitoIscrizione esito = UtilsDAO.withConnection("IscrizioneDAO.iscriviClienteALezione",
+                conn -> iscriviClienteALezione(conn, idCliente, idLezione));
+        RegistroMetriche.contatore("IscrizioneDAO.esito." + esito).incrementa();
+        if (esito == EsitoIscrizione.OK) {
+            CacheCliente.invalida(idCliente, CacheCliente.Area.CORSI);
+        }
+        return esito;
     }
 
-    private static void iscriviClienteALezione(Connection conn,
-                                               int idCliente,
-                                               int idLezione) throws Exception {
+    private static EsitoIscrizione iscriviClienteALezione(Connection conn,
+                                                          int idCliente,
+                                                          int idLezione) throws SQLException {
         conn.setAutoCommit(false);
         try {
-            verificaPostiDisponibiliPerTransazione(conn, idLezione);
-            incrementaPostiPrenotati(conn, idLezione);
-            inserisciIscrizione(conn, idCliente, idLezione);
-            conn.commit();
-        } catch (Exception ex) {
+            if (tentaIscrizione(conn, idCliente, idLezione)) {
+                return EsitoIscrizione.OK;
+            }
+            EsitoIscrizione esito = diagnosticaIscrizioneFallita(conn, idCliente, idLezione);
+            if (esito == null) {
+                // nessun motivo trovato: tra UPDATE e diagnosi una disdetta ha liberato
+                // un posto. Riprovo una volta; se va ancora male il posto è conteso
+                if (tentaIscrizione(conn, idCliente, idLezione)) {
+                    return EsitoIscrizione.OK;
+                }
+                esito = diagnosticaIscrizioneFallita(conn, idCliente, idLezione);
+            }
+            return esito != null ? esito : EsitoIscrizione.POSTI_ESAURITI;
+        } catch (SQLException ex) {
             conn.rollback();
+            if (isViolazioneUnique(ex)) {
+                // doppio click / due postazioni: il vincolo UNIQUE (cliente, lezione) ha bloccato il doppione
+                return EsitoIscrizione.GIA_ISCRITTO;
+            }
             throw ex;
         } finally {
             conn.setAutoCommit(true);
         }
     }
 
-    private static void verificaPostiDisponibiliPerTransazione(Connection conn,
-                                                               int idLezione) throws Exception {
-        try (PreparedStatement psCheck = conn.prepareStatement(SQL_LEZIONE_POSTI_FOR_UPDATE)) {
-            psCheck.setInt(1, idLezione);
-            try (ResultSet rs = psCheck.executeQuery()) {
-                if (!rs.next()) {
-                    throw new Exception("Lezione inesistente.");
-                }
-                int tot  = rs.getInt("POSTI_TOTALI");
-                int pren = rs.getInt("POSTI_PRENOTATI");
-                if (pren >= tot) {
-                    throw new Exception("Nessun posto disponibile per questa lezione.");
-                }
-            }
+    /** Prenota il posto e registra l'iscrizione con commit; rollback se il posto non c'è. */
+    private static boolean tentaIscrizione(Connection conn,
+                                           int idCliente,
+                                           int idLezione) throws SQLException {
+        if (!prenotaPosto(conn, idCliente, idLezione)) {
+            conn.rollback();
+            return false;
         }
+        inserisciIscrizione(conn, idCliente, idLezione);
+        // se era in coda per questa lezione ne esce: non potrà esservi "promosso" di nuovo
+        ListaAttesaDAO.rimuovi(conn, idCliente, idLezione);
+        conn.commit();
+        return true;
     }
 
-    private static void incrementaPostiPrenotati(Connection conn,
-                                                 int idLezione) throws SQLException {
-        try (PreparedStatement psUpd = conn.prepareStatement(SQL_UPDATE_POSTI_INC)) {
-            psUpd.setInt(1, idLezione);
-            psUpd.executeUpdate();
+    private static boolean prenotaPosto(Connection conn,
+                                        int idCliente,
+                                        int idLezione) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_PRENOTA_POSTO)) {
+            ps.setInt(1, idLezione);
+            ps.setInt(2, idCliente);
+            return ps.executeUpdate() == 1;
         }
     }
 
@@ -215,24 +198,68 @@ public class IscrizioneDAO {
         }
     }
 
+    /** @return il motivo del rifiuto, null se nessuna delle condizioni vale più */
+    private static EsitoIscrizione diagnosticaIscrizioneFallita(Connection conn,
+                                                                int idCliente,
+                                                                int idLezione) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_DIAGNOSI_ISCRIZIONE)) {
+            ps.setInt(1, idCliente);
+            ps.setInt(2, idCliente);
+            ps.setInt(3, idLezione);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return EsitoIscrizione.LEZIONE_INESISTENTE;
+                }
+                if (rs.getBoolean("GIA_ISCRITTO")) {
+                    return EsitoIscrizione.GIA_ISCRITTO;
+                }
+                if (rs.getInt("POSTI_PRENOTATI") >= rs.getInt("POSTI_TOTALI")) {
+                    return EsitoIscrizione.POSTI_ESAURITI;
+                }
+                if (rs.getBoolean("SOVRAPPOSTA")) {
+                    return EsitoIscrizione.CONFLITTO_ORARIO;
+                }
+                return null;
+            }
+        }
+    }
+
+    private static boolean isViolazioneUnique(SQLException ex) {
+        return "23505".equals(ex.getSQLState());
+    }
+
     // ===================== DISISCRIZIONE =====================
 
+    /**
+     * Disiscrive il cliente e, nella stessa transazione, passa il posto liberato
+     * al primo cliente in lista d'attesa che non abbia conflitti di orario.
+     */
     public static void disiscriviClienteDaLezione(int idCliente, int idLezione) throws Exception {
-    	UtilsDAO.withConnection(conn -> {
-            disiscriviClienteDaLezione(conn, idCliente, idLezione);
-            return null;
-        });
+        int promosso = UtilsDAO.withConnection("IscrizioneDAO.disiscriviClienteDaLezione",
+                conn -> disiscriviClienteDaLezione(conn, idCliente, idLezione));
+
+        CacheCliente.invalida(idCliente, CacheCliente.Area.CORSI);
+        if (promosso > 0) {
+            CacheCliente.invalida(promosso, CacheCliente.Area.CORSI);
+        }
     }
 
-    private static void disiscriviClienteDaLezione(Connection conn,
-                                                   int idCliente,
-                                                   int idLezione) throws Exception {
+    /** @return id del cliente promosso dalla lista d'attesa, -1 se nessuno */
+    private static int disiscriviClienteDaLezione(Connection conn,
+                                                  int idCliente,
+                                                  int idLezione) throws Exception {
         conn.setAutoCommit(false);
         try {
-            verificaIscrizioneEsistente(conn, idLezione);
+            // prima la DELETE: una seconda disdetta concorrente non trova nulla e non decrementa
+            if (eliminaIscrizione(conn, idCliente, idLezione) == 0) {
+                throw new Exception("Nessuna iscrizione da rimuovere per questa lezione.");
+            }
+            // il lock sulla riga della lezione resta fino al commit:
+            // disdette e promozioni sulla stessa lezione sono serializzate
             decrementaPostiPrenotati(conn, idLezione);
-            eliminaIscrizione(conn, idCliente, idLezione);
+            int promosso = promuoviDaListaAttesa(conn, idLezione);
             conn.commit();
+            return promosso;
         } catch (Exception ex) {
             conn.rollback();
             throw ex;
@@ -241,22 +268,6 @@ public class IscrizioneDAO {
         }
     }
 
-    private static void verificaIscrizioneEsistente(Connection conn,
-                                                    int idLezione) throws Exception {
-        try (PreparedStatement psCheck = conn.prepareStatement(SQL_LEZIONE_POSTI_FOR_UPDATE)) {
-            psCheck.setInt(1, idLezione);
-            try (ResultSet rs = psCheck.executeQuery()) {
-                if (!rs.next()) {
-                    throw new Exception("Lezione inesistente.");
-                }
-                int pren = rs.getInt("POSTI_PRENOTATI");
-                if (pren <= 0) {
-                    throw new Exception("Nessuna iscrizione da rimuovere per questa lezione.");
-                }
-            }
-        }
-    }
-
     private static void decrementaPostiPrenotati(Connection conn,
                                                  int idLezione) throws SQLException {
         try (PreparedStatement psUpd = conn.prepareStatement(SQL_UPDATE_POSTI_DEC)) {
@@ -265,20 +276,43 @@ public class IscrizioneDAO {
         }
     }
 
-    private static void eliminaIscrizione(Connection conn,
-                                          int idCliente,
-                                          int idLezione) throws SQLException {
+    private static int eliminaIscrizione(Connection conn,
+                                         int idCliente,
+                                         int idLezione) throws SQLException {
         try (PreparedStatement psDel = conn.prepareStatement(SQL_DELETE_ISCRIZIONE)) {
             psDel.setInt(1, idCliente);
             psDel.setInt(2, idLezione);
-            psDel.executeUpdate();
+            return psDel.executeUpdate();
         }
     }
 
+    // ===================== LISTA D'ATTESA =====================
+
+    /**
+     * Iscrive il primo candidato in coda che può occupare il posto
+     * (chi nel frattempo ha prenotato un corso sovrapposto viene saltato, ma resta in coda).
+     * Va chiamato nella transazione che ha liberato il posto.
+     *
+     * @return id del cliente promosso, -1 se nessuno
+     */
+    public static int promuoviDaListaAttesa(Connection conn,
+                                             int idLezione) throws SQLException {
+        for (int candidato : ListaAttesaDAO.getCandidatiInOrdine(conn, idLezione)) {
+            if (prenotaPosto(conn, candidato, idLezione)) {
+                inserisciIscrizione(conn, candidato, idLezione);
+                ListaAttesaDAO.rimuovi(conn, candidato, idLezione);
+                logger.info("Cliente {} promosso dalla lista d'attesa alla lezione {}", candidato, idLezione);
+                return candidato;
+            }
+        }
+        return -1;
+    }
+
     // ===================== ISCRIZIONI FUTURE / DETTAGLIO =====================
 
     public static List<IscrizioneInfo> getIscrizioniFuturePerCliente(int idCliente) throws Exception {
-        return UtilsDAO.withConnection(conn -> getIscrizioniFuturePerCliente(conn, idCliente));
+        return UtilsDAO.withConnection("IscrizioneDAO.getIscrizioniFuturePerCliente",
+                conn -> getIscrizioniFuturePerCliente(conn, idCliente));
     }
 
     private static List<IscrizioneInfo> getIscrizioniFuturePerCliente(Connection conn,
@@ -314,47 +348,50 @@ public class IscrizioneDAO {
         );
     }
 
-    public static String buildDettaglioIscrizioniPerCliente(int idCliente) throws Exception {
-        return UtilsDAO.withConnection(conn -> buildDettaglioIscrizioniPerCliente(conn, idCliente));
+    /**
+     * Righe del dettaglio iscrizioni del cliente, in ordine di inizio lezione.
+     * Non dipendono dall'ora corrente (la divisione tra corsi futuri e svolti
+     * la fa {@link #formattaDettaglioIscrizioni}), quindi si possono tenere in cache.
+     */
+    public static List<RigaDettaglioIscrizione> getDettaglioIscrizioniPerCliente(int idCliente) throws Exception {
+        return UtilsDAO.withConnection("IscrizioneDAO.getDettaglioIscrizioniPerCliente",
+                conn -> getDettaglioIscrizioniPerCliente(conn, idCliente));
     }
 
-    private static String buildDettaglioIscrizioniPerCliente(Connection conn,
-                                                             int idCliente) throws SQLException {
-        List<String> future = new ArrayList<>();
-        List<String> past   = new ArrayList<>();
-        LocalDateTime now   = LocalDateTime.now();
-
-        caricaIscrizioniPerCliente(conn, idCliente, future, past, now);
-
-        if (future.isEmpty() && past.isEmpty()) {
-            return "Non hai ancora nessuna iscrizione ai corsi.\n";
-        }
-
-        return formattaDettaglioIscrizioni(future, past);
-    }
-
-    private static void caricaIscrizioniPerCliente(Connection conn,
-                                                   int idCliente,
-                                                   List<String> future,
-                                                   List<String> past,
-                                                   LocalDateTime now) throws SQLException {
+    private static List<RigaDettaglioIscrizione> getDettaglioIscrizioniPerCliente(Connection conn,
+                                                                                 int idCliente) throws SQLException {
+        List<RigaDettaglioIscrizione> righe = new ArrayList<>();
 
         try (PreparedStatement ps = conn.prepareStatement(SQL_DETTAGLIO_ISCRIZIONI_CLIENTE)) {
             ps.setInt(1, idCliente);
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    String entry = formattaRigaIscrizione(rs);
-                    LocalDateTime inizio = ottieniInizioLezione(rs);
-
-                    if (inizio.isBefore(now)) {
-                        past.add(entry);
-                    } else {
-                        future.add(entry);
-                    }
+                    righe.add(new RigaDettaglioIscrizione(ottieniInizioLezione(rs), formattaRigaIscrizione(rs)));
                 }
             }
         }
+        return righe;
+    }
+
+    /** Testo del dettaglio: le lezioni iniziate prima di {@code adesso} vanno tra i corsi già svolti. */
+    public static String formattaDettaglioIscrizioni(List<RigaDettaglioIscrizione> righe,
+                                                     LocalDateTime adesso) {
+        if (righe.isEmpty()) {
+            return "Non hai ancora nessuna iscrizione ai corsi.\n";
+        }
+
+        List<String> future = new ArrayList<>();
+        List<String> past   = new ArrayList<>();
+        for (RigaDettaglioIscrizione riga : righe) {
+            if (riga.inizio.isBefore(adesso)) {
+                past.add(riga.testo);
+            } else {
+                future.add(riga.testo);
+            }
+        }
+
+        return formattaDettaglioIscrizioni(future, past);
     }
 
     private static LocalDateTime ottieniInizioLezione(ResultSet rs) throws SQLException {
@@ -407,8 +444,8 @@ public class IscrizioneDAO {
     // ===================== CHECK DI ESISTENZA =====================
 
     public static boolean esistonoIscrizioniFuturePerCliente(int idCliente) throws Exception {
-        return UtilsDAO.withConnection(conn ->
-                esistonoIscrizioniFuturePerCliente(conn, idCliente));
+        return UtilsDAO.withConnection("IscrizioneDAO.esistonoIscrizioniFuturePerCliente",
+                conn -> esistonoIscrizioniFuturePerCliente(conn, idCliente));
     }
 
     private static boolean esistonoIscrizioniFuturePerCliente(Connection conn,
@@ -23,10 +23,10 @@ import java.util.Set;
 public class LezioneDAO {
 
     private static final String SQL_PROGRAMMAZIONE_CORSO =
-            "SELECT DATA_LEZIONE, ORA_LEZIONE " +
-            "FROM LEZIONE_CORSO " +
-            "WHERE ID_CORSO = ? " +
-            "ORDER BY DATA_LEZIONE, ORA_LEZIONE";
+            "SELECT GIORNO_SETTIMANA, ORA_LEZIONE " +
+            "FROM LEZIONE_TEMPLATE " +
+            "WHERE ID_CORSO = ? AND ATTIVO = TRUE " +
+            "ORDER BY GIORNO_SETTIMANA, ORA_LEZIONE";
 
     private static final String SQL_LEZIONI_PER_CORSO =
             "SELECT L.ID_LEZIONE, L.ID_CORSO, L.DATA_LEZIONE, L.ORA_LEZIONE, " +
@@ -35,15 +35,9 @@ public class LezioneDAO {
             "FROM LEZIONE_CORSO L " +
             "JOIN CORSO C ON L.ID_CORSO = C.ID_CORSO " +
             "JOIN DIPENDENTE D ON L.ID_ISTRUTTORE = D.ID_DIPENDENTE " +
-            "WHERE L.ID_CORSO = ? " +
+            "WHERE L.ID_CORSO = ? AND L.DATA_LEZIONE > ? " +
             "ORDER BY L.DATA_LEZIONE, L.ORA_LEZIONE";
 
-    private static final String SQL_SELECT_TUTTE_LEZIONI =
-            "SELECT ID_LEZIONE, DATA_LEZIONE FROM LEZIONE_CORSO";
-
-    private static final String SQL_UPDATE_DATA_LEZIONE =
-            "UPDATE LEZIONE_CORSO SET DATA_LEZIONE = ? WHERE ID_LEZIONE = ?";
-
     // ===================== UTIL PER PROGRAMMAZIONE =====================
 
     private static String abbreviazioneGiorno(DayOfWeek d) {
@@ -59,9 +53,14 @@ public class LezioneDAO {
         }
     }
 
+    /**
+     * Orario settimanale del corso (es. "Lun-Mer 18:00 / Ven 19:00") ricavato dai
+     * template attivi, quindi indipendente da quali occorrenze sono già state generate.
+     */
     public static String buildDescrizioneProgrammazioneCorso(int idCorso) throws Exception {
         Map<LocalTime, List<String>> byOra =
-        		UtilsDAO.withConnection(conn -> caricaMappaProgrammazione(conn, idCorso));
+        		UtilsDAO.withConnection("LezioneDAO.buildDescrizioneProgrammazioneCorso",
+                        conn -> caricaMappaProgrammazione(conn, idCorso));
         return formattaProgrammazione(byOra);
     }
 
@@ -74,9 +73,8 @@ public class LezioneDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    LocalDate data = rs.getDate("DATA_LEZIONE").toLocalDate();
+                    DayOfWeek dow  = DayOfWeek.of(rs.getInt("GIORNO_SETTIMANA"));
                     LocalTime ora  = rs.getTime("ORA_LEZIONE").toLocalTime();
-                    DayOfWeek dow  = data.getDayOfWeek();
                     String giorno  = abbreviazioneGiorno(dow);
 
                     byOra.computeIfAbsent(ora, k -> new ArrayList<>()).add(giorno);
@@ -122,7 +120,8 @@ public class LezioneDAO {
 
     public static List<LezioneInfo> getLezioniPerCorso(int idCorso) throws Exception {
         LocalDate oggi = LocalDate.now();
-        return UtilsDAO.withConnection(conn -> getLezioniPerCorso(conn, idCorso, oggi));
+        return UtilsDAO.withConnection("LezioneDAO.getLezioniPerCorso",
+                conn -> getLezioniPerCorso(conn, idCorso, oggi));
     }
 
     private static List<LezioneInfo> getLezioniPerCorso(Connection conn,
@@ -133,10 +132,11 @@ public class LezioneDAO {
 
         try (PreparedStatement ps = conn.prepareStatement(SQL_LEZIONI_PER_CORSO)) {
             ps.setInt(1, idCorso);
+            ps.setDate(2, Date.valueOf(oggi));
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    LezioneInfo info = creaLezioneInfoDaResultSet(idCorso, rs, oggi);
+                    LezioneInfo info = creaLezioneInfoDaResultSet(idCorso, rs);
                     result.add(info);
                 }
             }
@@ -146,8 +146,7 @@ public class LezioneDAO {
     }
 
     private static LezioneInfo creaLezioneInfoDaResultSet(int idCorso,
-                                                          ResultSet rs,
-                                                          LocalDate oggi) throws SQLException {
+                                                          ResultSet rs) throws SQLException {
 
         int idLezione = rs.getInt("ID_LEZIONE");
         LocalDate data = rs.getDate("DATA_LEZIONE").toLocalDate();
@@ -157,59 +156,9 @@ public class LezioneDAO {
         int durata     = rs.getInt("DURATA_MINUTI");
         String nomeIstr = rs.getString("NOME") + " " + rs.getString("COGNOME");
 
-        while (!data.isAfter(oggi)) {
-            data = data.plusWeeks(1);
-        }
-
         return new LezioneInfo(
                 idLezione, idCorso, data, ora,
                 durata, postiTot, postiPren, nomeIstr
         );
     }
-
-    // ===================== AGGIORNAMENTO DATE LEZIONI =====================
-
-    public static void aggiornaDateLezioniAllaSettimanaCorrente() throws Exception {
-        LocalDate oggi = LocalDate.now();
-        UtilsDAO.withConnection(conn -> {
-            aggiornaDateLezioniAllaSettimanaCorrente(conn, oggi);
-            return null;
-        });
-    }
-
-    private static void aggiornaDateLezioniAllaSettimanaCorrente(Connection conn,
-                                                                  LocalDate oggi) throws SQLException {
-        try (PreparedStatement psSel = conn.prepareStatement(SQL_SELECT_TUTTE_LEZIONI);
-             ResultSet rs = psSel.executeQuery();
-             PreparedStatement psUpd = conn.prepareStatement(SQL_UPDATE_DATA_LEZIONE)) {
-
-            aggiornaDateLezioniFromResultSet(oggi, rs, psUpd);
-            psUpd.executeBatch();
-        }
-    }
-
-    private static void aggiornaDateLezioniFromResultSet(LocalDate oggi,
-                                                         ResultSet rs,
-                                                         PreparedStatement psUpd) throws SQLException {
-
-        while (rs.next()) {
-            int idLez = rs.getInt("ID_LEZIONE");
-            LocalDate dataOriginale = rs.getDate("DATA_LEZIONE").toLocalDate();
-            LocalDate dataNuova = calcolaDataAggiornata(dataOriginale, oggi);
-
-            if (!dataNuova.equals(dataOriginale)) {
-                psUpd.setDate(1, Date.valueOf(dataNuova));
-                psUpd.setInt(2, idLez);
-                psUpd.addBatch();
-            }
-        }
-    }
-
-    private static LocalDate calcolaDataAggiornata(LocalDate dataOriginale, LocalDate oggi) {
-        LocalDate dataNuova = dataOriginale;
-        while (dataNuova.isBefore(oggi)) {
-            dataNuova = dataNuova.plusWeeks(1);
-        }
-        return dataNuova;
-    }
 }
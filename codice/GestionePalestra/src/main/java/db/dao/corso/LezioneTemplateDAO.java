@@ -0,0 +1,108 @@
+package db.dao.corso;
+
+import db.dao.UtilsDAO;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Template di ricorrenza delle lezioni (LEZIONE_TEMPLATE) e generatore delle
+ * occorrenze concrete in LEZIONE_CORSO.
+ *
+ * Il generatore mantiene sempre un orizzonte di lezioni future: ogni esecuzione
+ * inserisce solo le date mancanti, per cui le lezioni già create (con le loro
+ * iscrizioni) non vengono mai toccate.
+ */
+public class LezioneTemplateDAO {
+
+    private static final String SQL_INSERT_TEMPLATE =
+            "INSERT INTO LEZIONE_TEMPLATE " +
+            "(ID_CORSO, GIORNO_SETTIMANA, ORA_LEZIONE, POSTI_TOTALI, ID_ISTRUTTORE) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SQL_DISATTIVA_TEMPLATE =
+            "UPDATE LEZIONE_TEMPLATE SET ATTIVO = FALSE WHERE ID_TEMPLATE = ?";
+
+    // per ogni template attivo, un'occorrenza per ogni giorno dell'orizzonte (oggi escluso)
+    // che cade nel suo giorno della settimana e non esiste ancora
+    private static final String SQL_MATERIALIZZA_ORIZZONTE =
+            "INSERT INTO LEZIONE_CORSO " +
+            "(ID_CORSO, DATA_LEZIONE, ORA_LEZIONE, POSTI_TOTALI, POSTI_PRENOTATI, ID_ISTRUTTORE, ID_TEMPLATE) " +
+            "SELECT T.ID_CORSO, G.GIORNO, T.ORA_LEZIONE, T.POSTI_TOTALI, 0, T.ID_ISTRUTTORE, T.ID_TEMPLATE " +
+            "FROM (SELECT DATEADD(DAY, R.X, CAST(? AS DATE)) AS GIORNO FROM SYSTEM_RANGE(1, ?) R) G " +
+            "JOIN LEZIONE_TEMPLATE T ON T.GIORNO_SETTIMANA = ISO_DAY_OF_WEEK(G.GIORNO) " +
+            "WHERE T.ATTIVO " +
+            "  AND NOT EXISTS (SELECT 1 FROM LEZIONE_CORSO L " +
+            "                  WHERE L.ID_TEMPLATE = T.ID_TEMPLATE AND L.DATA_LEZIONE = G.GIORNO)";
+
+    // ===================== TEMPLATE =====================
+
+    /** @return id del template creato */
+    public static int inserisciTemplate(int idCorso,
+                                        DayOfWeek giorno,
+                                        LocalTime ora,
+                                        int postiTotali,
+                                        int idIstruttore) throws Exception {
+        return UtilsDAO.withConnection("LezioneTemplateDAO.inserisciTemplate", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_TEMPLATE, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, idCorso);
+                ps.setInt(2, giorno.getValue());
+                ps.setTime(3, Time.valueOf(ora));
+                ps.setInt(4, postiTotali);
+                ps.setInt(5, idIstruttore);
+                ps.executeUpdate();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    return keys.getInt(1);
+                }
+            }
+        });
+    }
+
+    /** Il template non genera più lezioni; quelle già create restano. */
+    public static void disattivaTemplate(int idTemplate) throws Exception {
+        UtilsDAO.withConnection("LezioneTemplateDAO.disattivaTemplate", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(SQL_DISATTIVA_TEMPLATE)) {
+                ps.setInt(1, idTemplate);
+                ps.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    // ===================== GENERATORE =====================
+
+    /**
+     * Crea le lezioni mancanti tra domani e {@code oggi + giorni}.
+     *
+     * @return numero di lezioni create
+     */
+    public static int materializzaOrizzonte(LocalDate oggi, int giorni) throws Exception {
+        return UtilsDAO.withConnection("LezioneTemplateDAO.materializzaOrizzonte",
+                conn -> materializzaOrizzonte(conn, oggi, giorni));
+    }
+
+    private static int materializzaOrizzonte(Connection conn, LocalDate oggi, int giorni) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_MATERIALIZZA_ORIZZONTE)) {
+            ps.setDate(1, Date.valueOf(oggi));
+            ps.setInt(2, giorni);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            // un'altra esecuzione ha appena creato le stesse lezioni (UQ_LEZIONE_TEMPLATE_DATA)
+            if ("23505".equals(e.getSQLState())) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+}
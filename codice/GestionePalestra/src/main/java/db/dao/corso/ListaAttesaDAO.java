@@ -0,0 +1,117 @@
+package db.dao.corso;
+
+import db.dao.UtilsDAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lista d'attesa FIFO per le lezioni al completo.
+ *
+ * La promozione del primo in coda avviene in {@link IscrizioneDAO#promuoviDaListaAttesa},
+ * nella stessa transazione che libera il posto (disiscrizione o disdetta dell'abbonamento);
+ * chi si iscrive direttamente alla lezione esce dalla coda.
+ */
+public class ListaAttesaDAO {
+
+    private static final String SQL_INSERT_ATTESA =
+            "INSERT INTO LISTA_ATTESA (ID_CLIENTE, ID_LEZIONE) VALUES (?, ?)";
+
+    private static final String SQL_DELETE_ATTESA =
+            "DELETE FROM LISTA_ATTESA WHERE ID_CLIENTE = ? AND ID_LEZIONE = ?";
+
+    private static final String SQL_POSIZIONE =
+            "SELECT COUNT(*) FROM LISTA_ATTESA A " +
+            "WHERE A.ID_LEZIONE = ? AND A.ID_ATTESA <= (" +
+            "    SELECT ID_ATTESA FROM LISTA_ATTESA WHERE ID_CLIENTE = ? AND ID_LEZIONE = ?" +
+            ")";
+
+    // in ordine di arrivo; chi nel frattempo si è iscritto non è più un candidato
+    private static final String SQL_CANDIDATI =
+            "SELECT A.ID_CLIENTE FROM LISTA_ATTESA A " +
+            "WHERE A.ID_LEZIONE = ? " +
+            "  AND NOT EXISTS (SELECT 1 FROM ISCRIZIONE_CORSO I " +
+            "                  WHERE I.ID_LEZIONE = A.ID_LEZIONE AND I.ID_CLIENTE = A.ID_CLIENTE) " +
+            "ORDER BY A.ID_ATTESA";
+
+    // ===================== ISCRIZIONE IN CODA =====================
+
+    /**
+     * Mette il cliente in coda per la lezione (se non c'è già).
+     *
+     * @return la posizione in coda, a partire da 1
+     */
+    public static int inserisciInListaAttesa(int idCliente, int idLezione) throws Exception {
+        return UtilsDAO.withConnection("ListaAttesaDAO.inserisciInListaAttesa", conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_ATTESA)) {
+                ps.setInt(1, idCliente);
+                ps.setInt(2, idLezione);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                if (!"23505".equals(e.getSQLState())) {
+                    throw e;
+                }
+                // già in coda: restituisco la posizione attuale
+            }
+            return getPosizione(conn, idCliente, idLezione);
+        });
+    }
+
+    public static void rimuoviDaListaAttesa(int idCliente, int idLezione) throws Exception {
+        UtilsDAO.withConnection("ListaAttesaDAO.rimuoviDaListaAttesa", conn -> {
+            rimuovi(conn, idCliente, idLezione);
+            return null;
+        });
+    }
+
+    /** Posizione in coda (da 1), oppure 0 se il cliente non è in attesa per la lezione. */
+    public static int getPosizioneInListaAttesa(int idCliente, int idLezione) throws Exception {
+        return UtilsDAO.withConnection("ListaAttesaDAO.getPosizioneInListaAttesa",
+                conn -> getPosizione(conn, idCliente, idLezione));
+    }
+
+    private static int getPosizione(Connection conn,
+                                    int idCliente,
+                                    int idLezione) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_POSIZIONE)) {
+            ps.setInt(1, idLezione);
+            ps.setInt(2, idCliente);
+            ps.setInt(3, idLezione);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    // ===================== SUPPORTO ALLA PROMOZIONE =====================
+
+    static List<Integer> getCandidatiInOrdine(Connection conn,
+                                              int idLezione) throws SQLException {
+        List<Integer> candidati = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SQL_CANDIDATI)) {
+            ps.setInt(1, idLezione);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    candidati.add(rs.getInt("ID_CLIENTE"));
+                }
+            }
+        }
+        return candidati;
+    }
+
+    static void rimuovi(Connection conn,
+                        int idCliente,
+                        int idLezione) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_DELETE_ATTESA)) {
+            ps.setInt(1, idCliente);
+            ps.setInt(2, idLezione);
+            ps.executeUpdate();
+        }
+    }
+}
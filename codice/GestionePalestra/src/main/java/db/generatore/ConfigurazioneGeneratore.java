@@ -0,0 +1,93 @@
+package db.generatore;
+
+/**
+ * Volumi e parametri del generatore di dati sintetici.
+ *
+ * I default descrivono una palestra grande; ognuno può essere sovrascritto
+ * con una system property (es. -Dpalestra.gen.clienti=20000).
+ * Generarli richiede qualche minuto (circa 2,5 su un DB H2 su file): il DB va
+ * generato una volta e poi riusato; per prove veloci conviene ridurre clienti e iscrizioni.
+ * Le consulenze di default restano sotto la capacità dei professionisti
+ * (circa 48.000 mezz'ore libere in 180 giorni con 40 PT e 10 nutrizionisti).
+ */
+public final class ConfigurazioneGeneratore {
+
+    public final long seme;
+    /**
+     * Prefisso di username ed email dei clienti generati (es. "gen" → gen_1, gen_2, ...).
+     * Anche il CF ne deriva (prime 3 lettere): due generazioni sullo stesso DB
+     * richiedono prefissi che differiscano già nei primi 3 caratteri.
+     */
+    public final String prefisso;
+    /** Password in chiaro comune a tutti i clienti generati. */
+    public final String password;
+
+    public final int clienti;
+    public final int personalTrainer;
+    public final int nutrizionisti;
+    public final int istruttori;
+    public final int corsi;
+    public final int lezioni;
+    public final int iscrizioni;
+    public final int consulenze;
+
+    /** Giorni coperti dal calendario (metà nel passato, metà nel futuro). */
+    public final int giorni;
+    public final int dimensioneBatch;
+
+    public ConfigurazioneGeneratore(long seme,
+                                    String prefisso,
+                                    String password,
+                                    int clienti,
+                                    int personalTrainer,
+                                    int nutrizionisti,
+                                    int istruttori,
+                                    int corsi,
+                                    int lezioni,
+                                    int iscrizioni,
+                                    int consulenze,
+                                    int giorni,
+                                    int dimensioneBatch) {
+        if (clienti <= 0 || istruttori <= 0 || corsi <= 0 || giorni <= 0 || dimensioneBatch <= 0) {
+            throw new IllegalArgumentException("clienti, istruttori, corsi, giorni e dimensioneBatch devono essere > 0");
+        }
+        if (consulenze > 0 && personalTrainer + nutrizionisti == 0) {
+            throw new IllegalArgumentException("Per generare consulenze servono personal trainer o nutrizionisti");
+        }
+        if (iscrizioni > 0 && lezioni == 0) {
+            throw new IllegalArgumentException("Per generare iscrizioni servono lezioni");
+        }
+        this.seme = seme;
+        this.prefisso = prefisso;
+        this.password = password;
+        this.clienti = clienti;
+        this.personalTrainer = personalTrainer;
+        this.nutrizionisti = nutrizionisti;
+        this.istruttori = istruttori;
+        this.corsi = corsi;
+        this.lezioni = lezioni;
+        this.iscrizioni = iscrizioni;
+        this.consulenze = consulenze;
+        this.giorni = giorni;
+        this.dimensioneBatch = dimensioneBatch;
+    }
+
+    /** Configurazione letta dalle system property "palestra.gen.*". */
+    public static ConfigurazioneGeneratore daProprietaDiSistema() {
+        return new ConfigurazioneGeneratore(
+                Long.getLong("palestra.gen.seme", 42L),
+                System.getProperty("palestra.gen.prefisso", "gen"),
+                System.getProperty("palestra.gen.password", "palestra"),
+                Integer.getInteger("palestra.gen.clienti", 100_000),
+                Integer.getInteger("palestra.gen.personalTrainer", 40),
+                Integer.getInteger("palestra.gen.nutrizionisti", 10),
+                Integer.getInteger("palestra.gen.istruttori", 30),
+                Integer.getInteger("palestra.gen.corsi", 25),
+                Integer.getInteger("palestra.gen.lezioni", 5_000),
+                Integer.getInteger("palestra.gen.iscrizioni", 1_000_000),
+                Integer.getInteger("palestra.gen.consulenze", 20_000),
+                Integer.getInteger("palestra.gen.giorni", 180),
+                Integer.getInteger("palestra.gen.batch", 5_000)
+        );
+    }
+}
@@ -0,0 +1,708 @@
+package db.generatore;
+
+import db.dao.ConsulenzaDAO;
+import model.OrarioDisponibilita;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generatore deterministico di una palestra "grande" sullo schema esistente:
+ * clienti con abbonamento, personale, corsi, lezioni, iscrizioni e consulenze.
+ *
+ * - a parità di configurazione (seme compreso) produce sempre gli stessi dati;
+ *   ogni tabella ha un proprio generatore casuale, così cambiare un volume
+ *   non altera le altre tabelle
+ * - scrive con INSERT batch e commit ogni {@code dimensioneBatch} righe
+ * - rispetta le regole dell'applicazione: un cliente non è mai iscritto a due lezioni
+ *   sovrapposte, le iscrizioni di una lezione sono clienti distinti e POSTI_PRENOTATI
+ *   è coerente con gli iscritti; le consulenze cadono nell'ORARIO_DISP del professionista
+ *   e non si sovrappongono né per il professionista né per il cliente
+ *   (se le richieste superano le possibilità ne vengono scritte meno, vedi il riepilogo)
+ * - se la generazione fallisce le righe già scritte vengono eliminate,
+ *   così {@link #esistonoDati} non trova mai un insieme parziale
+ *
+ * Tutti i clienti hanno la stessa password (un solo hash BCrypt: calcolarne
+ * migliaia non aggiunge realismo ai dati).
+ */
+public class GeneratoreDati {
+
+    private static final Logger logger =
+            LogManager.getLogger(GeneratoreDati.class);
+
+    private static final String SQL_INSERT_CLIENTE =
+            "INSERT INTO CLIENTE (USERNAME, EMAIL, NOME, COGNOME, CF, LUOGO_NASCITA, DATA_NASCITA, IBAN, PASSWORD) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, NULL, ?)";
+
+    private static final String SQL_INSERT_ABBONAMENTO =
+            "INSERT INTO ABBONAMENTO (TIPO, SCADENZA, ID_CLIENTE, FASCIA_ORARIA_CONSENTITA, PREZZO, ATTIVO) " +
+            "VALUES (?, ?, ?, ?, ?, TRUE)";
+
+    private static final String SQL_INSERT_DIPENDENTE =
+            "INSERT INTO DIPENDENTE (NOME, COGNOME, RUOLO, ORARIO_DISP) VALUES (?, ?, ?, ?)";
+
+    private static final String SQL_INSERT_CORSO =
+            "INSERT INTO CORSO (NOME, DESCRIZIONE, DURATA_MINUTI) VALUES (?, ?, ?)";
+
+    private static final String SQL_INSERT_LEZIONE =
+            "INSERT INTO LEZIONE_CORSO (ID_CORSO, DATA_LEZIONE, ORA_LEZIONE, POSTI_TOTALI, POSTI_PRENOTATI, ID_ISTRUTTORE) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_INSERT_ISCRIZIONE =
+            "INSERT INTO ISCRIZIONE_CORSO (ID_CLIENTE, ID_LEZIONE) VALUES (?, ?)";
+
+    private static final String SQL_INSERT_CONSULENZA =
+            "INSERT INTO CONSULENZA (ID_CLIENTE, ID_DIPENDENTE, TIPO, DATA_CONSULENZA, ORA_CONSULENZA, NOTE) " +
+            "VALUES (?, ?, ?, ?, ?, NULL)";
+
+    // ===================== DIZIONARI =====================
+
+    private static final String[] NOMI = {
+            "Luca", "Sara", "Marco", "Giulia", "Paolo", "Anna", "Lorenzo", "Chiara", "Davide", "Elena",
+            "Matteo", "Francesca", "Andrea", "Martina", "Simone", "Valentina", "Stefano", "Alessia"
+    };
+    private static final String[] COGNOMI = {
+            "Rossi", "Bianchi", "Verdi", "Conti", "Fumagalli", "Marino", "Neri", "Riva", "Sala", "Colombo",
+            "Ferrari", "Russo", "Gallo", "Greco", "Bruno", "Ricci", "Lombardi", "Moretti"
+    };
+    private static final String[] PAESI = {"Italia", "Italia", "Italia", "Italia", "France", "Spain", "Germania", "Romania"};
+
+    private static final String[] TIPI_ABBONAMENTO = {"BASE", "COMPLETO", "CORSI"};
+    private static final int[] PREZZI_ABBONAMENTO = {30, 50, 40};
+
+    private static final String[] ORARI_DISPONIBILITA = {
+            "Lun-Ven 9:00-13:00", "Lun-Ven 14:00-18:00", "Mar-Gio 10:00-16:00",
+            "Lun-Mer 15:00-19:00", "Sab 9:00-13:00", "Lun-Sab 8:00-20:00"
+    };
+    private static final String[] TIPI_CORSO = {"Spinning", "Pilates", "AcquaGym", "Yoga", "Functional", "Zumba", "Boxe"};
+    private static final int[] DURATE_CORSO = {45, 50, 60, 90};
+
+    // ogni tabella ha il suo flusso casuale derivato dal seme
+    private static final int FLUSSO_CLIENTI = 1;
+    private static final int FLUSSO_CORSI = 2;
+    private static final int FLUSSO_LEZIONI = 3;
+    private static final int FLUSSO_ISCRIZIONI = 4;
+    private static final int FLUSSO_CONSULENZE = 5;
+
+    // lezioni e consulenze iniziano alle ore intere o alle mezze
+    private static final int SLOT_MINUTI = 30;
+    private static final int SLOT_GIORNO = OrarioDisponibilita.MINUTI_GIORNO / SLOT_MINUTI;
+    private static final int PRIMO_SLOT_CONSULENZA = 8 * 60 / SLOT_MINUTI;
+    private static final int ULTIMO_SLOT_CONSULENZA = 19 * 60 / SLOT_MINUTI + 1;
+    private static final int TENTATIVI_CLIENTE = 5;
+
+    private final ConfigurazioneGeneratore config;
+    private final int costoHash;
+    private final LocalDate oggi;
+
+    public GeneratoreDati(ConfigurazioneGeneratore config) {
+        this(config, Integer.getInteger("palestra.bcrypt.cost", 12), LocalDate.now());
+    }
+
+    /**
+     * @param costoHash costo BCrypt della password comune (lo stesso dei login, per misure realistiche)
+     * @param oggi      giorno attorno al quale distribuire lezioni e consulenze
+     */
+    public GeneratoreDati(ConfigurazioneGeneratore config, int costoHash, LocalDate oggi) {
+        this.config = config;
+        this.costoHash = costoHash;
+        this.oggi = oggi;
+    }
+
+    /** True se il DB contiene già i clienti generati con questo prefisso. */
+    public boolean esistonoDati(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM CLIENTE WHERE USERNAME = ?")) {
+            ps.setString(1, username(1));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** Username dell'i-esimo cliente generato (da 1). */
+    public String username(int i) {
+        return config.prefisso + "_" + i;
+    }
+
+    // ==========================================================
+    //  GENERAZIONE
+    // ==========================================================
+
+    /**
+     * Genera tutti i dati sulla connessione indicata (che deve avere lo schema migrato).
+     * L'auto-commit viene disattivato per la durata della generazione e poi ripristinato.
+     * In caso di errore le righe già scritte (e committate a blocchi) vengono eliminate.
+     */
+    public RiepilogoGenerazione genera(Connection conn) throws SQLException {
+        long inizio = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        Partenza partenza = new Partenza(conn);
+        conn.setAutoCommit(false);
+        try {
+            int[] clienti = generaClienti(conn);
+            Personale pt = generaDipendenti(conn, "PERSONAL_TRAINER", config.personalTrainer);
+            Personale nutrizionisti = generaDipendenti(conn, "NUTRIZIONISTA", config.nutrizionisti);
+            Personale istruttori = generaDipendenti(conn, "ISTRUTTORE_CORSO", config.istruttori);
+            int[] durateCorsi = new int[config.corsi];
+            int[] corsi = generaCorsi(conn, durateCorsi);
+
+            LezionePianificata[] piano = pianificaLezioni(corsi.length, durateCorsi, istruttori.ids.length);
+            PianoIscrizioni iscritti = assegnaIscritti(piano, clienti.length, distribuisciIscrizioni());
+            int[] lezioni = generaLezioni(conn, piano, iscritti, corsi, istruttori.ids);
+            long iscrizioni = generaIscrizioni(conn, clienti, lezioni, iscritti);
+            int consulenze = generaConsulenze(conn, clienti, pt, nutrizionisti);
+
+            RiepilogoGenerazione riepilogo = new RiepilogoGenerazione(
+                    clienti.length,
+                    pt.ids.length + nutrizionisti.ids.length + istruttori.ids.length,
+                    corsi.length,
+                    lezioni.length,
+                    iscrizioni,
+                    consulenze,
+                    (System.nanoTime() - inizio) / 1_000_000);
+            logger.info("{}", riepilogo);
+            return riepilogo;
+
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            try {
+                annullaGenerazione(conn, partenza);
+            } catch (SQLException pulizia) {
+                e.addSuppressed(pulizia);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private int[] generaClienti(Connection conn) throws SQLException {
+        Random r = random(FLUSSO_CLIENTI);
+        String hash = BCrypt.hashpw(config.password, BCrypt.gensalt(costoHash));
+        int idIniziale = maxId(conn, "CLIENTE", "ID_CLIENTE");
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CLIENTE)) {
+            Batch batch = new Batch(conn, ps);
+            for (int i = 1; i <= config.clienti; i++) {
+                ps.setString(1, username(i));
+                ps.setString(2, username(i) + "@palestra.test");
+                ps.setString(3, scegli(r, NOMI));
+                ps.setString(4, scegli(r, COGNOMI));
+                ps.setString(5, codiceFiscale(i));
+                ps.setString(6, scegli(r, PAESI));
+                ps.setDate  (7, Date.valueOf(oggi.minusYears(16 + r.nextInt(55)).minusDays(r.nextInt(365))));
+                ps.setString(8, hash);
+                batch.aggiungi();
+            }
+            batch.chiudi();
+        }
+        int[] ids = idDopo(conn, "CLIENTE", "ID_CLIENTE", idIniziale);
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_ABBONAMENTO)) {
+            Batch batch = new Batch(conn, ps);
+            for (int i = 0; i < ids.length; i++) {
+                int tipo = r.nextInt(TIPI_ABBONAMENTO.length);
+                ps.setString(1, TIPI_ABBONAMENTO[tipo]);
+                ps.setDate  (2, Date.valueOf(oggi.plusDays(1 + r.nextInt(365))));
+                ps.setInt   (3, ids[i]);
+                ps.setString(4, "Orari standard");
+                ps.setInt   (5, PREZZI_ABBONAMENTO[tipo]);
+                batch.aggiungi();
+            }
+            batch.chiudi();
+        }
+        return ids;
+    }
+
+    private Personale generaDipendenti(Connection conn, String ruolo, int quanti) throws SQLException {
+        Random r = random(ruolo.hashCode());
+        Personale personale = new Personale(quanti);
+        int[] ids = personale.ids;
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_DIPENDENTE, Statement.RETURN_GENERATED_KEYS);
+             Statement st = conn.createStatement()) {
+            for (int i = 0; i < quanti; i++) {
+                ps.setString(1, scegli(r, NOMI));
+                ps.setString(2, scegli(r, COGNOMI));
+                ps.setString(3, ruolo);
+                String orario = scegli(r, ORARI_DISPONIBILITA);
+                ps.setString(4, orario);
+                ps.executeUpdate();
+                personale.orari[i] = OrarioDisponibilita.compila(orario);
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    rs.next();
+                    ids[i] = rs.getInt(1);
+                }
+
+                // dettaglio per ruolo, come in InizializzazioneDB
+                switch (ruolo) {
+                    case "PERSONAL_TRAINER":
+                        st.executeUpdate("INSERT INTO PERSONAL_TRAINER (ID_DIPENDENTE, PARTITA_IVA, ANNI_ESPERIENZA, CERTIFICATI) " +
+                                "VALUES (" + ids[i] + ", 'IT" + (10_000_000_000L + ids[i]) + "', " + (1 + r.nextInt(20)) + ", 'CONI')");
+                        break;
+                    case "NUTRIZIONISTA":
+                        st.executeUpdate("INSERT INTO NUTRIZIONISTA (ID_DIPENDENTE, PARCELLA) VALUES (" + ids[i] + ", '"
+                                + (50 + 10 * r.nextInt(4)) + " EUR/ora')");
+                        break;
+                    default:
+                        st.executeUpdate("INSERT INTO ISTRUTTORE_CORSO (ID_DIPENDENTE, TIPO_CORSO_INSEGNATO) VALUES ("
+                                + ids[i] + ", '" + scegli(r, TIPI_CORSO) + "')");
+                }
+            }
+        }
+        conn.commit();
+        return personale;
+    }
+
+    /** @param durate riempito con la durata in minuti di ogni corso, nello stesso ordine degli id */
+    private int[] generaCorsi(Connection conn, int[] durate) throws SQLException {
+        Random r = random(FLUSSO_CORSI);
+        int idIniziale = maxId(conn, "CORSO", "ID_CORSO");
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CORSO)) {
+            Batch batch = new Batch(conn, ps);
+            for (int i = 1; i <= config.corsi; i++) {
+                String tipo = TIPI_CORSO[(i - 1) % TIPI_CORSO.length];
+                ps.setString(1, tipo + " " + i);
+                ps.setString(2, "Corso di " + tipo + " (livello " + (1 + r.nextInt(3)) + ")");
+                durate[i - 1] = scegli(r, DURATE_CORSO);
+                ps.setInt   (3, durate[i - 1]);
+                batch.aggiungi();
+            }
+            batch.chiudi();
+        }
+        return idDopo(conn, "CORSO", "ID_CORSO", idIniziale);
+    }
+
+    /** Iscritti per lezione: le iscrizioni richieste divise il più uniformemente possibile. */
+    private int[] distribuisciIscrizioni() {
+        int[] iscritti = new int[config.lezioni];
+        if (config.lezioni == 0) {
+            return iscritti;
+        }
+        long base = config.iscrizioni / config.lezioni;
+        long resto = config.iscrizioni % config.lezioni;
+        for (int j = 0; j < config.lezioni; j++) {
+            // una lezione non può avere più iscritti (distinti) dei clienti
+            iscritti[j] = (int) Math.min(config.clienti, base + (j < resto ? 1 : 0));
+        }
+        return iscritti;
+    }
+
+    /** Data, orario, corso e istruttore di ogni lezione, decisi prima di scegliere gli iscritti. */
+    private LezionePianificata[] pianificaLezioni(int corsi, int[] durateCorsi, int istruttori) {
+        Random r = random(FLUSSO_LEZIONI);
+        LezionePianificata[] piano = new LezionePianificata[config.lezioni];
+        for (int j = 0; j < piano.length; j++) {
+            int corso = r.nextInt(corsi);
+            int giorno = r.nextInt(config.giorni);
+            int inizio = (7 + r.nextInt(14)) * 60 + (r.nextBoolean() ? 0 : 30);
+            piano[j] = new LezionePianificata(corso, giorno, inizio, inizio + durateCorsi[corso],
+                    r.nextInt(istruttori), r.nextInt(5));
+        }
+        return piano;
+    }
+
+    /**
+     * Gli iscritti di ogni lezione sono cercati tra i clienti in posizione inizio, inizio+passo, ...
+     * (modulo il numero di clienti) con passo primo con esso: distinti senza bisogno di insiemi.
+     * Un cliente già iscritto a una lezione sovrapposta (stesso giorno, estremi inclusi,
+     * come in IscrizioneDAO) viene saltato.
+     */
+    private PianoIscrizioni assegnaIscritti(LezionePianificata[] lezioni, int n, int[] richiesti) {
+        Random r = random(FLUSSO_ISCRIZIONI);
+        int capacita = 0;
+        for (int quanti : richiesti) {
+            capacita += quanti;
+        }
+        PianoIscrizioni piano = new PianoIscrizioni(lezioni.length, capacita);
+
+        // iscrizioni di ogni cliente come lista concatenata: ultima[k] -> precedente[e] -> ...
+        int[] ultima = new int[n];
+        Arrays.fill(ultima, -1);
+        int[] lezioneDi = new int[capacita];
+        int[] precedente = new int[capacita];
+
+        int e = 0;
+        for (int j = 0; j < lezioni.length; j++) {
+            piano.primaDellaLezione[j] = e;
+            long pos = r.nextInt(n);
+            int passo = passoCoprimo(r, n);
+            for (int provati = 0; provati < n && e - piano.primaDellaLezione[j] < richiesti[j]; provati++) {
+                int k = (int) pos;
+                if (libero(k, lezioni[j], lezioni, ultima, lezioneDi, precedente)) {
+                    piano.cliente[e] = k;
+                    lezioneDi[e] = j;
+                    precedente[e] = ultima[k];
+                    ultima[k] = e;
+                    e++;
+                }
+                pos = (pos + passo) % n;
+            }
+        }
+        piano.primaDellaLezione[lezioni.length] = e;
+        return piano;
+    }
+
+    private static boolean libero(int cliente, LezionePianificata nuova, LezionePianificata[] lezioni,
+                                  int[] ultima, int[] lezioneDi, int[] precedente) {
+        for (int x = ultima[cliente]; x >= 0; x = precedente[x]) {
+            LezionePianificata l = lezioni[lezioneDi[x]];
+            if (l.giorno == nuova.giorno && nuova.inizio <= l.fine && nuova.fine >= l.inizio) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] generaLezioni(Connection conn, LezionePianificata[] piano, PianoIscrizioni iscritti,
+                                int[] corsi, int[] istruttori) throws SQLException {
+        LocalDate primoGiorno = oggi.minusDays(config.giorni / 2);
+        int idIniziale = maxId(conn, "LEZIONE_CORSO", "ID_LEZIONE");
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_LEZIONE)) {
+            Batch batch = new Batch(conn, ps);
+            for (int j = 0; j < piano.length; j++) {
+                LezionePianificata l = piano[j];
+                int prenotati = iscritti.perLezione(j);
+                // posti: un margine sopra gli iscritti, così alcune lezioni restano prenotabili
+                int posti = Math.max(10, prenotati + prenotati / 5 + l.postiExtra);
+                ps.setInt (1, corsi[l.corso]);
+                ps.setDate(2, Date.valueOf(primoGiorno.plusDays(l.giorno)));
+                ps.setTime(3, Time.valueOf(LocalTime.of(l.inizio / 60, l.inizio % 60)));
+                ps.setInt (4, posti);
+                ps.setInt (5, prenotati);
+                ps.setInt (6, istruttori[l.istruttore]);
+                batch.aggiungi();
+            }
+            batch.chiudi();
+        }
+        return idDopo(conn, "LEZIONE_CORSO", "ID_LEZIONE", idIniziale);
+    }
+
+    private long generaIscrizioni(Connection conn, int[] clienti, int[] lezioni, PianoIscrizioni iscritti)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_ISCRIZIONE)) {
+            Batch batch = new Batch(conn, ps);
+            for (int j = 0; j < lezioni.length; j++) {
+                for (int e = iscritti.primaDellaLezione[j]; e < iscritti.primaDellaLezione[j + 1]; e++) {
+                    ps.setInt(1, clienti[iscritti.cliente[e]]);
+                    ps.setInt(2, lezioni[j]);
+                    batch.aggiungi();
+                }
+            }
+            batch.chiudi();
+        }
+        return iscritti.totale();
+    }
+
+    /**
+     * Le consulenze occupano orari (a mezz'ora, dalle 8:00 alle 19:30) scelti a caso tra
+     * quelli compresi nell'ORARIO_DISP dei professionisti; il cliente è scelto a caso tra
+     * quelli liberi in quell'orario. Professionista e cliente non hanno mai due consulenze
+     * sovrapposte (durate di ConsulenzaDAO.durataStimataMinuti).
+     */
+    private int generaConsulenze(Connection conn, int[] clienti, Personale pt, Personale nutrizionisti)
+            throws SQLException {
+        Random r = random(FLUSSO_CONSULENZE);
+        LocalDate primoGiorno = oggi.minusDays(config.giorni / 2);
+        int[] slot = slotDisponibili(primoGiorno, pt, nutrizionisti);
+        mescola(r, slot);
+
+        // mezz'ore occupate per (professionista, giorno) e (cliente, giorno)
+        long[] occupatoDipendente = new long[(pt.ids.length + nutrizionisti.ids.length) * config.giorni];
+        Map<Long, Long> occupatoCliente = new HashMap<>();
+        int scritte = 0;
+
+        try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CONSULENZA)) {
+            Batch batch = new Batch(conn, ps);
+            for (int s = 0; s < slot.length && scritte < config.consulenze; s++) {
+                int c = slot[s] / SLOT_GIORNO / config.giorni;
+                int giorno = slot[s] / SLOT_GIORNO % config.giorni;
+                int mezzora = slot[s] % SLOT_GIORNO;
+                boolean isPt = c < pt.ids.length;
+                String tipo = isPt ? "PERSONAL_TRAINER" : "NUTRIZIONISTA";
+                long occupa = mezzOre(mezzora, ConsulenzaDAO.durataStimataMinuti(tipo));
+
+                int dipendente = c * config.giorni + giorno;
+                if ((occupatoDipendente[dipendente] & occupa) != 0) {
+                    continue;
+                }
+                int cliente = clienteLibero(r, clienti.length, giorno, occupa, occupatoCliente);
+                if (cliente < 0) {
+                    continue;
+                }
+                occupatoDipendente[dipendente] |= occupa;
+                occupatoCliente.merge((long) cliente * config.giorni + giorno, occupa, (a, b) -> a | b);
+
+                ps.setInt   (1, clienti[cliente]);
+                ps.setInt   (2, isPt ? pt.ids[c] : nutrizionisti.ids[c - pt.ids.length]);
+                ps.setString(3, tipo);
+                ps.setDate  (4, Date.valueOf(primoGiorno.plusDays(giorno)));
+                ps.setTime  (5, Time.valueOf(LocalTime.of(mezzora * SLOT_MINUTI / 60, mezzora * SLOT_MINUTI % 60)));
+                batch.aggiungi();
+                scritte++;
+            }
+            batch.chiudi();
+        }
+        if (scritte < config.consulenze) {
+            logger.warn("Generate {} consulenze su {} richieste: orari dei professionisti esauriti",
+                    scritte, config.consulenze);
+        }
+        return scritte;
+    }
+
+    /** Orari di inizio (professionista, giorno, mezz'ora) compresi nella disponibilità, codificati in un int. */
+    private int[] slotDisponibili(LocalDate primoGiorno, Personale pt, Personale nutrizionisti) {
+        int consulenti = pt.ids.length + nutrizionisti.ids.length;
+        int[] slot = new int[consulenti * config.giorni * SLOT_GIORNO];
+        int n = 0;
+        for (int c = 0; c < consulenti; c++) {
+            boolean isPt = c < pt.ids.length;
+            OrarioDisponibilita orario = isPt ? pt.orari[c] : nutrizionisti.orari[c - pt.ids.length];
+            int durata = ConsulenzaDAO.durataStimataMinuti(isPt ? "PERSONAL_TRAINER" : "NUTRIZIONISTA");
+            for (int giorno = 0; giorno < config.giorni; giorno++) {
+                DayOfWeek dow = primoGiorno.plusDays(giorno).getDayOfWeek();
+                for (int m = PRIMO_SLOT_CONSULENZA; m <= ULTIMO_SLOT_CONSULENZA; m++) {
+                    if (orario.isDisponibile(dow, m * SLOT_MINUTI, durata)) {
+                        slot[n++] = (c * config.giorni + giorno) * SLOT_GIORNO + m;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(slot, n);
+    }
+
+    private int clienteLibero(Random r, int clienti, int giorno, long occupa, Map<Long, Long> occupatoCliente) {
+        for (int t = 0; t < TENTATIVI_CLIENTE; t++) {
+            int cliente = r.nextInt(clienti);
+            Long occupato = occupatoCliente.get((long) cliente * config.giorni + giorno);
+            if (occupato == null || (occupato & occupa) == 0) {
+                return cliente;
+            }
+        }
+        return -1;
+    }
+
+    /** Maschera delle mezz'ore occupate da un appuntamento che inizia alla mezz'ora indicata. */
+    private static long mezzOre(int primaMezzora, int durataMinuti) {
+        int quante = (durataMinuti + SLOT_MINUTI - 1) / SLOT_MINUTI;
+        return ((1L << quante) - 1) << primaMezzora;
+    }
+
+    private static void mescola(Random r, int[] valori) {
+        for (int i = valori.length - 1; i > 0; i--) {
+            int j = r.nextInt(i + 1);
+            int t = valori[i];
+            valori[i] = valori[j];
+            valori[j] = t;
+        }
+    }
+
+    // ==========================================================
+    //  ANNULLAMENTO
+    // ==========================================================
+
+    /**
+     * Elimina le righe scritte da una generazione non conclusa, riconosciute dagli id
+     * successivi a quelli presenti all'avvio (la generazione è l'unico scrittore).
+     */
+    private static void annullaGenerazione(Connection conn, Partenza p) throws SQLException {
+        elimina(conn, "DELETE FROM ISCRIZIONE_CORSO WHERE ID_LEZIONE > ?", p.lezione);
+        elimina(conn, "DELETE FROM CONSULENZA WHERE ID_CLIENTE > ?", p.cliente);
+        elimina(conn, "DELETE FROM LEZIONE_CORSO WHERE ID_LEZIONE > ?", p.lezione);
+        elimina(conn, "DELETE FROM CORSO WHERE ID_CORSO > ?", p.corso);
+        elimina(conn, "DELETE FROM PERSONAL_TRAINER WHERE ID_DIPENDENTE > ?", p.dipendente);
+        elimina(conn, "DELETE FROM NUTRIZIONISTA WHERE ID_DIPENDENTE > ?", p.dipendente);
+        elimina(conn, "DELETE FROM ISTRUTTORE_CORSO WHERE ID_DIPENDENTE > ?", p.dipendente);
+        elimina(conn, "DELETE FROM DIPENDENTE WHERE ID_DIPENDENTE > ?", p.dipendente);
+        elimina(conn, "DELETE FROM ABBONAMENTO WHERE ID_CLIENTE > ?", p.cliente);
+        elimina(conn, "DELETE FROM CLIENTE WHERE ID_CLIENTE > ?", p.cliente);
+        conn.commit();
+        logger.warn("Generazione non riuscita: righe già scritte eliminate");
+    }
+
+    private static void elimina(Connection conn, String sql, int idDopo) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, idDopo);
+            ps.executeUpdate();
+        }
+    }
+
+    // ==========================================================
+    //  SUPPORTO
+    // ==========================================================
+
+    private Random random(int flusso) {
+        return new Random(config.seme * 31 + flusso);
+    }
+
+    /** CF fittizio ma univoco (16 caratteri): iniziali del prefisso + progressivo. */
+    private String codiceFiscale(int i) {
+        String iniziali = (config.prefisso.toUpperCase() + "XXX").substring(0, 3);
+        return iniziali + String.format("%013d", i);
+    }
+
+    private static int passoCoprimo(Random r, int n) {
+        if (n == 1) {
+            return 1;
+        }
+        int passo;
+        do {
+            passo = 1 + r.nextInt(n - 1);
+        } while (mcd(passo, n) != 1);
+        return passo;
+    }
+
+    private static int mcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static String scegli(Random r, String[] valori) {
+        return valori[r.nextInt(valori.length)];
+    }
+
+    private static int scegli(Random r, int[] valori) {
+        return valori[r.nextInt(valori.length)];
+    }
+
+    private static int maxId(Connection conn, String tabella, String colonna) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(" + colonna + "), 0) FROM " + tabella)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /** Id assegnati dopo {@code idIniziale}, in ordine di inserimento (la generazione è l'unico scrittore). */
+    private static int[] idDopo(Connection conn, String tabella, String colonna, int idIniziale) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT " + colonna + " FROM " + tabella + " WHERE " + colonna + " > ? ORDER BY " + colonna)) {
+            ps.setInt(1, idIniziale);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    /** Accumula le righe ed esegue batch + commit ogni {@code dimensioneBatch} righe. */
+    private final class Batch {
+        private final Connection conn;
+        private final PreparedStatement ps;
+        private int righe;
+
+        Batch(Connection conn, PreparedStatement ps) {
+            this.conn = conn;
+            this.ps = ps;
+        }
+
+        void aggiungi() throws SQLException {
+            ps.addBatch();
+            if (++righe % config.dimensioneBatch == 0) {
+                ps.executeBatch();
+                conn.commit();
+            }
+        }
+
+        void chiudi() throws SQLException {
+            if (righe % config.dimensioneBatch != 0) {
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    /** Ultimi id presenti prima della generazione. */
+    private static final class Partenza {
+        final int cliente;
+        final int dipendente;
+        final int corso;
+        final int lezione;
+
+        Partenza(Connection conn) throws SQLException {
+            cliente = maxId(conn, "CLIENTE", "ID_CLIENTE");
+            dipendente = maxId(conn, "DIPENDENTE", "ID_DIPENDENTE");
+            corso = maxId(conn, "CORSO", "ID_CORSO");
+            lezione = maxId(conn, "LEZIONE_CORSO", "ID_LEZIONE");
+        }
+    }
+
+    /** Dipendenti di un ruolo, nell'ordine di inserimento, con la disponibilità compilata. */
+    private static final class Personale {
+        final int[] ids;
+        final OrarioDisponibilita[] orari;
+
+        Personale(int quanti) {
+            ids = new int[quanti];
+            orari = new OrarioDisponibilita[quanti];
+        }
+    }
+
+    /** Lezione decisa in memoria: indici di corso e istruttore, giorno del calendario, minuti dall'inizio della giornata. */
+    private static final class LezionePianificata {
+        final int corso;
+        final int giorno;
+        final int inizio;
+        final int fine;
+        final int istruttore;
+        final int postiExtra;
+
+        LezionePianificata(int corso, int giorno, int inizio, int fine, int istruttore, int postiExtra) {
+            this.corso = corso;
+            this.giorno = giorno;
+            this.inizio = inizio;
+            this.fine = fine;
+            this.istruttore = istruttore;
+            this.postiExtra = postiExtra;
+        }
+    }
+
+    /** Iscrizioni decise in memoria: quelle della lezione j sono [primaDellaLezione[j], primaDellaLezione[j+1]). */
+    private static final class PianoIscrizioni {
+        final int[] cliente;
+        final int[] primaDellaLezione;
+
+        PianoIscrizioni(int lezioni, int capacita) {
+            cliente = new int[capacita];
+            primaDellaLezione = new int[lezioni + 1];
+        }
+
+        int perLezione(int j) {
+            return primaDellaLezione[j + 1] - primaDellaLezione[j];
+        }
+
+        int totale() {
+            return primaDellaLezione[primaDellaLezione.length - 1];
+        }
+    }
+}
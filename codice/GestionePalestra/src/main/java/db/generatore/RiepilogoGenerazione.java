@@ -0,0 +1,33 @@
+package db.generatore;
+
+/**
+ * Righe scritte da una generazione e tempo impiegato.
+ */
+public final class RiepilogoGenerazione {
+
+    public final int clienti;
+    public final int dipendenti;
+    public final int corsi;
+    public final int lezioni;
+    public final long iscrizioni;
+    public final int consulenze;
+    public final long durataMs;
+
+    public RiepilogoGenerazione(int clienti, int dipendenti, int corsi, int lezioni,
+                                long iscrizioni, int consulenze, long durataMs) {
+        this.clienti = clienti;
+        this.dipendenti = dipendenti;
+        this.corsi = corsi;
+        this.lezioni = lezioni;
+        this.iscrizioni = iscrizioni;
+        this.consulenze = consulenze;
+        this.durataMs = durataMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Generazione dati[clienti=%d, dipendenti=%d, corsi=%d, lezioni=%d, " +
+                        "iscrizioni=%d, consulenze=%d, durata=%d ms]",
+                clienti, dipendenti, corsi, lezioni, iscrizioni, consulenze, durataMs);
+    }
+}
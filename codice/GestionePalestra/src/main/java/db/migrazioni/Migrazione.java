@@ -0,0 +1,30 @@
+package db.migrazioni;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Singolo passo di evoluzione dello schema.
+ *
+ * Le migrazioni sono applicate in ordine crescente di versione, una sola volta:
+ * il {@link MotoreMigrazioni} registra versione e checksum in SCHEMA_VERSION
+ * e all'avvio successivo segnala se il contenuto di una migrazione già applicata
+ * è stato modificato.
+ */
+public interface Migrazione {
+
+    /** Numero di versione (univoco, crescente). */
+    int getVersione();
+
+    /** Descrizione breve, salvata in SCHEMA_VERSION. */
+    String getDescrizione();
+
+    /** Impronta del contenuto: deve cambiare se cambia ciò che la migrazione esegue. */
+    String getChecksum();
+
+    /**
+     * Esegue la migrazione. Il motore chiama il metodo con autocommit disattivato
+     * e si occupa di commit/rollback.
+     */
+    void applica(Connection conn) throws SQLException;
+}
@@ -0,0 +1,128 @@
+package db.migrazioni;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migrazione letta da uno script SQL nel classpath (cartella {@code db/migrazioni}).
+ *
+ * Lo script contiene istruzioni separate da {@code ;} a fine riga;
+ * le righe che iniziano con {@code --} sono commenti. Il checksum è lo SHA-256
+ * del testo dello script (con fine riga normalizzati).
+ */
+public class MigrazioneSql implements Migrazione {
+
+    private static final String CARTELLA = "/db/migrazioni/";
+
+    private final int versione;
+    private final String descrizione;
+    private final String risorsa;
+
+    // caricato alla prima richiesta (checksum o applicazione)
+    private String testo;
+
+    public MigrazioneSql(int versione, String descrizione, String nomeScript) {
+        this.versione = versione;
+        this.descrizione = descrizione;
+        this.risorsa = CARTELLA + nomeScript;
+    }
+
+    @Override
+    public int getVersione() {
+        return versione;
+    }
+
+    @Override
+    public String getDescrizione() {
+        return descrizione;
+    }
+
+    @Override
+    public String getChecksum() {
+        return sha256(getTesto());
+    }
+
+    @Override
+    public void applica(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : istruzioni(getTesto())) {
+                st.execute(sql);
+            }
+        }
+    }
+
+    // ==========================================================
+    //  SCRIPT
+    // ==========================================================
+
+    private synchronized String getTesto() {
+        if (testo == null) {
+            testo = leggiRisorsa(risorsa).replace("\r\n", "\n");
+        }
+        return testo;
+    }
+
+    static List<String> istruzioni(String script) {
+        List<String> risultato = new ArrayList<>();
+        StringBuilder corrente = new StringBuilder();
+
+        for (String riga : script.split("\n")) {
+            String r = riga.trim();
+            if (r.isEmpty() || r.startsWith("--")) {
+                continue;
+            }
+            corrente.append(r);
+            if (r.endsWith(";")) {
+                corrente.setLength(corrente.length() - 1);
+                risultato.add(corrente.toString());
+                corrente.setLength(0);
+            } else {
+                corrente.append(' ');
+            }
+        }
+        if (corrente.toString().trim().length() > 0) {
+            risultato.add(corrente.toString().trim());
+        }
+        return risultato;
+    }
+
+    private static String leggiRisorsa(String percorso) {
+        try (InputStream in = MigrazioneSql.class.getResourceAsStream(percorso)) {
+            if (in == null) {
+                throw new IllegalStateException("Script di migrazione non trovato: " + percorso);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int letti;
+            while ((letti = in.read(buffer)) != -1) {
+                out.write(buffer, 0, letti);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Errore nella lettura di " + percorso, e);
+        }
+    }
+
+    static String sha256(String testo) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(testo.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package db.migrazioni;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applica in ordine le {@link Migrazione} non ancora registrate in SCHEMA_VERSION.
+ *
+ * All'avvio legge le versioni applicate con un'unica query: se il database
+ * è già aggiornato non esegue altro, per cui il tempo di avvio non dipende
+ * dalla quantità di dati. Se il checksum di una migrazione già applicata
+ * non corrisponde più, l'avvio viene interrotto con una SQLException.
+ *
+ * Ogni migrazione gira nella propria transazione insieme alla registrazione
+ * della versione. Nota: in H2 le istruzioni DDL fanno commit implicito,
+ * per cui gli script devono restare rieseguibili ({@code IF NOT EXISTS}).
+ */
+public class MotoreMigrazioni {
+
+    private static final Logger logger =
+            LogManager.getLogger(MotoreMigrazioni.class);
+
+    private static final String SQL_CREA_SCHEMA_VERSION =
+            "CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (" +
+            "VERSIONE INT PRIMARY KEY, " +
+            "DESCRIZIONE VARCHAR(200) NOT NULL, " +
+            "CHECKSUM VARCHAR(64), " +
+            "APPLICATA_IL TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL, " +
+            "DURATA_MS BIGINT" +
+            ")";
+
+    // SCHEMA_VERSION creata dalla prima migrazione degli indici non aveva queste colonne
+    private static final String[] SQL_ALLINEA_SCHEMA_VERSION = {
+            "ALTER TABLE SCHEMA_VERSION ADD COLUMN IF NOT EXISTS CHECKSUM VARCHAR(64)",
+            "ALTER TABLE SCHEMA_VERSION ADD COLUMN IF NOT EXISTS DURATA_MS BIGINT"
+    };
+
+    private static final String SQL_VERSIONI_APPLICATE =
+            "SELECT VERSIONE, CHECKSUM FROM SCHEMA_VERSION";
+
+    private static final String SQL_REGISTRA_VERSIONE =
+            "INSERT INTO SCHEMA_VERSION (VERSIONE, DESCRIZIONE, CHECKSUM, DURATA_MS) VALUES (?, ?, ?, ?)";
+
+    private static final String SQL_ADOTTA_CHECKSUM =
+            "UPDATE SCHEMA_VERSION SET CHECKSUM = ? WHERE VERSIONE = ? AND CHECKSUM IS NULL";
+
+    private final List<Migrazione> migrazioni;
+
+    public MotoreMigrazioni(List<Migrazione> migrazioni) {
+        List<Migrazione> ordinate = new ArrayList<>(migrazioni);
+        ordinate.sort(Comparator.comparingInt(Migrazione::getVersione));
+        for (int i = 1; i < ordinate.size(); i++) {
+            if (ordinate.get(i).getVersione() == ordinate.get(i - 1).getVersione()) {
+                throw new IllegalArgumentException(
+                        "Versione di migrazione duplicata: " + ordinate.get(i).getVersione());
+            }
+        }
+        this.migrazioni = Collections.unmodifiableList(ordinate);
+    }
+
+    public List<Migrazione> getMigrazioni() {
+        return migrazioni;
+    }
+
+    /** Versione più alta conosciuta dall'applicazione. */
+    public int getVersioneCorrente() {
+        return migrazioni.isEmpty() ? 0 : migrazioni.get(migrazioni.size() - 1).getVersione();
+    }
+
+    /**
+     * Porta il database all'ultima versione.
+     *
+     * @return il numero di migrazioni applicate (0 se era già aggiornato)
+     */
+    public int migra(Connection conn) throws SQLException {
+        return migraFinoA(conn, Integer.MAX_VALUE);
+    }
+
+    /** Applica le migrazioni mancanti fino alla versione indicata (inclusa). */
+    public int migraFinoA(Connection conn, int versioneMassima) throws SQLException {
+        preparaSchemaVersion(conn);
+        Map<Integer, String> applicate = leggiVersioniApplicate(conn);
+
+        List<Migrazione> daApplicare = new ArrayList<>();
+        for (Migrazione m : migrazioni) {
+            if (applicate.containsKey(m.getVersione())) {
+                verificaChecksum(conn, m, applicate.get(m.getVersione()));
+            } else if (m.getVersione() <= versioneMassima) {
+                daApplicare.add(m);
+            }
+        }
+
+        if (daApplicare.isEmpty()) {
+            logger.debug("Schema DB aggiornato ({} migrazioni registrate)", applicate.size());
+            return 0;
+        }
+
+        for (Migrazione m : daApplicare) {
+            applica(conn, m);
+        }
+        return daApplicare.size();
+    }
+
+    // ==========================================================
+    //  SCHEMA_VERSION
+    // ==========================================================
+
+    private void preparaSchemaVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(SQL_CREA_SCHEMA_VERSION);
+            for (String sql : SQL_ALLINEA_SCHEMA_VERSION) {
+                st.execute(sql);
+            }
+        }
+    }
+
+    private Map<Integer, String> leggiVersioniApplicate(Connection conn) throws SQLException {
+        Map<Integer, String> applicate = new HashMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(SQL_VERSIONI_APPLICATE)) {
+            while (rs.next()) {
+                applicate.put(rs.getInt("VERSIONE"), rs.getString("CHECKSUM"));
+            }
+        }
+
+        for (Integer versione : applicate.keySet()) {
+            if (versione > getVersioneCorrente()) {
+                logger.warn("Il DB contiene la versione {} dello schema, sconosciuta a questa applicazione " +
+                        "(ultima nota: {})", versione, getVersioneCorrente());
+            }
+        }
+        return applicate;
+    }
+
+    private void verificaChecksum(Connection conn, Migrazione m, String registrato) throws SQLException {
+        String attuale = m.getChecksum();
+        if (registrato == null) {
+            // versione registrata prima che esistesse il checksum: la adotto così com'è
+            try (PreparedStatement ps = conn.prepareStatement(SQL_ADOTTA_CHECKSUM)) {
+                ps.setString(1, attuale);
+                ps.setInt(2, m.getVersione());
+                ps.executeUpdate();
+            }
+            return;
+        }
+        if (!registrato.equals(attuale)) {
+            throw new SQLException("La migrazione V" + m.getVersione() + " (" + m.getDescrizione()
+                    + ") è stata modificata dopo essere stata applicata: checksum registrato "
+                    + registrato + ", attuale " + attuale);
+        }
+    }
+
+    private void applica(Connection conn, Migrazione m) throws SQLException {
+        logger.info("Applico la migrazione V{}: {}", m.getVersione(), m.getDescrizione());
+        long inizio = System.nanoTime();
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            m.applica(conn);
+            long durataMs = (System.nanoTime() - inizio) / 1_000_000;
+            try (PreparedStatement ps = conn.prepareStatement(SQL_REGISTRA_VERSIONE)) {
+                ps.setInt(1, m.getVersione());
+                ps.setString(2, m.getDescrizione());
+                ps.setString(3, m.getChecksum());
+                ps.setLong(4, durataMs);
+                ps.executeUpdate();
+            }
+            conn.commit();
+            logger.info("Migrazione V{} completata in {} ms", m.getVersione(), durataMs);
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
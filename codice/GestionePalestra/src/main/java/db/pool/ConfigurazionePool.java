@@ -0,0 +1,65 @@
+package db.pool;
+
+/**
+ * Parametri del pool di connessioni.
+ *
+ * I valori di default vanno bene per il kiosk della reception; ognuno può essere
+ * sovrascritto con una system property (es. -Dpalestra.db.pool.max=20).
+ */
+public final class ConfigurazionePool {
+
+    public final int minConnessioni;
+    public final int maxConnessioni;
+    public final long timeoutAcquisizioneMs;
+    public final long timeoutInattivitaMs;
+    public final long sogliaLeakMs;
+    /**
+     * Se true ogni acquisizione memorizza lo stack del chiamante, stampato con
+     * l'avviso di leak. Costa quanto una query breve: va acceso solo per indagare.
+     */
+    public final boolean tracciaLeak;
+    public final long intervalloManutenzioneMs;
+    public final long validaDopoInattivitaMs;
+    public final int timeoutValidazioneSec;
+
+    public ConfigurazionePool(int minConnessioni,
+                              int maxConnessioni,
+                              long timeoutAcquisizioneMs,
+                              long timeoutInattivitaMs,
+                              long sogliaLeakMs,
+                              boolean tracciaLeak,
+                              long intervalloManutenzioneMs,
+                              long validaDopoInattivitaMs,
+                              int timeoutValidazioneSec) {
+        if (maxConnessioni <= 0) {
+            throw new IllegalArgumentException("maxConnessioni deve essere > 0");
+        }
+        if (minConnessioni < 0 || minConnessioni > maxConnessioni) {
+            throw new IllegalArgumentException("minConnessioni deve essere tra 0 e maxConnessioni");
+        }
+        this.minConnessioni = minConnessioni;
+        this.maxConnessioni = maxConnessioni;
+        this.timeoutAcquisizioneMs = timeoutAcquisizioneMs;
+        this.timeoutInattivitaMs = timeoutInattivitaMs;
+        this.sogliaLeakMs = sogliaLeakMs;
+        this.tracciaLeak = tracciaLeak;
+        this.intervalloManutenzioneMs = intervalloManutenzioneMs;
+        this.validaDopoInattivitaMs = validaDopoInattivitaMs;
+        this.timeoutValidazioneSec = timeoutValidazioneSec;
+    }
+
+    /** Configurazione letta dalle system property "palestra.db.pool.*". */
+    public static ConfigurazionePool daProprietaDiSistema() {
+        return new ConfigurazionePool(
+                Integer.getInteger("palestra.db.pool.min", 1),
+                Integer.getInteger("palestra.db.pool.max", 10),
+                Long.getLong("palestra.db.pool.timeoutAcquisizioneMs", 5_000L),
+                Long.getLong("palestra.db.pool.timeoutInattivitaMs", 300_000L),
+                Long.getLong("palestra.db.pool.sogliaLeakMs", 30_000L),
+                Boolean.getBoolean("palestra.db.pool.tracciaLeak"),
+                Long.getLong("palestra.db.pool.intervalloManutenzioneMs", 30_000L),
+                Long.getLong("palestra.db.pool.validaDopoInattivitaMs", 5_000L),
+                Integer.getInteger("palestra.db.pool.timeoutValidazioneSec", 2)
+        );
+    }
+}
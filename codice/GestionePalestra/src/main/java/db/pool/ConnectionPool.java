@@ -0,0 +1,394 @@
+package db.pool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool di connessioni JDBC limitato e auto-validante.
+ *
+ * - al massimo {@code maxConnessioni} connessioni fisiche aperte contemporaneamente;
+ *   oltre, il chiamante aspetta fino a {@code timeoutAcquisizioneMs} e poi riceve una SQLException
+ * - le connessioni rimaste inattive più di {@code validaDopoInattivitaMs} vengono validate
+ *   con {@link Connection#isValid(int)} prima di essere riconsegnate
+ * - un thread di manutenzione chiude le connessioni inattive oltre il minimo
+ *   e segnala nel log le connessioni trattenute più a lungo di {@code sogliaLeakMs};
+ *   lo stack del chiamante si registra solo con {@code tracciaLeak}
+ *
+ * Le connessioni restituite sono proxy: {@code close()} le riporta nel pool
+ * (ripristinando autocommit, sola lettura e isolamento) invece di chiuderle fisicamente.
+ */
+public class ConnectionPool {
+
+    private static final Logger logger =
+            LogManager.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final ConfigurazionePool config;
+
+    // LIFO: si riusa per prima la connessione più "calda", le altre invecchiano e vengono chiuse
+    private final LinkedBlockingDeque<VoceConnessione> libere = new LinkedBlockingDeque<>();
+    private final Set<VoceConnessione> inUso = ConcurrentHashMap.newKeySet();
+    private final Semaphore permessi;
+    private final ScheduledExecutorService manutenzione;
+
+    private volatile boolean chiuso = false;
+
+    // ===================== METRICHE =====================
+    private final AtomicLong acquisizioni        = new AtomicLong();
+    private final AtomicLong timeoutAcquisizione = new AtomicLong();
+    private final AtomicLong connessioniCreate   = new AtomicLong();
+    private final AtomicLong connessioniChiuse   = new AtomicLong();
+    private final AtomicLong validazioniFallite  = new AtomicLong();
+    private final AtomicLong leakRilevati        = new AtomicLong();
+    private final AtomicLong attesaTotaleNanos   = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, ConfigurazionePool config) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        this.permessi = new Semaphore(config.maxConnessioni, true);
+
+        this.manutenzione = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "palestra-db-pool-manutenzione");
+            t.setDaemon(true);
+            return t;
+        });
+        this.manutenzione.scheduleWithFixedDelay(
+                this::eseguiManutenzione,
+                config.intervalloManutenzioneMs,
+                config.intervalloManutenzioneMs,
+                TimeUnit.MILLISECONDS);
+
+        riempiFinoAlMinimo();
+    }
+
+    // ==========================================================
+    //  ACQUISIZIONE / RILASCIO
+    // ==========================================================
+
+    public Connection getConnection() throws SQLException {
+        if (chiuso) {
+            throw new SQLException("Il pool di connessioni è stato chiuso.");
+        }
+
+        long inizio = System.nanoTime();
+        boolean ottenuto;
+        try {
+            ottenuto = permessi.tryAcquire(config.timeoutAcquisizioneMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrotto in attesa di una connessione dal pool.", e);
+        }
+        attesaTotaleNanos.addAndGet(System.nanoTime() - inizio);
+
+        if (!ottenuto) {
+            timeoutAcquisizione.incrementAndGet();
+            logger.warn("Timeout acquisizione connessione dopo {} ms: {}",
+                    config.timeoutAcquisizioneMs, getStatistiche());
+            throw new SQLException("Nessuna connessione disponibile entro "
+                    + config.timeoutAcquisizioneMs + " ms (pool esaurito).");
+        }
+
+        try {
+            VoceConnessione voce = prendiConnessioneValida();
+            voce.segnaAcquisita(config.sogliaLeakMs > 0 && config.tracciaLeak);
+            inUso.add(voce);
+            acquisizioni.incrementAndGet();
+            return creaProxy(voce);
+        } catch (SQLException | RuntimeException e) {
+            permessi.release();
+            throw e;
+        }
+    }
+
+    private VoceConnessione prendiConnessioneValida() throws SQLException {
+        VoceConnessione voce;
+        while ((voce = libere.pollFirst()) != null) {
+            if (isAncoraValida(voce)) {
+                return voce;
+            }
+            validazioniFallite.incrementAndGet();
+            chiudiFisicamente(voce);
+        }
+        return apriNuova();
+    }
+
+    private boolean isAncoraValida(VoceConnessione voce) {
+        long inattivaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - voce.ultimoUsoNanos);
+        try {
+            if (voce.fisica.isClosed()) {
+                return false;
+            }
+            return inattivaMs < config.validaDopoInattivitaMs
+                    || voce.fisica.isValid(config.timeoutValidazioneSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private VoceConnessione apriNuova() throws SQLException {
+        Connection fisica = DriverManager.getConnection(url, user, password);
+        connessioniCreate.incrementAndGet();
+        try {
+            return new VoceConnessione(fisica);
+        } catch (SQLException e) {
+            fisica.close();
+            throw e;
+        }
+    }
+
+    /** Invocato dal proxy alla close(): ripulisce lo stato e rimette la connessione nel pool. */
+    private void rilascia(VoceConnessione voce) {
+        inUso.remove(voce);
+        try {
+            if (chiuso || !ripristinaStato(voce)) {
+                chiudiFisicamente(voce);
+            } else {
+                voce.ultimoUsoNanos = System.nanoTime();
+                libere.offerFirst(voce);
+            }
+        } finally {
+            permessi.release();
+        }
+    }
+
+    private boolean ripristinaStato(VoceConnessione voce) {
+        Connection fisica = voce.fisica;
+        try {
+            if (fisica.isClosed()) {
+                return false;
+            }
+            if (!fisica.getAutoCommit()) {
+                // transazione lasciata aperta dal chiamante: non deve finire al prossimo utilizzatore
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+            if (voce.impostazioniModificate) {
+                // su H2 isReadOnly() è una query: si rileggono solo se il chiamante le ha cambiate
+                fisica.setReadOnly(voce.solaLetturaIniziale);
+                fisica.setTransactionIsolation(voce.isolamentoIniziale);
+                voce.impostazioniModificate = false;
+            }
+            fisica.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Connessione scartata al rilascio: stato non ripristinabile", e);
+            return false;
+        }
+    }
+
+    private void chiudiFisicamente(VoceConnessione voce) {
+        try {
+            voce.fisica.close();
+        } catch (SQLException e) {
+            logger.debug("Errore nella chiusura di una connessione fisica", e);
+        }
+        connessioniChiuse.incrementAndGet();
+    }
+
+    // ==========================================================
+    //  MANUTENZIONE (eviction, minimo, leak)
+    // ==========================================================
+
+    void eseguiManutenzione() {
+        try {
+            chiudiInattive();
+            riempiFinoAlMinimo();
+            segnalaLeak();
+        } catch (RuntimeException e) {
+            logger.error("Errore nella manutenzione del pool di connessioni", e);
+        }
+    }
+
+    private void chiudiInattive() {
+        long ora = System.nanoTime();
+        Iterator<VoceConnessione> it = libere.descendingIterator();
+        while (it.hasNext() && libere.size() + inUso.size() > config.minConnessioni) {
+            VoceConnessione voce = it.next();
+            long inattivaMs = TimeUnit.NANOSECONDS.toMillis(ora - voce.ultimoUsoNanos);
+            if (inattivaMs >= config.timeoutInattivitaMs && libere.remove(voce)) {
+                chiudiFisicamente(voce);
+            }
+        }
+    }
+
+    private void riempiFinoAlMinimo() {
+        while (!chiuso && libere.size() + inUso.size() < config.minConnessioni) {
+            if (!permessi.tryAcquire()) {
+                return;
+            }
+            try {
+                libere.offerLast(apriNuova());
+            } catch (SQLException e) {
+                logger.warn("Impossibile aprire le connessioni minime del pool", e);
+                return;
+            } finally {
+                permessi.release();
+            }
+        }
+    }
+
+    private void segnalaLeak() {
+        if (config.sogliaLeakMs <= 0) {
+            return;
+        }
+        long ora = System.nanoTime();
+        for (VoceConnessione voce : inUso) {
+            long trattenutaMs = TimeUnit.NANOSECONDS.toMillis(ora - voce.acquisitaNanos);
+            if (trattenutaMs >= config.sogliaLeakMs && !voce.leakSegnalato) {
+                voce.leakSegnalato = true;
+                leakRilevati.incrementAndGet();
+                if (voce.puntoAcquisizione != null) {
+                    logger.warn("Possibile leak: connessione trattenuta da {} ms (acquisita qui)",
+                            trattenutaMs, voce.puntoAcquisizione);
+                } else {
+                    logger.warn("Possibile leak: connessione trattenuta da {} ms "
+                            + "(-Dpalestra.db.pool.tracciaLeak=true per il punto di acquisizione)", trattenutaMs);
+                }
+            }
+        }
+    }
+
+    // ==========================================================
+    //  METRICHE / CHIUSURA
+    // ==========================================================
+
+    public StatistichePool getStatistiche() {
+        long acq = acquisizioni.get();
+        double attesaMediaMs = acq == 0 ? 0.0
+                : attesaTotaleNanos.get() / 1_000_000.0 / acq;
+        return new StatistichePool(
+                inUso.size(),
+                libere.size(),
+                permessi.getQueueLength(),
+                acq,
+                timeoutAcquisizione.get(),
+                connessioniCreate.get(),
+                connessioniChiuse.get(),
+                validazioniFallite.get(),
+                leakRilevati.get(),
+                attesaMediaMs
+        );
+    }
+
+    /** Chiude le connessioni libere; quelle in uso vengono chiuse al rilascio. */
+    public void chiudi() {
+        chiuso = true;
+        manutenzione.shutdownNow();
+        VoceConnessione voce;
+        while ((voce = libere.pollFirst()) != null) {
+            chiudiFisicamente(voce);
+        }
+        logger.info("Pool di connessioni chiuso. {}", getStatistiche());
+    }
+
+    // ==========================================================
+    //  PROXY
+    // ==========================================================
+
+    private Connection creaProxy(VoceConnessione voce) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnessionePrestata(voce));
+    }
+
+    /**
+     * Handler di una singola "presa in prestito": dopo la close() il riferimento
+     * tenuto dal chiamante non può più toccare la connessione fisica.
+     */
+    private final class ConnessionePrestata implements InvocationHandler {
+
+        private final VoceConnessione voce;
+        private boolean restituita = false;
+
+        ConnessionePrestata(VoceConnessione voce) {
+            this.voce = voce;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nome = method.getName();
+
+            if ("close".equals(nome)) {
+                if (!restituita) {
+                    restituita = true;
+                    rilascia(voce);
+                }
+                return null;
+            }
+            if ("isClosed".equals(nome)) {
+                return restituita || voce.fisica.isClosed();
+            }
+            if ("equals".equals(nome)) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(nome)) {
+                return System.identityHashCode(proxy);
+            }
+            if ("toString".equals(nome)) {
+                return "Pooled[" + voce.fisica + "]";
+            }
+            if (restituita) {
+                throw new SQLException("Connessione già restituita al pool.");
+            }
+            if ("setReadOnly".equals(nome) || "setTransactionIsolation".equals(nome)) {
+                voce.impostazioniModificate = true;
+            }
+
+            try {
+                return method.invoke(voce.fisica, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /** Connessione fisica + informazioni sul suo ciclo di vita nel pool. */
+    private static final class VoceConnessione {
+        final Connection fisica;
+        // impostazioni alla creazione, ripristinate al rilascio
+        final boolean solaLetturaIniziale;
+        final int isolamentoIniziale;
+        volatile boolean impostazioniModificate;
+        volatile long ultimoUsoNanos;
+        volatile long acquisitaNanos;
+        volatile Throwable puntoAcquisizione;
+        volatile boolean leakSegnalato;
+
+        VoceConnessione(Connection fisica) throws SQLException {
+            this.fisica = fisica;
+            this.solaLetturaIniziale = fisica.isReadOnly();
+            this.isolamentoIniziale = fisica.getTransactionIsolation();
+            this.ultimoUsoNanos = System.nanoTime();
+        }
+
+        void segnaAcquisita(boolean tracciaChiamante) {
+            acquisitaNanos = System.nanoTime();
+            leakSegnalato = false;
+            puntoAcquisizione = tracciaChiamante
+                    ? new Throwable("Punto di acquisizione della connessione")
+                    : null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package db.pool;
+
+/**
+ * Fotografia (immutabile) dello stato del pool in un certo istante.
+ */
+public final class StatistichePool {
+
+    public final int connessioniInUso;
+    public final int connessioniLibere;
+    public final int threadInAttesa;
+    public final long acquisizioni;
+    public final long timeoutAcquisizione;
+    public final long connessioniCreate;
+    public final long connessioniChiuse;
+    public final long validazioniFallite;
+    public final long leakRilevati;
+    public final double attesaMediaMs;
+
+    public StatistichePool(int connessioniInUso,
+                           int connessioniLibere,
+                           int threadInAttesa,
+                           long acquisizioni,
+                           long timeoutAcquisizione,
+                           long connessioniCreate,
+                           long connessioniChiuse,
+                           long validazioniFallite,
+                           long leakRilevati,
+                           double attesaMediaMs) {
+        this.connessioniInUso = connessioniInUso;
+        this.connessioniLibere = connessioniLibere;
+        this.threadInAttesa = threadInAttesa;
+        this.acquisizioni = acquisizioni;
+        this.timeoutAcquisizione = timeoutAcquisizione;
+        this.connessioniCreate = connessioniCreate;
+        this.connessioniChiuse = connessioniChiuse;
+        this.validazioniFallite = validazioniFallite;
+        this.leakRilevati = leakRilevati;
+        this.attesaMediaMs = attesaMediaMs;
+    }
+
+    public int connessioniTotali() {
+        return connessioniInUso + connessioniLibere;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Pool[inUso=%d, libere=%d, inAttesa=%d, acquisizioni=%d, timeout=%d, " +
+                "create=%d, chiuse=%d, validazioniFallite=%d, leak=%d, attesaMedia=%.3f ms]",
+                connessioniInUso, connessioniLibere, threadInAttesa, acquisizioni,
+                timeoutAcquisizione, connessioniCreate, connessioniChiuse,
+                validazioniFallite, leakRilevati, attesaMediaMs);
+    }
+}
@@ -0,0 +1,53 @@
+package main;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import db.generatore.ConfigurazioneGeneratore;
+import db.generatore.GeneratoreDati;
+import db.generatore.RiepilogoGenerazione;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Popola il DB indicato da palestra.db.url con una palestra sintetica:
+ *
+ *   java -Dpalestra.db.url=jdbc:h2:./carico/palestra -Dpalestra.gen.clienti=20000 -cp ... main.GeneraDati
+ *
+ * Volumi e seme si leggono dalle property "palestra.gen.*" (vedi ConfigurazioneGeneratore).
+ * Con i volumi di default la generazione dura qualche minuto.
+ * Se i clienti con lo stesso prefisso esistono già non scrive nulla.
+ * Esce con codice 0 se i dati sono pronti, 2 in caso di errore.
+ */
+public class GeneraDati {
+
+    private static final Logger logger = LogManager.getLogger(GeneraDati.class);
+
+    public static void main(String[] args) {
+        ConfigurazioneGeneratore config = ConfigurazioneGeneratore.daProprietaDiSistema();
+        GeneratoreDati generatore = new GeneratoreDati(config);
+
+        int codice;
+        try (Connection conn = GestioneDB.getConnection()) {
+            InizializzazioneDB.init();
+            if (generatore.esistonoDati(conn)) {
+                System.out.println("Dati con prefisso \"" + config.prefisso + "\" già presenti: nessuna generazione.");
+            } else {
+                RiepilogoGenerazione riepilogo = generatore.genera(conn);
+                System.out.println(riepilogo);
+            }
+            codice = 0;
+
+        } catch (SQLException e) {
+            logger.error("Generazione dei dati non riuscita", e);
+            System.err.println("Generazione non riuscita: " + e.getMessage());
+            codice = 2;
+        } finally {
+            GestioneDB.chiudiPool();
+            LogManager.shutdown();   // svuota il ring buffer dei logger asincroni
+        }
+        System.exit(codice);
+    }
+}
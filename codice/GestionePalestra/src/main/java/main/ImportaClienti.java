@@ -0,0 +1,67 @@
+package main;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import service.ImportazioneClienti;
+import service.ImportazioneException;
+import service.RiepilogoImportazione;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+/**
+ * Importazione dei clienti da riga di comando:
+ *
+ *   java -cp ... main.ImportaClienti clienti.csv [report.csv]
+ *
+ * Il report degli errori viene scritto di default accanto al file
+ * importato ("clienti.csv.errori.csv"). Esce con codice 0 se tutte le righe
+ * sono state importate, 1 se qualche riga è stata scartata, 2 in caso di errore.
+ */
+public class ImportaClienti {
+
+    private static final Logger logger = LogManager.getLogger(ImportaClienti.class);
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Uso: ImportaClienti <file.csv> [report.csv]");
+            System.exit(2);
+        }
+
+        Path csv = Paths.get(args[0]);
+        Path report = args.length == 2 ? Paths.get(args[1]) : Paths.get(args[0] + ".errori.csv");
+
+        ImportazioneClienti importazione = new ImportazioneClienti();
+
+        int codice;
+        try (Reader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             Writer out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+
+            InizializzazioneDB.init();
+            RiepilogoImportazione riepilogo = importazione.importa(in, out);
+            System.out.println(riepilogo);
+            if (riepilogo.scartate > 0) {
+                System.out.println("Righe scartate elencate in " + report);
+            }
+            codice = riepilogo.scartate == 0 ? 0 : 1;
+
+        } catch (IOException | ImportazioneException | SQLException e) {
+            logger.error("Importazione di {} non riuscita", csv, e);
+            System.err.println("Importazione non riuscita: " + e.getMessage());
+            codice = 2;
+        } finally {
+            importazione.chiudi();
+            GestioneDB.chiudiPool();
+            LogManager.shutdown();   // svuota il ring buffer dei logger asincroni
+        }
+        System.exit(codice);
+    }
+}
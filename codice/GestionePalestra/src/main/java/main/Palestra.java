@@ -1,19 +1,54 @@
 package main;
 import org.apache.logging.log4j.LogManager;
+import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import org.apache.logging.log4j.Logger;
 
 import controller.LoginController;
 import db.GestioneDB;
 import db.InizializzazioneDB;
+import db.cache.CacheRiferimento;
+import metriche.RegistroMetriche;
+import service.hash.EsecutoreHash;
+import service.RinnovoLezioniJob;
 import view.LoginView;
+
+import java.awt.GraphicsEnvironment;
+import java.sql.SQLException;
 public class Palestra {
 	
 	 private static final Logger logger = LogManager.getLogger(Palestra.class);
 	public static void main(String[] args) {
 		
-		 // Inizializza DB (tabelle)
-        InizializzazioneDB.init();
+		 // Alla chiusura dell'applicazione scrivo le metriche, rilascio le connessioni del pool
+        // e chiudo Log4j (il suo shutdown hook è disattivato in log4j2.xml)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            RegistroMetriche.scriviNelLog();
+            GestioneDB.chiudiPool();
+            LogManager.shutdown();   // per ultimo: svuota il ring buffer dei logger asincroni
+        }, "palestra-shutdown-db"));
+
+        // Metriche: pool, BCrypt e cache entrano nel dump periodico accanto ai timer dei DAO
+        RegistroMetriche.registraSorgente("pool", GestioneDB::getStatistichePool);
+        RegistroMetriche.registraSorgente("bcrypt", () -> EsecutoreHash.getIstanza().getStatistiche());
+        RegistroMetriche.registraSorgente("cache", CacheRiferimento::getStatisticheTutte);
+        RegistroMetriche.avviaDumpPeriodico();
+
+		 // Inizializza DB (migrazioni dello schema): senza schema aggiornato non si parte
+        try {
+            InizializzazioneDB.init();
+        } catch (SQLException e) {
+            logger.error("Inizializzazione del database non riuscita: avvio interrotto", e);
+            if (!GraphicsEnvironment.isHeadless()) {
+                JOptionPane.showMessageDialog(null,
+                        "Impossibile preparare il database:\n" + e.getMessage(),
+                        "Errore di avvio", JOptionPane.ERROR_MESSAGE);
+            }
+            System.exit(1);
+        }
+
+        // Calendario dei corsi: prossime lezioni create in background (all'avvio e ogni notte)
+        RinnovoLezioniJob.avvia();
 
         // Avvia GUI sul thread grafico
         SwingUtilities.invokeLater(() -> {
@@ -24,8 +59,6 @@ public class Palestra {
 
             view.setVisible(true);
         });
-
-        GestioneDB.stampaClienti();
 	}
 
 }
@@ -0,0 +1,37 @@
+package metriche;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contatore monotono (es. esiti delle prenotazioni, login falliti).
+ * LongAdder: gli incrementi concorrenti non si contendono la stessa cella.
+ */
+public final class Contatore {
+
+    private final String nome;
+    private final LongAdder valore = new LongAdder();
+
+    Contatore(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void incrementa() {
+        valore.increment();
+    }
+
+    public void aggiungi(long n) {
+        valore.add(n);
+    }
+
+    public long valore() {
+        return valore.sum();
+    }
+
+    void azzera() {
+        valore.reset();
+    }
+}
@@ -0,0 +1,56 @@
+package metriche;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fotografia di tutte le metriche in un certo istante: contatori, timer
+ * e le statistiche delle sorgenti registrate (pool, BCrypt, cache...).
+ */
+public final class IstantaneaMetriche {
+
+    public final long istanteMs;
+    /** Ordinati per nome. */
+    public final Map<String, Long> contatori;
+    public final Map<String, StatisticheTimer> timer;
+    public final Map<String, String> sorgenti;
+
+    public IstantaneaMetriche(long istanteMs,
+                              Map<String, Long> contatori,
+                              Map<String, StatisticheTimer> timer,
+                              Map<String, String> sorgenti) {
+        this.istanteMs = istanteMs;
+        this.contatori = Collections.unmodifiableMap(contatori);
+        this.timer = Collections.unmodifiableMap(timer);
+        this.sorgenti = Collections.unmodifiableMap(sorgenti);
+    }
+
+    /** Statistiche del timer indicato, null se non è mai stato usato. */
+    public StatisticheTimer getTimer(String nome) {
+        return timer.get(nome);
+    }
+
+    /** Valore del contatore indicato (0 se non è mai stato usato). */
+    public long getContatore(String nome) {
+        Long valore = contatori.get(nome);
+        return valore == null ? 0L : valore;
+    }
+
+    /** Una riga per metrica, pronta per il log. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Metriche:");
+        for (StatisticheTimer t : timer.values()) {
+            if (t.chiamate > 0) {
+                sb.append("\n  ").append(t);
+            }
+        }
+        for (Map.Entry<String, Long> c : contatori.entrySet()) {
+            sb.append("\n  ").append(c.getKey()).append(" = ").append(c.getValue());
+        }
+        for (Map.Entry<String, String> s : sorgenti.entrySet()) {
+            sb.append("\n  ").append(s.getKey()).append(": ").append(s.getValue());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package metriche;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registro globale di contatori e timer, identificati per nome
+ * (per i DAO "Classe.metodo", es. "IscrizioneDAO.iscriviClienteALezione").
+ *
+ * - {@link #istantanea()} fotografa tutte le metriche
+ * - {@link #avviaDumpPeriodico()} le scrive nel log a intervalli regolari
+ *   (palestra.metriche.dumpSecondi, default 300; 0 = disattivato)
+ *
+ * Le statistiche già raccolte altrove (pool, BCrypt, cache) entrano nella
+ * fotografia come sorgenti, senza essere duplicate.
+ */
+public final class RegistroMetriche {
+
+    private static final Logger logger = LogManager.getLogger(RegistroMetriche.class);
+
+    private static final ConcurrentMap<String, Timer> TIMER = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Contatore> CONTATORI = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Supplier<?>> SORGENTI = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService dump;
+
+    private RegistroMetriche() {
+        // utility class
+    }
+
+    public static Timer timer(String nome) {
+        return TIMER.computeIfAbsent(nome, Timer::new);
+    }
+
+    public static Contatore contatore(String nome) {
+        return CONTATORI.computeIfAbsent(nome, Contatore::new);
+    }
+
+    /** Scorciatoia per {@code timer(nome).misura(operazione)}. */
+    public static <T, E extends Exception> T misura(String nome, Timer.Operazione<T, E> operazione) throws E {
+        return timer(nome).misura(operazione);
+    }
+
+    /** Scorciatoia per {@code timer(nome).misuraAzione(azione)}. */
+    public static <E extends Exception> void misuraAzione(String nome, Timer.Azione<E> azione) throws E {
+        timer(nome).misuraAzione(azione);
+    }
+
+    /** Aggiunge (o sostituisce) una sorgente: il suo toString() finisce nelle fotografie. */
+    public static void registraSorgente(String nome, Supplier<?> statistiche) {
+        SORGENTI.put(nome, statistiche);
+    }
+
+    // ===================== FOTOGRAFIA =====================
+
+    public static IstantaneaMetriche istantanea() {
+        Map<String, StatisticheTimer> timer = new TreeMap<>();
+        for (Timer t : TIMER.values()) {
+            timer.put(t.getNome(), t.getStatistiche());
+        }
+        Map<String, Long> contatori = new TreeMap<>();
+        for (Contatore c : CONTATORI.values()) {
+            contatori.put(c.getNome(), c.valore());
+        }
+        Map<String, String> sorgenti = new TreeMap<>();
+        for (Map.Entry<String, Supplier<?>> s : SORGENTI.entrySet()) {
+            try {
+                sorgenti.put(s.getKey(), String.valueOf(s.getValue().get()));
+            } catch (RuntimeException e) {
+                sorgenti.put(s.getKey(), "non disponibile (" + e.getMessage() + ")");
+            }
+        }
+        return new IstantaneaMetriche(System.currentTimeMillis(), contatori, timer, sorgenti);
+    }
+
+    /** Riporta a zero contatori e timer (le sorgenti restano registrate). */
+    public static void azzera() {
+        TIMER.values().forEach(Timer::azzera);
+        CONTATORI.values().forEach(Contatore::azzera);
+    }
+
+    // ===================== DUMP PERIODICO =====================
+
+    /** Avvia il dump con l'intervallo di palestra.metriche.dumpSecondi. */
+    public static void avviaDumpPeriodico() {
+        avviaDumpPeriodico(Long.getLong("palestra.metriche.dumpSecondi", 300L));
+    }
+
+    public static synchronized void avviaDumpPeriodico(long intervalloSecondi) {
+        if (dump != null || intervalloSecondi <= 0) {
+            return;
+        }
+        dump = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "palestra-metriche");
+            t.setDaemon(true);
+            return t;
+        });
+        dump.scheduleAtFixedRate(RegistroMetriche::scriviNelLog,
+                intervalloSecondi, intervalloSecondi, TimeUnit.SECONDS);
+        logger.info("Dump delle metriche ogni {} s", intervalloSecondi);
+    }
+
+    public static synchronized void fermaDumpPeriodico() {
+        if (dump != null) {
+            dump.shutdownNow();
+            dump = null;
+        }
+    }
+
+    /** Scrive subito la fotografia nel log; gli errori non vengono mai propagati. */
+    public static void scriviNelLog() {
+        try {
+            logger.info("{}", istantanea());
+        } catch (RuntimeException e) {
+            logger.warn("Dump delle metriche non riuscito", e);
+        }
+    }
+}
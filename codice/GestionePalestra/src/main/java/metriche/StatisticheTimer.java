@@ -0,0 +1,41 @@
+package metriche;
+
+/**
+ * Fotografia (immutabile) di un timer: numero di chiamate, errori e latenze in ms.
+ * I percentili hanno una precisione di circa il 25% (vedi {@link Timer}).
+ */
+public final class StatisticheTimer {
+
+    public final String nome;
+    public final long chiamate;
+    public final long errori;
+    public final double mediaMs;
+    public final double p50Ms;
+    public final double p95Ms;
+    public final double p99Ms;
+    public final double maxMs;
+
+    public StatisticheTimer(String nome,
+                            long chiamate,
+                            long errori,
+                            double mediaMs,
+                            double p50Ms,
+                            double p95Ms,
+                            double p99Ms,
+                            double maxMs) {
+        this.nome = nome;
+        this.chiamate = chiamate;
+        this.errori = errori;
+        this.mediaMs = mediaMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[n=%d, errori=%d, media=%.2f ms, p50=%.2f ms, p95=%.2f ms, p99=%.2f ms, max=%.2f ms]",
+                nome, chiamate, errori, mediaMs, p50Ms, p95Ms, p99Ms, maxMs);
+    }
+}
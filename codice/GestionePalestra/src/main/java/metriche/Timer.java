@@ -0,0 +1,147 @@
+package metriche;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tempi di un'operazione con istogramma delle latenze.
+ *
+ * L'istogramma ha bucket logaritmici con 4 suddivisioni per potenza di 2
+ * (errore relativo massimo del 25%) da 1 ns a circa 18 minuti: registrare
+ * una misura costa un paio di operazioni atomiche, senza allocazioni né lock.
+ */
+public final class Timer {
+
+    /** Operazione misurata: l'eccezione dichiarata viene rilanciata così com'è. */
+    @FunctionalInterface
+    public interface Operazione<T, E extends Exception> {
+        T esegui() throws E;
+    }
+
+    /** Operazione senza risultato. */
+    @FunctionalInterface
+    public interface Azione<E extends Exception> {
+        void esegui() throws E;
+    }
+
+    private static final int SUDDIVISIONI = 4;
+    private static final int BUCKET = 160;      // fino a 2^40 ns
+
+    private final String nome;
+
+    private final LongAdder chiamate = new LongAdder();
+    private final LongAdder errori = new LongAdder();
+    private final LongAdder totaleNs = new LongAdder();
+    private final LongAccumulator maxNs = new LongAccumulator(Math::max, 0L);
+    private final AtomicLongArray bucket = new AtomicLongArray(BUCKET);
+
+    Timer(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /** Esegue l'operazione registrandone la durata; un'eccezione conta anche come errore. */
+    public <T, E extends Exception> T misura(Operazione<T, E> operazione) throws E {
+        long inizio = System.nanoTime();
+        boolean ok = false;
+        try {
+            T risultato = operazione.esegui();
+            ok = true;
+            return risultato;
+        } finally {
+            registra(System.nanoTime() - inizio, !ok);
+        }
+    }
+
+    public <E extends Exception> void misuraAzione(Azione<E> azione) throws E {
+        misura(() -> {
+            azione.esegui();
+            return null;
+        });
+    }
+
+    public void registra(long durataNs, boolean errore) {
+        long ns = Math.max(durataNs, 0L);
+        chiamate.increment();
+        totaleNs.add(ns);
+        maxNs.accumulate(ns);
+        bucket.incrementAndGet(indiceBucket(ns));
+        if (errore) {
+            errori.increment();
+        }
+    }
+
+    // ===================== ISTOGRAMMA =====================
+
+    /** Bucket di una durata: 4 * (esponente - 1) + i 2 bit successivi al più significativo. */
+    static int indiceBucket(long ns) {
+        if (ns < SUDDIVISIONI) {
+            return (int) ns;
+        }
+        int esponente = 63 - Long.numberOfLeadingZeros(ns);
+        int sotto = (int) (ns >>> (esponente - 2)) & (SUDDIVISIONI - 1);
+        return Math.min(SUDDIVISIONI * (esponente - 1) + sotto, BUCKET - 1);
+    }
+
+    /** Limite superiore (escluso) delle durate del bucket. */
+    static long limiteSuperiore(int indice) {
+        if (indice < SUDDIVISIONI) {
+            return indice + 1;
+        }
+        int esponente = indice / SUDDIVISIONI + 1;
+        int sotto = indice % SUDDIVISIONI;
+        return (long) (SUDDIVISIONI + sotto + 1) << (esponente - 2);
+    }
+
+    // ===================== FOTOGRAFIA =====================
+
+    public StatisticheTimer getStatistiche() {
+        long[] conteggi = new long[BUCKET];
+        long n = 0;
+        for (int i = 0; i < BUCKET; i++) {
+            conteggi[i] = bucket.get(i);
+            n += conteggi[i];
+        }
+        long max = maxNs.get();
+        long totale = chiamate.sum();
+        return new StatisticheTimer(
+                nome,
+                totale,
+                errori.sum(),
+                totale == 0 ? 0.0 : totaleNs.sum() / (double) totale / 1_000_000.0,
+                percentileMs(conteggi, n, 0.50, max),
+                percentileMs(conteggi, n, 0.95, max),
+                percentileMs(conteggi, n, 0.99, max),
+                max / 1_000_000.0);
+    }
+
+    /** Limite superiore del bucket che contiene il percentile, mai oltre il massimo osservato. */
+    private static double percentileMs(long[] conteggi, long n, double quantile, long maxNs) {
+        if (n == 0) {
+            return 0.0;
+        }
+        long rango = (long) Math.ceil(quantile * n);
+        long cumulato = 0;
+        for (int i = 0; i < conteggi.length; i++) {
+            cumulato += conteggi[i];
+            if (cumulato >= rango) {
+                return Math.min(limiteSuperiore(i) - 1, maxNs) / 1_000_000.0;
+            }
+        }
+        return maxNs / 1_000_000.0;
+    }
+
+    void azzera() {
+        chiamate.reset();
+        errori.reset();
+        totaleNs.reset();
+        maxNs.reset();
+        for (int i = 0; i < BUCKET; i++) {
+            bucket.set(i, 0L);
+        }
+    }
+}
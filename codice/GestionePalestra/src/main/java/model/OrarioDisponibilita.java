@@ -0,0 +1,213 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Disponibilità settimanale di un dipendente, compilata una sola volta
+ * a partire dal testo di ORARIO_DISP (es. "Lun-Ven 9:00-13:00; Sab 9:00-12:00").
+ *
+ * Per ogni giorno della settimana c'è un BitSet con un bit per minuto:
+ * il bit i è acceso se il dipendente è disponibile nel minuto [i, i+1).
+ * Le verifiche non allocano oggetti e non rileggono il testo.
+ *
+ * Se il testo non contiene fasce orarie (es. "Corsi serali") la disponibilità
+ * è considerata libera, come nel controllo originale.
+ */
+public final class OrarioDisponibilita {
+
+    public static final int MINUTI_GIORNO = 24 * 60;
+
+    private static final Pattern TIME_RANGE =
+            Pattern.compile("(\\d{1,2}:\\d{2})\\s*-\\s*(\\d{1,2}:\\d{2})");
+
+    private static final Pattern SEPARATORE_SEGMENTI = Pattern.compile("[;,]");
+    private static final Pattern SPAZI = Pattern.compile("\\s+");
+
+    /** Disponibilità senza vincoli di orario. */
+    public static final OrarioDisponibilita SENZA_VINCOLI = new OrarioDisponibilita(null, null);
+
+    private final String testo;
+    // indice 0 = lunedì ... 6 = domenica; null se senza vincoli
+    private final BitSet[] minutiPerGiorno;
+
+    private OrarioDisponibilita(String testo, BitSet[] minutiPerGiorno) {
+        this.testo = testo;
+        this.minutiPerGiorno = minutiPerGiorno;
+    }
+
+    // ==========================================================
+    //  COMPILAZIONE
+    // ==========================================================
+
+    public static OrarioDisponibilita compila(String orarioDisp) {
+        if (orarioDisp == null || orarioDisp.trim().isEmpty()
+                || !TIME_RANGE.matcher(orarioDisp).find()) {
+            return SENZA_VINCOLI;
+        }
+
+        BitSet[] giorni = new BitSet[7];
+        for (int i = 0; i < giorni.length; i++) {
+            giorni[i] = new BitSet(MINUTI_GIORNO);
+        }
+
+        // Supporta più segmenti separati da ; o ,
+        for (String seg : SEPARATORE_SEGMENTI.split(orarioDisp)) {
+            compilaSegmento(seg.trim(), giorni);
+        }
+        return new OrarioDisponibilita(orarioDisp, giorni);
+    }
+
+    private static void compilaSegmento(String segment, BitSet[] giorni) {
+        if (segment.isEmpty()) return;
+
+        // Il token dei giorni è il primo elemento (es. "Sab" o "Lun-Ven")
+        String[] parts = SPAZI.split(segment);
+        if (parts.length < 2) return;
+
+        Matcher m = TIME_RANGE.matcher(segment);
+        if (!m.find()) return;
+
+        int inizio;
+        int fine;
+        try {
+            inizio = minutoDelGiorno(LocalTime.parse(normalizzaOra(m.group(1))));
+            fine   = minutoDelGiorno(LocalTime.parse(normalizzaOra(m.group(2))));
+        } catch (RuntimeException e) {
+            return;
+        }
+        if (fine <= inizio) return;
+
+        for (DayOfWeek giorno : DayOfWeek.values()) {
+            if (dayMatches(parts[0].trim(), giorno)) {
+                giorni[giorno.getValue() - 1].set(inizio, fine);
+            }
+        }
+    }
+
+    // "9:00" -> "09:00" (LocalTime.parse vuole due cifre)
+    private static String normalizzaOra(String ora) {
+        return ora.length() == 4 ? "0" + ora : ora;
+    }
+
+    private static boolean dayMatches(String token, DayOfWeek day) {
+        if (!token.contains("-")) {
+            DayOfWeek single = parseItDay(token);
+            return single != null && single == day;
+        }
+
+        String[] ab = token.split("-");
+        if (ab.length != 2) return false;
+
+        DayOfWeek start = parseItDay(ab[0].trim());
+        DayOfWeek end   = parseItDay(ab[1].trim());
+        if (start == null || end == null) return false;
+
+        int s = start.getValue(); // MON=1 ... SUN=7
+        int e = end.getValue();
+        int d = day.getValue();
+
+        // Range normale (es. Lun-Ven)
+        if (s <= e) {
+            return d >= s && d <= e;
+        }
+
+        // Range che attraversa la domenica (robustezza, es. Ven-Lun)
+        return d >= s || d <= e;
+    }
+
+    private static DayOfWeek parseItDay(String abbr) {
+        String a = abbr.toLowerCase();
+
+        // accettiamo sia abbreviazioni che forme estese (robustezza)
+        if (a.startsWith("lun")) return DayOfWeek.MONDAY;
+        if (a.startsWith("mar")) return DayOfWeek.TUESDAY;
+        if (a.startsWith("mer")) return DayOfWeek.WEDNESDAY;
+        if (a.startsWith("gio")) return DayOfWeek.THURSDAY;
+        if (a.startsWith("ven")) return DayOfWeek.FRIDAY;
+        if (a.startsWith("sab")) return DayOfWeek.SATURDAY;
+        if (a.startsWith("dom")) return DayOfWeek.SUNDAY;
+        return null;
+    }
+
+    public static int minutoDelGiorno(LocalTime ora) {
+        return ora.getHour() * 60 + ora.getMinute();
+    }
+
+    // ==========================================================
+    //  INTERROGAZIONE
+    // ==========================================================
+
+    public boolean isVincolato() {
+        return minutiPerGiorno != null;
+    }
+
+    public String getTesto() {
+        return testo;
+    }
+
+    /** True se l'intervallo [minutoInizio, minutoInizio + durata) è tutto disponibile. */
+    public boolean isDisponibile(DayOfWeek giorno, int minutoInizio, int durataMinuti) {
+        if (minutiPerGiorno == null) {
+            return true;
+        }
+        int minutoFine = minutoInizio + durataMinuti;
+        if (minutoInizio < 0 || minutoFine > MINUTI_GIORNO) {
+            return false;
+        }
+        return minutiPerGiorno[giorno.getValue() - 1].nextClearBit(minutoInizio) >= minutoFine;
+    }
+
+    public boolean isDisponibile(LocalDate data, LocalTime oraInizio, int durataMinuti) {
+        return isDisponibile(data.getDayOfWeek(), minutoDelGiorno(oraInizio), durataMinuti);
+    }
+
+    /**
+     * Primo minuto &gt;= {@code daMinuto} del giorno in cui inizia una finestra
+     * disponibile di almeno {@code durataMinuti}, oppure -1 se non c'è.
+     */
+    public int prossimoInizio(DayOfWeek giorno, int daMinuto, int durataMinuti) {
+        if (minutiPerGiorno == null) {
+            return daMinuto + durataMinuti <= MINUTI_GIORNO ? daMinuto : -1;
+        }
+        BitSet minuti = minutiPerGiorno[giorno.getValue() - 1];
+        int inizio = minuti.nextSetBit(Math.max(daMinuto, 0));
+        while (inizio >= 0 && inizio + durataMinuti <= MINUTI_GIORNO) {
+            int fine = minuti.nextClearBit(inizio);
+            if (fine - inizio >= durataMinuti) {
+                return inizio;
+            }
+            inizio = minuti.nextSetBit(fine);
+        }
+        return -1;
+    }
+
+    /**
+     * Primo istante &gt;= {@code da} (entro una settimana) in cui inizia una finestra
+     * disponibile di almeno {@code durataMinuti}, oppure null.
+     */
+    public LocalDateTime prossimoSlot(LocalDateTime da, int durataMinuti) {
+        LocalDate giorno = da.toLocalDate();
+        int daMinuto = minutoDelGiorno(da.toLocalTime()) + (da.getSecond() > 0 || da.getNano() > 0 ? 1 : 0);
+
+        for (int i = 0; i <= 7; i++) {
+            int inizio = prossimoInizio(giorno.getDayOfWeek(), daMinuto, durataMinuti);
+            if (inizio >= 0) {
+                return giorno.atStartOfDay().plusMinutes(inizio);
+            }
+            giorno = giorno.plusDays(1);
+            daMinuto = 0;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return isVincolato() ? testo : "senza vincoli";
+    }
+}
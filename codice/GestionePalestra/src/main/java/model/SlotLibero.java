@@ -0,0 +1,42 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Orario libero proposto per una consulenza: il professionista è disponibile
+ * e né lui né il cliente hanno altre consulenze sovrapposte.
+ */
+public class SlotLibero {
+
+    private final int idDipendente;
+    private final String nomeDipendente;
+    private final LocalDateTime inizio;
+    private final int durataMinuti;
+
+    public SlotLibero(int idDipendente, String nomeDipendente,
+                      LocalDateTime inizio, int durataMinuti) {
+        this.idDipendente = idDipendente;
+        this.nomeDipendente = nomeDipendente;
+        this.inizio = inizio;
+        this.durataMinuti = durataMinuti;
+    }
+
+    public int getIdDipendente() { return idDipendente; }
+
+    public String getNomeDipendente() { return nomeDipendente; }
+
+    public LocalDateTime getInizio() { return inizio; }
+
+    public LocalDate getData() { return inizio.toLocalDate(); }
+
+    public LocalTime getOra() { return inizio.toLocalTime(); }
+
+    public int getDurataMinuti() { return durataMinuti; }
+
+    @Override
+    public String toString() {
+        return getData() + " ore " + getOra() + " - " + nomeDipendente;
+    }
+}
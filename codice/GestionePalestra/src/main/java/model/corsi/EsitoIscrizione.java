@@ -0,0 +1,12 @@
+package model.corsi;
+
+/**
+ * Esito di un tentativo di iscrizione a una lezione.
+ */
+public enum EsitoIscrizione {
+    OK,
+    POSTI_ESAURITI,
+    CONFLITTO_ORARIO,
+    GIA_ISCRITTO,
+    LEZIONE_INESISTENTE
+}
@@ -0,0 +1,360 @@
+package service;
+
+import db.GestioneDB;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import service.hash.ConfigurazioneHash;
+import service.hash.EsecutoreHash;
+import service.hash.HashSovraccaricoException;
+import service.validazione.ErroreValidazione;
+import service.validazione.EsitoValidazione;
+import service.validazione.ValidazioneRegistrazione;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static service.validazione.ValidazioneRegistrazione.*;
+
+/**
+ * Importazione massiva dei clienti da CSV (es. subentro in un'altra palestra).
+ *
+ * - il file è letto in streaming, un blocco di righe alla volta
+ * - ogni riga passa dalle stesse regole della registrazione ({@link ValidazioneRegistrazione});
+ *   username, CF ed email ripetuti nel file vengono scartati
+ * - gli hash BCrypt del blocco sono calcolati in parallelo su tutti i core
+ * - le righe valide del blocco vengono inserite con una INSERT batch in un'unica transazione;
+ *   se il batch fallisce (es. cliente già presente a DB) il blocco viene ripetuto riga per riga
+ *   e le righe rifiutate dal database finiscono nel report come quelle non valide
+ * - ogni riga scartata finisce nel report (riga;campo;errore), senza interrompere l'importazione
+ *
+ * L'intestazione deve contenere le colonne username, password, nome, cognome, cf,
+ * luogoNascita, dataNascita, email e, facoltativa, iban (maiuscole/minuscole indifferenti).
+ */
+public class ImportazioneClienti {
+
+    private static final Logger logger =
+            LogManager.getLogger(ImportazioneClienti.class);
+
+    /** Righe per blocco, sovrascrivibile con -Dpalestra.import.blocco. */
+    public static final int BLOCCO_PREDEFINITO = Integer.getInteger("palestra.import.blocco", 500);
+
+    private static final List<String> COLONNE = Arrays.asList(
+            USERNAME, PASSWORD, NOME, COGNOME, CF, LUOGO_NASCITA, DATA_NASCITA, IBAN, EMAIL);
+
+    // campi con vincolo UNIQUE su CLIENTE
+    private static final List<String> CAMPI_UNIVOCI = Arrays.asList(USERNAME, CF, EMAIL);
+
+    private final int dimensioneBlocco;
+    private final EsecutoreHash hash;
+
+    /**
+     * Usa un esecutore BCrypt dedicato (un thread per core, coda pari al blocco),
+     * così l'importazione non toglie capacità ai login.
+     */
+    public ImportazioneClienti() {
+        this(BLOCCO_PREDEFINITO, creaEsecutoreHash(BLOCCO_PREDEFINITO));
+    }
+
+    public ImportazioneClienti(int dimensioneBlocco, EsecutoreHash hash) {
+        if (dimensioneBlocco <= 0) {
+            throw new IllegalArgumentException("La dimensione del blocco deve essere positiva");
+        }
+        this.dimensioneBlocco = dimensioneBlocco;
+        this.hash = hash;
+    }
+
+    private static EsecutoreHash creaEsecutoreHash(int dimensioneBlocco) {
+        ConfigurazioneHash base = ConfigurazioneHash.daProprietaDiSistema();
+        return new EsecutoreHash(new ConfigurazioneHash(
+                Runtime.getRuntime().availableProcessors(),
+                dimensioneBlocco,
+                base.timeoutMs,
+                base.costo));
+    }
+
+    // ==========================================================
+    //  IMPORTAZIONE
+    // ==========================================================
+
+    /**
+     * @param sorgente CSV con riga di intestazione
+     * @param report   destinazione del report degli errori (CSV riga;campo;errore)
+     * @throws ImportazioneException per intestazione non valida o errori di I/O o di database;
+     *                               i blocchi già scritti restano importati
+     */
+    public RiepilogoImportazione importa(Reader sorgente, Writer report) throws ImportazioneException {
+        long inizio = System.nanoTime();
+        Sessione sessione = new Sessione(report);
+
+        try {
+            BufferedReader br = sorgente instanceof BufferedReader
+                    ? (BufferedReader) sorgente
+                    : new BufferedReader(sorgente);
+            LettoreCsv csv = new LettoreCsv(br);
+
+            List<String> intestazione = csv.leggiIntestazione();
+            if (intestazione == null) {
+                throw new ImportazioneException("Il file da importare è vuoto.");
+            }
+            Map<String, Integer> colonne = mappaColonne(intestazione);
+
+            report.write("riga;campo;errore\n");
+
+            List<RigaCliente> blocco = new ArrayList<>(dimensioneBlocco);
+            List<String> campi;
+            while ((campi = csv.prossimaRiga()) != null) {
+                sessione.righeLette++;
+                RigaCliente riga = valida(csv.getNumeroRiga(), campi, intestazione.size(), colonne, sessione);
+                if (riga == null) {
+                    continue;
+                }
+                blocco.add(riga);
+                if (blocco.size() == dimensioneBlocco) {
+                    scriviBlocco(blocco, sessione);
+                    blocco.clear();
+                }
+            }
+            if (!blocco.isEmpty()) {
+                scriviBlocco(blocco, sessione);
+            }
+            report.flush();
+
+        } catch (IOException e) {
+            throw new ImportazioneException("Errore di lettura/scrittura durante l'importazione.", e);
+        } catch (SQLException e) {
+            logger.error("Importazione interrotta da un errore di database", e);
+            throw new ImportazioneException("Errore di database durante l'importazione.", e);
+        } catch (HashSovraccaricoException e) {
+            throw new ImportazioneException("Calcolo delle password non completato.", e);
+        }
+
+        RiepilogoImportazione riepilogo = new RiepilogoImportazione(
+                sessione.righeLette,
+                sessione.importate,
+                sessione.scartate,
+                (System.nanoTime() - inizio) / 1_000_000);
+        logger.info("{}", riepilogo);
+        return riepilogo;
+    }
+
+    public void chiudi() {
+        hash.chiudi();
+    }
+
+    private static Map<String, Integer> mappaColonne(List<String> intestazione) throws ImportazioneException {
+        Map<String, Integer> colonne = new HashMap<>();
+        for (int i = 0; i < intestazione.size(); i++) {
+            String nome = intestazione.get(i).trim().toLowerCase(Locale.ROOT);
+            for (String c : COLONNE) {
+                if (c.toLowerCase(Locale.ROOT).equals(nome)) {
+                    colonne.put(c, i);
+                }
+            }
+        }
+        for (String c : COLONNE) {
+            if (!colonne.containsKey(c) && !IBAN.equals(c)) {
+                throw new ImportazioneException("Intestazione non valida: manca la colonna " + c + ".");
+            }
+        }
+        return colonne;
+    }
+
+    // ===================== VALIDAZIONE =====================
+
+    private RigaCliente valida(int numeroRiga,
+                               List<String> campi,
+                               int attesi,
+                               Map<String, Integer> colonne,
+                               Sessione sessione) throws IOException {
+        if (campi.size() != attesi) {
+            sessione.scarta(numeroRiga, "", "Numero di campi errato: attesi " + attesi + ", trovati " + campi.size() + ".");
+            return null;
+        }
+
+        Map<String, String> dati = ValidazioneRegistrazione.normalizza(
+                valore(campi, colonne, USERNAME),
+                valore(campi, colonne, PASSWORD),
+                valore(campi, colonne, NOME),
+                valore(campi, colonne, COGNOME),
+                valore(campi, colonne, CF),
+                valore(campi, colonne, LUOGO_NASCITA),
+                valore(campi, colonne, DATA_NASCITA),
+                valore(campi, colonne, IBAN),
+                valore(campi, colonne, EMAIL));
+
+        EsitoValidazione esito = ValidazioneRegistrazione.valida(dati);
+        if (!esito.isValido()) {
+            sessione.scarta(numeroRiga, esito.getErrori());
+            return null;
+        }
+
+        // duplicati all'interno del file: vale la prima occorrenza
+        for (String campo : CAMPI_UNIVOCI) {
+            Integer precedente = sessione.visti.get(campo + ':' + dati.get(campo));
+            if (precedente != null) {
+                sessione.scarta(numeroRiga, campo, "Valore già presente alla riga " + precedente + " del file.");
+                return null;
+            }
+        }
+        for (String campo : CAMPI_UNIVOCI) {
+            sessione.visti.put(campo + ':' + dati.get(campo), numeroRiga);
+        }
+
+        return new RigaCliente(numeroRiga, dati);
+    }
+
+    private static String valore(List<String> campi, Map<String, Integer> colonne, String campo) {
+        Integer indice = colonne.get(campo);
+        return indice == null ? "" : campi.get(indice);
+    }
+
+    // ===================== SCRITTURA =====================
+
+    private void scriviBlocco(List<RigaCliente> blocco, Sessione sessione)
+            throws SQLException, HashSovraccaricoException, IOException {
+
+        List<String> password = new ArrayList<>(blocco.size());
+        for (RigaCliente r : blocco) {
+            password.add(r.dati.get(PASSWORD));
+        }
+        List<String> hashes = hash.calcolaTutti(password);
+
+        try (Connection conn = GestioneDB.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(RegistrazioneService.SQL_INSERT_CLIENTE)) {
+                try {
+                    for (int i = 0; i < blocco.size(); i++) {
+                        imposta(ps, blocco.get(i), hashes.get(i));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    conn.commit();
+                    sessione.importate += blocco.size();
+                } catch (BatchUpdateException e) {
+                    // almeno una riga rifiutata dal DB: si ripete il blocco riga per riga
+                    conn.rollback();
+                    ps.clearBatch();
+                    scriviRigaPerRiga(conn, ps, blocco, hashes, sessione);
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        logger.debug("Blocco di {} righe elaborato", blocco.size());
+    }
+
+    private void scriviRigaPerRiga(Connection conn,
+                                   PreparedStatement ps,
+                                   List<RigaCliente> blocco,
+                                   List<String> hashes,
+                                   Sessione sessione) throws SQLException, IOException {
+        for (int i = 0; i < blocco.size(); i++) {
+            RigaCliente riga = blocco.get(i);
+            try {
+                imposta(ps, riga, hashes.get(i));
+                ps.executeUpdate();
+                conn.commit();
+                sessione.importate++;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (isConnessionePersa(e)) {
+                    throw e;
+                }
+                String campo = "23505".equals(e.getSQLState())
+                        ? RegistrazioneService.campoDuplicato(e)
+                        : null;
+                if (campo != null) {
+                    sessione.scarta(riga.numeroRiga, campo, RegistrazioneService.messaggioDuplicato(e));
+                } else {
+                    logger.warn("Riga {} rifiutata dal database", riga.numeroRiga, e);
+                    sessione.scarta(riga.numeroRiga, "", "Riga rifiutata dal database: " + motivo(e));
+                }
+            }
+        }
+    }
+
+    /** SQLState di classe 08: la connessione non è più utilizzabile, inutile proseguire con le altre righe. */
+    private static boolean isConnessionePersa(SQLException e) {
+        String stato = e.getSQLState();
+        return stato != null && stato.startsWith("08");
+    }
+
+    /** Messaggio del database senza il testo della query che H2 vi accoda. */
+    private static String motivo(SQLException e) {
+        String messaggio = String.valueOf(e.getMessage());
+        int fineMotivo = messaggio.indexOf("; SQL statement");
+        return fineMotivo < 0 ? messaggio : messaggio.substring(0, fineMotivo);
+    }
+
+    private static void imposta(PreparedStatement ps, RigaCliente riga, String hashPassword) throws SQLException {
+        Map<String, String> d = riga.dati;
+        ps.setString(1, d.get(USERNAME));
+        ps.setString(2, d.get(EMAIL));
+        ps.setString(3, d.get(NOME));
+        ps.setString(4, d.get(COGNOME));
+        ps.setString(5, d.get(CF));
+        ps.setString(6, d.get(LUOGO_NASCITA));
+        ps.setDate  (7, Date.valueOf(LocalDate.parse(d.get(DATA_NASCITA))));
+        ps.setString(8, d.get(IBAN));
+        ps.setString(9, hashPassword);
+    }
+
+    // ==========================================================
+
+    private static final class RigaCliente {
+        final int numeroRiga;
+        final Map<String, String> dati;
+
+        RigaCliente(int numeroRiga, Map<String, String> dati) {
+            this.numeroRiga = numeroRiga;
+            this.dati = dati;
+        }
+    }
+
+    /** Stato di una singola importazione. */
+    private static final class Sessione {
+        final Writer report;
+        final Map<String, Integer> visti = new HashMap<>();
+        int righeLette;
+        int importate;
+        int scartate;
+
+        Sessione(Writer report) {
+            this.report = report;
+        }
+
+        void scarta(int numeroRiga, List<ErroreValidazione> errori) throws IOException {
+            for (ErroreValidazione e : errori) {
+                scriviErrore(numeroRiga, e.campo, e.messaggio);
+            }
+            scartate++;
+        }
+
+        void scarta(int numeroRiga, String campo, String messaggio) throws IOException {
+            scriviErrore(numeroRiga, campo, messaggio);
+            scartate++;
+        }
+
+        private void scriviErrore(int numeroRiga, String campo, String messaggio) throws IOException {
+            report.write(numeroRiga + ";" + campo + ";\"" + messaggio.replace("\"", "\"\"") + "\"\n");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package service;
+
+public class ImportazioneException extends Exception {
+
+    public ImportazioneException(String message) {
+        super(message);
+    }
+
+    public ImportazioneException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
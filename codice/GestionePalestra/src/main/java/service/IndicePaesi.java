@@ -0,0 +1,79 @@
+package service;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Indice dei paesi per il controllo del luogo di nascita.
+ *
+ * Costruito una volta sola (al primo uso) a partire da {@link Locale#getISOCountries()}
+ * con i nomi in italiano e in inglese, più alcuni alias d'uso comune.
+ * Le chiavi sono normalizzate: minuscole, senza accenti, punteggiatura ridotta a spazi
+ * ("Costa d’Avorio", "costa d'avorio" e "COSTA D AVORIO" sono equivalenti).
+ */
+public final class IndicePaesi {
+
+    // nomi usati correntemente che non coincidono con quelli del JDK
+    private static final String[][] ALIAS = {
+            {"usa", "US"}, {"stati uniti", "US"}, {"america", "US"},
+            {"uk", "GB"}, {"gran bretagna", "GB"}, {"great britain", "GB"},
+            {"inghilterra", "GB"}, {"england", "GB"}, {"scozia", "GB"}, {"galles", "GB"},
+            {"olanda", "NL"}, {"holland", "NL"},
+            {"russia", "RU"}, {"corea del sud", "KR"}, {"south korea", "KR"},
+            {"vaticano", "VA"}, {"repubblica ceca", "CZ"}, {"czech republic", "CZ"}
+    };
+
+    private static final Pattern SEGNI_DIACRITICI = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALFANUMERICI = Pattern.compile("[^a-z0-9]+");
+
+    private static class IndiceHolder {
+        private static final Map<String, String> INDICE = costruisci();
+    }
+
+    private IndicePaesi() {
+        // utility class
+    }
+
+    /** @return true se il nome corrisponde a un paese (italiano, inglese o alias) */
+    public static boolean esiste(String nomePaese) {
+        return codiceIso(nomePaese) != null;
+    }
+
+    /** @return codice ISO 3166 alpha-2 del paese, null se il nome non è riconosciuto */
+    public static String codiceIso(String nomePaese) {
+        if (nomePaese == null) {
+            return null;
+        }
+        // caso comune ("Italia", "France"): la forma minuscola è già una chiave normalizzata
+        String iso = IndiceHolder.INDICE.get(nomePaese.trim().toLowerCase(Locale.ROOT));
+        if (iso != null) {
+            return iso;
+        }
+        String chiave = normalizza(nomePaese);
+        return chiave.isEmpty() ? null : IndiceHolder.INDICE.get(chiave);
+    }
+
+    static String normalizza(String testo) {
+        String s = Normalizer.normalize(testo, Normalizer.Form.NFD);
+        s = SEGNI_DIACRITICI.matcher(s).replaceAll("");
+        s = NON_ALFANUMERICI.matcher(s.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return s.trim();
+    }
+
+    private static Map<String, String> costruisci() {
+        Map<String, String> indice = new HashMap<>();
+        for (String iso : Locale.getISOCountries()) {
+            Locale l = new Locale("", iso);
+            indice.put(normalizza(l.getDisplayCountry(Locale.ITALIAN)), iso);
+            indice.put(normalizza(l.getDisplayCountry(Locale.ENGLISH)), iso);
+        }
+        for (String[] alias : ALIAS) {
+            indice.putIfAbsent(alias[0], alias[1]);
+        }
+        return Collections.unmodifiableMap(indice);
+    }
+}
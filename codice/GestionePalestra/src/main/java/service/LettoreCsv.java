@@ -0,0 +1,87 @@
+package service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lettura in streaming di un file CSV, una riga alla volta.
+ *
+ * Il separatore (virgola o punto e virgola) viene dedotto dalla riga di intestazione.
+ * I campi possono essere racchiusi tra virgolette, con "" per una virgoletta nel testo;
+ * non sono ammessi a capo all'interno dei campi.
+ */
+final class LettoreCsv {
+
+    private final BufferedReader reader;
+    private char separatore = ',';
+    private int numeroRiga = 0;
+
+    LettoreCsv(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /** Legge l'intestazione e ne deduce il separatore; null se il file è vuoto. */
+    List<String> leggiIntestazione() throws IOException {
+        String riga = reader.readLine();
+        numeroRiga++;
+        if (riga == null) {
+            return null;
+        }
+        if (riga.startsWith("\uFEFF")) {
+            riga = riga.substring(1);   // BOM di Excel
+        }
+        separatore = riga.indexOf(';') >= 0 && riga.indexOf(',') < 0 ? ';' : ',';
+        return dividi(riga);
+    }
+
+    /** @return campi della prossima riga non vuota, null a fine file */
+    List<String> prossimaRiga() throws IOException {
+        String riga;
+        do {
+            riga = reader.readLine();
+            numeroRiga++;
+            if (riga == null) {
+                return null;
+            }
+        } while (riga.trim().isEmpty());
+        return dividi(riga);
+    }
+
+    /** Numero (da 1) dell'ultima riga letta, intestazione compresa. */
+    int getNumeroRiga() {
+        return numeroRiga;
+    }
+
+    private List<String> dividi(String riga) {
+        List<String> campi = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean traVirgolette = false;
+
+        for (int i = 0; i < riga.length(); i++) {
+            char c = riga.charAt(i);
+            if (traVirgolette) {
+                if (c == '"') {
+                    if (i + 1 < riga.length() && riga.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        traVirgolette = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                traVirgolette = true;
+            } else if (c == separatore) {
+                campi.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campi.add(campo.toString());
+        return campi;
+    }
+}
@@ -2,11 +2,13 @@ package service;
 
 import db.GestioneDB;
 import db.dao.AbbonamentoDAO;
+import metriche.RegistroMetriche;
 import model.Abbonamento;
 import model.Cliente;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.mindrot.jbcrypt.BCrypt;
+import service.hash.EsecutoreHash;
+import service.hash.HashSovraccaricoException;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -16,60 +18,131 @@ public class LoginService implements LoginServiceIf {
     private static final Logger logger =
             LogManager.getLogger(LoginService.class);
 
-    @Override
-    public Cliente autentica(String username, String password) throws LoginException {
-        String sql = "SELECT * FROM CLIENTE WHERE USERNAME = ?";
+    // cliente e (eventuale) abbonamento attivo in un'unica lettura (IDX_ABBONAMENTO_CLIENTE);
+    // se ce ne fosse più d'uno vale il più recente
+    private static final String SQL_LOGIN =
+            "SELECT C.ID_CLIENTE, C.USERNAME, C.EMAIL, C.NOME, C.COGNOME, C.CF, " +
+            "       C.LUOGO_NASCITA, C.DATA_NASCITA, C.IBAN, C.PASSWORD, " +
+            "       A.ID_ABBONAMENTO, A.TIPO, A.SCADENZA, A.FASCIA_ORARIA_CONSENTITA, A.PREZZO " +
+            "FROM CLIENTE C " +
+            "LEFT JOIN ABBONAMENTO A ON A.ID_CLIENTE = C.ID_CLIENTE AND A.ATTIVO = TRUE " +
+            "WHERE C.USERNAME = ? " +
+            "ORDER BY A.ID_ABBONAMENTO DESC " +
+            "LIMIT 1";
+
+    private final EsecutoreHash hash;
+
+    public LoginService() {
+        this(EsecutoreHash.getIstanza());
+    }
 
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+    public LoginService(EsecutoreHash hash) {
+        this.hash = hash;
+    }
 
-            ps.setString(1, username);
+    /** Tempi in "LoginService.autentica": gli errori del timer sono i login non riusciti. */
+    @Override
+    public Cliente autentica(String username, String password) throws LoginException {
+        return RegistroMetriche.misura("LoginService.autentica", () -> verificaCredenziali(username, password));
+    }
 
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) {
-                    logger.warn("Login fallito (username inesistente) per {}", username);
-                    throw new LoginException("Credenziali non valide.");
-                }
+    private Cliente verificaCredenziali(String username, String password) throws LoginException {
+        try (Connection conn = GestioneDB.getConnection()) {
 
-                String storedHash = rs.getString("PASSWORD");
+            Cliente cliente;
+            try (PreparedStatement ps = conn.prepareStatement(SQL_LOGIN)) {
+                ps.setString(1, username);
 
-                if (storedHash == null || !BCrypt.checkpw(password, storedHash)) {
-                    logger.warn("Login fallito (password errata) per {}", username);
-                    throw new LoginException("Credenziali non valide.");
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        logger.warn("Login fallito (username inesistente) per {}", username);
+                        throw new LoginException("Credenziali non valide.");
+                    }
+                    cliente = creaClienteDaResultSet(rs);
                 }
+            }
 
-                Cliente cliente = new Cliente();
-                cliente.setIdCliente(rs.getInt("ID_CLIENTE"));
-                cliente.setUsername(rs.getString("USERNAME"));
-                cliente.setEmail(rs.getString("EMAIL"));
-                cliente.setNome(rs.getString("NOME"));
-                cliente.setCognome(rs.getString("COGNOME"));
-                cliente.setCF(rs.getString("CF"));
-                cliente.setLuogoNascita(rs.getString("LUOGO_NASCITA"));
-                cliente.setPassword(storedHash); // hash
-                cliente.setIban(rs.getString("IBAN"));
-                Date dataNascita = rs.getDate("DATA_NASCITA");
-                if (dataNascita != null) {
-                    cliente.setDataNascita(new java.util.Date(dataNascita.getTime()));
-                }
+            String storedHash = cliente.getPassword();
 
-                // carico eventuale abbonamento
-                Abbonamento abb = AbbonamentoDAO
-                        .getAbbonamentoByClienteId(cliente.getIdCliente());
-                if (abb != null) {
-                    cliente.setAbbonamento(abb);
-                }
+            if (storedHash == null || !hash.verifica(password, storedHash)) {
+                logger.warn("Login fallito (password errata) per {}", username);
+                throw new LoginException("Credenziali non valide.");
+            }
 
-                logger.info("Login riuscito per {}", username);
-                return cliente;
+            // password corretta ma hash con un costo diverso da quello configurato: lo aggiorno ora
+            if (hash.richiedeRehash(storedHash)) {
+                cliente.setPassword(rehash(conn, cliente.getIdCliente(), password, storedHash));
             }
 
+            logger.info("Login riuscito per {}", username);
+            return cliente;
+
+        } catch (HashSovraccaricoException e) {
+            logger.warn("Login di {} non servito: {}", username, e.getMessage());
+            throw new LoginException(
+                    "Troppi accessi in corso in questo momento. Riprova tra qualche secondo.", e);
         } catch (SQLException e) {
             logger.error("Errore durante il login di {}", username, e);
             throw new LoginException("Errore di database durante il login.", e);
         }
     }
 
+    private static Cliente creaClienteDaResultSet(ResultSet rs) throws SQLException {
+        Cliente cliente = new Cliente();
+        cliente.setIdCliente(rs.getInt("ID_CLIENTE"));
+        cliente.setUsername(rs.getString("USERNAME"));
+        cliente.setEmail(rs.getString("EMAIL"));
+        cliente.setNome(rs.getString("NOME"));
+        cliente.setCognome(rs.getString("COGNOME"));
+        cliente.setCF(rs.getString("CF"));
+        cliente.setLuogoNascita(rs.getString("LUOGO_NASCITA"));
+        cliente.setPassword(rs.getString("PASSWORD")); // hash
+        cliente.setIban(rs.getString("IBAN"));
+        Date dataNascita = rs.getDate("DATA_NASCITA");
+        if (dataNascita != null) {
+            cliente.setDataNascita(new java.util.Date(dataNascita.getTime()));
+        }
+
+        // colonne dell'abbonamento tutte NULL se il cliente non ne ha uno (LEFT JOIN)
+        Abbonamento abb = AbbonamentoDAO.creaAbbonamentoDaResultSet(rs, cliente.getIdCliente());
+        if (abb != null) {
+            cliente.setAbbonamento(abb);
+        }
+        return cliente;
+    }
+
+    /**
+     * Ricalcola l'hash con il costo corrente. Un errore qui non blocca il login:
+     * si riproverà al prossimo accesso.
+     *
+     * @return l'hash effettivamente salvato a DB
+     */
+    private String rehash(Connection conn, int idCliente, String password, String vecchioHash) {
+        try {
+            String nuovoHash = hash.calcola(password);
+
+            // aggiorno solo se nel frattempo la password non è stata cambiata
+            try (PreparedStatement upd = conn.prepareStatement(
+                    "UPDATE CLIENTE SET PASSWORD = ? WHERE ID_CLIENTE = ? AND PASSWORD = ?")) {
+                upd.setString(1, nuovoHash);
+                upd.setInt(2, idCliente);
+                upd.setString(3, vecchioHash);
+                if (upd.executeUpdate() == 0) {
+                    return vecchioHash;
+                }
+            }
+
+            logger.info("Hash password del cliente {} aggiornato al costo {} (era {})",
+                    idCliente, hash.getCosto(), EsecutoreHash.costoDi(vecchioHash));
+            return nuovoHash;
+
+        } catch (HashSovraccaricoException | SQLException e) {
+            logger.warn("Aggiornamento hash password rimandato per il cliente {}: {}",
+                    idCliente, e.getMessage());
+            return vecchioHash;
+        }
+    }
+
     @Override
     public String creaTokenReset(String email) throws PasswordResetException {
         int idCliente = -1;
@@ -174,14 +247,14 @@ public class LoginService implements LoginServiceIf {
                 }
             }
 
-            if (storedHash != null && BCrypt.checkpw(nuovaPass, storedHash)) {
+            if (storedHash != null && hash.verifica(nuovaPass, storedHash)) {
                 throw new PasswordResetException(
                         "La nuova password non può essere uguale a quella attuale. " +
                         "Scegli una password diversa.");
             }
 
             // hash nuova password
-            String newHash = BCrypt.hashpw(nuovaPass, BCrypt.gensalt(12));
+            String newHash = hash.calcola(nuovaPass);
 
             // aggiorno password
             try (PreparedStatement upd = conn.prepareStatement(
@@ -200,6 +273,10 @@ public class LoginService implements LoginServiceIf {
 
             logger.info("Password aggiornata tramite reset per cliente {}", cliId);
 
+        } catch (HashSovraccaricoException e) {
+            logger.warn("Reset password non servito: {}", e.getMessage());
+            throw new PasswordResetException(
+                    "Il sistema è momentaneamente occupato. Riprova tra qualche secondo.", e);
         } catch (SQLException e) {
             logger.error("Errore durante l'aggiornamento della password tramite reset", e);
             throw new PasswordResetException(
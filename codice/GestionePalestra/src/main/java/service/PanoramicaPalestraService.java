@@ -1,8 +1,11 @@
 package service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
+import db.cache.CacheRiferimento;
 import db.dao.PalestraDAO;
 import db.dao.PalestraDAO.MacchinarioInfo;
 import db.dao.PalestraDAO.SalaCorsoInfo;
@@ -11,8 +14,39 @@ import model.corsi.*;
 import model.Abbonamento;
 import model.Cliente;
 
+/**
+ * La panoramica dipende solo dal tipo di abbonamento: i testi vengono composti
+ * una volta per tipo in uno {@link SnapshotPanoramica} condiviso, ricostruito in
+ * background quando i DAO di sale, macchinari o corsi invalidano i loro dati.
+ * Ogni TTL le cache dei DAO vengono svuotate, così le modifiche fatte fuori
+ * dai DAO compaiono entro un periodo.
+ */
 public class PanoramicaPalestraService implements PanoramicaPalestraServiceIf {
 
+    private static class SnapshotHolder {
+        private static final SnapshotPanoramica ISTANZA = creaSnapshot();
+
+        private static SnapshotPanoramica creaSnapshot() {
+            SnapshotPanoramica snapshot = new SnapshotPanoramica(
+                    PanoramicaPalestraService::componiPanoramiche,
+                    CacheRiferimento.TTL_PREDEFINITO,
+                    PanoramicaPalestraService::invalidaDatiLetti);
+            PalestraDAO.aggiungiAscoltatoreCache(snapshot::richiediAggiornamento);
+            CorsoDAO.aggiungiAscoltatoreCache(snapshot::richiediAggiornamento);
+            return snapshot;
+        }
+    }
+
+    private final SnapshotPanoramica snapshot;
+
+    public PanoramicaPalestraService() {
+        this(SnapshotHolder.ISTANZA);
+    }
+
+    public PanoramicaPalestraService(SnapshotPanoramica snapshot) {
+        this.snapshot = snapshot;
+    }
+
     @Override
     public String generaPanoramica(Cliente cliente) throws Exception {
         Abbonamento abb = cliente.getAbbonamento();
@@ -21,49 +55,39 @@ public class PanoramicaPalestraService implements PanoramicaPalestraServiceIf {
             return "";
         }
 
-        String tipo = abb.getTipo().trim().toUpperCase();
-
-        boolean canSalaPesi = false;
-        boolean canSpa      = false;
-        boolean canCorsi    = false;
-
-        switch (tipo) {
-            case "BASE":
-                canSalaPesi = true;
-                break;
-            case "COMPLETO":
-                canSalaPesi = true;
-                canSpa = true;
-                break;
-            case "CORSI":
-                canCorsi = true;
-                break;
-            default:
-                // tipo non supportato → nessuna area
-                return "";
-        }
+        // tipo non supportato → nessuna area (stringa vuota)
+        return snapshot.get(abb.getTipo().trim().toUpperCase());
+    }
 
-        StringBuilder sb = new StringBuilder();
+    /** Scarta i dati letti dalla composizione; gli ascoltatori accorpano le ricostruzioni. */
+    private static void invalidaDatiLetti() {
+        PalestraDAO.invalidaCache();
+        CorsoDAO.invalidaCache();
+    }
 
-        // ===== SALA PESI =====
-        if (canSalaPesi) {
-            appendSalaPesi(sb);
-        }
+    // ==========================================================
+    //  COMPOSIZIONE (eseguita solo alla ricostruzione dello snapshot)
+    // ==========================================================
 
-        // ===== SPA =====
-        if (canSpa) {
-            appendSpa(sb);
-        }
+    /** Compone la panoramica per ogni tipo di abbonamento, leggendo ogni sezione una volta sola. */
+    static Map<String, String> componiPanoramiche() throws Exception {
+        StringBuilder salaPesi = new StringBuilder();
+        appendSalaPesi(salaPesi);
 
-        // ===== SALE CORSI =====
-        if (canCorsi) {
-            appendSaleCorsi(sb);
-        }
+        StringBuilder spa = new StringBuilder();
+        appendSpa(spa);
+
+        StringBuilder saleCorsi = new StringBuilder();
+        appendSaleCorsi(saleCorsi);
 
-        return sb.toString();
+        Map<String, String> testi = new HashMap<>();
+        testi.put("BASE", salaPesi.toString());
+        testi.put("COMPLETO", salaPesi.toString() + spa);
+        testi.put("CORSI", saleCorsi.toString());
+        return testi;
     }
 
-    private void appendSalaPesi(StringBuilder sb) throws Exception {
+    private static void appendSalaPesi(StringBuilder sb) throws Exception {
         PalestraDAO.SalaPesiInfo info = PalestraDAO.getSalaPesiInfo();
 
         sb.append("=== SALA PESI ===\n\n");
@@ -96,7 +120,7 @@ public class PanoramicaPalestraService implements PanoramicaPalestraServiceIf {
         sb.append("\n");
     }
 
-    private void appendSpa(StringBuilder sb) throws Exception {
+    private static void appendSpa(StringBuilder sb) throws Exception {
         PalestraDAO.SpaInfo spa = PalestraDAO.getSpaInfo();
 
         sb.append("=== SPA ===\n\n");
@@ -119,7 +143,7 @@ public class PanoramicaPalestraService implements PanoramicaPalestraServiceIf {
         sb.append("\n");
     }
 
-    private void appendSaleCorsi(StringBuilder sb) throws Exception {
+    private static void appendSaleCorsi(StringBuilder sb) throws Exception {
         List<SalaCorsoInfo> saleCorsi = PalestraDAO.getSaleCorsiInfo();
 
         sb.append("=== SALE CORSI ===\n\n");
@@ -1,12 +1,33 @@
 package service;
 
+import service.validazione.ErroreValidazione;
+import service.validazione.EsitoValidazione;
+
+import java.util.Collections;
+import java.util.List;
+
 public class RegistrazioneException extends Exception {
 
+    private final List<ErroreValidazione> errori;
+
     public RegistrazioneException(String message) {
         super(message);
+        this.errori = Collections.emptyList();
     }
 
     public RegistrazioneException(String message, Throwable cause) {
         super(message, cause);
+        this.errori = Collections.emptyList();
+    }
+
+    /** Dati non validi: il messaggio riporta tutti gli errori, uno per riga. */
+    public RegistrazioneException(EsitoValidazione esito) {
+        super(esito.getMessaggio());
+        this.errori = esito.getErrori();
+    }
+
+    /** Errori per campo, vuoto se l'eccezione non deriva dalla validazione. */
+    public List<ErroreValidazione> getErrori() {
+        return errori;
     }
 }
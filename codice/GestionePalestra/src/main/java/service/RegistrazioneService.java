@@ -4,18 +4,32 @@ import db.GestioneDB;
 import model.Cliente;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.mindrot.jbcrypt.BCrypt;
+import service.hash.EsecutoreHash;
+import service.hash.HashSovraccaricoException;
+import service.validazione.EsitoValidazione;
+import service.validazione.ValidazioneRegistrazione;
 
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.Period;
-import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class RegistrazioneService implements RegistrazioneServiceIf {
 
     private static final Logger logger =
             LogManager.getLogger(RegistrazioneService.class);
 
+    // condivisa con l'importazione massiva (ImportazioneClienti)
+    static final String SQL_INSERT_CLIENTE =
+            "INSERT INTO CLIENTE " +
+            "(USERNAME, EMAIL, NOME, COGNOME, CF, LUOGO_NASCITA, DATA_NASCITA, IBAN, PASSWORD) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // H2 riporta l'indice violato come "... ON PUBLIC.CLIENTE(USERNAME NULLS FIRST) ..."
+    private static final Pattern COLONNA_VIOLATA =
+            Pattern.compile("CLIENTE\\((\\w+)");
+
     @Override
     public void registraNuovoCliente(String username,
                                      String password,
@@ -27,96 +41,37 @@ public class RegistrazioneService implements RegistrazioneServiceIf {
                                      String iban,
                                      String email) throws RegistrazioneException {
 
-        // ===== Normalizzazione input =====
-        username     = username.trim();
-        password     = password; // non trim
-        nome         = nome.trim();
-        cognome      = cognome.trim();
-        cf           = cf.trim().toUpperCase();
-        luogoNascita = luogoNascita.trim();
-        dataNascita  = dataNascita.trim();
-        iban         = iban.trim().replaceAll("\\s+", "").toUpperCase();
-        email        = email.trim().toLowerCase();
-
-        // ===== Validazioni base =====
-        if (username.isEmpty() || password.isEmpty() ||
-                nome.isEmpty() || cognome.isEmpty() ||
-                cf.isEmpty() || email.isEmpty()) {
-            throw new RegistrazioneException(
-                    "Compilare tutti i campi obbligatori (username, password, nome, cognome, CF, email).");
-        }
-
-        if (password.length() < 4) {
-            throw new RegistrazioneException("La password deve contenere almeno 4 caratteri.");
-        }
-
-        if (!cf.matches("[A-Z0-9]{16}")) {
-            throw new RegistrazioneException(
-                    "Codice fiscale non valido. Deve contenere 16 caratteri alfanumerici.");
-        }
-
-        if (!email.matches("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$")) {
-            throw new RegistrazioneException("Formato email non valido.");
-        }
+        // ===== Normalizzazione + validazione (tutti i campi in un passaggio) =====
+        Map<String, String> dati = ValidazioneRegistrazione.normalizza(
+                username, password, nome, cognome, cf, luogoNascita, dataNascita, iban, email);
 
-        if (!iban.isEmpty() && !isValidIban(iban)) {
-            throw new RegistrazioneException(
-                    "IBAN non valido. Deve essere lungo tra 15 e 34 caratteri, solo lettere e numeri.");
+        EsitoValidazione esito = ValidazioneRegistrazione.valida(dati);
+        if (!esito.isValido()) {
+            logger.warn("Registrazione rifiutata, dati non validi: {}", esito.getErrori());
+            throw new RegistrazioneException(esito);
         }
 
-        if (!isValidCountry(luogoNascita)) {
-            throw new RegistrazioneException(
-                    "Il paese di nascita inserito non è valido. Inserire un paese reale (es. Italia, France, Spain...).");
-        }
+        username     = dati.get(ValidazioneRegistrazione.USERNAME);
+        nome         = dati.get(ValidazioneRegistrazione.NOME);
+        cognome      = dati.get(ValidazioneRegistrazione.COGNOME);
+        cf           = dati.get(ValidazioneRegistrazione.CF);
+        luogoNascita = dati.get(ValidazioneRegistrazione.LUOGO_NASCITA);
+        iban         = dati.get(ValidazioneRegistrazione.IBAN);
+        email        = dati.get(ValidazioneRegistrazione.EMAIL);
+        Date dataSql = Date.valueOf(LocalDate.parse(dati.get(ValidazioneRegistrazione.DATA_NASCITA)));
 
         logger.info("Richiesta registrazione per username {}", username);
 
-        // ===== Controlli di unicità =====
-        try {
-            if (esisteUsername(username)) {
-                logger.warn("Registrazione fallita: username {} già esistente", username);
-                throw new RegistrazioneException("Username già utilizzato, scegline un altro.");
-            }
-
-            if (esisteCF(cf)) {
-                logger.warn("Registrazione fallita: CF {} già esistente", cf);
-                throw new RegistrazioneException("Esiste già un cliente con questo codice fiscale.");
-            }
-
-            if (esisteEmail(email)) {
-                logger.warn("Registrazione fallita: EMAIL {} già esistente", email);
-                throw new RegistrazioneException("Esiste già un account associato a questa email.");
-            }
-
-        } catch (SQLException e) {
-            logger.error("Errore nel controllo unicità durante la registrazione", e);
-            throw new RegistrazioneException("Errore di database durante i controlli di registrazione.", e);
-        }
-
-        // ===== Parsing data di nascita =====
-        Date dataSql;
+        // ===== Hash password + creazione cliente =====
+        String hashedPassword;
         try {
-            dataSql = Date.valueOf(dataNascita);
-        } catch (IllegalArgumentException e) {
-            logger.error("Formato data non valido: {}", dataNascita);
-            throw new RegistrazioneException("Inserire la data nel formato corretto: yyyy-MM-dd");
-        }
-
-        LocalDate nascitaLD = dataSql.toLocalDate();
-        LocalDate oggi      = LocalDate.now();
-
-        if (nascitaLD.isAfter(oggi)) {
-            throw new RegistrazioneException("La data di nascita non può essere nel futuro.");
-        }
-
-        int anni = Period.between(nascitaLD, oggi).getYears();
-        if (anni < 14) {
-            throw new RegistrazioneException("Per registrarsi bisogna avere almeno 14 anni.");
+            hashedPassword = EsecutoreHash.getIstanza().calcola(password);
+        } catch (HashSovraccaricoException e) {
+            logger.warn("Registrazione di {} non servita: {}", username, e.getMessage());
+            throw new RegistrazioneException(
+                    "Il sistema è momentaneamente occupato. Riprova tra qualche secondo.", e);
         }
 
-        // ===== Hash password + creazione cliente =====
-        String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt(12));
-
         Cliente nuovoCliente = new Cliente(
                 username,
                 hashedPassword,
@@ -130,12 +85,10 @@ public class RegistrazioneService implements RegistrazioneServiceIf {
         );
 
         // ===== Insert su DB =====
-        String sql = "INSERT INTO CLIENTE " +
-                "(USERNAME, EMAIL, NOME, COGNOME, CF, LUOGO_NASCITA, DATA_NASCITA, IBAN, PASSWORD) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
+        // l'unicità di username, CF ed email è garantita dai vincoli UNIQUE di CLIENTE:
+        // un solo statement, senza finestra tra controllo e inserimento
         try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(SQL_INSERT_CLIENTE)) {
 
             ps.setString(1, nuovoCliente.getUsername());
             ps.setString(2, nuovoCliente.getEmail());
@@ -158,6 +111,9 @@ public class RegistrazioneService implements RegistrazioneServiceIf {
             }
 
         } catch (SQLException e) {
+            if ("23505".equals(e.getSQLState())) {
+                throw violazioneUnicita(e, username, cf, email);
+            }
             logger.error("Errore durante la registrazione utente", e);
             throw new RegistrazioneException("Errore di database durante la registrazione.", e);
         }
@@ -165,57 +121,55 @@ public class RegistrazioneService implements RegistrazioneServiceIf {
 
     // ===== Metodi di supporto (spostati dal controller) =====
 
-    private boolean esisteUsername(String username) throws SQLException {
-        String sql = "SELECT 1 FROM CLIENTE WHERE USERNAME = ?";
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, username);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
+    /** Traduce la violazione di un vincolo UNIQUE di CLIENTE nel messaggio del campo interessato. */
+    private RegistrazioneException violazioneUnicita(SQLException e,
+                                                     String username,
+                                                     String cf,
+                                                     String email) {
+        String messaggio = messaggioDuplicato(e);
+        if (messaggio == null) {
+            logger.error("Violazione di unicità non prevista durante la registrazione", e);
+            return new RegistrazioneException("Errore di database durante la registrazione.", e);
         }
+        logger.warn("Registrazione fallita per {} / CF {} / EMAIL {}: {}", username, cf, email, messaggio);
+        return new RegistrazioneException(messaggio);
     }
 
-    private boolean esisteCF(String cf) throws SQLException {
-        String sql = "SELECT 1 FROM CLIENTE WHERE CF = ?";
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, cf);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
+    /**
+     * Campo di registrazione (username, CF o email) il cui vincolo di unicità è stato violato,
+     * null se la violazione riguarda un altro vincolo.
+     */
+    static String campoDuplicato(SQLException e) {
+        Matcher m = COLONNA_VIOLATA.matcher(String.valueOf(e.getMessage()));
+        String colonna = m.find() ? m.group(1) : "";
+
+        switch (colonna) {
+            case "USERNAME":
+                return ValidazioneRegistrazione.USERNAME;
+            case "CF":
+                return ValidazioneRegistrazione.CF;
+            case "EMAIL":
+                return ValidazioneRegistrazione.EMAIL;
+            default:
+                return null;
         }
     }
 
-    private boolean esisteEmail(String email) throws SQLException {
-        String sql = "SELECT 1 FROM CLIENTE WHERE EMAIL = ?";
-        try (Connection conn = GestioneDB.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, email);
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
-            }
+    /**
+     * Messaggio per l'utente relativo al campo duplicato (username, CF o email),
+     * null se la violazione riguarda un altro vincolo.
+     */
+    static String messaggioDuplicato(SQLException e) {
+        String campo = campoDuplicato(e);
+        if (ValidazioneRegistrazione.USERNAME.equals(campo)) {
+            return "Username già utilizzato, scegline un altro.";
         }
-    }
-
-    private boolean isValidIban(String iban) {
-        int len = iban.length();
-        if (len < 15 || len > 34) return false;
-        return iban.matches("[A-Z0-9]+");
-    }
-
-    private boolean isValidCountry(String countryName) {
-        if (countryName == null || countryName.isEmpty()) return false;
-        String normalized = countryName.trim().toLowerCase();
-
-        for (String iso : Locale.getISOCountries()) {
-            Locale l = new Locale("", iso);
-            String it = l.getDisplayCountry(Locale.ITALIAN).toLowerCase();
-            String en = l.getDisplayCountry(Locale.ENGLISH).toLowerCase();
-            if (normalized.equals(it) || normalized.equals(en)) {
-                return true;
-            }
+        if (ValidazioneRegistrazione.CF.equals(campo)) {
+            return "Esiste già un cliente con questo codice fiscale.";
+        }
+        if (ValidazioneRegistrazione.EMAIL.equals(campo)) {
+            return "Esiste già un account associato a questa email.";
         }
-        return false;
+        return null;
     }
 }
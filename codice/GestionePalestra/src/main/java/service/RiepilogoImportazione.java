@@ -0,0 +1,26 @@
+package service;
+
+/**
+ * Esito complessivo di un'importazione: le righe scartate sono elencate
+ * nel report degli errori.
+ */
+public final class RiepilogoImportazione {
+
+    public final int righeLette;
+    public final int importate;
+    public final int scartate;
+    public final long durataMs;
+
+    public RiepilogoImportazione(int righeLette, int importate, int scartate, long durataMs) {
+        this.righeLette = righeLette;
+        this.importate = importate;
+        this.scartate = scartate;
+        this.durataMs = durataMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Importazione clienti[righe=%d, importate=%d, scartate=%d, durata=%d ms]",
+                righeLette, importate, scartate, durataMs);
+    }
+}
@@ -0,0 +1,77 @@
+package service;
+
+import db.dao.corso.LezioneTemplateDAO;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job in background che tiene il calendario dei corsi allineato:
+ * all'avvio e poi ogni notte crea, con un'unica INSERT ... SELECT,
+ * le lezioni mancanti delle prossime settimane a partire dai template
+ * (vedi {@link LezioneTemplateDAO#materializzaOrizzonte(LocalDate, int)}).
+ *
+ * Le schermate di prenotazione si limitano a leggere.
+ */
+public final class RinnovoLezioniJob {
+
+    private static final Logger logger = LogManager.getLogger(RinnovoLezioniJob.class);
+
+    // qualche minuto dopo mezzanotte, così "oggi" è già il nuovo giorno
+    private static final Duration SCARTO_DOPO_MEZZANOTTE = Duration.ofMinutes(5);
+
+    // lezioni prenotabili in anticipo
+    private static final int ORIZZONTE_GIORNI = 28;
+
+    private static ScheduledExecutorService scheduler;
+
+    private RinnovoLezioniJob() {
+        // utility class
+    }
+
+    public static synchronized void avvia() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "palestra-rinnovo-lezioni");
+            t.setDaemon(true);
+            return t;
+        });
+
+        scheduler.execute(RinnovoLezioniJob::esegui);
+
+        LocalDateTime adesso = LocalDateTime.now();
+        LocalDateTime prossima = adesso.toLocalDate().plusDays(1).atStartOfDay().plus(SCARTO_DOPO_MEZZANOTTE);
+        scheduler.scheduleAtFixedRate(RinnovoLezioniJob::esegui,
+                Duration.between(adesso, prossima).toMillis(),
+                TimeUnit.DAYS.toMillis(1),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void ferma() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** Esegue subito un rinnovo; gli errori vengono loggati, mai propagati allo scheduler. */
+    public static void esegui() {
+        try {
+            int create = LezioneTemplateDAO.materializzaOrizzonte(LocalDate.now(), ORIZZONTE_GIORNI);
+            if (create > 0) {
+                logger.info("Rinnovo lezioni: create {} nuove lezioni", create);
+            }
+        } catch (Exception e) {
+            // un'eccezione non gestita cancellerebbe le esecuzioni successive
+            logger.error("Errore durante il rinnovo delle lezioni", e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package service;
+
+import db.dao.ConsulenzaDAO;
+import db.dao.DipendenteDAO;
+import db.dao.DipendenteDAO.DipendenteInfo;
+import db.dao.IndiceConsulenze;
+import model.OrarioDisponibilita;
+import model.SlotLibero;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ricerca degli orari liberi per una consulenza.
+ *
+ * Per ogni professionista del ruolo si scorre, giorno per giorno, l'orario
+ * compilato ({@link OrarioDisponibilita}) insieme agli intervalli già occupati
+ * (suoi e del cliente, uniti e ordinati): ogni candidato o viene proposto o fa
+ * avanzare il cursore oltre l'ostacolo, senza mai tornare indietro.
+ */
+public class SlotLiberiService implements SlotLiberiServiceIf {
+
+    // gli orari proposti partono da multipli di questo passo
+    private static final int PASSO_MINUTI = 15;
+
+    // limite alla finestra di ricerca, per non scorrere mesi di calendario
+    private static final int GIORNI_MASSIMI = 62;
+
+    // fascia usata per chi non ha una disponibilità oraria (es. "Corsi serali")
+    private static final OrarioDisponibilita ORARIO_PREDEFINITO =
+            OrarioDisponibilita.compila("Lun-Sab 9:00-20:00");
+
+    private final Clock clock;
+
+    public SlotLiberiService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public SlotLiberiService(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public List<SlotLibero> cercaSlotLiberi(String tipo, int idCliente,
+                                            LocalDate dal, LocalDate al, int quanti) throws Exception {
+        LocalDateTime adesso = LocalDateTime.now(clock);
+        LocalDate oggi = adesso.toLocalDate();
+
+        if (dal.isBefore(oggi)) {
+            dal = oggi;
+        }
+        if (al.isAfter(dal.plusDays(GIORNI_MASSIMI))) {
+            al = dal.plusDays(GIORNI_MASSIMI);
+        }
+        if (quanti <= 0 || al.isBefore(dal)) {
+            return Collections.emptyList();
+        }
+
+        int durata = ConsulenzaDAO.durataStimataMinuti(tipo);
+
+        // ===== AGENDE DEI PROFESSIONISTI =====
+        List<Agenda> agende = new ArrayList<>();
+        for (DipendenteInfo info : DipendenteDAO.findByRuolo(tipo)) {
+            OrarioDisponibilita orario = DipendenteDAO.getOrarioCompilato(info.id);
+            if (!orario.isVincolato()) {
+                orario = ORARIO_PREDEFINITO;
+            }
+            List<IndiceConsulenze.Voce> occupati = ConsulenzaDAO.getIntervalliOccupati(
+                    idCliente, info.id, dal.atStartOfDay(), al.plusDays(1).atStartOfDay());
+            agende.add(new Agenda(info, orario, unisci(occupati)));
+        }
+
+        // ===== SCANSIONE GIORNO PER GIORNO =====
+        List<SlotLibero> risultato = new ArrayList<>();
+        List<SlotLibero> delGiorno = new ArrayList<>();
+
+        for (LocalDate giorno = dal; !giorno.isAfter(al) && risultato.size() < quanti; giorno = giorno.plusDays(1)) {
+            int daMinuto = 0;
+            if (giorno.equals(oggi)) {
+                daMinuto = OrarioDisponibilita.minutoDelGiorno(adesso.toLocalTime()) + 1;
+            }
+
+            delGiorno.clear();
+            for (Agenda agenda : agende) {
+                agenda.slotDelGiorno(giorno, daMinuto, durata, quanti - risultato.size(), delGiorno);
+            }
+
+            // a parità di orario resta l'ordine per cognome di findByRuolo
+            delGiorno.sort(Comparator.comparing(SlotLibero::getInizio));
+            for (SlotLibero slot : delGiorno) {
+                if (risultato.size() == quanti) break;
+                risultato.add(slot);
+            }
+        }
+        return risultato;
+    }
+
+    // Unisce gli intervalli (ordinati per inizio) che si sovrappongono o si toccano
+    private static List<long[]> unisci(List<IndiceConsulenze.Voce> occupati) {
+        List<long[]> uniti = new ArrayList<>();
+        long[] corrente = null;
+        for (IndiceConsulenze.Voce v : occupati) {
+            if (corrente != null && v.inizio <= corrente[1]) {
+                corrente[1] = Math.max(corrente[1], v.fine);
+            } else {
+                corrente = new long[] { v.inizio, v.fine };
+                uniti.add(corrente);
+            }
+        }
+        return uniti;
+    }
+
+    private static int allinea(int minuto) {
+        int resto = minuto % PASSO_MINUTI;
+        return resto == 0 ? minuto : minuto + PASSO_MINUTI - resto;
+    }
+
+    // ==========================================================
+    //  AGENDA DI UN PROFESSIONISTA
+    // ==========================================================
+
+    private static final class Agenda {
+        final DipendenteInfo info;
+        final OrarioDisponibilita orario;
+        final List<long[]> occupati;   // disgiunti, ordinati
+        int cursore = 0;               // primo intervallo occupato non ancora superato
+
+        Agenda(DipendenteInfo info, OrarioDisponibilita orario, List<long[]> occupati) {
+            this.info = info;
+            this.orario = orario;
+            this.occupati = occupati;
+        }
+
+        void slotDelGiorno(LocalDate giorno, int daMinuto, int durata, int massimo, List<SlotLibero> out) {
+            DayOfWeek dow = giorno.getDayOfWeek();
+            long base = IndiceConsulenze.minutiEpoch(giorno.atStartOfDay());
+            int trovati = 0;
+            int t = allinea(daMinuto);
+
+            while (trovati < massimo) {
+                int inizio = orario.prossimoInizio(dow, t, durata);
+                if (inizio < 0) {
+                    return;
+                }
+                if (inizio % PASSO_MINUTI != 0) {
+                    t = allinea(inizio);
+                    continue;
+                }
+
+                long inizioAss = base + inizio;
+                long fineAss = inizioAss + durata;
+
+                // gli intervalli già terminati non servono più, né oggi né nei giorni seguenti
+                while (cursore < occupati.size() && occupati.get(cursore)[1] <= inizioAss) {
+                    cursore++;
+                }
+                if (cursore < occupati.size() && occupati.get(cursore)[0] < fineAss) {
+                    long fineOccupato = occupati.get(cursore)[1];
+                    if (fineOccupato - base >= OrarioDisponibilita.MINUTI_GIORNO) {
+                        return;
+                    }
+                    t = allinea((int) (fineOccupato - base));
+                    continue;
+                }
+
+                out.add(new SlotLibero(info.id, info.nomeCompleto,
+                        giorno.atStartOfDay().plusMinutes(inizio), durata));
+                trovati++;
+                t = inizio + durata;
+            }
+        }
+    }
+}
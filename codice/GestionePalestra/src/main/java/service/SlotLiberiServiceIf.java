@@ -0,0 +1,22 @@
+package service;
+
+import model.SlotLibero;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SlotLiberiServiceIf {
+
+    /**
+     * Cerca i primi orari liberi per una consulenza, tra tutti i professionisti del ruolo.
+     * @param tipo PERSONAL_TRAINER / NUTRIZIONISTA / ISTRUTTORE_CORSO
+     * @param idCliente cliente che prenota (i suoi impegni vengono esclusi)
+     * @param dal primo giorno da considerare (i giorni passati vengono saltati)
+     * @param al ultimo giorno da considerare (incluso)
+     * @param quanti numero massimo di slot da restituire
+     * @return slot in ordine cronologico (mai null)
+     * @throws Exception se si verificano errori di accesso al DB
+     */
+    List<SlotLibero> cercaSlotLiberi(String tipo, int idCliente,
+                                     LocalDate dal, LocalDate al, int quanti) throws Exception;
+}
@@ -0,0 +1,114 @@
+package service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Panoramica della palestra già composta per ogni tipo di abbonamento.
+ *
+ * - la prima lettura costruisce lo snapshot (e propaga l'eventuale errore)
+ * - le letture successive sono un semplice accesso alla mappa
+ * - {@link #richiediAggiornamento()} ricostruisce in background: nel frattempo
+ *   si continua a servire lo snapshot precedente; richieste ravvicinate
+ *   vengono accorpate in un'unica ricostruzione
+ * - se la ricostruzione fallisce resta valido lo snapshot precedente
+ */
+public class SnapshotPanoramica {
+
+    private static final Logger logger =
+            LogManager.getLogger(SnapshotPanoramica.class);
+
+    @FunctionalInterface
+    public interface Compositore {
+        /** @return testo della panoramica per ogni tipo di abbonamento (BASE, COMPLETO, CORSI) */
+        Map<String, String> componi() throws Exception;
+    }
+
+    private final Compositore compositore;
+    private final ScheduledExecutorService esecutore;
+
+    private final AtomicBoolean aggiornamentoInCoda = new AtomicBoolean();
+    private volatile Map<String, String> testi;
+
+    /**
+     * @param periodo ogni quanto ricostruire comunque lo snapshot, per recepire
+     *                le modifiche fatte fuori dai DAO; null per disattivare
+     */
+    public SnapshotPanoramica(Compositore compositore, Duration periodo) {
+        this(compositore, periodo, () -> { });
+    }
+
+    /**
+     * @param scadenza eseguita a ogni periodo prima della ricostruzione: deve scartare
+     *                 le cache lette dal compositore, altrimenti la ricostruzione
+     *                 rilegge gli stessi valori (es. voci caricate subito dopo la
+     *                 prima costruzione e non ancora scadute)
+     */
+    public SnapshotPanoramica(Compositore compositore, Duration periodo, Runnable scadenza) {
+        this.compositore = compositore;
+        this.esecutore = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "palestra-panoramica");
+            t.setDaemon(true);
+            return t;
+        });
+        if (periodo != null) {
+            long ms = periodo.toMillis();
+            esecutore.scheduleWithFixedDelay(() -> {
+                scadenza.run();
+                richiediAggiornamento();
+            }, ms, ms, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** @return panoramica per il tipo di abbonamento, stringa vuota se il tipo non è previsto */
+    public String get(String tipoAbbonamento) throws Exception {
+        Map<String, String> correnti = testi;
+        if (correnti == null) {
+            correnti = primaCostruzione();
+        }
+        String testo = correnti.get(tipoAbbonamento);
+        return testo != null ? testo : "";
+    }
+
+    private synchronized Map<String, String> primaCostruzione() throws Exception {
+        if (testi == null) {
+            ricostruisci();
+        }
+        return testi;
+    }
+
+    /** Pianifica una ricostruzione in background (es. dopo un'invalidazione dei dati). */
+    public void richiediAggiornamento() {
+        if (aggiornamentoInCoda.compareAndSet(false, true)) {
+            esecutore.execute(this::aggiorna);
+        }
+    }
+
+    private void aggiorna() {
+        // liberato prima di leggere: un'invalidazione durante la ricostruzione ne pianifica un'altra
+        aggiornamentoInCoda.set(false);
+        try {
+            ricostruisci();
+        } catch (Exception e) {
+            logger.warn("Aggiornamento panoramica fallito, resta valido lo snapshot precedente", e);
+        }
+    }
+
+    private synchronized void ricostruisci() throws Exception {
+        testi = Collections.unmodifiableMap(new HashMap<>(compositore.componi()));
+        logger.debug("Snapshot panoramica ricostruito");
+    }
+
+    public void chiudi() {
+        esecutore.shutdownNow();
+    }
+}
@@ -0,0 +1,49 @@
+package service.hash;
+
+/**
+ * Parametri dell'esecutore BCrypt.
+ *
+ * Di default un thread per core e una coda corta: all'apertura, quando
+ * arrivano molti login insieme, le richieste in eccesso vengono respinte
+ * subito invece di accumularsi. Ogni valore può essere sovrascritto con una
+ * system property (es. -Dpalestra.bcrypt.cost=11).
+ */
+public final class ConfigurazioneHash {
+
+    public static final int COSTO_MINIMO = 4;
+    public static final int COSTO_MASSIMO = 31;
+
+    public final int thread;
+    public final int capacitaCoda;
+    public final long timeoutMs;
+    public final int costo;
+
+    public ConfigurazioneHash(int thread, int capacitaCoda, long timeoutMs, int costo) {
+        if (thread <= 0) {
+            throw new IllegalArgumentException("thread deve essere > 0");
+        }
+        if (capacitaCoda <= 0) {
+            throw new IllegalArgumentException("capacitaCoda deve essere > 0");
+        }
+        if (costo < COSTO_MINIMO || costo > COSTO_MASSIMO) {
+            throw new IllegalArgumentException(
+                    "costo BCrypt deve essere tra " + COSTO_MINIMO + " e " + COSTO_MASSIMO);
+        }
+        this.thread = thread;
+        this.capacitaCoda = capacitaCoda;
+        this.timeoutMs = timeoutMs;
+        this.costo = costo;
+    }
+
+    /** Configurazione letta dalle system property "palestra.bcrypt.*". */
+    public static ConfigurazioneHash daProprietaDiSistema() {
+        int core = Runtime.getRuntime().availableProcessors();
+        int thread = Integer.getInteger("palestra.bcrypt.thread", core);
+        return new ConfigurazioneHash(
+                thread,
+                Integer.getInteger("palestra.bcrypt.coda", thread * 8),
+                Long.getLong("palestra.bcrypt.timeoutMs", 10_000L),
+                Integer.getInteger("palestra.bcrypt.cost", 12)
+        );
+    }
+}
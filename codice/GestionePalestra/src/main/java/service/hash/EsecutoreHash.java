@@ -0,0 +1,255 @@
+package service.hash;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Esecutore dedicato alle operazioni BCrypt (verifica e calcolo degli hash).
+ *
+ * - un numero fisso di thread (di default uno per core): i login contemporanei
+ *   non si contendono la CPU con il resto dell'applicazione oltre questo limite
+ * - coda limitata: a coda piena la richiesta viene respinta subito con
+ *   {@link HashSovraccaricoException}, e il chiamante che aspetta oltre
+ *   {@code timeoutMs} riceve la stessa eccezione
+ * - metriche su durata (percentili), attesa in coda e richieste respinte
+ *
+ * I metodi sono bloccanti: vanno chiamati fuori dall'EDT (i controller lo fanno
+ * già tramite EsecutoreAsincrono).
+ */
+public class EsecutoreHash {
+
+    private static final Logger logger =
+            LogManager.getLogger(EsecutoreHash.class);
+
+    // ultime durate tenute per il calcolo dei percentili
+    private static final int CAMPIONI = 1024;
+
+    private final ConfigurazioneHash config;
+    private final ThreadPoolExecutor esecutore;
+
+    // ===================== METRICHE =====================
+    private final AtomicLong completate        = new AtomicLong();
+    private final AtomicLong rifiutate         = new AtomicLong();
+    private final AtomicLong timeout           = new AtomicLong();
+    private final AtomicLong attesaTotaleNanos = new AtomicLong();
+
+    private final long[] durateNanos = new long[CAMPIONI];
+    private int prossimoCampione = 0;
+    private int campioniRaccolti = 0;
+
+    // Esecutore dell'applicazione, creato alla prima richiesta (idioma holder)
+    private static final class Holder {
+        static final EsecutoreHash ISTANZA = new EsecutoreHash(ConfigurazioneHash.daProprietaDiSistema());
+    }
+
+    public static EsecutoreHash getIstanza() {
+        return Holder.ISTANZA;
+    }
+
+    public EsecutoreHash(ConfigurazioneHash config) {
+        this.config = config;
+
+        AtomicInteger progressivo = new AtomicInteger();
+        this.esecutore = new ThreadPoolExecutor(
+                config.thread, config.thread,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.capacitaCoda),
+                r -> {
+                    Thread t = new Thread(r, "palestra-bcrypt-" + progressivo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        logger.info("Esecutore BCrypt avviato: {} thread, coda {}, costo {}",
+                config.thread, config.capacitaCoda, config.costo);
+    }
+
+    // ==========================================================
+    //  OPERAZIONI
+    // ==========================================================
+
+    /** Verifica la password rispetto all'hash salvato (BCrypt.checkpw). */
+    public boolean verifica(String password, String hash) throws HashSovraccaricoException {
+        return esegui(() -> BCrypt.checkpw(password, hash));
+    }
+
+    /** Calcola un nuovo hash con il costo configurato. */
+    public String calcola(String password) throws HashSovraccaricoException {
+        return esegui(() -> BCrypt.hashpw(password, BCrypt.gensalt(config.costo)));
+    }
+
+    /**
+     * True se l'hash è stato calcolato con un costo diverso da quello configurato
+     * (o non se ne riesce a leggere il costo): al prossimo login corretto va ricalcolato.
+     */
+    public boolean richiedeRehash(String hash) {
+        return costoDi(hash) != config.costo;
+    }
+
+    public int getCosto() {
+        return config.costo;
+    }
+
+    /**
+     * Costo codificato nell'hash ("$2a$12$..."), -1 se il formato non è riconosciuto.
+     */
+    public static int costoDi(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') {
+            return -1;
+        }
+        int fineVersione = hash.indexOf('$', 1);
+        if (fineVersione < 0 || fineVersione + 3 > hash.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(fineVersione + 1, fineVersione + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Calcola gli hash di più password in parallelo su tutti i thread dell'esecutore
+     * (es. importazioni massive). Le richieste vengono accodate insieme: la coda
+     * deve poterle contenere tutte. Gli hash sono restituiti nello stesso ordine.
+     */
+    public List<String> calcolaTutti(List<String> password) throws HashSovraccaricoException {
+        List<Future<String>> futures = new ArrayList<>(password.size());
+        try {
+            for (String p : password) {
+                futures.add(invia(() -> BCrypt.hashpw(p, BCrypt.gensalt(config.costo))));
+            }
+            List<String> hash = new ArrayList<>(futures.size());
+            for (Future<String> f : futures) {
+                hash.add(attendi(f));
+            }
+            return hash;
+        } catch (HashSovraccaricoException | RuntimeException e) {
+            for (Future<String> f : futures) {
+                f.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    private <T> T esegui(Callable<T> operazione) throws HashSovraccaricoException {
+        return attendi(invia(operazione));
+    }
+
+    private <T> Future<T> invia(Callable<T> operazione) throws HashSovraccaricoException {
+        long accodata = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = esecutore.submit(() -> {
+                long inizio = System.nanoTime();
+                attesaTotaleNanos.addAndGet(inizio - accodata);
+                try {
+                    return operazione.call();
+                } finally {
+                    registraDurata(System.nanoTime() - inizio);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rifiutate.incrementAndGet();
+            logger.warn("Richiesta BCrypt respinta (coda piena): {}", getStatistiche());
+            throw new HashSovraccaricoException("Troppe richieste di autenticazione in corso.", e);
+        }
+        return future;
+    }
+
+    private <T> T attendi(Future<T> future) throws HashSovraccaricoException {
+        try {
+            return future.get(config.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeout.incrementAndGet();
+            logger.warn("Timeout BCrypt dopo {} ms: {}", config.timeoutMs, getStatistiche());
+            throw new HashSovraccaricoException("Autenticazione non completata in tempo.", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashSovraccaricoException("Interrotto in attesa dell'esecutore BCrypt.", e);
+        } catch (ExecutionException e) {
+            // es. IllegalArgumentException per un hash malformato: la si rilancia com'è
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+
+    // ==========================================================
+    //  METRICHE / CHIUSURA
+    // ==========================================================
+
+    private synchronized void registraDurata(long nanos) {
+        completate.incrementAndGet();
+        durateNanos[prossimoCampione] = nanos;
+        prossimoCampione = (prossimoCampione + 1) % CAMPIONI;
+        if (campioniRaccolti < CAMPIONI) {
+            campioniRaccolti++;
+        }
+    }
+
+    public StatisticheHash getStatistiche() {
+        long[] ordinate;
+        synchronized (this) {
+            ordinate = Arrays.copyOf(durateNanos, campioniRaccolti);
+        }
+        Arrays.sort(ordinate);
+
+        long compl = completate.get();
+        double attesaMediaMs = compl == 0 ? 0.0
+                : attesaTotaleNanos.get() / 1_000_000.0 / compl;
+
+        return new StatisticheHash(
+                config.costo,
+                config.thread,
+                esecutore.getActiveCount(),
+                esecutore.getQueue().size(),
+                compl,
+                rifiutate.get(),
+                timeout.get(),
+                attesaMediaMs,
+                percentileMs(ordinate, 50),
+                percentileMs(ordinate, 95),
+                percentileMs(ordinate, 99),
+                ordinate.length == 0 ? 0.0 : ordinate[ordinate.length - 1] / 1_000_000.0
+        );
+    }
+
+    // nearest-rank
+    private static double percentileMs(long[] ordinate, int percentile) {
+        if (ordinate.length == 0) {
+            return 0.0;
+        }
+        int rango = (int) Math.ceil(percentile / 100.0 * ordinate.length);
+        return ordinate[Math.max(0, rango - 1)] / 1_000_000.0;
+    }
+
+    public void chiudi() {
+        esecutore.shutdownNow();
+        logger.info("Esecutore BCrypt chiuso. {}", getStatistiche());
+    }
+}
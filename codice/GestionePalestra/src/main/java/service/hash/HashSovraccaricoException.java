@@ -0,0 +1,14 @@
+package service.hash;
+
+/**
+ * L'esecutore BCrypt non ha potuto servire la richiesta: coda piena,
+ * attesa oltre il timeout oppure thread interrotto.
+ */
+public class HashSovraccaricoException extends Exception {
+    public HashSovraccaricoException(String message) {
+        super(message);
+    }
+    public HashSovraccaricoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
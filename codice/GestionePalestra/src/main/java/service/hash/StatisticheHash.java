@@ -0,0 +1,58 @@
+package service.hash;
+
+/**
+ * Fotografia (immutabile) dello stato dell'esecutore BCrypt in un certo istante.
+ *
+ * I percentili sono calcolati sulle ultime operazioni completate
+ * (durata del solo calcolo BCrypt, senza l'attesa in coda).
+ */
+public final class StatisticheHash {
+
+    public final int costo;
+    public final int thread;
+    public final int threadAttivi;
+    public final int inCoda;
+    public final long completate;
+    public final long rifiutate;
+    public final long timeout;
+    public final double attesaMediaMs;
+    public final double p50Ms;
+    public final double p95Ms;
+    public final double p99Ms;
+    public final double maxMs;
+
+    public StatisticheHash(int costo,
+                           int thread,
+                           int threadAttivi,
+                           int inCoda,
+                           long completate,
+                           long rifiutate,
+                           long timeout,
+                           double attesaMediaMs,
+                           double p50Ms,
+                           double p95Ms,
+                           double p99Ms,
+                           double maxMs) {
+        this.costo = costo;
+        this.thread = thread;
+        this.threadAttivi = threadAttivi;
+        this.inCoda = inCoda;
+        this.completate = completate;
+        this.rifiutate = rifiutate;
+        this.timeout = timeout;
+        this.attesaMediaMs = attesaMediaMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "BCrypt[costo=%d, thread=%d, attivi=%d, inCoda=%d, completate=%d, rifiutate=%d, " +
+                "timeout=%d, attesaMedia=%.1f ms, p50=%.1f ms, p95=%.1f ms, p99=%.1f ms, max=%.1f ms]",
+                costo, thread, threadAttivi, inCoda, completate, rifiutate,
+                timeout, attesaMediaMs, p50Ms, p95Ms, p99Ms, maxMs);
+    }
+}
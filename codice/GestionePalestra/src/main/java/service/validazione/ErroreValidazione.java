@@ -0,0 +1,17 @@
+package service.validazione;
+
+public final class ErroreValidazione {
+
+    public final String campo;
+    public final String messaggio;
+
+    public ErroreValidazione(String campo, String messaggio) {
+        this.campo = campo;
+        this.messaggio = messaggio;
+    }
+
+    @Override
+    public String toString() {
+        return campo + ": " + messaggio;
+    }
+}
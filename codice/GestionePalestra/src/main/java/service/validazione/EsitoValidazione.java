@@ -0,0 +1,46 @@
+package service.validazione;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Risultato della validazione di un insieme di campi: contiene tutti gli errori
+ * trovati, nell'ordine in cui i campi sono stati dichiarati.
+ */
+public final class EsitoValidazione {
+
+    private final List<ErroreValidazione> errori;
+
+    EsitoValidazione(List<ErroreValidazione> errori) {
+        this.errori = Collections.unmodifiableList(errori);
+    }
+
+    public boolean isValido() {
+        return errori.isEmpty();
+    }
+
+    public List<ErroreValidazione> getErrori() {
+        return errori;
+    }
+
+    /** @return messaggio d'errore del campo, null se il campo è valido */
+    public String getErrore(String campo) {
+        for (ErroreValidazione e : errori) {
+            if (e.campo.equals(campo)) {
+                return e.messaggio;
+            }
+        }
+        return null;
+    }
+
+    /** Messaggi di tutti gli errori, uno per riga e senza ripetizioni (per i dialog della view). */
+    public String getMessaggio() {
+        Set<String> messaggi = new LinkedHashSet<>();
+        for (ErroreValidazione e : errori) {
+            messaggi.add(e.messaggio);
+        }
+        return String.join("\n", messaggi);
+    }
+}
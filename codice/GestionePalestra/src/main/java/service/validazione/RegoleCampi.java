@@ -0,0 +1,36 @@
+package service.validazione;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insieme di regole per campo: {@link #valida(Map)} controlla tutti i campi
+ * e riporta tutti gli errori in un solo passaggio.
+ *
+ * Va configurato una volta (tipicamente in una costante) e poi solo letto:
+ * a quel punto è condivisibile tra più thread.
+ */
+public final class RegoleCampi {
+
+    private final Map<String, Validatore> regole = new LinkedHashMap<>();
+
+    /** Aggiunge una regola al campo; più regole sullo stesso campo si concatenano. */
+    public RegoleCampi campo(String nome, Validatore regola) {
+        regole.merge(nome, regola, Validatore::poi);
+        return this;
+    }
+
+    /** @param valori valori dei campi, già normalizzati; un campo assente vale null */
+    public EsitoValidazione valida(Map<String, String> valori) {
+        List<ErroreValidazione> errori = new ArrayList<>();
+        for (Map.Entry<String, Validatore> r : regole.entrySet()) {
+            String errore = r.getValue().verifica(valori.get(r.getKey()));
+            if (errore != null) {
+                errori.add(new ErroreValidazione(r.getKey(), errore));
+            }
+        }
+        return new EsitoValidazione(errori);
+    }
+}
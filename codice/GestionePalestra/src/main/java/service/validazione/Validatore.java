@@ -0,0 +1,25 @@
+package service.validazione;
+
+/**
+ * Regola di validazione di un singolo campo.
+ * Le regole si concatenano con {@link #poi(Validatore)}: la prima che fallisce
+ * determina l'errore del campo.
+ */
+@FunctionalInterface
+public interface Validatore {
+
+    /** @return messaggio d'errore, null se il valore è valido */
+    String verifica(String valore);
+
+    default Validatore poi(Validatore successivo) {
+        return valore -> {
+            String errore = verifica(valore);
+            return errore != null ? errore : successivo.verifica(valore);
+        };
+    }
+
+    /** Applica la regola solo se il campo è stato compilato (campi facoltativi). */
+    static Validatore seCompilato(Validatore regola) {
+        return valore -> valore == null || valore.isEmpty() ? null : regola.verifica(valore);
+    }
+}
@@ -0,0 +1,180 @@
+package service.validazione;
+
+import service.IndicePaesi;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * Regole di validazione riutilizzabili. I pattern sono compilati una volta sola;
+ * IBAN e codice fiscale sono verificati carattere per carattere, cifre di controllo comprese.
+ */
+public final class Validatori {
+
+    private static final Pattern EMAIL =
+            Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    private Validatori() {
+        // utility class
+    }
+
+    // ===================== REGOLE GENERICHE =====================
+
+    public static Validatore obbligatorio(String messaggio) {
+        return valore -> valore == null || valore.isEmpty() ? messaggio : null;
+    }
+
+    public static Validatore lunghezzaMinima(int minimo, String messaggio) {
+        return valore -> valore != null && valore.length() >= minimo ? null : messaggio;
+    }
+
+    public static Validatore lunghezzaMassima(int massimo, String messaggio) {
+        return valore -> valore == null || valore.length() <= massimo ? null : messaggio;
+    }
+
+    public static Validatore corrisponde(Pattern pattern, String messaggio) {
+        return valore -> valore != null && pattern.matcher(valore).matches() ? null : messaggio;
+    }
+
+    // ===================== REGOLE DI DOMINIO =====================
+
+    public static Validatore email(String messaggio) {
+        return corrisponde(EMAIL, messaggio);
+    }
+
+    public static Validatore paese(String messaggio) {
+        return valore -> IndicePaesi.esiste(valore) ? null : messaggio;
+    }
+
+    public static Validatore codiceFiscale(String messaggioFormato, String messaggioControllo) {
+        return valore -> {
+            if (!isFormatoCodiceFiscale(valore)) {
+                return messaggioFormato;
+            }
+            return valore.charAt(15) == carattereControlloCF(valore) ? null : messaggioControllo;
+        };
+    }
+
+    public static Validatore iban(String messaggioFormato, String messaggioControllo) {
+        return valore -> {
+            if (!isFormatoIban(valore)) {
+                return messaggioFormato;
+            }
+            return resto97Iban(valore) == 1 ? null : messaggioControllo;
+        };
+    }
+
+    /** Data nel formato yyyy-MM-dd, non futura e che dia almeno {@code etaMinima} anni. */
+    public static Validatore dataNascita(int etaMinima,
+                                         String messaggioFormato,
+                                         String messaggioFutura,
+                                         String messaggioEta) {
+        return valore -> {
+            LocalDate nascita;
+            try {
+                nascita = LocalDate.parse(valore);
+            } catch (DateTimeParseException | NullPointerException e) {
+                return messaggioFormato;
+            }
+            LocalDate oggi = LocalDate.now();
+            if (nascita.isAfter(oggi)) {
+                return messaggioFutura;
+            }
+            return Period.between(nascita, oggi).getYears() >= etaMinima ? null : messaggioEta;
+        };
+    }
+
+    // ===================== CODICE FISCALE =====================
+
+    // valori dei caratteri in posizione dispari (1ª, 3ª, ...), indicizzati per cifra o lettera
+    private static final int[] DISPARI_CIFRE = {1, 0, 5, 7, 9, 13, 15, 17, 19, 21};
+    private static final int[] DISPARI_LETTERE = {
+            1, 0, 5, 7, 9, 13, 15, 17, 19, 21, 2, 4, 18, 20, 11, 3, 6, 8, 12, 14, 16, 10, 22, 25, 24, 23
+    };
+
+    private static final String MESI_CF = "ABCDEHLMPRST";
+    // cifre sostituite per omocodia
+    private static final String OMOCODIA = "LMNPQRSTUV";
+
+    /**
+     * Struttura del codice fiscale (maiuscolo): 6 lettere, anno, mese, giorno,
+     * comune (lettera + 3 cifre) e carattere di controllo; le cifre possono
+     * essere sostituite dalle lettere di omocodia.
+     */
+    public static boolean isFormatoCodiceFiscale(String cf) {
+        if (cf == null || cf.length() != 16) {
+            return false;
+        }
+        for (int i = 0; i < 16; i++) {
+            char c = cf.charAt(i);
+            boolean ok;
+            switch (i) {
+                case 6: case 7: case 9: case 10: case 12: case 13: case 14:
+                    ok = (c >= '0' && c <= '9') || OMOCODIA.indexOf(c) >= 0;
+                    break;
+                case 8:
+                    ok = MESI_CF.indexOf(c) >= 0;
+                    break;
+                default:
+                    ok = c >= 'A' && c <= 'Z';
+            }
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Carattere di controllo calcolato sui primi 15 caratteri (formato già verificato). */
+    public static char carattereControlloCF(String cf) {
+        int somma = 0;
+        for (int i = 0; i < 15; i++) {
+            char c = cf.charAt(i);
+            boolean cifra = c >= '0' && c <= '9';
+            if (i % 2 == 0) {
+                somma += cifra ? DISPARI_CIFRE[c - '0'] : DISPARI_LETTERE[c - 'A'];
+            } else {
+                somma += cifra ? c - '0' : c - 'A';
+            }
+        }
+        return (char) ('A' + somma % 26);
+    }
+
+    // ===================== IBAN =====================
+
+    /** Paese (2 lettere), cifre di controllo (2 cifre), poi 11-30 lettere maiuscole o cifre. */
+    public static boolean isFormatoIban(String iban) {
+        if (iban == null || iban.length() < 15 || iban.length() > 34) {
+            return false;
+        }
+        for (int i = 0; i < iban.length(); i++) {
+            char c = iban.charAt(i);
+            boolean lettera = c >= 'A' && c <= 'Z';
+            boolean cifra = c >= '0' && c <= '9';
+            if (i < 2 ? !lettera : i < 4 ? !cifra : !(lettera || cifra)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resto mod 97 (ISO 13616): i primi 4 caratteri vanno in coda, le lettere valgono 10-35.
+     * Calcolato a blocchi senza costruire la stringa numerica; un IBAN corretto dà 1.
+     */
+    public static int resto97Iban(String iban) {
+        int resto = 0;
+        int n = iban.length();
+        for (int k = 0; k < n; k++) {
+            char c = iban.charAt((k + 4) % n);
+            if (c >= '0' && c <= '9') {
+                resto = (resto * 10 + (c - '0')) % 97;
+            } else {
+                resto = (resto * 100 + (c - 'A' + 10)) % 97;
+            }
+        }
+        return resto;
+    }
+}
@@ -0,0 +1,107 @@
+package service.validazione;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static service.validazione.Validatori.*;
+
+/**
+ * Normalizzazione e regole dei dati di registrazione di un cliente,
+ * condivise tra la registrazione da interfaccia e l'importazione massiva.
+ */
+public final class ValidazioneRegistrazione {
+
+    public static final String USERNAME      = "username";
+    public static final String PASSWORD      = "password";
+    public static final String NOME          = "nome";
+    public static final String COGNOME       = "cognome";
+    public static final String CF            = "cf";
+    public static final String LUOGO_NASCITA = "luogoNascita";
+    public static final String DATA_NASCITA  = "dataNascita";
+    public static final String IBAN          = "iban";
+    public static final String EMAIL         = "email";
+
+    public static final int ETA_MINIMA = 14;
+
+    // lunghezze delle colonne di CLIENTE
+    public static final int MAX_USERNAME = 50;
+    public static final int MAX_TESTO    = 100;
+
+    private static final Pattern SPAZI = Pattern.compile("\\s+");
+
+    private static final String MSG_OBBLIGATORI =
+            "Compilare tutti i campi obbligatori (username, password, nome, cognome, CF, email).";
+
+    private static final RegoleCampi REGOLE = new RegoleCampi()
+            .campo(USERNAME, obbligatorio(MSG_OBBLIGATORI)
+                    .poi(lunghezzaMassima(MAX_USERNAME,
+                            "Lo username può contenere al massimo " + MAX_USERNAME + " caratteri.")))
+            .campo(PASSWORD, obbligatorio(MSG_OBBLIGATORI)
+                    .poi(lunghezzaMinima(4, "La password deve contenere almeno 4 caratteri.")))
+            .campo(NOME, obbligatorio(MSG_OBBLIGATORI)
+                    .poi(lunghezzaMassima(MAX_TESTO,
+                            "Il nome può contenere al massimo " + MAX_TESTO + " caratteri.")))
+            .campo(COGNOME, obbligatorio(MSG_OBBLIGATORI)
+                    .poi(lunghezzaMassima(MAX_TESTO,
+                            "Il cognome può contenere al massimo " + MAX_TESTO + " caratteri.")))
+            .campo(CF, obbligatorio(MSG_OBBLIGATORI)
+                    .poi(codiceFiscale(
+                            "Codice fiscale non valido. Deve contenere 16 caratteri alfanumerici.",
+                            "Codice fiscale non valido: il carattere di controllo non corrisponde.")))
+            .campo(EMAIL, obbligatorio(MSG_OBBLIGATORI)
+                    .poi(lunghezzaMassima(MAX_TESTO,
+                            "L'email può contenere al massimo " + MAX_TESTO + " caratteri."))
+                    .poi(email("Formato email non valido.")))
+            .campo(IBAN, Validatore.seCompilato(iban(
+                    "IBAN non valido. Deve essere lungo tra 15 e 34 caratteri, solo lettere e numeri.",
+                    "IBAN non valido: le cifre di controllo non corrispondono.")))
+            .campo(LUOGO_NASCITA, lunghezzaMassima(MAX_TESTO,
+                    "Il paese di nascita può contenere al massimo " + MAX_TESTO + " caratteri.")
+                    .poi(paese(
+                    "Il paese di nascita inserito non è valido. Inserire un paese reale (es. Italia, France, Spain...).")))
+            .campo(DATA_NASCITA, dataNascita(ETA_MINIMA,
+                    "Inserire la data nel formato corretto: yyyy-MM-dd",
+                    "La data di nascita non può essere nel futuro.",
+                    "Per registrarsi bisogna avere almeno " + ETA_MINIMA + " anni."));
+
+    private ValidazioneRegistrazione() {
+        // utility class
+    }
+
+    /**
+     * Normalizza i dati come vengono salvati: spazi esterni rimossi (non dalla password),
+     * CF e IBAN maiuscoli, IBAN senza spazi, email minuscola. I null diventano stringhe vuote.
+     */
+    public static Map<String, String> normalizza(String username,
+                                                 String password,
+                                                 String nome,
+                                                 String cognome,
+                                                 String cf,
+                                                 String luogoNascita,
+                                                 String dataNascita,
+                                                 String iban,
+                                                 String email) {
+        Map<String, String> dati = new HashMap<>();
+        dati.put(USERNAME, pulisci(username));
+        dati.put(PASSWORD, password == null ? "" : password);
+        dati.put(NOME, pulisci(nome));
+        dati.put(COGNOME, pulisci(cognome));
+        dati.put(CF, pulisci(cf).toUpperCase(Locale.ROOT));
+        dati.put(LUOGO_NASCITA, pulisci(luogoNascita));
+        dati.put(DATA_NASCITA, pulisci(dataNascita));
+        dati.put(IBAN, SPAZI.matcher(pulisci(iban)).replaceAll("").toUpperCase(Locale.ROOT));
+        dati.put(EMAIL, pulisci(email).toLowerCase(Locale.ROOT));
+        return dati;
+    }
+
+    /** Controlla tutti i campi (già normalizzati) e riporta tutti gli errori. */
+    public static EsitoValidazione valida(Map<String, String> dati) {
+        return REGOLE.valida(dati);
+    }
+
+    private static String pulisci(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
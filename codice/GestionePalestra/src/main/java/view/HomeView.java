@@ -1,6 +1,7 @@
 package view;
 
 import action.HomeAction;
+import action.VistaCaricamento;
 import model.Abbonamento;
 import model.Cliente;
 import view.dialog.ThemedDialog;
@@ -9,7 +10,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.net.URL;
 
-public class HomeView extends JFrame {
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class HomeView extends JFrame implements VistaCaricamento {
+
+    private static final Logger logger =
+            LogManager.getLogger(HomeView.class);
 
     private static final long serialVersionUID = 1L;
 
@@ -215,7 +222,7 @@ public class HomeView extends JFrame {
             Image scaled = img.getScaledInstance(80, 80, Image.SCALE_SMOOTH);
             return new ImageIcon(scaled);
         } catch (Exception ex) {
-            ex.printStackTrace();
+            logger.warn("Logo non caricato", ex);
             return null;
         }
     }
@@ -717,4 +724,10 @@ public class HomeView extends JFrame {
     public Cliente getCliente() {
         return cliente;
     }
+
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnVediAbbonamento, btnPrenotaCorso, btnPrenotaConsulenza,
+                btnVediConsulenza, btnVediCorsi, btnDisdiciAbbonamento, btnPanoramicaPalestra);
+    }
 }
@@ -0,0 +1,33 @@
+package view;
+
+import javax.swing.RootPaneContainer;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.event.MouseAdapter;
+
+/**
+ * Stato di caricamento condiviso dalle view: cursore di attesa sulla finestra
+ * e comandi principali disabilitati finché l'operazione non termina.
+ */
+public final class IndicatoreCaricamento {
+
+    private IndicatoreCaricamento() {
+        // utility class
+    }
+
+    public static void imposta(RootPaneContainer finestra, boolean inCorso, Component... comandi) {
+        Component glass = finestra.getGlassPane();
+        if (glass.getMouseListeners().length == 0) {
+            // con un listener il glass pane visibile assorbe i click sulla finestra
+            glass.addMouseListener(new MouseAdapter() { });
+        }
+        glass.setCursor(Cursor.getPredefinedCursor(inCorso ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+        glass.setVisible(inCorso);
+
+        for (Component c : comandi) {
+            if (c != null) {
+                c.setEnabled(!inCorso);
+            }
+        }
+    }
+}
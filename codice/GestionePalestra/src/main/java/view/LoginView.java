@@ -446,4 +446,9 @@ public class LoginView extends JFrame implements LoginViewContract {
 
         return result[0];
     }
+
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnLogin, btnRegistrati);
+    }
 }
@@ -217,4 +217,9 @@ public class PagamentoView extends JFrame implements PagamentoViewContract {
 
     @Override
     public Component asComponent() { return this; }
-}
\ No newline at end of file
+
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnPaga, btnAnnulla);
+    }
+}
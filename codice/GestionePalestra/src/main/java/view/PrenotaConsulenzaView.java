@@ -3,6 +3,7 @@ package view;
 import action.PrenotaConsulenzaAction;
 import action.PrenotaConsulenzaViewContract;
 import model.Cliente;
+import view.dialog.ThemedDialog;
 
 import javax.swing.*;
 import java.awt.*;
@@ -32,6 +33,7 @@ public class PrenotaConsulenzaView extends JFrame implements PrenotaConsulenzaVi
     private JTextField txtOra;   // HH:mm
     private JTextArea txtNote;
 
+    private JButton btnCercaSlot;
     private JButton btnConferma;
     private JButton btnAnnulla;
 
@@ -149,6 +151,16 @@ public class PrenotaConsulenzaView extends JFrame implements PrenotaConsulenzaVi
         gbc.gridy = row++;
         card.add(rigaDataOra, gbc);
 
+        btnCercaSlot = creaBottoneSoloBordo("Trova orari liberi");
+        btnCercaSlot.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(ORANGE),
+                BorderFactory.createEmptyBorder(4, 10, 4, 10)));
+
+        gbc.gridy = row++;
+        gbc.fill = GridBagConstraints.NONE;
+        card.add(btnCercaSlot, gbc);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
         JLabel lblDip = new JLabel("Dipendente:");
         lblDip.setForeground(TEXT_GRAY);
 
@@ -250,6 +262,10 @@ public class PrenotaConsulenzaView extends JFrame implements PrenotaConsulenzaVi
             }
         });
 
+        btnCercaSlot.addActionListener(e -> {
+            if (controller != null) controller.handleCercaSlotLiberi();
+        });
+
         btnConferma.addActionListener(e -> {
             if (controller != null) controller.handleConfermaPrenotazione();
         });
@@ -347,6 +363,21 @@ public class PrenotaConsulenzaView extends JFrame implements PrenotaConsulenzaVi
         txtDescrizioneDipendente.setCaretPosition(0);
     }
 
+    @Override
+    public void setDataOra(String data, String ora) {
+        txtData.setText(data);
+        txtOra.setText(ora);
+    }
+
+    @Override
+    public void selezionaDipendente(String nomeCompleto) {
+        comboDipendente.setSelectedItem(nomeCompleto);
+    }
+
+    @Override
+    public int scegliOpzione(String titolo, String messaggio, String[] opzioni) {
+        return ThemedDialog.showScelta(this, titolo, messaggio, opzioni);
+    }
 
     @Override
     public Window asWindow() {
@@ -356,4 +387,9 @@ public class PrenotaConsulenzaView extends JFrame implements PrenotaConsulenzaVi
     public Cliente getCliente() {
         return cliente;
     }
+
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnCercaSlot, btnConferma);
+    }
 }
@@ -273,8 +273,18 @@ public class PrenotaCorsoView extends JFrame implements PrenotaCorsoViewContract
         ThemedDialog.showMessage(this, titolo, messaggio, true);
     }
 
+    @Override
+    public boolean chiediConferma(String titolo, String messaggio) {
+        return ThemedDialog.showConfirm(this, titolo, messaggio);
+    }
+
     @Override
     public void close() {
         dispose();
     }
+
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnConferma);
+    }
 }
@@ -319,4 +319,9 @@ public class RegistrazioneView extends JFrame implements RegistrazioneViewContra
     public Window asWindow() {
         return this;
     }
+
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnConferma, btnAnnulla);
+    }
 }
@@ -1,9 +1,12 @@
 package view.dialog;
 
+import action.VistaCaricamento;
+import controller.EsecutoreAsincrono;
 import db.dao.ConsulenzaDAO;
 
 import db.dao.ConsulenzaDAO.ConsulenzaInfo;
 import model.Cliente;
+import view.IndicatoreCaricamento;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,7 +16,13 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
-public class DisdiciConsulenzaDialog extends JDialog {
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class DisdiciConsulenzaDialog extends JDialog implements VistaCaricamento {
+
+    private static final Logger logger =
+            LogManager.getLogger(DisdiciConsulenzaDialog.class);
 
     private static final long serialVersionUID = 1L;
 
@@ -29,6 +38,9 @@ public class DisdiciConsulenzaDialog extends JDialog {
 
     private JList<String> lista;
     private DefaultListModel<String> listModel;
+    private JButton btnDisdici;
+
+    private EsecutoreAsincrono.Operazione caricamento;
 
     public DisdiciConsulenzaDialog(JFrame parent, Cliente cliente) {
         super(parent, "Disdici consulenza", true);
@@ -109,7 +121,7 @@ public class DisdiciConsulenzaDialog extends JDialog {
         footer.setBackground(DARK_BG);
         footer.setBorder(BorderFactory.createEmptyBorder(10, 0, 15, 0));
 
-        JButton btnDisdici = creaBottoneArancione("Disdici selezionata");
+        btnDisdici = creaBottoneArancione("Disdici selezionata");
         JButton btnChiudi  = creaBottoneSoloBordo("Annulla");
 
         btnDisdici.addActionListener(e -> handleDisdici());
@@ -123,35 +135,39 @@ public class DisdiciConsulenzaDialog extends JDialog {
     }
 
     private void caricaConsulenze() {
-        try {
-            consulenzeFuture = ConsulenzaDAO.getConsulenzeFuturePerCliente(cliente.getIdCliente());
-            listModel.clear();
-
-            // se non ci sono consulenze future, chiudo e torno alla Home
-            if (consulenzeFuture.isEmpty()) {
-                chiudiERitornaAllaHome();
-                return;
-            }
+        caricamento = EsecutoreAsincrono.esegui(this,
+                () -> ConsulenzaDAO.getConsulenzeFuturePerCliente(cliente.getIdCliente()),
+                this::mostraConsulenze,
+                ex -> {
+                    logger.error("Caricamento delle consulenze future non riuscito", ex);
+                    ThemedDialog.showMessage(parent,
+                            "Errore",
+                            "Errore nel caricamento delle consulenze future.",
+                            true);
+                    chiudiERitornaAllaHome();
+                });
+    }
 
-            for (ConsulenzaInfo c : consulenzeFuture) {
-                String s = String.format(
-                        "%s %s - %s (%s) - %s",
-                        c.data,
-                        c.ora,
-                        c.nomeDip,
-                        c.ruoloDip,
-                        c.tipo
-                );
-                listModel.addElement(s);
-            }
+    private void mostraConsulenze(List<ConsulenzaInfo> consulenze) {
+        consulenzeFuture = consulenze;
+        listModel.clear();
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            ThemedDialog.showMessage(parent,
-                    "Errore",
-                    "Errore nel caricamento delle consulenze future.",
-                    true);
+        // se non ci sono consulenze future, chiudo e torno alla Home
+        if (consulenzeFuture.isEmpty()) {
             chiudiERitornaAllaHome();
+            return;
+        }
+
+        for (ConsulenzaInfo c : consulenzeFuture) {
+            String s = String.format(
+                    "%s %s - %s (%s) - %s",
+                    c.data,
+                    c.ora,
+                    c.nomeDip,
+                    c.ruoloDip,
+                    c.tipo
+            );
+            listModel.addElement(s);
         }
     }
 
@@ -197,26 +213,35 @@ public class DisdiciConsulenzaDialog extends JDialog {
             return;
         }
 
-        try {
-            ConsulenzaDAO.disdiciConsulenza(sel.id);
-            ThemedDialog.showMessage(this,
-                    "Info",
-                    "Consulenza disdetta con successo.",
-                    false);
-
-            chiudiERitornaAllaHome();
+        EsecutoreAsincrono.eseguiAzione(this,
+                () -> ConsulenzaDAO.disdiciConsulenza(sel.id),
+                () -> {
+                    ThemedDialog.showMessage(this,
+                            "Info",
+                            "Consulenza disdetta con successo.",
+                            false);
+
+                    chiudiERitornaAllaHome();
+                },
+                ex -> {
+                    logger.error("Disdetta della consulenza {} non riuscita", sel.id, ex);
+                    ThemedDialog.showMessage(this,
+                            "Errore",
+                            "Si è verificato un errore durante la disdetta della consulenza.",
+                            true);
+                });
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            ThemedDialog.showMessage(this,
-                    "Errore",
-                    "Si è verificato un errore durante la disdetta della consulenza.",
-                    true);
-        }
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnDisdici, lista);
     }
 
     /** Chiude il dialog e rende di nuovo visibile la Home. */
     private void chiudiERitornaAllaHome() {
+        if (caricamento != null) {
+            caricamento.annulla();
+        }
         if (parent != null) {
             parent.setVisible(true);
         }
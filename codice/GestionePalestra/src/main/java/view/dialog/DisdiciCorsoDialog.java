@@ -1,6 +1,9 @@
 package view.dialog;
 
+import action.VistaCaricamento;
+import controller.EsecutoreAsincrono;
 import model.Cliente;
+import view.IndicatoreCaricamento;
 
 
 
@@ -18,12 +21,18 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 /**
  * Dialog per disdire un corso futuro prenotato dal cliente.
  * Dimensioni e tema coerenti con il resto dell'app (420x650, dark + arancione),
  * ma con la stessa logica funzionante basata su CorsoDAO.getIscrizioniFuturePerCliente(...)
  */
-public class DisdiciCorsoDialog extends JDialog {
+public class DisdiciCorsoDialog extends JDialog implements VistaCaricamento {
+
+    private static final Logger logger =
+            LogManager.getLogger(DisdiciCorsoDialog.class);
 
     private static final long serialVersionUID = 1L;
 
@@ -41,6 +50,9 @@ public class DisdiciCorsoDialog extends JDialog {
 
     private JList<String>        lista;
     private DefaultListModel<String> listModel;
+    private JButton              btnDisdici;
+
+    private EsecutoreAsincrono.Operazione caricamento;
 
     public DisdiciCorsoDialog(Window parent, Cliente cliente) {
         super(parent, "Disdici corso", Dialog.ModalityType.APPLICATION_MODAL);
@@ -116,7 +128,7 @@ public class DisdiciCorsoDialog extends JDialog {
         footer.setBackground(DARK_BG);
         footer.setBorder(BorderFactory.createEmptyBorder(10, 0, 15, 0));
 
-        JButton btnDisdici = creaBottoneArancione("Disiscriviti dal corso selezionato");
+        btnDisdici = creaBottoneArancione("Disiscriviti dal corso selezionato");
         JButton btnChiudi  = creaBottoneSoloBordo("Annulla");
 
         // larghezze simili agli altri dialog
@@ -136,40 +148,44 @@ public class DisdiciCorsoDialog extends JDialog {
     //  CARICAMENTO ISCRIZIONI FUTURE (LOGICA ORIGINALE)
     // ==========================================================
     private void caricaIscrizioni() {
-        try {
-            iscrizioniFuture = IscrizioneDAO.getIscrizioniFuturePerCliente(cliente.getIdCliente());
-            listModel.clear();
-
-            if (iscrizioniFuture.isEmpty()) {
-                view.dialog.ThemedDialog.showMessage(
-                        parent,
-                        "Info",
-                        "Non hai corsi futuri da cui disiscriverti.",
-                        false
-                );
-                dispose();
-                return;
-            }
+        caricamento = EsecutoreAsincrono.esegui(this,
+                () -> IscrizioneDAO.getIscrizioniFuturePerCliente(cliente.getIdCliente()),
+                this::mostraIscrizioni,
+                ex -> {
+                    logger.error("Caricamento dei corsi futuri non riuscito", ex);
+                    view.dialog.ThemedDialog.showMessage(
+                            parent,
+                            "Errore",
+                            "Errore nel caricamento dei corsi futuri.",
+                            true
+                    );
+                    dispose();
+                });
+    }
 
-            for (IscrizioneInfo i : iscrizioniFuture) {
-                String s = String.format(
-                        "%s ore %s – %s (Istruttore: %s)",
-                        i.data, i.ora,
-                        i.nomeCorso,
-                        i.nomeIstruttore
-                );
-                listModel.addElement(s);
-            }
+    private void mostraIscrizioni(List<IscrizioneInfo> iscrizioni) {
+        iscrizioniFuture = iscrizioni;
+        listModel.clear();
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        if (iscrizioniFuture.isEmpty()) {
             view.dialog.ThemedDialog.showMessage(
                     parent,
-                    "Errore",
-                    "Errore nel caricamento dei corsi futuri.",
-                    true
+                    "Info",
+                    "Non hai corsi futuri da cui disiscriverti.",
+                    false
             );
             dispose();
+            return;
+        }
+
+        for (IscrizioneInfo i : iscrizioniFuture) {
+            String s = String.format(
+                    "%s ore %s – %s (Istruttore: %s)",
+                    i.data, i.ora,
+                    i.nomeCorso,
+                    i.nomeIstruttore
+            );
+            listModel.addElement(s);
         }
     }
 
@@ -222,25 +238,40 @@ public class DisdiciCorsoDialog extends JDialog {
             return;
         }
 
-        try {
-            IscrizioneDAO.disiscriviClienteDaLezione(cliente.getIdCliente(), sel.idLezione);
-            view.dialog.ThemedDialog.showMessage(
-                    this,
-                    "Info",
-                    "Ti sei disiscritto dal corso selezionato.",
-                    false
-            );
-            dispose();
+        EsecutoreAsincrono.eseguiAzione(this,
+                () -> IscrizioneDAO.disiscriviClienteDaLezione(cliente.getIdCliente(), sel.idLezione),
+                () -> {
+                    view.dialog.ThemedDialog.showMessage(
+                            this,
+                            "Info",
+                            "Ti sei disiscritto dal corso selezionato.",
+                            false
+                    );
+                    dispose();
+                },
+                ex -> {
+                    logger.error("Disiscrizione dalla lezione {} non riuscita", sel.idLezione, ex);
+                    view.dialog.ThemedDialog.showMessage(
+                            this,
+                            "Errore",
+                            "Si è verificato un errore durante la disiscrizione dal corso.",
+                            true
+                    );
+                });
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            view.dialog.ThemedDialog.showMessage(
-                    this,
-                    "Errore",
-                    "Si è verificato un errore durante la disiscrizione dal corso.",
-                    true
-            );
+    @Override
+    public void setInCaricamento(boolean inCorso) {
+        IndicatoreCaricamento.imposta(this, inCorso, btnDisdici, lista);
+    }
+
+    /** Alla chiusura scarto il caricamento della lista ancora in corso. */
+    @Override
+    public void dispose() {
+        if (caricamento != null) {
+            caricamento.annulla();
         }
+        super.dispose();
     }
 
     // ==========================================================
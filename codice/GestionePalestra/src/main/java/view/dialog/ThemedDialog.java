@@ -154,6 +154,88 @@ public class ThemedDialog {
         return result[0];
     }
 
+    // ===============================
+    //  SCELTA DA ELENCO
+    // ===============================
+    /** Ritorna l'indice dell'opzione scelta, oppure -1 se l'utente annulla. */
+    public static int showScelta(Window owner, String titolo, String msg, String[] opzioni) {
+        final JDialog dialog = new JDialog(
+                owner,
+                titolo,
+                Dialog.ModalityType.APPLICATION_MODAL
+        );
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setResizable(false);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBackground(DARK_BG);
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+
+        JLabel lblTitolo = new JLabel(titolo);
+        lblTitolo.setFont(new Font("SansSerif", Font.BOLD, 18));
+        lblTitolo.setForeground(ORANGE);
+
+        String htmlMsg =
+                "<html><body style='width:" + MESSAGE_WIDTH_PX + "px;"
+                        + "color:white;font-family:SansSerif;font-size:13px;'>"
+                        + msg.replace("\n", "<br>")
+                        + "</body></html>";
+        JLabel lblMsg = new JLabel(htmlMsg);
+
+        JPanel top = new JPanel();
+        top.setLayout(new BoxLayout(top, BoxLayout.Y_AXIS));
+        top.setBackground(DARK_BG);
+        lblTitolo.setAlignmentX(Component.LEFT_ALIGNMENT);
+        lblMsg.setAlignmentX(Component.LEFT_ALIGNMENT);
+        top.add(lblTitolo);
+        top.add(Box.createVerticalStrut(10));
+        top.add(lblMsg);
+
+        JList<String> lista = new JList<>(opzioni);
+        lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        lista.setBackground(new Color(30, 30, 30));
+        lista.setForeground(Color.WHITE);
+        lista.setFont(new Font("SansSerif", Font.PLAIN, 13));
+        lista.setVisibleRowCount(Math.min(Math.max(opzioni.length, 1), 10));
+        if (opzioni.length > 0) {
+            lista.setSelectedIndex(0);
+        }
+
+        JScrollPane scroll = new JScrollPane(lista);
+        scroll.setBorder(BorderFactory.createLineBorder(new Color(70, 70, 70)));
+
+        // risultato da restituire
+        final int[] result = new int[] { -1 };
+
+        JButton btnAnnulla = new JButton("Annulla");
+        styleSecondaryButton(btnAnnulla);
+        btnAnnulla.addActionListener(e -> dialog.dispose());
+
+        JButton btnScegli = new JButton("Scegli");
+        stylePrimaryButton(btnScegli);
+        btnScegli.addActionListener(e -> {
+            result[0] = lista.getSelectedIndex();
+            dialog.dispose();
+        });
+
+        JPanel bottom = new JPanel();
+        bottom.setBackground(DARK_BG);
+        bottom.add(btnAnnulla);
+        bottom.add(Box.createHorizontalStrut(10));
+        bottom.add(btnScegli);
+
+        panel.add(top, BorderLayout.NORTH);
+        panel.add(scroll, BorderLayout.CENTER);
+        panel.add(bottom, BorderLayout.SOUTH);
+
+        dialog.setContentPane(panel);
+        dialog.pack();
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+
+        return result[0];
+    }
+
     // ===============================
     //  Stile bottoni
     // ===============================
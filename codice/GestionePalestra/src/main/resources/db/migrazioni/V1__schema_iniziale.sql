@@ -0,0 +1,194 @@
+-- V1: schema iniziale della palestra.
+-- IF NOT EXISTS: un database creato prima del motore di migrazione
+-- viene adottato senza toccare le tabelle esistenti.
+
+-- ===== STRUTTURE FISICHE =====
+
+CREATE TABLE IF NOT EXISTS SPOGLIATOIO (
+    ID_SPOGLIATOIO INT AUTO_INCREMENT PRIMARY KEY,
+    NUM_ARMADIETTI INT NOT NULL,
+    NUM_DOCCE INT NOT NULL,
+    NUM_ARMADIETTI_LIBERI INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS SALA (
+    ID_SALA INT AUTO_INCREMENT PRIMARY KEY,
+    ORARI_APERTURA VARCHAR(100) NOT NULL,
+    CAPIENZA INT NOT NULL,
+    DISPONIBILITA BOOLEAN NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS SALA_PESI (
+    ID_SALA INT PRIMARY KEY,
+    METRATURA INT NOT NULL,
+    NUM_MACCHINARI INT NOT NULL,
+    NUM_PANCHE INT NOT NULL,
+    NUM_PESI_LIBERI INT NOT NULL,
+    FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)
+);
+
+CREATE TABLE IF NOT EXISTS SALA_CORSI (
+    ID_SALA INT PRIMARY KEY,
+    ORARIO_CORSO VARCHAR(100) NOT NULL,
+    FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)
+);
+
+CREATE TABLE IF NOT EXISTS SPA (
+    ID_SALA INT PRIMARY KEY,
+    NUM_SAUNE INT NOT NULL,
+    NUM_PISCINE INT NOT NULL,
+    FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)
+);
+
+-- ===== CLIENTI E ABBONAMENTI =====
+
+CREATE TABLE IF NOT EXISTS CLIENTE (
+    ID_CLIENTE INT AUTO_INCREMENT PRIMARY KEY,
+    USERNAME VARCHAR(50) NOT NULL UNIQUE,
+    EMAIL VARCHAR(100) NOT NULL UNIQUE,
+    NOME VARCHAR(100) NOT NULL,
+    COGNOME VARCHAR(100) NOT NULL,
+    CF VARCHAR(16) NOT NULL UNIQUE,
+    LUOGO_NASCITA VARCHAR(100) NOT NULL,
+    DATA_NASCITA DATE NOT NULL,
+    IBAN VARCHAR(34),
+    PASSWORD VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS PASSWORD_RESET_TOKEN (
+    ID_TOKEN INT AUTO_INCREMENT PRIMARY KEY,
+    ID_CLIENTE INT NOT NULL,
+    TOKEN VARCHAR(20) NOT NULL,
+    SCADENZA TIMESTAMP NOT NULL,
+    UTILIZZATO BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE)
+);
+
+CREATE TABLE IF NOT EXISTS ABBONAMENTO (
+    ID_ABBONAMENTO INT AUTO_INCREMENT PRIMARY KEY,
+    TIPO VARCHAR(20) NOT NULL,
+    SCADENZA DATE,
+    ID_SPOGLIATOIO INT,
+    ID_CLIENTE INT NOT NULL,
+    FASCIA_ORARIA_CONSENTITA VARCHAR(100),
+    PREZZO INT NOT NULL,
+    ATTIVO BOOLEAN DEFAULT TRUE,
+    FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE),
+    FOREIGN KEY (ID_SPOGLIATOIO) REFERENCES SPOGLIATOIO(ID_SPOGLIATOIO)
+);
+
+CREATE TABLE IF NOT EXISTS ABBONAMENTO_BASICO (
+    ID_ABBONAMENTO INT PRIMARY KEY,
+    ID_SALA_PESI INT NOT NULL,
+    LIMITE_INGRESSI_MENSILI INT NOT NULL,
+    FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO),
+    FOREIGN KEY (ID_SALA_PESI) REFERENCES SALA_PESI(ID_SALA)
+);
+
+CREATE TABLE IF NOT EXISTS ABBONAMENTO_COMPLETO (
+    ID_ABBONAMENTO INT PRIMARY KEY,
+    ID_SALA INT NOT NULL,
+    SOGLIA_SCONTO INT NOT NULL,
+    FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO),
+    FOREIGN KEY (ID_SALA) REFERENCES SALA(ID_SALA)
+);
+
+CREATE TABLE IF NOT EXISTS ABBONAMENTO_CORSI (
+    ID_ABBONAMENTO INT PRIMARY KEY,
+    ID_SALA_CORSI INT NOT NULL,
+    NUM_CORSI_INCLUSI INT NOT NULL,
+    FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO),
+    FOREIGN KEY (ID_SALA_CORSI) REFERENCES SALA_CORSI(ID_SALA)
+);
+
+CREATE TABLE IF NOT EXISTS PAGAMENTO (
+    ID_PAGAMENTO INT AUTO_INCREMENT PRIMARY KEY,
+    METODO VARCHAR(50) NOT NULL,
+    IMPORTO INT NOT NULL,
+    DATA_PAGAMENTO DATE NOT NULL,
+    ID_CLIENTE INT NOT NULL,
+    ID_ABBONAMENTO INT NOT NULL,
+    FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE),
+    FOREIGN KEY (ID_ABBONAMENTO) REFERENCES ABBONAMENTO(ID_ABBONAMENTO)
+);
+
+-- ===== DIPENDENTI E CORSI =====
+
+CREATE TABLE IF NOT EXISTS DIPENDENTE (
+    ID_DIPENDENTE INT AUTO_INCREMENT PRIMARY KEY,
+    NOME VARCHAR(100) NOT NULL,
+    COGNOME VARCHAR(100) NOT NULL,
+    RUOLO VARCHAR(30) NOT NULL,
+    ORARIO_DISP VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS CORSO (
+    ID_CORSO INT AUTO_INCREMENT PRIMARY KEY,
+    NOME VARCHAR(100) NOT NULL,
+    DESCRIZIONE VARCHAR(500) NOT NULL,
+    DURATA_MINUTI INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS LEZIONE_CORSO (
+    ID_LEZIONE INT AUTO_INCREMENT PRIMARY KEY,
+    ID_CORSO INT NOT NULL,
+    DATA_LEZIONE DATE NOT NULL,
+    ORA_LEZIONE TIME NOT NULL,
+    POSTI_TOTALI INT NOT NULL,
+    POSTI_PRENOTATI INT NOT NULL DEFAULT 0,
+    ID_ISTRUTTORE INT NOT NULL,
+    FOREIGN KEY (ID_CORSO) REFERENCES CORSO(ID_CORSO),
+    FOREIGN KEY (ID_ISTRUTTORE) REFERENCES DIPENDENTE(ID_DIPENDENTE)
+);
+
+CREATE TABLE IF NOT EXISTS ISCRIZIONE_CORSO (
+    ID_ISCRIZIONE INT AUTO_INCREMENT PRIMARY KEY,
+    ID_CLIENTE INT NOT NULL,
+    ID_LEZIONE INT NOT NULL,
+    FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE),
+    FOREIGN KEY (ID_LEZIONE) REFERENCES LEZIONE_CORSO(ID_LEZIONE)
+);
+
+-- ===== CONSULENZE E MACCHINARI =====
+
+CREATE TABLE IF NOT EXISTS CONSULENZA (
+    ID_CONSULENZA INT AUTO_INCREMENT PRIMARY KEY,
+    ID_CLIENTE INT NOT NULL,
+    ID_DIPENDENTE INT NOT NULL,
+    TIPO VARCHAR(30) NOT NULL,
+    DATA_CONSULENZA DATE NOT NULL,
+    ORA_CONSULENZA TIME NOT NULL,
+    NOTE VARCHAR(255),
+    FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE),
+    FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)
+);
+
+CREATE TABLE IF NOT EXISTS PERSONAL_TRAINER (
+    ID_DIPENDENTE INT PRIMARY KEY,
+    PARTITA_IVA VARCHAR(20),
+    ANNI_ESPERIENZA INT,
+    CERTIFICATI VARCHAR(255),
+    FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)
+);
+
+CREATE TABLE IF NOT EXISTS ISTRUTTORE_CORSO (
+    ID_DIPENDENTE INT PRIMARY KEY,
+    TIPO_CORSO_INSEGNATO VARCHAR(100) NOT NULL,
+    FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)
+);
+
+CREATE TABLE IF NOT EXISTS NUTRIZIONISTA (
+    ID_DIPENDENTE INT PRIMARY KEY,
+    PARCELLA VARCHAR(50),
+    FOREIGN KEY (ID_DIPENDENTE) REFERENCES DIPENDENTE(ID_DIPENDENTE)
+);
+
+CREATE TABLE IF NOT EXISTS MACCHINARIO (
+    ID_MACCHINARIO INT AUTO_INCREMENT PRIMARY KEY,
+    NOME VARCHAR(100) NOT NULL,
+    MARCA VARCHAR(100),
+    CAPACITA_CARICO INT,
+    OCCUPATO BOOLEAN NOT NULL,
+    ID_SALA_PESI INT,
+    FOREIGN KEY (ID_SALA_PESI) REFERENCES SALA_PESI(ID_SALA)
+);
@@ -0,0 +1,36 @@
+-- V2: indici secondari sulle colonne usate dalle query "calde"
+-- e vincolo di unicità (cliente, lezione) su ISCRIZIONE_CORSO.
+
+-- Prima di creare il vincolo UNIQUE elimino eventuali iscrizioni doppie
+-- (tengo la prima) e riallineo il contatore dei posti prenotati.
+DELETE FROM ISCRIZIONE_CORSO I
+WHERE I.ID_ISCRIZIONE > (
+    SELECT MIN(I2.ID_ISCRIZIONE) FROM ISCRIZIONE_CORSO I2
+    WHERE I2.ID_CLIENTE = I.ID_CLIENTE AND I2.ID_LEZIONE = I.ID_LEZIONE
+);
+
+UPDATE LEZIONE_CORSO L SET POSTI_PRENOTATI = (
+    SELECT COUNT(*) FROM ISCRIZIONE_CORSO I WHERE I.ID_LEZIONE = L.ID_LEZIONE
+);
+
+-- iscrizioni: conflitti / elenco per cliente e vincolo anti-doppia prenotazione
+ALTER TABLE ISCRIZIONE_CORSO ADD CONSTRAINT IF NOT EXISTS UQ_ISCRIZIONE_CLIENTE_LEZIONE
+    UNIQUE (ID_CLIENTE, ID_LEZIONE);
+CREATE INDEX IF NOT EXISTS IDX_ISCRIZIONE_LEZIONE ON ISCRIZIONE_CORSO (ID_LEZIONE);
+
+-- lezioni: elenco per corso ordinato per data/ora
+CREATE INDEX IF NOT EXISTS IDX_LEZIONE_CORSO_DATA ON LEZIONE_CORSO (ID_CORSO, DATA_LEZIONE, ORA_LEZIONE);
+
+-- consulenze: conflitto per giorno, elenco per cliente, agenda del dipendente
+CREATE INDEX IF NOT EXISTS IDX_CONSULENZA_DATA ON CONSULENZA (DATA_CONSULENZA, ID_CLIENTE, ID_DIPENDENTE);
+CREATE INDEX IF NOT EXISTS IDX_CONSULENZA_CLIENTE_DATA ON CONSULENZA (ID_CLIENTE, DATA_CONSULENZA, ORA_CONSULENZA);
+CREATE INDEX IF NOT EXISTS IDX_CONSULENZA_DIPENDENTE_DATA ON CONSULENZA (ID_DIPENDENTE, DATA_CONSULENZA, ORA_CONSULENZA);
+
+-- reset password: ricerca per codice
+CREATE INDEX IF NOT EXISTS IDX_RESET_TOKEN ON PASSWORD_RESET_TOKEN (TOKEN);
+
+-- abbonamento del cliente (login, home, disdetta)
+CREATE INDEX IF NOT EXISTS IDX_ABBONAMENTO_CLIENTE ON ABBONAMENTO (ID_CLIENTE, ATTIVO);
+
+-- combo dei professionisti per ruolo
+CREATE INDEX IF NOT EXISTS IDX_DIPENDENTE_RUOLO ON DIPENDENTE (RUOLO, COGNOME, NOME);
@@ -0,0 +1,15 @@
+-- V4: lista d'attesa FIFO per le lezioni al completo.
+-- L'ordine di arrivo è dato da ID_ATTESA (auto-incrementale).
+
+CREATE TABLE IF NOT EXISTS LISTA_ATTESA (
+    ID_ATTESA INT AUTO_INCREMENT PRIMARY KEY,
+    ID_LEZIONE INT NOT NULL,
+    ID_CLIENTE INT NOT NULL,
+    INSERITO_IL TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT UQ_ATTESA_CLIENTE_LEZIONE UNIQUE (ID_CLIENTE, ID_LEZIONE),
+    FOREIGN KEY (ID_LEZIONE) REFERENCES LEZIONE_CORSO(ID_LEZIONE),
+    FOREIGN KEY (ID_CLIENTE) REFERENCES CLIENTE(ID_CLIENTE)
+);
+
+-- prossimo in coda per lezione
+CREATE INDEX IF NOT EXISTS IDX_ATTESA_LEZIONE ON LISTA_ATTESA (ID_LEZIONE, ID_ATTESA);
@@ -0,0 +1,59 @@
+-- V5: modello di ricorrenza delle lezioni.
+-- Ogni riga di LEZIONE_TEMPLATE descrive una lezione settimanale
+-- (giorno ISO 1=lunedì ... 7=domenica, ora, istruttore, posti);
+-- le righe di LEZIONE_CORSO ne sono le occorrenze concrete.
+
+CREATE TABLE IF NOT EXISTS LEZIONE_TEMPLATE (
+    ID_TEMPLATE INT AUTO_INCREMENT PRIMARY KEY,
+    ID_CORSO INT NOT NULL,
+    GIORNO_SETTIMANA INT NOT NULL,
+    ORA_LEZIONE TIME NOT NULL,
+    POSTI_TOTALI INT NOT NULL,
+    ID_ISTRUTTORE INT NOT NULL,
+    ATTIVO BOOLEAN DEFAULT TRUE NOT NULL,
+    CONSTRAINT CK_TEMPLATE_GIORNO CHECK (GIORNO_SETTIMANA BETWEEN 1 AND 7),
+    CONSTRAINT UQ_TEMPLATE_CORSO_GIORNO_ORA UNIQUE (ID_CORSO, GIORNO_SETTIMANA, ORA_LEZIONE),
+    FOREIGN KEY (ID_CORSO) REFERENCES CORSO(ID_CORSO),
+    FOREIGN KEY (ID_ISTRUTTORE) REFERENCES DIPENDENTE(ID_DIPENDENTE)
+);
+
+ALTER TABLE LEZIONE_CORSO ADD COLUMN IF NOT EXISTS ID_TEMPLATE INT;
+ALTER TABLE LEZIONE_CORSO ADD CONSTRAINT IF NOT EXISTS FK_LEZIONE_TEMPLATE
+    FOREIGN KEY (ID_TEMPLATE) REFERENCES LEZIONE_TEMPLATE(ID_TEMPLATE);
+
+-- Le serie già presenti (corso, giorno, ora) diventano template:
+-- istruttore e posti sono presi dall'ultima occorrenza.
+-- (rieseguibile: su un DB senza SCHEMA_VERSION il motore riapplica tutto)
+INSERT INTO LEZIONE_TEMPLATE (ID_CORSO, GIORNO_SETTIMANA, ORA_LEZIONE, POSTI_TOTALI, ID_ISTRUTTORE)
+SELECT S.ID_CORSO, S.GIORNO, S.ORA_LEZIONE, S.POSTI_TOTALI, S.ID_ISTRUTTORE
+FROM (
+    SELECT L.ID_CORSO, ISO_DAY_OF_WEEK(L.DATA_LEZIONE) AS GIORNO, L.ORA_LEZIONE,
+           L.POSTI_TOTALI, L.ID_ISTRUTTORE,
+           ROW_NUMBER() OVER (PARTITION BY L.ID_CORSO, ISO_DAY_OF_WEEK(L.DATA_LEZIONE), L.ORA_LEZIONE
+                              ORDER BY L.DATA_LEZIONE DESC, L.ID_LEZIONE DESC) AS RN
+    FROM LEZIONE_CORSO L
+) S
+WHERE S.RN = 1
+  AND NOT EXISTS (SELECT 1 FROM LEZIONE_TEMPLATE T
+                  WHERE T.ID_CORSO = S.ID_CORSO
+                    AND T.GIORNO_SETTIMANA = S.GIORNO
+                    AND T.ORA_LEZIONE = S.ORA_LEZIONE);
+
+-- collego le occorrenze esistenti (una sola per data, se ci fossero doppioni)
+UPDATE LEZIONE_CORSO L SET ID_TEMPLATE = (
+    SELECT T.ID_TEMPLATE FROM LEZIONE_TEMPLATE T
+    WHERE T.ID_CORSO = L.ID_CORSO
+      AND T.GIORNO_SETTIMANA = ISO_DAY_OF_WEEK(L.DATA_LEZIONE)
+      AND T.ORA_LEZIONE = L.ORA_LEZIONE
+)
+WHERE L.ID_TEMPLATE IS NULL
+  AND L.ID_LEZIONE = (
+    SELECT MIN(L2.ID_LEZIONE) FROM LEZIONE_CORSO L2
+    WHERE L2.ID_CORSO = L.ID_CORSO
+      AND L2.DATA_LEZIONE = L.DATA_LEZIONE
+      AND L2.ORA_LEZIONE = L.ORA_LEZIONE
+);
+
+-- un'occorrenza per template e giorno: rende idempotente la generazione
+ALTER TABLE LEZIONE_CORSO ADD CONSTRAINT IF NOT EXISTS UQ_LEZIONE_TEMPLATE_DATA
+    UNIQUE (ID_TEMPLATE, DATA_LEZIONE);
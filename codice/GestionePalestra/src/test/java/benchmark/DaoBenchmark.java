@@ -0,0 +1,73 @@
+package benchmark;
+
+import db.dao.ConsulenzaDAO;
+import db.dao.DipendenteDAO;
+import db.dao.corso.IscrizioneDAO;
+import db.dao.corso.LezioneDAO;
+import model.corsi.EsitoIscrizione;
+import model.corsi.LezioneInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static benchmark.StatoPalestra.scegli;
+
+/**
+ * Percorsi caldi dei DAO usati dalle schermate di prenotazione.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    /** Iscrizione seguita dalla disdetta, così il DB resta nello stato di partenza. */
+    @Benchmark
+    public EsitoIscrizione iscrizioneEDisdetta(StatoPalestra s) throws Exception {
+        int idCliente = scegli(s.clienti);
+        int idLezione = scegli(s.lezioniFuture);
+        EsitoIscrizione esito = IscrizioneDAO.iscriviClienteALezione(idCliente, idLezione);
+        if (esito == EsitoIscrizione.OK) {
+            IscrizioneDAO.disiscriviClienteDaLezione(idCliente, idLezione);
+        }
+        return esito;
+    }
+
+    @Benchmark
+    public boolean conflittoConsulenza(StatoPalestra s) throws Exception {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        int i = r.nextInt(s.consulenti.length);
+        return ConsulenzaDAO.esisteConflitto(
+                scegli(s.clienti),
+                s.consulenti[i],
+                s.tipiConsulenti[i],
+                LocalDate.now().plusDays(1 + r.nextInt(28)),
+                LocalTime.of(8 + r.nextInt(12), r.nextBoolean() ? 0 : 30));
+    }
+
+    @Benchmark
+    public boolean disponibilitaDipendente(StatoPalestra s) throws Exception {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        return DipendenteDAO.isDisponibile(
+                scegli(s.consulenti),
+                LocalDate.now().plusDays(r.nextInt(28)),
+                LocalTime.of(8 + r.nextInt(12), 0),
+                60);
+    }
+
+    @Benchmark
+    public List<LezioneInfo> lezioniPerCorso(StatoPalestra s) throws Exception {
+        return LezioneDAO.getLezioniPerCorso(scegli(s.corsi));
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import db.dao.corso.LezioneTemplateDAO;
+import db.generatore.ConfigurazioneGeneratore;
+import db.generatore.GeneratoreDati;
+import service.hash.EsecutoreHash;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Popola il DB dei benchmark (palestra.db.url) con il generatore di dati sintetici;
+ * volumi e seme si regolano con le property "palestra.gen.*".
+ *
+ * La generazione avviene una volta sola: se i clienti generati sono già
+ * presenti il DB viene riusato così com'è.
+ */
+public final class DatiBenchmark {
+
+    static final ConfigurazioneGeneratore CONFIG = ConfigurazioneGeneratore.daProprietaDiSistema();
+    public static final String PASSWORD = CONFIG.password;
+
+    private static final int GIORNI = 28;
+
+    private DatiBenchmark() {
+    }
+
+    public static synchronized void prepara() throws Exception {
+        InizializzazioneDB.init();
+        LezioneTemplateDAO.materializzaOrizzonte(LocalDate.now(), GIORNI);
+
+        // stesso costo BCrypt dei login misurati
+        GeneratoreDati generatore =
+                new GeneratoreDati(CONFIG, EsecutoreHash.getIstanza().getCosto(), LocalDate.now());
+        try (Connection conn = GestioneDB.getConnection()) {
+            if (!generatore.esistonoDati(conn)) {
+                generatore.genera(conn);
+            }
+        }
+    }
+
+    /** Username dell'n-esimo cliente generato (da 1). */
+    static String username(int n) {
+        return CONFIG.prefisso + "_" + n;
+    }
+
+    static List<Integer> idClienti(Connection conn) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT ID_CLIENTE FROM CLIENTE WHERE USERNAME LIKE ? ORDER BY ID_CLIENTE")) {
+            ps.setString(1, CONFIG.prefisso + "\\_%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.IndicePaesi;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controllo sul paese di nascita: scansione di tutti i Locale
+ * (implementazione precedente) contro l'indice precalcolato.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndicePaesiBenchmark {
+
+    @Param({"Italia", "germania", "C\u00f4te d'Ivoire", "Atlantide"})
+    public String paese;
+
+    @Benchmark
+    public boolean scansioneLocale() {
+        String normalized = paese.trim().toLowerCase();
+        for (String iso : Locale.getISOCountries()) {
+            Locale l = new Locale("", iso);
+            String it = l.getDisplayCountry(Locale.ITALIAN).toLowerCase();
+            String en = l.getDisplayCountry(Locale.ENGLISH).toLowerCase();
+            if (normalized.equals(it) || normalized.equals(en)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean indice() {
+        return IndicePaesi.esiste(paese);
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import model.Abbonamento;
+import model.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.LoginService;
+import service.PanoramicaPalestraService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login (dominato da BCrypt al costo configurato) e panoramica della palestra.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private final LoginService loginService = new LoginService();
+    private final PanoramicaPalestraService panoramicaService = new PanoramicaPalestraService();
+
+    /** Cliente con il tipo di abbonamento in prova (solo per la panoramica). */
+    @State(Scope.Benchmark)
+    public static class Abbonato {
+
+        @Param({"BASE", "COMPLETO", "CORSI"})
+        public String tipoAbbonamento;
+
+        Cliente cliente;
+
+        @Setup
+        public void prepara() {
+            cliente = new Cliente();
+            cliente.setAbbonamento(Abbonamento.creaDaTipo(tipoAbbonamento, 0));
+        }
+    }
+
+    @Benchmark
+    public Cliente autentica(StatoPalestra s) throws Exception {
+        // clienti generati come <prefisso>_1 ... <prefisso>_N
+        int n = 1 + ThreadLocalRandom.current().nextInt(s.clienti.length);
+        return loginService.autentica(DatiBenchmark.username(n), DatiBenchmark.PASSWORD);
+    }
+
+    @Benchmark
+    public String panoramica(StatoPalestra s, Abbonato a) throws Exception {
+        return panoramicaService.generaPanoramica(a.cliente);
+    }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import db.GestioneDB;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DB dei benchmark generato (una volta) e identificativi da cui estrarre
+ * gli argomenti delle operazioni misurate.
+ */
+@State(Scope.Benchmark)
+public class StatoPalestra {
+
+    int[] clienti;
+    int[] lezioniFuture;
+    int[] corsi;
+    int[] consulenti;
+    String[] tipiConsulenti;
+
+    @Setup(Level.Trial)
+    public void prepara() throws Exception {
+        DatiBenchmark.prepara();
+
+        try (Connection conn = GestioneDB.getConnection()) {
+            clienti = toArray(DatiBenchmark.idClienti(conn));
+            lezioniFuture = toArray(interi(conn,
+                    "SELECT ID_LEZIONE FROM LEZIONE_CORSO WHERE DATA_LEZIONE > ?", LocalDate.now()));
+            corsi = toArray(interi(conn, "SELECT ID_CORSO FROM CORSO", null));
+
+            List<Integer> ids = new ArrayList<>();
+            List<String> tipi = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT ID_DIPENDENTE, RUOLO FROM DIPENDENTE WHERE RUOLO IN ('PERSONAL_TRAINER', 'NUTRIZIONISTA')");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                    tipi.add(rs.getString(2));
+                }
+            }
+            consulenti = toArray(ids);
+            tipiConsulenti = tipi.toArray(new String[0]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void chiudi() {
+        GestioneDB.chiudiPool();
+    }
+
+    static int scegli(int[] valori) {
+        return valori[ThreadLocalRandom.current().nextInt(valori.length)];
+    }
+
+    private static List<Integer> interi(Connection conn, String sql, LocalDate parametro) throws Exception {
+        List<Integer> result = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (parametro != null) {
+                ps.setDate(1, Date.valueOf(parametro));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(rs.getInt(1));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] toArray(List<Integer> valori) {
+        int[] a = new int[valori.size()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = valori.get(i);
+        }
+        return a;
+    }
+}
@@ -0,0 +1,500 @@
+package carico;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import db.dao.corso.IscrizioneDAO;
+import model.corsi.EsitoIscrizione;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Prova di carico su iscrizioni e disdette concorrenti alle stesse lezioni,
+ * come fanno più postazioni collegate allo stesso DB.
+ *
+ * Ogni thread sceglie a caso cliente e lezione e prova a iscriverlo; se è già
+ * iscritto lo disiscrive. Alla fine (e periodicamente durante la prova)
+ * controlla per ogni lezione:
+ * - POSTI_PRENOTATI = righe di ISCRIZIONE_CORSO
+ * - POSTI_PRENOTATI non oltre POSTI_TOTALI (overbooking)
+ * - a fine prova: righe = iscrizioni riuscite - disdette riuscite
+ * e segnala ogni esito CONFLITTO_ORARIO (le lezioni sono in giorni diversi).
+ *
+ *   mvn -P carico verify -Dcarico.jvmArgs="-Dpalestra.carico.thread=32 -Dpalestra.carico.durataMs=60000"
+ *
+ * Esce con codice 0 se gli invarianti sono rispettati e non ci sono deadlock, 1 altrimenti.
+ */
+public class CaricoPrenotazioni {
+
+    private static final Logger logger = LogManager.getLogger(CaricoPrenotazioni.class);
+
+    /** Corso dedicato: le sue lezioni vengono ricreate a ogni prova. */
+    static final String NOME_CORSO = "Carico prenotazioni";
+    static final String PREFISSO_CLIENTI = "carico_";
+
+    private static final int MAX_VIOLAZIONI = 100;
+
+    // SQLState di H2
+    private static final String STATO_LOCK_TIMEOUT = "HYT00";
+    private static final String STATO_DEADLOCK = "40001";
+
+    private static final String SQL_CONTROLLO_LEZIONI =
+            "SELECT L.ID_LEZIONE, L.POSTI_TOTALI, L.POSTI_PRENOTATI, " +
+            "       (SELECT COUNT(*) FROM ISCRIZIONE_CORSO I WHERE I.ID_LEZIONE = L.ID_LEZIONE) AS ISCRITTI " +
+            "FROM LEZIONE_CORSO L WHERE L.ID_CORSO = ? ORDER BY L.ID_LEZIONE";
+
+    private final ConfigurazioneCarico config;
+
+    private int idCorso;
+    private int[] clienti;
+    private int[] lezioni;
+
+    private final List<String> violazioni = Collections.synchronizedList(new ArrayList<>());
+
+    public CaricoPrenotazioni(ConfigurazioneCarico config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) {
+        ConfigurazioneCarico config = ConfigurazioneCarico.daProprietaDiSistema();
+        int codice;
+        try {
+            InizializzazioneDB.init();
+            CaricoPrenotazioni carico = new CaricoPrenotazioni(config);
+            carico.prepara();
+            RisultatoCarico risultato = carico.esegui();
+            System.out.println(risultato);
+            codice = risultato.isCorretto() ? 0 : 1;
+        } catch (Exception e) {
+            logger.error("Prova di carico non riuscita", e);
+            System.err.println("Prova di carico non riuscita: " + e.getMessage());
+            codice = 1;
+        } finally {
+            GestioneDB.chiudiPool();
+            LogManager.shutdown();   // svuota il ring buffer dei logger asincroni
+        }
+        System.exit(codice);
+    }
+
+    // ==========================================================
+    //  PREPARAZIONE
+    // ==========================================================
+
+    /**
+     * Crea i clienti mancanti e ricrea le lezioni del corso dedicato
+     * (una per giorno, lontane nel futuro: tra loro non ci sono conflitti di orario).
+     */
+    public void prepara() throws SQLException {
+        try (Connection conn = GestioneDB.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                clienti = preparaClienti(conn);
+                idCorso = preparaCorso(conn);
+                lezioni = preparaLezioni(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private int[] preparaClienti(Connection conn) throws SQLException {
+        // la password non serve: la prova non passa dal login
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO CLIENTE (USERNAME, EMAIL, NOME, COGNOME, CF, LUOGO_NASCITA, DATA_NASCITA, PASSWORD) " +
+                "SELECT ?, ?, 'Carico', 'Prenotazioni', ?, 'Italia', DATE '1990-01-01', '-' " +
+                "WHERE NOT EXISTS (SELECT 1 FROM CLIENTE WHERE USERNAME = ?)")) {
+            for (int i = 1; i <= config.clienti; i++) {
+                String username = PREFISSO_CLIENTI + i;
+                ps.setString(1, username);
+                ps.setString(2, username + "@palestra.test");
+                ps.setString(3, String.format("CARICO%010d", i));
+                ps.setString(4, username);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT ID_CLIENTE FROM CLIENTE WHERE USERNAME LIKE ? ORDER BY ID_CLIENTE")) {
+            ps.setString(1, PREFISSO_CLIENTI.replace("_", "\\_") + "%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next() && ids.size() < config.clienti) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return toArray(ids);
+    }
+
+    private static int preparaCorso(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT ID_CORSO FROM CORSO WHERE NOME = ?")) {
+            ps.setString(1, NOME_CORSO);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    eliminaLezioni(conn, id);
+                    return id;
+                }
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO CORSO (NOME, DESCRIZIONE, DURATA_MINUTI) VALUES (?, 'Lezioni della prova di carico', 60)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, NOME_CORSO);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /** Le lezioni della prova precedente restano a DB per l'analisi fino alla prova successiva. */
+    private static void eliminaLezioni(Connection conn, int idCorso) throws SQLException {
+        String lezioniCorso = "SELECT ID_LEZIONE FROM LEZIONE_CORSO WHERE ID_CORSO = ?";
+        for (String sql : Arrays.asList(
+                "DELETE FROM LISTA_ATTESA WHERE ID_LEZIONE IN (" + lezioniCorso + ")",
+                "DELETE FROM ISCRIZIONE_CORSO WHERE ID_LEZIONE IN (" + lezioniCorso + ")",
+                "DELETE FROM LEZIONE_CORSO WHERE ID_CORSO = ?")) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, idCorso);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private int[] preparaLezioni(Connection conn) throws SQLException {
+        int idIstruttore;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT MIN(ID_DIPENDENTE) FROM DIPENDENTE WHERE RUOLO = 'ISTRUTTORE_CORSO'")) {
+            rs.next();
+            idIstruttore = rs.getInt(1);
+            if (rs.wasNull()) {
+                throw new SQLException("Nessun istruttore a DB: impossibile creare le lezioni della prova.");
+            }
+        }
+
+        int[] ids = new int[config.lezioni];
+        LocalDate primoGiorno = LocalDate.now().plusYears(1);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO LEZIONE_CORSO (ID_CORSO, DATA_LEZIONE, ORA_LEZIONE, POSTI_TOTALI, POSTI_PRENOTATI, ID_ISTRUTTORE) " +
+                "VALUES (?, ?, ?, ?, 0, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int j = 0; j < ids.length; j++) {
+                ps.setInt (1, idCorso);
+                ps.setDate(2, Date.valueOf(primoGiorno.plusDays(j)));
+                ps.setTime(3, Time.valueOf(LocalTime.of(10, 0)));
+                ps.setInt (4, config.postiPerLezione);
+                ps.setInt (5, idIstruttore);
+                ps.executeUpdate();
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    rs.next();
+                    ids[j] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    // ==========================================================
+    //  ESECUZIONE
+    // ==========================================================
+
+    /** Esegue la prova sulle lezioni preparate con {@link #prepara()}. */
+    public RisultatoCarico esegui() throws Exception {
+        if (lezioni == null) {
+            throw new IllegalStateException("Chiamare prepara() prima di esegui()");
+        }
+        violazioni.clear();
+        AtomicLongArray netto = iscrittiAttuali();
+
+        ExecutorService pool = Executors.newFixedThreadPool(config.thread, r -> {
+            Thread t = new Thread(r, "palestra-carico");
+            t.setDaemon(true);
+            return t;
+        });
+        ScheduledExecutorService controllo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "palestra-carico-controllo");
+            t.setDaemon(true);
+            return t;
+        });
+
+        CountDownLatch via = new CountDownLatch(1);
+        List<Future<Operatore>> risultati = new ArrayList<>();
+        long inizio;
+        try {
+            for (int i = 0; i < config.thread; i++) {
+                risultati.add(pool.submit(() -> {
+                    Operatore op = new Operatore(netto);
+                    via.await();
+                    op.lavora(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.durataMs));
+                    return op;
+                }));
+            }
+            if (config.intervalloControlloMs > 0) {
+                controllo.scheduleWithFixedDelay(() -> controllaInvarianti(null),
+                        config.intervalloControlloMs, config.intervalloControlloMs, TimeUnit.MILLISECONDS);
+            }
+
+            inizio = System.nanoTime();
+            via.countDown();
+
+            List<Operatore> operatori = new ArrayList<>();
+            for (Future<Operatore> f : risultati) {
+                operatori.add(f.get());
+            }
+            long durataMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inizio);
+
+            controllo.shutdown();
+            controllo.awaitTermination(10, TimeUnit.SECONDS);
+            controllaInvarianti(netto);
+
+            return riepiloga(operatori, durataMs);
+
+        } finally {
+            pool.shutdownNow();
+            controllo.shutdownNow();
+        }
+    }
+
+    /** Lavoro di un thread: contatori e latenze propri, uniti alla fine. */
+    private final class Operatore {
+        private final AtomicLongArray netto;
+
+        final Map<EsitoIscrizione, Long> iscrizioni = new EnumMap<>(EsitoIscrizione.class);
+        long disdette;
+        long disdetteGiaEseguite;
+        long lockTimeout;
+        long deadlock;
+        final Map<String, Long> altriErrori = new TreeMap<>();
+
+        long[] latenzeNs = new long[1024];
+        int operazioni;
+
+        Operatore(AtomicLongArray netto) {
+            this.netto = netto;
+        }
+
+        void lavora(long scadenzaNs) {
+            ThreadLocalRandom r = ThreadLocalRandom.current();
+            while (System.nanoTime() < scadenzaNs
+                    && (config.operazioniPerThread == 0 || operazioni < config.operazioniPerThread)) {
+                int j = r.nextInt(lezioni.length);
+                int idCliente = clienti[r.nextInt(clienti.length)];
+
+                EsitoIscrizione esito = iscrivi(idCliente, j);
+                if (esito == EsitoIscrizione.GIA_ISCRITTO) {
+                    disiscrivi(idCliente, j);
+                }
+            }
+        }
+
+        private EsitoIscrizione iscrivi(int idCliente, int j) {
+            long t0 = System.nanoTime();
+            try {
+                EsitoIscrizione esito = IscrizioneDAO.iscriviClienteALezione(idCliente, lezioni[j]);
+                iscrizioni.merge(esito, 1L, Long::sum);
+                if (esito == EsitoIscrizione.OK) {
+                    netto.incrementAndGet(j);
+                } else if (esito == EsitoIscrizione.CONFLITTO_ORARIO) {
+                    // una lezione al giorno: un conflitto di orario sarebbe una diagnosi sbagliata
+                    violazione("lezione " + lezioni[j] + ": CONFLITTO_ORARIO per il cliente " + idCliente);
+                }
+                return esito;
+            } catch (Exception e) {
+                classifica(e);
+                return null;
+            } finally {
+                registra(System.nanoTime() - t0);
+            }
+        }
+
+        private void disiscrivi(int idCliente, int j) {
+            long t0 = System.nanoTime();
+            try {
+                IscrizioneDAO.disiscriviClienteDaLezione(idCliente, lezioni[j]);
+                netto.decrementAndGet(j);
+                disdette++;
+            } catch (Exception e) {
+                // messaggio del DAO quando la DELETE non trova la riga:
+                // un altro thread ha disiscritto lo stesso cliente per primo
+                if (!(e instanceof SQLException) && e.getMessage() != null
+                        && e.getMessage().startsWith("Nessuna iscrizione")) {
+                    disdetteGiaEseguite++;
+                } else {
+                    classifica(e);
+                }
+            } finally {
+                registra(System.nanoTime() - t0);
+            }
+        }
+
+        private void classifica(Exception e) {
+            String stato = statoSql(e);
+            if (STATO_LOCK_TIMEOUT.equals(stato)) {
+                lockTimeout++;
+            } else if (STATO_DEADLOCK.equals(stato)) {
+                deadlock++;
+            } else {
+                altriErrori.merge(e.getClass().getSimpleName() + ": " + e.getMessage(), 1L, Long::sum);
+            }
+        }
+
+        private void registra(long ns) {
+            if (operazioni == latenzeNs.length) {
+                latenzeNs = Arrays.copyOf(latenzeNs, operazioni * 2);
+            }
+            latenzeNs[operazioni++] = ns;
+        }
+    }
+
+    private static String statoSql(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException && ((SQLException) t).getSQLState() != null) {
+                return ((SQLException) t).getSQLState();
+            }
+        }
+        return null;
+    }
+
+    // ==========================================================
+    //  INVARIANTI E RIEPILOGO
+    // ==========================================================
+
+    /**
+     * @param netto iscrizioni meno disdette riuscite per lezione; null durante la prova,
+     *              quando le operazioni in corso non sono ancora contate
+     */
+    private void controllaInvarianti(AtomicLongArray netto) {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_CONTROLLO_LEZIONI)) {
+            ps.setInt(1, idCorso);
+            try (ResultSet rs = ps.executeQuery()) {
+                int j = 0;
+                while (rs.next()) {
+                    int id = rs.getInt("ID_LEZIONE");
+                    int totali = rs.getInt("POSTI_TOTALI");
+                    int prenotati = rs.getInt("POSTI_PRENOTATI");
+                    int iscritti = rs.getInt("ISCRITTI");
+
+                    if (prenotati != iscritti) {
+                        violazione("lezione " + id + ": POSTI_PRENOTATI=" + prenotati + " ma iscritti=" + iscritti);
+                    }
+                    if (prenotati > totali) {
+                        violazione("lezione " + id + ": overbooking, " + prenotati + " posti prenotati su " + totali);
+                    }
+                    if (netto != null && netto.get(j) != iscritti) {
+                        violazione("lezione " + id + ": iscritti=" + iscritti
+                                + " ma iscrizioni - disdette riuscite = " + netto.get(j));
+                    }
+                    j++;
+                }
+            }
+        } catch (SQLException e) {
+            violazione("controllo degli invarianti non riuscito: " + e.getMessage());
+        }
+    }
+
+    /** Punto di partenza del conteggio iscrizioni - disdette (zero dopo prepara()). */
+    private AtomicLongArray iscrittiAttuali() throws SQLException {
+        AtomicLongArray iscritti = new AtomicLongArray(lezioni.length);
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SQL_CONTROLLO_LEZIONI)) {
+            ps.setInt(1, idCorso);
+            try (ResultSet rs = ps.executeQuery()) {
+                for (int j = 0; rs.next(); j++) {
+                    iscritti.set(j, rs.getInt("ISCRITTI"));
+                }
+            }
+        }
+        return iscritti;
+    }
+
+    private void violazione(String descrizione) {
+        synchronized (violazioni) {
+            if (violazioni.size() < MAX_VIOLAZIONI) {
+                violazioni.add(descrizione);
+            }
+        }
+    }
+
+    private RisultatoCarico riepiloga(List<Operatore> operatori, long durataMs) {
+        Map<EsitoIscrizione, Long> iscrizioni = new EnumMap<>(EsitoIscrizione.class);
+        Map<String, Long> altriErrori = new TreeMap<>();
+        long disdette = 0, giaEseguite = 0, lockTimeout = 0, deadlock = 0;
+        int totale = 0;
+
+        for (Operatore op : operatori) {
+            op.iscrizioni.forEach((k, v) -> iscrizioni.merge(k, v, Long::sum));
+            op.altriErrori.forEach((k, v) -> altriErrori.merge(k, v, Long::sum));
+            disdette += op.disdette;
+            giaEseguite += op.disdetteGiaEseguite;
+            lockTimeout += op.lockTimeout;
+            deadlock += op.deadlock;
+            totale += op.operazioni;
+        }
+
+        long[] latenze = new long[totale];
+        int k = 0;
+        for (Operatore op : operatori) {
+            System.arraycopy(op.latenzeNs, 0, latenze, k, op.operazioni);
+            k += op.operazioni;
+        }
+        Arrays.sort(latenze);
+
+        List<String> copiaViolazioni;
+        synchronized (violazioni) {
+            copiaViolazioni = new ArrayList<>(violazioni);
+        }
+        return new RisultatoCarico(totale, iscrizioni, disdette, giaEseguite, lockTimeout, deadlock,
+                altriErrori, copiaViolazioni, durataMs,
+                percentileMs(latenze, 50), percentileMs(latenze, 95), percentileMs(latenze, 99),
+                percentileMs(latenze, 100));
+    }
+
+    /** Percentile "nearest rank" su latenze ordinate, in millisecondi. */
+    private static double percentileMs(long[] ordinate, int percentile) {
+        if (ordinate.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * ordinate.length);
+        return ordinate[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+
+    private static int[] toArray(List<Integer> valori) {
+        int[] a = new int[valori.size()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = valori.get(i);
+        }
+        return a;
+    }
+}
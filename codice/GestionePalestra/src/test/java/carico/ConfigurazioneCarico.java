@@ -0,0 +1,59 @@
+package carico;
+
+/**
+ * Parametri della prova di carico sulle prenotazioni.
+ *
+ * Pochi posti su poche lezioni condivise da molti clienti: ogni lezione
+ * oscilla di continuo tra "libera" e "al completo". I default si possono
+ * sovrascrivere con le system property "palestra.carico.*".
+ */
+public final class ConfigurazioneCarico {
+
+    public final int thread;
+    /** Durata massima della prova. */
+    public final long durataMs;
+    /** Operazioni per thread (0 = fino allo scadere della durata). */
+    public final int operazioniPerThread;
+
+    public final int lezioni;
+    public final int postiPerLezione;
+    public final int clienti;
+
+    /** Ogni quanto controllare gli invarianti durante la prova (0 = solo alla fine). */
+    public final long intervalloControlloMs;
+
+    public ConfigurazioneCarico(int thread,
+                                long durataMs,
+                                int operazioniPerThread,
+                                int lezioni,
+                                int postiPerLezione,
+                                int clienti,
+                                long intervalloControlloMs) {
+        if (thread <= 0 || durataMs <= 0 || lezioni <= 0 || postiPerLezione <= 0 || clienti <= 0) {
+            throw new IllegalArgumentException("thread, durata, lezioni, posti e clienti devono essere > 0");
+        }
+        if (operazioniPerThread < 0 || intervalloControlloMs < 0) {
+            throw new IllegalArgumentException("operazioniPerThread e intervalloControlloMs non possono essere negativi");
+        }
+        this.thread = thread;
+        this.durataMs = durataMs;
+        this.operazioniPerThread = operazioniPerThread;
+        this.lezioni = lezioni;
+        this.postiPerLezione = postiPerLezione;
+        this.clienti = clienti;
+        this.intervalloControlloMs = intervalloControlloMs;
+    }
+
+    /** Configurazione letta dalle system property "palestra.carico.*". */
+    public static ConfigurazioneCarico daProprietaDiSistema() {
+        return new ConfigurazioneCarico(
+                Integer.getInteger("palestra.carico.thread", 16),
+                Long.getLong("palestra.carico.durataMs", 30_000L),
+                Integer.getInteger("palestra.carico.operazioniPerThread", 0),
+                Integer.getInteger("palestra.carico.lezioni", 4),
+                Integer.getInteger("palestra.carico.posti", 10),
+                Integer.getInteger("palestra.carico.clienti", 200),
+                Long.getLong("palestra.carico.intervalloControlloMs", 1_000L)
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package carico;
+
+import model.corsi.EsitoIscrizione;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Esito di una prova di carico: volumi, latenze, errori di concorrenza
+ * e violazioni degli invarianti sui posti.
+ */
+public final class RisultatoCarico {
+
+    public final long operazioni;
+    public final Map<EsitoIscrizione, Long> iscrizioni;
+    public final long disdette;
+    /** Disdette arrivate dopo quella di un altro thread sullo stesso cliente: attese, non sono errori. */
+    public final long disdetteGiaEseguite;
+
+    public final long lockTimeout;
+    public final long deadlock;
+    /** Altri errori, raggruppati per messaggio. */
+    public final Map<String, Long> altriErrori;
+
+    public final List<String> violazioni;
+
+    public final long durataMs;
+    public final double p50Ms;
+    public final double p95Ms;
+    public final double p99Ms;
+    public final double maxMs;
+
+    public RisultatoCarico(long operazioni,
+                           Map<EsitoIscrizione, Long> iscrizioni,
+                           long disdette,
+                           long disdetteGiaEseguite,
+                           long lockTimeout,
+                           long deadlock,
+                           Map<String, Long> altriErrori,
+                           List<String> violazioni,
+                           long durataMs,
+                           double p50Ms,
+                           double p95Ms,
+                           double p99Ms,
+                           double maxMs) {
+        this.operazioni = operazioni;
+        this.iscrizioni = Collections.unmodifiableMap(iscrizioni);
+        this.disdette = disdette;
+        this.disdetteGiaEseguite = disdetteGiaEseguite;
+        this.lockTimeout = lockTimeout;
+        this.deadlock = deadlock;
+        this.altriErrori = Collections.unmodifiableMap(altriErrori);
+        this.violazioni = Collections.unmodifiableList(violazioni);
+        this.durataMs = durataMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+
+    public double throughput() {
+        return durataMs == 0 ? 0.0 : operazioni * 1000.0 / durataMs;
+    }
+
+    public long erroriTotali() {
+        long altri = 0;
+        for (long n : altriErrori.values()) {
+            altri += n;
+        }
+        return lockTimeout + deadlock + altri;
+    }
+
+    /** True se nessun invariante è stato violato e non ci sono stati deadlock. */
+    public boolean isCorretto() {
+        return violazioni.isEmpty() && deadlock == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Carico prenotazioni: %d operazioni in %d ms (%.1f op/s)%n",
+                operazioni, durataMs, throughput()));
+        sb.append(String.format("  latenza: p50=%.2f ms, p95=%.2f ms, p99=%.2f ms, max=%.2f ms%n",
+                p50Ms, p95Ms, p99Ms, maxMs));
+        sb.append("  iscrizioni: ").append(iscrizioni).append(String.format("%n"));
+        sb.append(String.format("  disdette: %d (già eseguite da altri: %d)%n", disdette, disdetteGiaEseguite));
+        sb.append(String.format("  lock timeout: %d, deadlock: %d%n", lockTimeout, deadlock));
+        for (Map.Entry<String, Long> e : altriErrori.entrySet()) {
+            sb.append(String.format("  errore x%d: %s%n", e.getValue(), e.getKey()));
+        }
+        if (violazioni.isEmpty()) {
+            sb.append("  invarianti: rispettati");
+        } else {
+            sb.append(String.format("  invarianti: %d violazioni", violazioni.size()));
+            for (String v : violazioni) {
+                sb.append(String.format("%n    - ")).append(v);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package test.controller;
+
+import action.VistaCaricamento;
+import controller.EsecutoreAsincrono;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EsecutoreAsincronoTest {
+
+    /** Registra i cambi di stato della view (sempre sull'EDT). */
+    private static class VistaFinta implements VistaCaricamento {
+        final List<String> eventi = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void setInCaricamento(boolean inCorso) {
+            assertTrue(SwingUtilities.isEventDispatchThread());
+            eventi.add(inCorso ? "inizio" : "fine");
+        }
+    }
+
+    @Test
+    public void esitoConsegnatoSullEdt_dopoLaFineDelCaricamento() throws Exception {
+        VistaFinta vista = new VistaFinta();
+        CountDownLatch fatto = new CountDownLatch(1);
+
+        EsecutoreAsincrono.esegui(vista,
+                () -> {
+                    assertFalse(SwingUtilities.isEventDispatchThread());
+                    return 42;
+                },
+                valore -> {
+                    vista.eventi.add("esito " + valore + (SwingUtilities.isEventDispatchThread() ? " edt" : ""));
+                    fatto.countDown();
+                },
+                e -> fail(e));
+
+        assertTrue(fatto.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("inizio", "fine", "esito 42 edt"), vista.eventi);
+    }
+
+    @Test
+    public void operazioneAnnullata_esitoScartato() throws Exception {
+        VistaFinta vista = new VistaFinta();
+        CountDownLatch avviata = new CountDownLatch(1);
+        CountDownLatch sblocca = new CountDownLatch(1);
+        CountDownLatch errore = new CountDownLatch(1);
+
+        EsecutoreAsincrono.Operazione op = EsecutoreAsincrono.esegui(vista,
+                () -> {
+                    avviata.countDown();
+                    sblocca.await();
+                    return "tardi";
+                },
+                valore -> vista.eventi.add("esito"),
+                e -> errore.countDown());
+
+        assertTrue(avviata.await(5, TimeUnit.SECONDS));
+        op.annulla();
+        sblocca.countDown();
+
+        // un giro completo della coda EDT dopo la fine dell'attività
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertTrue(op.isAnnullata());
+        assertTrue(op.isTerminata());
+        assertEquals(1, errore.getCount());
+        assertEquals(Arrays.asList("inizio", "fine"), vista.eventi);
+    }
+}
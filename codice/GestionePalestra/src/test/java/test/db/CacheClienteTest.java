@@ -0,0 +1,94 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.cache.CacheCliente;
+import db.cache.CacheCliente.Area;
+import db.cache.CacheCliente.Dato;
+import db.dao.ConsulenzaDAO;
+import model.Consulenza;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+public class CacheClienteTest {
+
+    private static int cliente;
+    private static int dipendente;
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        cliente = nuovoCliente("cache1");
+        dipendente = nuovoDipendente("Cache", "PERSONAL_TRAINER", null);
+    }
+
+    @Test
+    public void letturaRipetuta_nonTornaADb_finoAllInvalidazioneDelDao() throws Exception {
+        AtomicInteger consulenze = new AtomicInteger();
+        AtomicInteger corsi = new AtomicInteger();
+
+        assertFalse(consulenzeFuture(consulenze));
+        assertFalse(consulenzeFuture(consulenze));
+        assertEquals(0, corsiFuturi(corsi).intValue());
+        assertEquals(1, consulenze.get());
+
+        // la prenotazione invalida solo l'area consulenze del cliente
+        Consulenza c = new Consulenza(cliente, dipendente, "PERSONAL_TRAINER",
+                LocalDate.now().plusDays(3), LocalTime.of(10, 0), null);
+        ConsulenzaDAO.inserisci(c);
+        assertTrue(consulenzeFuture(consulenze));
+        corsiFuturi(corsi);
+        assertEquals(2, consulenze.get());
+        assertEquals(1, corsi.get());
+
+        ConsulenzaDAO.disdiciConsulenza(c.getIdConsulenza());
+        assertFalse(consulenzeFuture(consulenze));
+        assertEquals(3, consulenze.get());
+
+        // logout: la sessione riparte da zero
+        CacheCliente.chiudiSessione(cliente);
+        consulenzeFuture(consulenze);
+        assertEquals(4, consulenze.get());
+    }
+
+    @Test
+    public void invalidazioneDuranteIlCaricamento_valoreNonMemorizzato() throws Exception {
+        int id = -42;
+        AtomicInteger caricamenti = new AtomicInteger();
+
+        String primo = CacheCliente.leggi(id, Dato.DETTAGLIO_CORSI, () -> {
+            caricamenti.incrementAndGet();
+            CacheCliente.invalida(id, Area.CORSI);   // prenotazione arrivata mentre si leggeva
+            return "vecchio";
+        });
+        String secondo = CacheCliente.leggi(id, Dato.DETTAGLIO_CORSI, () -> {
+            caricamenti.incrementAndGet();
+            return "nuovo";
+        });
+
+        assertEquals("vecchio", primo);
+        assertEquals("nuovo", secondo);
+        assertEquals(2, caricamenti.get());
+        CacheCliente.chiudiSessione(id);
+    }
+
+    private static boolean consulenzeFuture(AtomicInteger contatore) throws Exception {
+        return CacheCliente.leggi(cliente, Dato.CONSULENZE_FUTURE, () -> {
+            contatore.incrementAndGet();
+            return ConsulenzaDAO.esistonoConsulenzeFuturePerCliente(cliente);
+        });
+    }
+
+    private static Integer corsiFuturi(AtomicInteger contatore) throws Exception {
+        return CacheCliente.leggi(cliente, Dato.ISCRIZIONI_FUTURE, () -> {
+            contatore.incrementAndGet();
+            return 0;
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.cache.CacheRiferimento;
+import db.cache.StatisticheCache;
+import db.dao.corso.CorsoDAO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRiferimentoTest {
+
+    @Test
+    public void letturaRipetuta_unSoloCaricamento_finoAllaScadenza() throws Exception {
+        AtomicLong orologio = new AtomicLong();
+        AtomicInteger caricamenti = new AtomicInteger();
+        CacheRiferimento<String, String> cache = new CacheRiferimento<>("test-ttl", Duration.ofMinutes(5),
+                chiave -> chiave + caricamenti.incrementAndGet(), orologio::get);
+
+        assertEquals("a1", cache.get("a"));
+        assertEquals("a1", cache.get("a"));
+
+        orologio.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertEquals("a2", cache.get("a"));
+
+        StatisticheCache stat = cache.getStatistiche();
+        assertEquals(1, stat.hit);
+        assertEquals(2, stat.miss);
+        assertEquals(2, stat.caricamenti);
+        assertEquals(1, stat.scadute);
+    }
+
+    @Test
+    public void invalidazione_avvisaGliAscoltatori_eScartaIlCaricamentoInCorso() throws Exception {
+        List<String> avvisi = new ArrayList<>();
+        AtomicInteger caricamenti = new AtomicInteger();
+        AtomicReference<CacheRiferimento<String, Integer>> rif = new AtomicReference<>();
+        rif.set(new CacheRiferimento<>("test-inval", Duration.ofMinutes(5), chiave -> {
+            int n = caricamenti.incrementAndGet();
+            if (n == 1) {
+                rif.get().invalida(chiave);   // modifica arrivata mentre si leggeva
+            }
+            return n;
+        }));
+        CacheRiferimento<String, Integer> cache = rif.get();
+        cache.aggiungiAscoltatore(chiave -> avvisi.add(String.valueOf(chiave)));
+
+        assertEquals(1, cache.get("x").intValue());
+        assertEquals(2, cache.get("x").intValue());
+        assertEquals(2, cache.get("x").intValue());
+
+        cache.invalidaTutto();
+        assertEquals(3, cache.get("x").intValue());
+        assertEquals(2, avvisi.size());
+        assertEquals("null", avvisi.get(1));
+    }
+
+    @Test
+    public void catalogoCorsi_letturaSuccessiva_servitaDallaCache() throws Exception {
+        InizializzazioneDB.init();
+        CorsoDAO.invalidaCache();
+        CorsoDAO.getTuttiICorsi();
+        StatisticheCache prima = statistiche("catalogoCorsi");
+
+        CorsoDAO.getTuttiICorsi();
+        CorsoDAO.esistonoCorsi();
+
+        // altri lettori (es. lo snapshot della panoramica) possono aggiungere hit, non caricamenti
+        StatisticheCache dopo = statistiche("catalogoCorsi");
+        assertEquals(0, dopo.caricamenti - prima.caricamenti);
+        assertTrue(dopo.hit - prima.hit >= 2);
+    }
+
+    private static StatisticheCache statistiche(String nome) {
+        for (StatisticheCache s : CacheRiferimento.getStatisticheTutte()) {
+            if (s.nome.equals(nome)) {
+                return s;
+            }
+        }
+        throw new AssertionError("cache non registrata: " + nome);
+    }
+}
@@ -0,0 +1,119 @@
+package test.db;
+
+import db.pool.ConfigurazionePool;
+import db.pool.ConnectionPool;
+import db.pool.StatistichePool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        ConfigurazionePool config = new ConfigurazionePool(
+                1, 2, 200, 60_000, 0, false, 60_000, 0, 1);
+        pool = new ConnectionPool("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", "", config);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.chiudi();
+    }
+
+    @Test
+    public void close_rimetteLaConnessioneNelPool_eVieneRiusata() throws Exception {
+        try (Connection c = pool.getConnection()) {
+            assertFalse(c.isClosed());
+        }
+        try (Connection c = pool.getConnection()) {
+            assertFalse(c.isClosed());
+        }
+
+        StatistichePool stats = pool.getStatistiche();
+        assertEquals(2, stats.acquisizioni);
+        assertEquals(1, stats.connessioniCreate);
+        assertEquals(0, stats.connessioniInUso);
+        assertEquals(1, stats.connessioniLibere);
+    }
+
+    @Test
+    public void poolEsaurito_lanciaSQLExceptionDopoIlTimeout() throws Exception {
+        Connection c1 = pool.getConnection();
+        Connection c2 = pool.getConnection();
+
+        assertThrows(SQLException.class, () -> pool.getConnection());
+        assertEquals(1, pool.getStatistiche().timeoutAcquisizione);
+
+        c1.close();
+        c2.close();
+        assertDoesNotThrow(() -> pool.getConnection().close());
+    }
+
+    @Test
+    public void doppiaClose_nonRestituisceDueVolteLaConnessione() throws Exception {
+        Connection c = pool.getConnection();
+        c.close();
+        c.close();
+
+        assertTrue(c.isClosed());
+        assertThrows(SQLException.class, c::createStatement);
+        assertEquals(1, pool.getStatistiche().connessioniLibere);
+    }
+
+    @Test
+    public void transazioneLasciataAperta_vieneAnnullataAlRilascio() throws Exception {
+        try (Connection c = pool.getConnection()) {
+            c.createStatement().execute("CREATE TABLE IF NOT EXISTS T (ID INT)");
+            c.setAutoCommit(false);
+            c.createStatement().execute("INSERT INTO T VALUES (1)");
+            // nessun commit
+        }
+
+        try (Connection c = pool.getConnection()) {
+            assertTrue(c.getAutoCommit());
+            try (java.sql.ResultSet rs = c.createStatement().executeQuery("SELECT COUNT(*) FROM T")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void solaLetturaEIsolamento_ripristinatiAlRilascio() throws Exception {
+        int isolamento;
+        try (Connection c = pool.getConnection()) {
+            isolamento = c.getTransactionIsolation();
+            c.setReadOnly(true);
+            c.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        }
+
+        try (Connection c = pool.getConnection()) {
+            assertFalse(c.isReadOnly());
+            assertEquals(isolamento, c.getTransactionIsolation());
+        }
+        assertEquals(1, pool.getStatistiche().connessioniCreate);
+    }
+
+    @Test
+    public void leak_segnalatoAncheSenzaTracciaDelChiamante() throws Exception {
+        ConnectionPool piccolo = new ConnectionPool("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConfigurazionePool(0, 1, 200, 60_000, 1, false, 20, 0, 1));
+        try (Connection c = piccolo.getConnection()) {
+            long limite = System.currentTimeMillis() + 5000;
+            while (piccolo.getStatistiche().leakRilevati == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, piccolo.getStatistiche().leakRilevati);
+        } finally {
+            piccolo.chiudi();
+        }
+    }
+}
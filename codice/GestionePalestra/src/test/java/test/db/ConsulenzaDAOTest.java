@@ -0,0 +1,137 @@
+package test.db;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import db.dao.ConsulenzaDAO;
+import model.Consulenza;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+public class ConsulenzaDAOTest {
+
+    private static final LocalDate GIORNO = LocalDate.now().plusYears(3);
+
+    private static int clienteA;
+    private static int clienteB;
+    private static int dipendente;
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        clienteA = nuovoCliente("consA");
+        clienteB = nuovoCliente("consB");
+        dipendente = nuovoDipendente("Consulenze", "PERSONAL_TRAINER", "Lun-Dom 8:00-20:00");
+    }
+
+    @Test
+    public void consulenzaInserita_bloccaIlDipendente_finoAllaDisdetta() throws Exception {
+        LocalTime ora = LocalTime.of(10, 0);
+        assertFalse(ConsulenzaDAO.esisteConflitto(clienteA, dipendente, "PERSONAL_TRAINER", GIORNO, ora));
+
+        Consulenza c = new Consulenza(clienteA, dipendente, "PERSONAL_TRAINER", GIORNO, ora, null);
+        assertTrue(ConsulenzaDAO.inserisci(c));
+        assertTrue(c.getIdConsulenza() > 0);
+
+        // stesso professionista, altro cliente, 15 minuti dopo (durata PT = 30)
+        assertTrue(ConsulenzaDAO.esisteConflitto(clienteB, dipendente, "PERSONAL_TRAINER",
+                GIORNO, ora.plusMinutes(15)));
+        assertFalse(ConsulenzaDAO.esisteConflitto(clienteB, dipendente, "PERSONAL_TRAINER",
+                GIORNO, ora.plusMinutes(30)));
+
+        ConsulenzaDAO.disdiciConsulenza(c.getIdConsulenza());
+        assertFalse(ConsulenzaDAO.esisteConflitto(clienteB, dipendente, "PERSONAL_TRAINER",
+                GIORNO, ora.plusMinutes(15)));
+    }
+
+    @Test
+    public void invalidazione_ricaricaDalDB() throws Exception {
+        LocalTime ora = LocalTime.of(15, 0);
+        ConsulenzaDAO.inserisci(new Consulenza(clienteB, dipendente, "NUTRIZIONISTA", GIORNO, ora, null));
+
+        ConsulenzaDAO.invalidaIndiceConflitti();
+
+        assertTrue(ConsulenzaDAO.esisteConflitto(clienteA, dipendente, "PERSONAL_TRAINER",
+                GIORNO, ora.plusMinutes(45)));
+    }
+
+    @Test
+    public void consulenzaScrittaDaAltroProcesso_bloccaLInserimento() throws Exception {
+        LocalTime ora = LocalTime.of(17, 0);
+        ConsulenzaDAO.getIntervalliOccupati(clienteA, dipendente,
+                GIORNO.atStartOfDay(), GIORNO.plusDays(1).atStartOfDay());   // indice caricato
+
+        // scritta direttamente su CONSULENZA: l'indice in memoria non la conosce
+        inserisci("INSERT INTO CONSULENZA (ID_CLIENTE, ID_DIPENDENTE, TIPO, DATA_CONSULENZA, ORA_CONSULENZA) " +
+                "VALUES (" + clienteB + ", " + dipendente + ", 'PERSONAL_TRAINER', DATE '" + GIORNO + "', TIME '17:00:00')");
+
+        assertTrue(ConsulenzaDAO.esisteConflitto(clienteA, dipendente, "PERSONAL_TRAINER",
+                GIORNO, ora.plusMinutes(15)));
+        Consulenza c = new Consulenza(clienteA, dipendente, "PERSONAL_TRAINER", GIORNO, ora.plusMinutes(15), null);
+        assertFalse(ConsulenzaDAO.inserisci(c));
+        assertEquals(1, contaConsulenze(dipendente, ora, ora.plusMinutes(15)));
+    }
+
+    @Test
+    public void inserimentiConcorrenti_unaSolaConsulenzaPerIlDipendente() throws Exception {
+        LocalTime ora = LocalTime.of(12, 0);
+        int[] clienti = new int[8];
+        for (int i = 0; i < clienti.length; i++) {
+            clienti[i] = nuovoCliente("consConc" + i);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(clienti.length);
+        CountDownLatch via = new CountDownLatch(1);
+        List<Future<Boolean>> esiti = new ArrayList<>();
+        for (int idCliente : clienti) {
+            esiti.add(pool.submit(() -> {
+                via.await();
+                return ConsulenzaDAO.inserisci(
+                        new Consulenza(idCliente, dipendente, "PERSONAL_TRAINER", GIORNO, ora, null));
+            }));
+        }
+        via.countDown();
+
+        int inserite = 0;
+        for (Future<Boolean> esito : esiti) {
+            if (esito.get(30, TimeUnit.SECONDS)) {
+                inserite++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, inserite);
+        assertEquals(1, contaConsulenze(dipendente, ora, ora));
+    }
+
+    private static int contaConsulenze(int idDipendente, LocalTime dalle, LocalTime alle) throws Exception {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM CONSULENZA WHERE ID_DIPENDENTE = ? AND DATA_CONSULENZA = ? " +
+                     "AND ORA_CONSULENZA BETWEEN ? AND ?")) {
+            ps.setInt(1, idDipendente);
+            ps.setDate(2, java.sql.Date.valueOf(GIORNO));
+            ps.setTime(3, java.sql.Time.valueOf(dalle));
+            ps.setTime(4, java.sql.Time.valueOf(alle));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
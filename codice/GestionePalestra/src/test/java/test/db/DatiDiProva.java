@@ -0,0 +1,91 @@
+package test.db;
+
+import db.GestioneDB;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Dati di prova condivisi dai test sul DB in memoria impostato da surefire (palestra.db.url).
+ * Ogni metodo restituisce la chiave generata della riga inserita.
+ */
+final class DatiDiProva {
+
+    private DatiDiProva() {
+        // utility class
+    }
+
+    /** Cliente con email e CF ricavati dallo username (max 16 caratteri per restare univoci). */
+    static int nuovoCliente(String username) throws SQLException {
+        return nuovoCliente(username, "x");
+    }
+
+    static int nuovoCliente(String username, String hashPassword) throws SQLException {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO CLIENTE (USERNAME, EMAIL, NOME, COGNOME, CF, LUOGO_NASCITA, DATA_NASCITA, PASSWORD) " +
+                     "VALUES (?, ?, 'N', 'C', ?, 'Italia', DATE '2000-01-01', ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, username);
+            ps.setString(2, username + "@test.it");
+            ps.setString(3, (username.toUpperCase() + "XXXXXXXXXXXXXXXX").substring(0, 16));
+            ps.setString(4, hashPassword);
+            return chiaveGenerata(ps);
+        }
+    }
+
+    /** @param orarioDisp fasce orarie nel formato di ORARIO_DISP, null per l'orario predefinito */
+    static int nuovoDipendente(String nome, String ruolo, String orarioDisp) throws SQLException {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO DIPENDENTE (NOME, COGNOME, RUOLO, ORARIO_DISP) VALUES (?, 'Test', ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, nome);
+            ps.setString(2, ruolo);
+            ps.setString(3, orarioDisp);
+            return chiaveGenerata(ps);
+        }
+    }
+
+    static int nuovoCorso(String nome) throws SQLException {
+        return inserisci("INSERT INTO CORSO (NOME, DESCRIZIONE, DURATA_MINUTI) VALUES ('" + nome + "', 'Corso di test', 60)");
+    }
+
+    /** Lezione tenuta dal primo dipendente a DB. */
+    static int nuovaLezione(int idCorso, LocalDate data, LocalTime ora, int postiTotali) throws SQLException {
+        return inserisci("INSERT INTO LEZIONE_CORSO (ID_CORSO, DATA_LEZIONE, ORA_LEZIONE, POSTI_TOTALI, ID_ISTRUTTORE) " +
+                "VALUES (" + idCorso + ", DATE '" + data + "', TIME '" + ora + "', " + postiTotali + ", " +
+                "(SELECT MIN(ID_DIPENDENTE) FROM DIPENDENTE))");
+    }
+
+    /** Esegue una INSERT e restituisce la chiave generata. */
+    static int inserisci(String insert) throws SQLException {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement(insert, Statement.RETURN_GENERATED_KEYS)) {
+            return chiaveGenerata(ps);
+        }
+    }
+
+    /** Primo valore intero restituito dalla query (COUNT, MIN, singola colonna...). */
+    static int conta(String sql) throws SQLException {
+        try (Connection conn = GestioneDB.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int chiaveGenerata(PreparedStatement ps) throws SQLException {
+        ps.executeUpdate();
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
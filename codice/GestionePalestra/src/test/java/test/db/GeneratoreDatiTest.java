@@ -0,0 +1,178 @@
+package test.db;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import db.dao.ConsulenzaDAO;
+import db.generatore.ConfigurazioneGeneratore;
+import db.generatore.GeneratoreDati;
+import db.generatore.RiepilogoGenerazione;
+import model.OrarioDisponibilita;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+/**
+ * Generazione in piccolo sul DB in memoria impostato da surefire (palestra.db.url).
+ */
+public class GeneratoreDatiTest {
+
+    private static final LocalDate OGGI = LocalDate.of(2026, 3, 2);
+
+    @BeforeAll
+    public static void init() throws Exception {
+        InizializzazioneDB.init();
+    }
+
+    private static ConfigurazioneGeneratore config(String prefisso) {
+        // 60 iscrizioni su 7 lezioni: 9 iscritti per le prime 4, 8 per le altre
+        return new ConfigurazioneGeneratore(7L, prefisso, "segreta",
+                30, 2, 1, 2, 3, 7, 60, 25, 20, 8);
+    }
+
+    @Test
+    public void genera_volumiRichiestiEPostiCoerenti() throws Exception {
+        GeneratoreDati generatore = new GeneratoreDati(config("gva"), 4, OGGI);
+
+        try (Connection conn = GestioneDB.getConnection()) {
+            assertFalse(generatore.esistonoDati(conn));
+            RiepilogoGenerazione riepilogo = generatore.genera(conn);
+            assertTrue(generatore.esistonoDati(conn));
+
+            assertEquals(30, riepilogo.clienti);
+            assertEquals(5, riepilogo.dipendenti);
+            assertEquals(7, riepilogo.lezioni);
+            assertEquals(60, riepilogo.iscrizioni);
+            assertEquals(25, riepilogo.consulenze);
+
+            assertEquals(30, conta(conn,
+                    "SELECT COUNT(*) FROM CLIENTE C JOIN ABBONAMENTO A ON A.ID_CLIENTE = C.ID_CLIENTE " +
+                    "WHERE C.USERNAME LIKE 'gva\\_%' AND A.ATTIVO = TRUE"));
+            assertEquals(60, conta(conn,
+                    "SELECT COUNT(*) FROM ISCRIZIONE_CORSO I JOIN CLIENTE C ON C.ID_CLIENTE = I.ID_CLIENTE " +
+                    "WHERE C.USERNAME LIKE 'gva\\_%'"));
+            assertEquals(25, conta(conn,
+                    "SELECT COUNT(*) FROM CONSULENZA X JOIN CLIENTE C ON C.ID_CLIENTE = X.ID_CLIENTE " +
+                    "WHERE C.USERNAME LIKE 'gva\\_%'"));
+
+            // POSTI_PRENOTATI = iscritti, senza superare i posti totali
+            assertEquals(0, conta(conn,
+                    "SELECT COUNT(*) FROM LEZIONE_CORSO L WHERE L.ID_LEZIONE IN (" +
+                    "  SELECT I.ID_LEZIONE FROM ISCRIZIONE_CORSO I JOIN CLIENTE C ON C.ID_CLIENTE = I.ID_CLIENTE " +
+                    "  WHERE C.USERNAME LIKE 'gva\\_%') " +
+                    "AND (L.POSTI_PRENOTATI <> (SELECT COUNT(*) FROM ISCRIZIONE_CORSO I WHERE I.ID_LEZIONE = L.ID_LEZIONE) " +
+                    "     OR L.POSTI_PRENOTATI > L.POSTI_TOTALI)"));
+
+            // regole dell'applicazione: nessun cliente in due lezioni sovrapposte (come IscrizioneDAO)
+            assertEquals(0, conta(conn,
+                    "SELECT COUNT(*) FROM ISCRIZIONE_CORSO I1 " +
+                    "JOIN LEZIONE_CORSO L1 ON L1.ID_LEZIONE = I1.ID_LEZIONE JOIN CORSO C1 ON C1.ID_CORSO = L1.ID_CORSO " +
+                    "JOIN ISCRIZIONE_CORSO I2 ON I2.ID_CLIENTE = I1.ID_CLIENTE AND I2.ID_LEZIONE <> I1.ID_LEZIONE " +
+                    "JOIN LEZIONE_CORSO L2 ON L2.ID_LEZIONE = I2.ID_LEZIONE JOIN CORSO C2 ON C2.ID_CORSO = L2.ID_CORSO " +
+                    "JOIN CLIENTE C ON C.ID_CLIENTE = I1.ID_CLIENTE " +
+                    "WHERE C.USERNAME LIKE 'gva\\_%' AND L1.DATA_LEZIONE = L2.DATA_LEZIONE " +
+                    "AND L1.ORA_LEZIONE <= DATEADD(MINUTE, C2.DURATA_MINUTI, L2.ORA_LEZIONE) " +
+                    "AND DATEADD(MINUTE, C1.DURATA_MINUTI, L1.ORA_LEZIONE) >= L2.ORA_LEZIONE"));
+
+            // consulenze: né professionista né cliente impegnati due volte, sempre nell'ORARIO_DISP
+            String sovrapposte =
+                    "SELECT COUNT(*) FROM CONSULENZA X1 JOIN CONSULENZA X2 " +
+                    "  ON X2.COLONNA = X1.COLONNA AND X2.ID_CONSULENZA <> X1.ID_CONSULENZA " +
+                    "  AND X2.DATA_CONSULENZA = X1.DATA_CONSULENZA " +
+                    "JOIN CLIENTE C ON C.ID_CLIENTE = X1.ID_CLIENTE " +
+                    "WHERE C.USERNAME LIKE 'gva\\_%' " +
+                    "AND X1.ORA_CONSULENZA < DATEADD(MINUTE, CASE X2.TIPO WHEN 'NUTRIZIONISTA' THEN 60 ELSE 30 END, X2.ORA_CONSULENZA) " +
+                    "AND X2.ORA_CONSULENZA < DATEADD(MINUTE, CASE X1.TIPO WHEN 'NUTRIZIONISTA' THEN 60 ELSE 30 END, X1.ORA_CONSULENZA)";
+            assertEquals(0, conta(conn, sovrapposte.replace("COLONNA", "ID_DIPENDENTE")));
+            assertEquals(0, conta(conn, sovrapposte.replace("COLONNA", "ID_CLIENTE")));
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT D.ORARIO_DISP, X.TIPO, X.DATA_CONSULENZA, X.ORA_CONSULENZA FROM CONSULENZA X " +
+                    "JOIN DIPENDENTE D ON D.ID_DIPENDENTE = X.ID_DIPENDENTE " +
+                    "JOIN CLIENTE C ON C.ID_CLIENTE = X.ID_CLIENTE WHERE C.USERNAME LIKE 'gva\\_%'");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    assertTrue(OrarioDisponibilita.compila(rs.getString(1)).isDisponibile(
+                            rs.getDate(3).toLocalDate(), rs.getTime(4).toLocalTime(),
+                            ConsulenzaDAO.durataStimataMinuti(rs.getString(2))));
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement("SELECT PASSWORD FROM CLIENTE WHERE USERNAME = 'gva_30'");
+                 ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertTrue(BCrypt.checkpw("segreta", rs.getString(1)));
+            }
+        }
+    }
+
+    @Test
+    public void stessoSeme_stessiDati() throws Exception {
+        try (Connection conn = GestioneDB.getConnection()) {
+            new GeneratoreDati(config("gvb"), 4, OGGI).genera(conn);
+            new GeneratoreDati(config("gvc"), 4, OGGI).genera(conn);
+
+            assertEquals(profilo(conn, "gvb"), profilo(conn, "gvc"));
+        }
+    }
+
+    @Test
+    public void generazioneFallita_nessunaRigaResidua() throws Exception {
+        // il CF del 30° cliente generato è già usato: il quarto blocco di clienti fallisce
+        nuovoCliente("gvd0000000000030");
+        GeneratoreDati generatore = new GeneratoreDati(config("gvd"), 4, OGGI);
+
+        try (Connection conn = GestioneDB.getConnection()) {
+            int clientiPrima = conta(conn, "SELECT COUNT(*) FROM CLIENTE");
+            int dipendentiPrima = conta(conn, "SELECT COUNT(*) FROM DIPENDENTE");
+
+            assertThrows(SQLException.class, () -> generatore.genera(conn));
+
+            assertFalse(generatore.esistonoDati(conn));
+            assertEquals(clientiPrima, conta(conn, "SELECT COUNT(*) FROM CLIENTE"));
+            assertEquals(dipendentiPrima, conta(conn, "SELECT COUNT(*) FROM DIPENDENTE"));
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    /** Anagrafiche, abbonamenti e iscrizioni (per posizione del cliente) dei clienti di un prefisso. */
+    private static List<String> profilo(Connection conn, String prefisso) throws Exception {
+        List<String> righe = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT C.NOME, C.COGNOME, C.LUOGO_NASCITA, C.DATA_NASCITA, A.TIPO, A.SCADENZA, " +
+                "       (SELECT COUNT(*) FROM ISCRIZIONE_CORSO I WHERE I.ID_CLIENTE = C.ID_CLIENTE), " +
+                "       (SELECT COUNT(*) FROM CONSULENZA X WHERE X.ID_CLIENTE = C.ID_CLIENTE) " +
+                "FROM CLIENTE C JOIN ABBONAMENTO A ON A.ID_CLIENTE = C.ID_CLIENTE " +
+                "WHERE C.USERNAME LIKE ? ORDER BY C.ID_CLIENTE")) {
+            ps.setString(1, prefisso + "\\_%");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    StringBuilder sb = new StringBuilder();
+                    for (int i = 1; i <= 8; i++) {
+                        sb.append(rs.getString(i)).append('|');
+                    }
+                    righe.add(sb.toString());
+                }
+            }
+        }
+        assertEquals(30, righe.size());
+        return righe;
+    }
+
+    private static int conta(Connection conn, String sql) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package test.db;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+import service.ImportazioneClienti;
+import service.ImportazioneException;
+import service.RiepilogoImportazione;
+import service.hash.ConfigurazioneHash;
+import service.hash.EsecutoreHash;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+public class ImportazioneClientiTest {
+
+    private static ImportazioneClienti importazione;
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        nuovoCliente("imp_esistente");
+        // blocchi da 2 righe: il terzo blocco contiene un cliente già a DB
+        importazione = new ImportazioneClienti(2, new EsecutoreHash(new ConfigurazioneHash(2, 2, 10_000L, 4)));
+    }
+
+    @AfterAll
+    public static void chiudi() {
+        importazione.chiudi();
+    }
+
+    @Test
+    public void righeNonValideEDuplicati_scartatiNelReport_restoImportato() throws Exception {
+        String csv =
+                "username,password,nome,cognome,cf,luogoNascita,dataNascita,iban,email\n" +
+                "imp_uno,segreta,Anna,Bianchi,MPRUNO90A01H501H,Italia,1990-01-01,,imp.uno@test.it\n" +
+                "imp_due,segreta,\"Maria, detta \"\"Mary\"\"\",D'Angelo,MPRDUE90A01H501C,France,1990-01-01,IT60X0542811101000000123456,imp.due@test.it\n" +
+                "imp_tre,segreta,Luca,Verdi,MPRTRE90A01H501X,Italia,1990-01-01,,imp.tre@\n" +
+                "\n" +
+                "imp_uno,segreta,Anna,Rossi,MPRQUA90A01H501L,Italia,1990-01-01,,imp.altra@test.it\n" +
+                "imp_esistente,segreta,Paolo,Neri,MPRCIN90A01H501N,Italia,1990-01-01,,imp.esistente@test.it\n" +
+                "imp_cinque,segreta,Sara,Gialli,MPRQUA90A01H501L,Spain,1990-01-01,,imp.cinque@test.it\n" +
+                "imp_sei,segreta," + String.join("", Collections.nCopies(101, "a")) +
+                ",Blu,MPRSEI90A01H501O,Italia,1990-01-01,,imp.sei@test.it\n";
+        StringWriter report = new StringWriter();
+
+        RiepilogoImportazione r = importazione.importa(new StringReader(csv), report);
+
+        assertEquals(7, r.righeLette);
+        assertEquals(3, r.importate);
+        assertEquals(4, r.scartate);
+
+        String[] righe = report.toString().split("\n");
+        assertEquals(6, righe.length);
+        assertTrue(righe[1].startsWith("4;cf;"));
+        assertTrue(righe[2].startsWith("4;email;"));
+        assertTrue(righe[3].startsWith("6;username;\"Valore già presente alla riga 2"));
+        assertTrue(righe[4].startsWith("7;username;\"Username già utilizzato"));
+        assertTrue(righe[5].startsWith("9;nome;\"Il nome può contenere al massimo 100 caratteri."));
+
+        assertEquals("Maria, detta \"Mary\"", leggi("imp_due", "NOME"));
+        assertTrue(BCrypt.checkpw("segreta", leggi("imp_cinque", "PASSWORD")));
+        assertNull(leggi("imp_tre", "NOME"));
+    }
+
+    @Test
+    public void intestazioneSenzaColonneObbligatorie_rifiutata() {
+        ImportazioneException e = assertThrows(ImportazioneException.class,
+                () -> importazione.importa(new StringReader("username;password\nx;y\n"), new StringWriter()));
+        assertTrue(e.getMessage().contains("nome"));
+    }
+
+    private static String leggi(String username, String colonna) throws Exception {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT " + colonna + " FROM CLIENTE WHERE USERNAME = ?")) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
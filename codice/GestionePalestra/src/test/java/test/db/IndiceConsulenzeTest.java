@@ -0,0 +1,101 @@
+package test.db;
+
+import db.dao.IndiceConsulenze;
+import db.dao.IndiceConsulenze.Voce;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceConsulenzeTest {
+
+    private static final long ORE_10 = 10 * 60;
+
+    private static Voce voce(int id, int cliente, int dipendente, long inizio, int durata) {
+        return new Voce(id, cliente, dipendente, inizio, inizio + durata);
+    }
+
+    private static IndiceConsulenze indiceCon(Voce... voci) {
+        return new IndiceConsulenze(() -> Arrays.asList(voci));
+    }
+
+    @Test
+    public void sovrapposizione_perClienteOPerDipendente() throws Exception {
+        IndiceConsulenze indice = indiceCon(voce(1, 100, 7, ORE_10, 60));
+
+        assertTrue(indice.esisteSovrapposizione(100, 8, ORE_10 + 30, ORE_10 + 60));
+        assertTrue(indice.esisteSovrapposizione(101, 7, ORE_10 - 15, ORE_10 + 15));
+        assertFalse(indice.esisteSovrapposizione(101, 8, ORE_10, ORE_10 + 60));
+    }
+
+    @Test
+    public void intervalliAdiacenti_nonSonoInConflitto() throws Exception {
+        IndiceConsulenze indice = indiceCon(voce(1, 100, 7, ORE_10, 60));
+
+        // [s, e) come il controllo originale su DB
+        assertFalse(indice.esisteSovrapposizione(100, 7, ORE_10 + 60, ORE_10 + 90));
+        assertFalse(indice.esisteSovrapposizione(100, 7, ORE_10 - 30, ORE_10));
+    }
+
+    @Test
+    public void intervalloLungoIniziatoPrima_vieneTrovato() throws Exception {
+        // la consulenza lunga inizia ben prima di quella nuova ma la contiene
+        IndiceConsulenze indice = indiceCon(
+                voce(1, 100, 7, ORE_10, 60),
+                voce(2, 100, 7, ORE_10 - 120, 30));
+
+        assertTrue(indice.esisteSovrapposizione(100, 9, ORE_10 + 45, ORE_10 + 75));
+    }
+
+    @Test
+    public void aggiungiERimuovi_aggiornanoLIndice() throws Exception {
+        IndiceConsulenze indice = indiceCon();
+        assertFalse(indice.esisteSovrapposizione(100, 7, ORE_10, ORE_10 + 30));
+
+        indice.aggiungi(voce(5, 100, 7, ORE_10, 30));
+        assertTrue(indice.esisteSovrapposizione(200, 7, ORE_10, ORE_10 + 30));
+
+        indice.rimuovi(5);
+        assertFalse(indice.esisteSovrapposizione(200, 7, ORE_10, ORE_10 + 30));
+        assertEquals(0, indice.size());
+    }
+
+    @Test
+    public void rimuoviCliente_liberaAncheLAgendaDeiDipendenti() throws Exception {
+        IndiceConsulenze indice = indiceCon(
+                voce(1, 100, 7, ORE_10, 30),
+                voce(2, 100, 8, ORE_10 + 60, 30),
+                voce(3, 101, 7, ORE_10 + 120, 30));
+        assertTrue(indice.esisteSovrapposizione(999, 8, ORE_10 + 60, ORE_10 + 90));
+
+        indice.rimuoviCliente(100);
+
+        assertFalse(indice.esisteSovrapposizione(999, 7, ORE_10, ORE_10 + 30));
+        assertFalse(indice.esisteSovrapposizione(999, 8, ORE_10 + 60, ORE_10 + 90));
+        assertTrue(indice.esisteSovrapposizione(999, 7, ORE_10 + 120, ORE_10 + 150));
+        assertEquals(1, indice.size());
+    }
+
+    @Test
+    public void caricamentoPigro_unaSolaVoltaFinoAllInvalidazione() throws Exception {
+        AtomicInteger caricamenti = new AtomicInteger();
+        IndiceConsulenze indice = new IndiceConsulenze(() -> {
+            caricamenti.incrementAndGet();
+            return Arrays.asList(voce(1, 100, 7, ORE_10, 30));
+        });
+
+        // prima della prima interrogazione gli inserimenti non caricano nulla
+        indice.aggiungi(voce(2, 100, 7, ORE_10 + 60, 30));
+        assertEquals(0, caricamenti.get());
+
+        indice.esisteSovrapposizione(100, 7, ORE_10, ORE_10 + 30);
+        indice.esisteSovrapposizione(100, 7, ORE_10, ORE_10 + 30);
+        assertEquals(1, caricamenti.get());
+
+        indice.invalida();
+        indice.esisteSovrapposizione(100, 7, ORE_10, ORE_10 + 30);
+        assertEquals(2, caricamenti.get());
+    }
+}
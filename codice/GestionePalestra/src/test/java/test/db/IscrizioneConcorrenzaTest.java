@@ -0,0 +1,40 @@
+package test.db;
+
+import carico.CaricoPrenotazioni;
+import carico.ConfigurazioneCarico;
+import carico.RisultatoCarico;
+import db.InizializzazioneDB;
+import model.corsi.EsitoIscrizione;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Iscrizioni e disdette concorrenti sulle stesse lezioni, in piccolo,
+ * sul DB in memoria impostato da surefire (palestra.db.url).
+ */
+public class IscrizioneConcorrenzaTest {
+
+    @BeforeAll
+    public static void init() throws Exception {
+        InizializzazioneDB.init();
+    }
+
+    @Test
+    public void iscrizioniEDisdetteConcorrenti_contatoriCoerentiESenzaOverbooking() throws Exception {
+        // 8 thread x 150 operazioni su 2 lezioni da 5 posti contese da 30 clienti
+        CaricoPrenotazioni carico = new CaricoPrenotazioni(
+                new ConfigurazioneCarico(8, 60_000L, 150, 2, 5, 30, 50L));
+        carico.prepara();
+
+        RisultatoCarico risultato = carico.esegui();
+
+        assertTrue(risultato.violazioni.isEmpty(), risultato.toString());
+        assertEquals(0, risultato.erroriTotali(), risultato.toString());
+        assertTrue(risultato.operazioni >= 8 * 150);
+        // la prova è significativa solo se le lezioni si sono riempite davvero
+        assertTrue(risultato.iscrizioni.getOrDefault(EsitoIscrizione.POSTI_ESAURITI, 0L) > 0, risultato.toString());
+        assertTrue(risultato.disdette > 0, risultato.toString());
+    }
+}
@@ -0,0 +1,283 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.dao.AbbonamentoDAO;
+import db.dao.corso.IscrizioneDAO;
+import db.dao.corso.ListaAttesaDAO;
+import model.corsi.EsitoIscrizione;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+public class IscrizioneDAOTest {
+
+    private static final AtomicInteger PROGRESSIVO = new AtomicInteger();
+
+    private static int idCorso;
+
+    @BeforeAll
+    public static void preparaSchema() throws Exception {
+        InizializzazioneDB.init();
+        idCorso = nuovoCorso("Test");
+    }
+
+    @Test
+    public void iscrizione_conPostiLiberi_incrementaIlContatore() throws Exception {
+        int cliente = nuovoCliente();
+        int lezione = nuovaLezione("2031-03-03", "18:00:00", 10);
+
+        assertEquals(EsitoIscrizione.OK, IscrizioneDAO.iscriviClienteALezione(cliente, lezione));
+        assertEquals(1, postiPrenotati(lezione));
+    }
+
+    @Test
+    public void lezionePiena_restituiscePostiEsauriti() throws Exception {
+        int lezione = nuovaLezione("2031-03-04", "18:00:00", 1);
+
+        assertEquals(EsitoIscrizione.OK, IscrizioneDAO.iscriviClienteALezione(nuovoCliente(), lezione));
+        assertEquals(EsitoIscrizione.POSTI_ESAURITI, IscrizioneDAO.iscriviClienteALezione(nuovoCliente(), lezione));
+        assertEquals(1, postiPrenotati(lezione));
+    }
+
+    @Test
+    public void secondaIscrizioneStessaLezione_restituisceGiaIscritto() throws Exception {
+        int cliente = nuovoCliente();
+        int lezione = nuovaLezione("2031-03-05", "18:00:00", 10);
+
+        IscrizioneDAO.iscriviClienteALezione(cliente, lezione);
+
+        assertEquals(EsitoIscrizione.GIA_ISCRITTO, IscrizioneDAO.iscriviClienteALezione(cliente, lezione));
+        assertEquals(1, postiPrenotati(lezione));
+    }
+
+    @Test
+    public void lezioneSovrapposta_restituisceConflittoOrario() throws Exception {
+        int cliente = nuovoCliente();
+        int prima   = nuovaLezione("2031-03-06", "18:00:00", 10);
+        int stessoOrarioFinale = nuovaLezione("2031-03-06", "19:00:00", 10);
+        int altroGiorno        = nuovaLezione("2031-03-07", "18:30:00", 10);
+
+        IscrizioneDAO.iscriviClienteALezione(cliente, prima);
+
+        // estremi inclusi, come nel controllo originale
+        assertEquals(EsitoIscrizione.CONFLITTO_ORARIO,
+                IscrizioneDAO.iscriviClienteALezione(cliente, stessoOrarioFinale));
+        assertEquals(EsitoIscrizione.OK, IscrizioneDAO.iscriviClienteALezione(cliente, altroGiorno));
+        assertEquals(0, postiPrenotati(stessoOrarioFinale));
+    }
+
+    @Test
+    public void lezioneInesistente_restituisceLezioneInesistente() throws Exception {
+        assertEquals(EsitoIscrizione.LEZIONE_INESISTENTE,
+                IscrizioneDAO.iscriviClienteALezione(nuovoCliente(), -1));
+    }
+
+    @Test
+    public void prenotazioniConcorrenti_nonSuperanoIPostiTotali() throws Exception {
+        final int posti = 5;
+        final int richieste = 20;
+        int lezione = nuovaLezione("2031-03-10", "18:00:00", posti);
+
+        List<Integer> clienti = new ArrayList<>();
+        for (int i = 0; i < richieste; i++) {
+            clienti.add(nuovoCliente());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch via = new CountDownLatch(1);
+        List<Future<EsitoIscrizione>> esiti = new ArrayList<>();
+        try {
+            for (int idCliente : clienti) {
+                Callable<EsitoIscrizione> task = () -> {
+                    via.await();
+                    return IscrizioneDAO.iscriviClienteALezione(idCliente, lezione);
+                };
+                esiti.add(pool.submit(task));
+            }
+            via.countDown();
+
+            int ok = 0;
+            for (Future<EsitoIscrizione> f : esiti) {
+                EsitoIscrizione esito = f.get();
+                if (esito == EsitoIscrizione.OK) {
+                    ok++;
+                } else {
+                    assertEquals(EsitoIscrizione.POSTI_ESAURITI, esito);
+                }
+            }
+
+            assertEquals(posti, ok);
+            assertEquals(posti, postiPrenotati(lezione));
+            assertEquals(posti, conta("SELECT COUNT(*) FROM ISCRIZIONE_CORSO WHERE ID_LEZIONE = " + lezione));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ==========================================================
+    //  LISTA D'ATTESA
+    // ==========================================================
+
+    @Test
+    public void listaAttesa_posizioniInOrdineDiArrivo_eReinserimentoIdempotente() throws Exception {
+        int lezione = nuovaLezione("2031-04-01", "18:00:00", 1);
+        int primo = nuovoCliente();
+        int secondo = nuovoCliente();
+
+        assertEquals(1, ListaAttesaDAO.inserisciInListaAttesa(primo, lezione));
+        assertEquals(2, ListaAttesaDAO.inserisciInListaAttesa(secondo, lezione));
+        assertEquals(1, ListaAttesaDAO.inserisciInListaAttesa(primo, lezione));
+
+        ListaAttesaDAO.rimuoviDaListaAttesa(primo, lezione);
+        assertEquals(1, ListaAttesaDAO.getPosizioneInListaAttesa(secondo, lezione));
+        assertEquals(0, ListaAttesaDAO.getPosizioneInListaAttesa(primo, lezione));
+    }
+
+    @Test
+    public void disiscrizione_promuoveIlPrimoInCoda() throws Exception {
+        int lezione = nuovaLezione("2031-04-02", "18:00:00", 1);
+        int iscritto = nuovoCliente();
+        int primo = nuovoCliente();
+        int secondo = nuovoCliente();
+
+        IscrizioneDAO.iscriviClienteALezione(iscritto, lezione);
+        ListaAttesaDAO.inserisciInListaAttesa(primo, lezione);
+        ListaAttesaDAO.inserisciInListaAttesa(secondo, lezione);
+
+        IscrizioneDAO.disiscriviClienteDaLezione(iscritto, lezione);
+
+        assertEquals(1, postiPrenotati(lezione));
+        assertTrue(iscrittoAllaLezione(primo, lezione));
+        assertFalse(iscrittoAllaLezione(secondo, lezione));
+        assertEquals(0, ListaAttesaDAO.getPosizioneInListaAttesa(primo, lezione));
+        assertEquals(1, ListaAttesaDAO.getPosizioneInListaAttesa(secondo, lezione));
+    }
+
+    @Test
+    public void disiscrizione_saltaIlCandidatoConConflittoOrario() throws Exception {
+        int lezione = nuovaLezione("2031-04-03", "18:00:00", 1);
+        int sovrapposta = nuovaLezione("2031-04-03", "18:30:00", 10);
+        int iscritto = nuovoCliente();
+        int inConflitto = nuovoCliente();
+        int libero = nuovoCliente();
+
+        IscrizioneDAO.iscriviClienteALezione(iscritto, lezione);
+        ListaAttesaDAO.inserisciInListaAttesa(inConflitto, lezione);
+        ListaAttesaDAO.inserisciInListaAttesa(libero, lezione);
+        IscrizioneDAO.iscriviClienteALezione(inConflitto, sovrapposta);
+
+        IscrizioneDAO.disiscriviClienteDaLezione(iscritto, lezione);
+
+        assertTrue(iscrittoAllaLezione(libero, lezione));
+        assertFalse(iscrittoAllaLezione(inConflitto, lezione));
+        assertEquals(1, ListaAttesaDAO.getPosizioneInListaAttesa(inConflitto, lezione));
+    }
+
+    @Test
+    public void iscrizioneDiretta_toglieDallaListaAttesa_eNonRipromuoveDopoLaDisdetta() throws Exception {
+        int lezione = nuovaLezione("2031-04-05", "18:00:00", 2);
+        int cliente = nuovoCliente();
+        IscrizioneDAO.iscriviClienteALezione(nuovoCliente(), lezione);
+        ListaAttesaDAO.inserisciInListaAttesa(cliente, lezione);
+
+        assertEquals(EsitoIscrizione.OK, IscrizioneDAO.iscriviClienteALezione(cliente, lezione));
+        assertEquals(0, ListaAttesaDAO.getPosizioneInListaAttesa(cliente, lezione));
+
+        IscrizioneDAO.disiscriviClienteDaLezione(cliente, lezione);
+        assertFalse(iscrittoAllaLezione(cliente, lezione));
+        assertEquals(1, postiPrenotati(lezione));
+    }
+
+    @Test
+    public void disdettaAbbonamento_promuoveIlPrimoInCodaPerOgniLezioneFutura() throws Exception {
+        LocalDate domani = LocalDate.now().plusDays(1);
+        int prima = nuovaLezione(domani.toString(), "09:00:00", 1);
+        int seconda = nuovaLezione(domani.toString(), "18:00:00", 1);
+        int disdicente = nuovoCliente();
+        int inCodaPrima = nuovoCliente();
+        int inCodaSeconda = nuovoCliente();
+
+        IscrizioneDAO.iscriviClienteALezione(disdicente, prima);
+        IscrizioneDAO.iscriviClienteALezione(disdicente, seconda);
+        ListaAttesaDAO.inserisciInListaAttesa(inCodaPrima, prima);
+        ListaAttesaDAO.inserisciInListaAttesa(inCodaSeconda, seconda);
+
+        AbbonamentoDAO.disdiciAbbonamentoPerCliente(disdicente);
+
+        assertTrue(iscrittoAllaLezione(inCodaPrima, prima));
+        assertTrue(iscrittoAllaLezione(inCodaSeconda, seconda));
+        assertEquals(1, postiPrenotati(prima));
+        assertEquals(1, postiPrenotati(seconda));
+        assertEquals(0, ListaAttesaDAO.getPosizioneInListaAttesa(inCodaPrima, prima));
+    }
+
+    @Test
+    public void doppiaDisiscrizione_nonDecrementaDueVolteIPosti() throws Exception {
+        int lezione = nuovaLezione("2031-04-04", "18:00:00", 10);
+        int cliente = nuovoCliente();
+        IscrizioneDAO.iscriviClienteALezione(cliente, lezione);
+        IscrizioneDAO.iscriviClienteALezione(nuovoCliente(), lezione);
+
+        IscrizioneDAO.disiscriviClienteDaLezione(cliente, lezione);
+        assertThrows(Exception.class, () -> IscrizioneDAO.disiscriviClienteDaLezione(cliente, lezione));
+
+        assertEquals(1, postiPrenotati(lezione));
+    }
+
+    // ==========================================================
+    //  DATI DI TEST
+    // ==========================================================
+
+    @Test
+    public void dettaglio_righeInCache_divisePerOraDellaLettura() throws Exception {
+        int cliente = nuovoCliente();
+        int lezione = nuovaLezione("2031-03-20", "18:00:00", 10);
+        IscrizioneDAO.iscriviClienteALezione(cliente, lezione);
+
+        List<IscrizioneDAO.RigaDettaglioIscrizione> righe = IscrizioneDAO.getDettaglioIscrizioniPerCliente(cliente);
+        assertEquals(1, righe.size());
+
+        // le stesse righe, lette prima e dopo l'inizio della lezione
+        String prima = IscrizioneDAO.formattaDettaglioIscrizioni(righe, LocalDateTime.of(2031, 3, 20, 17, 59));
+        String dopo  = IscrizioneDAO.formattaDettaglioIscrizioni(righe, LocalDateTime.of(2031, 3, 20, 18, 0, 1));
+
+        assertTrue(prima.startsWith("Corsi futuri:"));
+        assertFalse(prima.contains("Corsi già svolti:"));
+        assertTrue(dopo.startsWith("Corsi già svolti:"));
+        assertFalse(dopo.contains("Corsi futuri:"));
+        assertEquals("Non hai ancora nessuna iscrizione ai corsi.\n",
+                IscrizioneDAO.formattaDettaglioIscrizioni(new ArrayList<>(), LocalDateTime.now()));
+    }
+
+    private static int nuovoCliente() throws SQLException {
+        return DatiDiProva.nuovoCliente("iscr" + PROGRESSIVO.incrementAndGet());
+    }
+
+    private static int nuovaLezione(String data, String ora, int postiTotali) throws SQLException {
+        return DatiDiProva.nuovaLezione(idCorso, LocalDate.parse(data), LocalTime.parse(ora), postiTotali);
+    }
+
+    private static boolean iscrittoAllaLezione(int idCliente, int idLezione) throws SQLException {
+        return conta("SELECT COUNT(*) FROM ISCRIZIONE_CORSO WHERE ID_CLIENTE = " + idCliente +
+                " AND ID_LEZIONE = " + idLezione) == 1;
+    }
+
+    private static int postiPrenotati(int idLezione) throws SQLException {
+        return conta("SELECT POSTI_PRENOTATI FROM LEZIONE_CORSO WHERE ID_LEZIONE = " + idLezione);
+    }
+}
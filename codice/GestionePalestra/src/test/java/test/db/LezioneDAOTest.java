@@ -0,0 +1,82 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.dao.corso.LezioneDAO;
+import db.dao.corso.LezioneTemplateDAO;
+import model.corsi.LezioneInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+public class LezioneDAOTest {
+
+    private static final LocalDate OGGI = LocalDate.now();
+
+    private static int istruttore;
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        istruttore = conta("SELECT MIN(ID_DIPENDENTE) FROM DIPENDENTE");
+    }
+
+    @Test
+    public void orizzonte_unaLezionePerSettimana_eGenerazioneIdempotente() throws Exception {
+        int idCorso = nuovoCorso("Orizzonte");
+        DayOfWeek giorno = OGGI.getDayOfWeek();   // oggi escluso: la prima è tra 7 giorni
+        LezioneTemplateDAO.inserisciTemplate(idCorso, giorno, LocalTime.of(18, 0), 12, istruttore);
+
+        LezioneTemplateDAO.materializzaOrizzonte(OGGI, 21);
+        LezioneTemplateDAO.materializzaOrizzonte(OGGI, 21);
+
+        List<LezioneInfo> future = LezioneDAO.getLezioniPerCorso(idCorso);
+        assertEquals(3, future.size());
+        assertEquals(OGGI.plusWeeks(1), future.get(0).data);
+        assertEquals(OGGI.plusWeeks(3), future.get(2).data);
+        assertEquals(12, future.get(0).postiTotali);
+
+        // l'orizzonte che avanza aggiunge solo le date mancanti
+        LezioneTemplateDAO.materializzaOrizzonte(OGGI.plusWeeks(1), 21);
+        assertEquals(4, conta("SELECT COUNT(*) FROM LEZIONE_CORSO WHERE ID_CORSO = " + idCorso));
+    }
+
+    @Test
+    public void lezioniPassateEDisattivazione_nonVengonoToccate() throws Exception {
+        int idCorso = nuovoCorso("Storico");
+        int template = LezioneTemplateDAO.inserisciTemplate(idCorso, DayOfWeek.MONDAY,
+                LocalTime.of(9, 0), 8, istruttore);
+        inserisci("INSERT INTO LEZIONE_CORSO (ID_CORSO, DATA_LEZIONE, ORA_LEZIONE, POSTI_TOTALI, ID_ISTRUTTORE, ID_TEMPLATE) " +
+                "VALUES (" + idCorso + ", DATE '" + OGGI.minusDays(10) + "', TIME '09:00:00', 8, " +
+                istruttore + ", " + template + ")");
+
+        LezioneTemplateDAO.disattivaTemplate(template);
+        LezioneTemplateDAO.materializzaOrizzonte(OGGI, 28);
+
+        // nessuna nuova lezione; quella passata resta a DB ma non è più proposta
+        assertTrue(LezioneDAO.getLezioniPerCorso(idCorso).isEmpty());
+        assertEquals(1, conta("SELECT COUNT(*) FROM LEZIONE_CORSO WHERE ID_CORSO = " + idCorso));
+    }
+
+    @Test
+    public void programmazione_daiTemplateAttivi_perGiornoEOra() throws Exception {
+        int idCorso = nuovoCorso("Programmazione");
+        LezioneTemplateDAO.inserisciTemplate(idCorso, DayOfWeek.WEDNESDAY, LocalTime.of(18, 0), 10, istruttore);
+        LezioneTemplateDAO.inserisciTemplate(idCorso, DayOfWeek.MONDAY, LocalTime.of(18, 0), 10, istruttore);
+        LezioneTemplateDAO.inserisciTemplate(idCorso, DayOfWeek.MONDAY, LocalTime.of(9, 0), 10, istruttore);
+        int sospeso = LezioneTemplateDAO.inserisciTemplate(idCorso, DayOfWeek.FRIDAY,
+                LocalTime.of(20, 0), 10, istruttore);
+        LezioneTemplateDAO.disattivaTemplate(sospeso);
+
+        // nessuna occorrenza generata: conta solo il modello settimanale
+        assertEquals("Lun 09:00 / Lun-Mer 18:00", LezioneDAO.buildDescrizioneProgrammazioneCorso(idCorso));
+        assertEquals("Nessuna lezione programmata.",
+                LezioneDAO.buildDescrizioneProgrammazioneCorso(nuovoCorso("SenzaTemplate")));
+    }
+}
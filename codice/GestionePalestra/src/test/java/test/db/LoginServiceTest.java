@@ -0,0 +1,134 @@
+package test.db;
+
+import db.GestioneDB;
+import db.InizializzazioneDB;
+import model.Cliente;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+import service.LoginException;
+import service.LoginService;
+import service.hash.ConfigurazioneHash;
+import service.hash.EsecutoreHash;
+import service.hash.HashSovraccaricoException;
+import service.hash.StatisticheHash;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+/**
+ * Costi BCrypt bassi per non rallentare la build.
+ */
+public class LoginServiceTest {
+
+    private static EsecutoreHash hash;
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        hash = new EsecutoreHash(new ConfigurazioneHash(2, 16, 10_000L, 5));
+    }
+
+    @AfterAll
+    public static void chiudi() {
+        hash.chiudi();
+    }
+
+    @Test
+    public void loginCorretto_conCostoDiverso_aggiornaLHash() throws Exception {
+        inserisciCliente("rehash1", "segreta", 4);
+        LoginService service = new LoginService(hash);
+
+        Cliente cliente = service.autentica("rehash1", "segreta");
+
+        String salvato = passwordDi("rehash1");
+        assertEquals(5, EsecutoreHash.costoDi(salvato));
+        assertEquals(salvato, cliente.getPassword());
+        assertTrue(BCrypt.checkpw("segreta", salvato));
+
+        // al login successivo l'hash è già aggiornato e resta quello
+        service.autentica("rehash1", "segreta");
+        assertEquals(salvato, passwordDi("rehash1"));
+    }
+
+    @Test
+    public void passwordErrata_nessunRehash() throws Exception {
+        inserisciCliente("rehash2", "segreta", 4);
+        String prima = passwordDi("rehash2");
+
+        assertThrows(LoginException.class,
+                () -> new LoginService(hash).autentica("rehash2", "sbagliata"));
+        assertEquals(prima, passwordDi("rehash2"));
+    }
+
+    @Test
+    public void login_caricaAbbonamentoAttivoNellaStessaLettura() throws Exception {
+        int idCliente = inserisciCliente("conabb", "segreta", 5);
+        inserisci("INSERT INTO ABBONAMENTO (TIPO, SCADENZA, ID_CLIENTE, FASCIA_ORARIA_CONSENTITA, PREZZO, ATTIVO) " +
+                "VALUES ('BASE', DATE '2030-01-01', " + idCliente + ", '9-18', 30, FALSE)");
+        inserisci("INSERT INTO ABBONAMENTO (TIPO, SCADENZA, ID_CLIENTE, FASCIA_ORARIA_CONSENTITA, PREZZO) " +
+                "VALUES ('CORSI', DATE '2031-06-30', " + idCliente + ", '7-22', 50)");
+        inserisciCliente("senzaabb", "segreta", 5);
+        LoginService service = new LoginService(hash);
+
+        Cliente conAbbonamento = service.autentica("conabb", "segreta");
+        assertEquals(idCliente, conAbbonamento.getIdCliente());
+        assertEquals("conabb@test.it", conAbbonamento.getEmail());
+        assertNotNull(conAbbonamento.getAbbonamento());
+        assertEquals("CORSI", conAbbonamento.getAbbonamento().getTipo());
+        assertEquals(50, conAbbonamento.getAbbonamento().getPrezzo());
+
+        assertNull(service.autentica("senzaabb", "segreta").getAbbonamento());
+    }
+
+    @Test
+    public void codaPiena_richiestaRespinta_eContata() throws Exception {
+        EsecutoreHash piccolo = new EsecutoreHash(new ConfigurazioneHash(1, 1, 10_000L, 4));
+        ExecutorService chiamanti = Executors.newFixedThreadPool(2);
+        try {
+            // un hash "lento" occupa l'unico thread, un secondo occupa l'unico posto in coda
+            String lento = BCrypt.hashpw("x", BCrypt.gensalt(12));
+            Future<Boolean> primo = chiamanti.submit(() -> piccolo.verifica("x", lento));
+            Future<Boolean> secondo = chiamanti.submit(() -> piccolo.verifica("x", lento));
+            while (piccolo.getStatistiche().inCoda == 0) {
+                Thread.sleep(5);
+            }
+
+            assertThrows(HashSovraccaricoException.class, () -> piccolo.verifica("x", lento));
+            assertTrue(primo.get());
+            assertTrue(secondo.get());
+
+            StatisticheHash stat = piccolo.getStatistiche();
+            assertEquals(1, stat.rifiutate);
+            assertEquals(2, stat.completate);
+            assertTrue(stat.p50Ms > 0 && stat.p50Ms <= stat.p99Ms && stat.p99Ms <= stat.maxMs);
+        } finally {
+            chiamanti.shutdownNow();
+            piccolo.chiudi();
+        }
+    }
+
+    private static int inserisciCliente(String username, String password, int costo) throws SQLException {
+        return nuovoCliente(username, BCrypt.hashpw(password, BCrypt.gensalt(costo)));
+    }
+
+    private static String passwordDi(String username) throws SQLException {
+        try (Connection conn = GestioneDB.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT PASSWORD FROM CLIENTE WHERE USERNAME = ?")) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+}
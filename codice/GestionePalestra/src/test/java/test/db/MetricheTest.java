@@ -0,0 +1,89 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.dao.PalestraDAO;
+import metriche.IstantaneaMetriche;
+import metriche.RegistroMetriche;
+import metriche.StatisticheTimer;
+import metriche.Timer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Istogramma dei timer e registrazione delle metriche dai DAO
+ * (nomi di timer unici per test: il registro è globale).
+ */
+public class MetricheTest {
+
+    @BeforeAll
+    public static void init() throws Exception {
+        InizializzazioneDB.init();
+    }
+
+    @Test
+    public void timer_percentiliEntroLaPrecisioneDeiBucket() {
+        Timer timer = RegistroMetriche.timer("test.percentili");
+
+        // 1..1000 ms: p50 = 500 ms, p95 = 950 ms, p99 = 990 ms
+        for (int ms = 1; ms <= 1000; ms++) {
+            timer.registra(ms * 1_000_000L, ms % 100 == 0);
+        }
+
+        StatisticheTimer s = timer.getStatistiche();
+        assertEquals(1000, s.chiamate);
+        assertEquals(10, s.errori);
+        assertEquals(500.5, s.mediaMs, 0.01);
+        assertEquals(1000.0, s.maxMs, 0.01);
+        assertEquals(500.0, s.p50Ms, 500.0 * 0.25);
+        assertEquals(950.0, s.p95Ms, 950.0 * 0.25);
+        assertEquals(990.0, s.p99Ms, 990.0 * 0.25);
+        assertTrue(s.p50Ms <= s.p95Ms && s.p95Ms <= s.p99Ms && s.p99Ms <= s.maxMs);
+    }
+
+    @Test
+    public void misura_eccezioneContataComeErroreERilanciata() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> RegistroMetriche.misura("test.errore", () -> {
+                    throw new IllegalStateException("ko");
+                }));
+        assertEquals("ko", e.getMessage());
+
+        StatisticheTimer s = RegistroMetriche.istantanea().getTimer("test.errore");
+        assertEquals(1, s.chiamate);
+        assertEquals(1, s.errori);
+    }
+
+    @Test
+    public void dao_registraIlTimerConIlNomeDelMetodo() throws Exception {
+        long prima = chiamate("PalestraDAO.getSalaPesiInfo");
+
+        PalestraDAO.getSalaPesiInfo();
+        PalestraDAO.getSalaPesiInfo();
+
+        assertEquals(prima + 2, chiamate("PalestraDAO.getSalaPesiInfo"));
+    }
+
+    @Test
+    public void istantanea_contieneContatoriESorgenti() {
+        RegistroMetriche.contatore("test.contatore").aggiungi(3);
+        RegistroMetriche.registraSorgente("test.sorgente", () -> "ok");
+        RegistroMetriche.registraSorgente("test.guasta", () -> {
+            throw new IllegalStateException("spenta");
+        });
+
+        IstantaneaMetriche foto = RegistroMetriche.istantanea();
+
+        assertEquals(3, foto.getContatore("test.contatore"));
+        assertEquals(0, foto.getContatore("test.maiUsato"));
+        assertEquals("ok", foto.sorgenti.get("test.sorgente"));
+        assertTrue(foto.sorgenti.get("test.guasta").contains("spenta"));
+        assertTrue(foto.toString().contains("test.contatore = 3"));
+    }
+
+    private static long chiamate(String nome) {
+        StatisticheTimer s = RegistroMetriche.istantanea().getTimer(nome);
+        return s == null ? 0 : s.chiamate;
+    }
+}
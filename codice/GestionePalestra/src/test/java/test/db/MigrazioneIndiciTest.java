@@ -0,0 +1,80 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MigrazioneIndiciTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:h2:mem:indicitest", "sa", "");
+        InizializzazioneDB.creaMotoreMigrazioni().migraFinoA(conn, 2);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        conn.close();
+    }
+
+    @Test
+    public void applica_eIdempotente_eRegistraLaVersione() throws Exception {
+        InizializzazioneDB.creaMotoreMigrazioni().migraFinoA(conn, 2);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT COUNT(*) FROM SCHEMA_VERSION WHERE VERSIONE = 2")) {
+            rs.next();
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void iscrizioneDoppia_vieneRifiutataDalVincoloUnique() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO CLIENTE (USERNAME, EMAIL, NOME, COGNOME, CF, LUOGO_NASCITA, " +
+                    "DATA_NASCITA, PASSWORD) VALUES ('u', 'u@x.it', 'N', 'C', 'CF00000000000000', " +
+                    "'Italia', DATE '2000-01-01', 'x')");
+            st.executeUpdate("INSERT INTO DIPENDENTE (NOME, COGNOME, RUOLO) VALUES ('I', 'S', 'ISTRUTTORE_CORSO')");
+            st.executeUpdate("INSERT INTO CORSO (NOME, DESCRIZIONE, DURATA_MINUTI) VALUES ('Spinning', 'd', 60)");
+            st.executeUpdate("INSERT INTO LEZIONE_CORSO (ID_CORSO, DATA_LEZIONE, ORA_LEZIONE, POSTI_TOTALI, " +
+                    "ID_ISTRUTTORE) VALUES (1, DATE '2030-01-07', TIME '18:00:00', 10, 1)");
+            st.executeUpdate("INSERT INTO ISCRIZIONE_CORSO (ID_CLIENTE, ID_LEZIONE) VALUES (1, 1)");
+
+            assertThrows(SQLException.class, () ->
+                    st.executeUpdate("INSERT INTO ISCRIZIONE_CORSO (ID_CLIENTE, ID_LEZIONE) VALUES (1, 1)"));
+        }
+    }
+
+    @Test
+    public void queryCalde_nonFannoFullScan() throws Exception {
+        assertNessunTableScan("SELECT 1 FROM ISCRIZIONE_CORSO WHERE ID_CLIENTE = 1 AND ID_LEZIONE = 2");
+        assertNessunTableScan("SELECT * FROM LEZIONE_CORSO WHERE ID_CORSO = 1 AND DATA_LEZIONE >= DATE '2030-01-01'");
+        assertNessunTableScan("SELECT * FROM CONSULENZA WHERE ID_CLIENTE = 1 AND DATA_CONSULENZA >= DATE '2030-01-01'");
+        assertNessunTableScan("SELECT * FROM CONSULENZA WHERE DATA_CONSULENZA = DATE '2030-01-01' " +
+                "AND (ID_CLIENTE = 1 OR ID_DIPENDENTE = 2)");
+        assertNessunTableScan("SELECT * FROM PASSWORD_RESET_TOKEN WHERE TOKEN = '123456'");
+        assertNessunTableScan("SELECT * FROM ABBONAMENTO WHERE ID_CLIENTE = 1");
+        assertNessunTableScan("SELECT * FROM DIPENDENTE WHERE RUOLO = 'NUTRIZIONISTA' ORDER BY COGNOME, NOME");
+    }
+
+    private void assertNessunTableScan(String sql) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            rs.next();
+            String piano = rs.getString(1);
+            assertFalse(piano.contains("tableScan"), "Full scan nel piano: " + piano);
+        }
+    }
+}
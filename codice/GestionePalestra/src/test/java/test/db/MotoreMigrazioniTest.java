@@ -0,0 +1,139 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.migrazioni.Migrazione;
+import db.migrazioni.MotoreMigrazioni;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotoreMigrazioniTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        conn = DriverManager.getConnection("jdbc:h2:mem:migrazionitest", "sa", "");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        conn.close();
+    }
+
+    @Test
+    public void databaseVuoto_applicaTutteLeMigrazioni_poiNonFaPiuNulla() throws Exception {
+        MotoreMigrazioni motore = InizializzazioneDB.creaMotoreMigrazioni();
+
+        assertEquals(motore.getMigrazioni().size(), motore.migra(conn));
+        assertEquals(0, motore.migra(conn));
+
+        assertEquals(motore.getVersioneCorrente(), conta("SELECT MAX(VERSIONE) FROM SCHEMA_VERSION"));
+        assertEquals(9, conta("SELECT COUNT(*) FROM DIPENDENTE"));
+        assertEquals(0, conta("SELECT COUNT(*) FROM SCHEMA_VERSION WHERE CHECKSUM IS NULL"));
+    }
+
+    @Test
+    public void databaseCreatoPrimaDelMotore_nonDuplicaIDati() throws Exception {
+        // DB "storico": tabelle e dati già presenti, nessuna SCHEMA_VERSION
+        MotoreMigrazioni motore = InizializzazioneDB.creaMotoreMigrazioni();
+        motore.migra(conn);
+        esegui("DROP TABLE SCHEMA_VERSION");
+
+        motore.migra(conn);
+
+        assertEquals(9, conta("SELECT COUNT(*) FROM DIPENDENTE"));
+        assertEquals(3, conta("SELECT COUNT(*) FROM CORSO"));
+    }
+
+    @Test
+    public void versioneRegistrataSenzaChecksum_vieneAdottata() throws Exception {
+        // formato di SCHEMA_VERSION precedente al motore (solo migrazione indici)
+        esegui("CREATE TABLE SCHEMA_VERSION (VERSIONE INT PRIMARY KEY, DESCRIZIONE VARCHAR(200) NOT NULL, " +
+                "APPLICATA_IL TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)");
+        esegui("INSERT INTO SCHEMA_VERSION (VERSIONE, DESCRIZIONE) VALUES (1, 'vecchia')");
+
+        MotoreMigrazioni motore = new MotoreMigrazioni(
+                Collections.singletonList(migrazione(1, "abc", "CREATE TABLE T1 (ID INT)")));
+
+        assertEquals(0, motore.migra(conn));
+        assertEquals(1, conta("SELECT COUNT(*) FROM SCHEMA_VERSION WHERE CHECKSUM = 'abc'"));
+    }
+
+    @Test
+    public void checksumModificato_interrompeLaMigrazione() throws Exception {
+        new MotoreMigrazioni(Collections.singletonList(
+                migrazione(1, "abc", "CREATE TABLE T1 (ID INT)"))).migra(conn);
+
+        MotoreMigrazioni modificato = new MotoreMigrazioni(Arrays.asList(
+                migrazione(1, "xyz", "CREATE TABLE T1 (ID INT, NOME VARCHAR(10))"),
+                migrazione(2, "def", "CREATE TABLE T2 (ID INT)")));
+
+        assertThrows(SQLException.class, () -> modificato.migra(conn));
+        assertEquals(0, conta("SELECT COUNT(*) FROM SCHEMA_VERSION WHERE VERSIONE = 2"));
+    }
+
+    @Test
+    public void migrazioneFallita_nonVieneRegistrata() throws Exception {
+        MotoreMigrazioni motore = new MotoreMigrazioni(Arrays.asList(
+                migrazione(1, "abc", "CREATE TABLE T1 (ID INT)"),
+                migrazione(2, "def", "INSERT INTO TABELLA_INESISTENTE VALUES (1)")));
+
+        assertThrows(SQLException.class, () -> motore.migra(conn));
+        assertEquals(1, conta("SELECT MAX(VERSIONE) FROM SCHEMA_VERSION"));
+    }
+
+    // ==========================================================
+    //  SUPPORTO
+    // ==========================================================
+
+    private static Migrazione migrazione(int versione, String checksum, String sql) {
+        return new Migrazione() {
+            @Override
+            public int getVersione() {
+                return versione;
+            }
+
+            @Override
+            public String getDescrizione() {
+                return "test V" + versione;
+            }
+
+            @Override
+            public String getChecksum() {
+                return checksum;
+            }
+
+            @Override
+            public void applica(Connection c) throws SQLException {
+                try (Statement st = c.createStatement()) {
+                    st.execute(sql);
+                }
+            }
+        };
+    }
+
+    private void esegui(String sql) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private int conta(String sql) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import service.RegistrazioneException;
+import service.RegistrazioneService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistrazioneServiceTest {
+
+    private static final RegistrazioneService service = new RegistrazioneService();
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        registra("reg_uno", "RGNUNO00A01H501G", "reg.uno@test.it");
+    }
+
+    @Test
+    public void duplicati_mappatiSulMessaggioDelCampo() {
+        assertEquals("Username già utilizzato, scegline un altro.",
+                errore("reg_uno", "RGNDUE00A01H501B", "reg.due@test.it"));
+        assertEquals("Esiste già un cliente con questo codice fiscale.",
+                errore("reg_due", " rgnuno00a01h501g", "reg.due@test.it"));
+        assertEquals("Esiste già un account associato a questa email.",
+                errore("reg_due", "RGNDUE00A01H501B", " Reg.Uno@test.it "));
+    }
+
+    @Test
+    public void datiUnivoci_registrazioneCompletata() throws Exception {
+        registra("reg_tre", "RGNTRE00A01H501J", "reg.tre@test.it");
+        assertEquals("Username già utilizzato, scegline un altro.",
+                errore("reg_tre", "RGNQUA00A01H501K", "reg.qua@test.it"));
+    }
+
+    private static void registra(String username, String cf, String email) throws RegistrazioneException {
+        service.registraNuovoCliente(username, "segreta", "Nome", "Cognome", cf,
+                "Italia", "2000-01-01", "", email);
+    }
+
+    private static String errore(String username, String cf, String email) {
+        return assertThrows(RegistrazioneException.class, () -> registra(username, cf, email)).getMessage();
+    }
+}
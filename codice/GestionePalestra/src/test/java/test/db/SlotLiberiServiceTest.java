@@ -0,0 +1,89 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.dao.ConsulenzaDAO;
+import model.Consulenza;
+import model.SlotLibero;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import service.SlotLiberiService;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static test.db.DatiDiProva.*;
+
+public class SlotLiberiServiceTest {
+
+    // lunedì
+    private static final LocalDate LUNEDI = LocalDate.of(2031, 3, 3);
+
+    private static int cliente;
+    private static int dipendenteA;
+    private static int dipendenteB;
+
+    @BeforeAll
+    public static void preparaDati() throws Exception {
+        InizializzazioneDB.init();
+        cliente = nuovoCliente("slot1");
+        dipendenteA = nuovoDipendente("Anna", "TEST_SLOT", "Lun 9:00-11:00");
+        dipendenteB = nuovoDipendente("Bruno", "TEST_SLOT", "Lun 10:00-12:00; Mar 9:00-9:30");
+        nuovoDipendente("Carla", "TEST_SLOT_LIBERO", "Corsi serali");
+
+        // il cliente è già impegnato con A dalle 10:30 alle 11:00
+        ConsulenzaDAO.inserisci(new Consulenza(cliente, dipendenteA, "PERSONAL_TRAINER",
+                LUNEDI, LocalTime.of(10, 30), null));
+    }
+
+    private static SlotLiberiService serviceAlle(LocalDateTime adesso) {
+        ZoneId zona = ZoneId.systemDefault();
+        return new SlotLiberiService(Clock.fixed(adesso.atZone(zona).toInstant(), zona));
+    }
+
+    @Test
+    public void saltaOrariPassatiEImpegniDiClienteEProfessionista() throws Exception {
+        SlotLiberiService service = serviceAlle(LUNEDI.atTime(10, 7));
+
+        List<SlotLibero> slot = service.cercaSlotLiberi("TEST_SLOT", cliente, LUNEDI, LUNEDI.plusDays(2), 10);
+
+        assertEquals(3, slot.size());
+        assertSlot(slot.get(0), dipendenteB, LUNEDI.atTime(11, 0));
+        assertSlot(slot.get(1), dipendenteB, LUNEDI.atTime(11, 30));
+        assertSlot(slot.get(2), dipendenteB, LUNEDI.plusDays(1).atTime(9, 0));
+    }
+
+    @Test
+    public void ordineCronologicoTraProfessionisti_eLimite() throws Exception {
+        SlotLiberiService service = serviceAlle(LUNEDI.minusDays(1).atTime(12, 0));
+
+        List<SlotLibero> slot = service.cercaSlotLiberi("TEST_SLOT", cliente, LUNEDI, LUNEDI, 5);
+
+        assertEquals(5, slot.size());
+        assertSlot(slot.get(0), dipendenteA, LUNEDI.atTime(9, 0));
+        assertSlot(slot.get(1), dipendenteA, LUNEDI.atTime(9, 30));
+        assertSlot(slot.get(2), dipendenteA, LUNEDI.atTime(10, 0));
+        assertSlot(slot.get(3), dipendenteB, LUNEDI.atTime(10, 0));
+        assertSlot(slot.get(4), dipendenteB, LUNEDI.atTime(11, 0));
+    }
+
+    @Test
+    public void professionistaSenzaFasceOrarie_usaLOrarioPredefinito() throws Exception {
+        LocalDate domenica = LUNEDI.plusDays(6);
+        SlotLiberiService service = serviceAlle(domenica.atTime(8, 0));
+
+        List<SlotLibero> slot = service.cercaSlotLiberi("TEST_SLOT_LIBERO", cliente, domenica, domenica.plusDays(1), 1);
+
+        assertEquals(1, slot.size());
+        assertEquals(domenica.plusDays(1).atTime(9, 0), slot.get(0).getInizio());
+    }
+
+    private static void assertSlot(SlotLibero slot, int idDipendente, LocalDateTime inizio) {
+        assertEquals(idDipendente, slot.getIdDipendente());
+        assertEquals(inizio, slot.getInizio());
+    }
+}
@@ -0,0 +1,109 @@
+package test.db;
+
+import db.InizializzazioneDB;
+import db.cache.CacheRiferimento;
+import model.Abbonamento;
+import model.Cliente;
+import org.junit.jupiter.api.Test;
+import service.PanoramicaPalestraService;
+import service.SnapshotPanoramica;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotPanoramicaTest {
+
+    @Test
+    public void lettureRipetute_unaSolaComposizione_aggiornamentoInBackground() throws Exception {
+        AtomicInteger composizioni = new AtomicInteger();
+        SnapshotPanoramica snapshot = new SnapshotPanoramica(() -> {
+            int n = composizioni.incrementAndGet();
+            if (n == 3) {
+                throw new IllegalStateException("DB non raggiungibile");
+            }
+            return Collections.singletonMap("BASE", "versione " + n);
+        }, null);
+
+        try {
+            assertEquals("versione 1", snapshot.get("BASE"));
+            assertEquals("versione 1", snapshot.get("BASE"));
+            assertEquals("", snapshot.get("SCONOSCIUTO"));
+            assertEquals(1, composizioni.get());
+
+            snapshot.richiediAggiornamento();
+            attendi(snapshot, "versione 2");
+
+            // ricostruzione fallita: resta lo snapshot precedente
+            snapshot.richiediAggiornamento();
+            attendi(composizioni, 3);
+            assertEquals("versione 2", snapshot.get("BASE"));
+        } finally {
+            snapshot.chiudi();
+        }
+    }
+
+    @Test
+    public void ricostruzionePeriodica_recepisceLeModificheEsterneEntroUnPeriodo() throws Exception {
+        // orologio della cache fermo: la voce letta dalla prima costruzione non scade da sola
+        AtomicLong orologio = new AtomicLong();
+        AtomicReference<String> tabella = new AtomicReference<>("prima");
+        CacheRiferimento<String, String> sale = new CacheRiferimento<>(
+                "test.panoramica", Duration.ofMinutes(30), chiave -> tabella.get(), orologio::get);
+        SnapshotPanoramica snapshot = new SnapshotPanoramica(
+                () -> Collections.singletonMap("BASE", sale.get("UNICA")),
+                Duration.ofMillis(50), sale::invalidaTutto);
+
+        try {
+            assertEquals("prima", snapshot.get("BASE"));
+
+            tabella.set("dopo");   // modifica fatta fuori dai DAO
+            attendi(snapshot, "dopo");
+        } finally {
+            snapshot.chiudi();
+        }
+    }
+
+    @Test
+    public void panoramica_dipendeSoloDalTipoDiAbbonamento() throws Exception {
+        InizializzazioneDB.init();
+        PanoramicaPalestraService service = new PanoramicaPalestraService();
+
+        String base = service.generaPanoramica(cliente("BASE"));
+        String completo = service.generaPanoramica(cliente("COMPLETO"));
+        String corsi = service.generaPanoramica(cliente("CORSI"));
+
+        assertTrue(base.contains("=== SALA PESI ==="));
+        assertFalse(base.contains("=== SPA ==="));
+        assertTrue(completo.startsWith(base));
+        assertTrue(completo.contains("=== SPA ==="));
+        assertTrue(corsi.contains("=== SALE CORSI ==="));
+        assertEquals("", service.generaPanoramica(new Cliente()));
+    }
+
+    private static Cliente cliente(String tipo) {
+        Cliente c = new Cliente();
+        c.setAbbonamento(Abbonamento.creaDaTipo(tipo, 0));
+        return c;
+    }
+
+    private static void attendi(AtomicInteger contatore, int valore) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (contatore.get() < valore && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(valore, contatore.get());
+    }
+
+    private static void attendi(SnapshotPanoramica snapshot, String atteso) throws Exception {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!atteso.equals(snapshot.get("BASE")) && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(atteso, snapshot.get("BASE"));
+    }
+}
@@ -0,0 +1,63 @@
+package test.model;
+
+import org.junit.jupiter.api.Test;
+
+import model.OrarioDisponibilita;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrarioDisponibilitaTest {
+
+    private static int ore(int h, int m) {
+        return h * 60 + m;
+    }
+
+    @Test
+    public void rangeDiGiorni_eOreAUnaCifra() {
+        OrarioDisponibilita o = OrarioDisponibilita.compila("Lun-Ven 9:00-13:00");
+
+        assertTrue(o.isVincolato());
+        assertTrue(o.isDisponibile(DayOfWeek.MONDAY, ore(9, 0), 60));
+        assertTrue(o.isDisponibile(DayOfWeek.FRIDAY, ore(12, 0), 60));
+        assertFalse(o.isDisponibile(DayOfWeek.FRIDAY, ore(12, 30), 60));
+        assertFalse(o.isDisponibile(DayOfWeek.SATURDAY, ore(10, 0), 30));
+        assertFalse(o.isDisponibile(DayOfWeek.MONDAY, ore(8, 45), 30));
+    }
+
+    @Test
+    public void piuSegmenti_eRangeCheAttraversaLaDomenica() {
+        OrarioDisponibilita o = OrarioDisponibilita.compila("Ven-Lun 10:00-12:00; Mer 15:00-19:00");
+
+        assertTrue(o.isDisponibile(DayOfWeek.SUNDAY, ore(10, 0), 120));
+        assertTrue(o.isDisponibile(DayOfWeek.MONDAY, ore(11, 0), 30));
+        assertFalse(o.isDisponibile(DayOfWeek.TUESDAY, ore(11, 0), 30));
+        assertTrue(o.isDisponibile(DayOfWeek.WEDNESDAY, ore(18, 0), 60));
+    }
+
+    @Test
+    public void senzaFasceOrarie_nonVincola() {
+        assertFalse(OrarioDisponibilita.compila(null).isVincolato());
+        assertFalse(OrarioDisponibilita.compila("  ").isVincolato());
+
+        OrarioDisponibilita serali = OrarioDisponibilita.compila("Corsi serali");
+        assertFalse(serali.isVincolato());
+        assertTrue(serali.isDisponibile(DayOfWeek.SUNDAY, ore(3, 0), 45));
+    }
+
+    @Test
+    public void prossimoSlot_saltaLeFasceTroppoCorteEIGiorniLiberi() {
+        OrarioDisponibilita o = OrarioDisponibilita.compila("Lun 9:00-9:30, Lun 14:00-18:00; Mer 9:00-13:00");
+
+        // lunedì 2031-03-03
+        LocalDateTime lunedi8 = LocalDateTime.of(2031, 3, 3, 8, 0);
+        assertEquals(LocalDateTime.of(2031, 3, 3, 14, 0), o.prossimoSlot(lunedi8, 60));
+
+        LocalDateTime lunedi17 = LocalDateTime.of(2031, 3, 3, 17, 30);
+        assertEquals(LocalDateTime.of(2031, 3, 5, 9, 0), o.prossimoSlot(lunedi17, 60));
+
+        assertNull(o.prossimoSlot(lunedi8, 300));
+    }
+}
@@ -0,0 +1,39 @@
+package test.service;
+
+import org.junit.jupiter.api.Test;
+import service.IndicePaesi;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndicePaesiTest {
+
+    @Test
+    public void nomiItalianiEInglesi_riconosciuti() {
+        assertEquals("IT", IndicePaesi.codiceIso("Italia"));
+        assertEquals("IT", IndicePaesi.codiceIso("  italy "));
+        assertEquals("DE", IndicePaesi.codiceIso("GERMANIA"));
+        assertEquals("FR", IndicePaesi.codiceIso("France"));
+    }
+
+    @Test
+    public void accentiEPunteggiatura_ignorati() {
+        assertEquals("CI", IndicePaesi.codiceIso("Costa d\u2019Avorio"));
+        assertEquals("CI", IndicePaesi.codiceIso("costa d avorio"));
+        assertEquals("VA", IndicePaesi.codiceIso("Citt\u00e0 del Vaticano"));
+    }
+
+    @Test
+    public void alias_riconosciuti() {
+        assertEquals("US", IndicePaesi.codiceIso("USA"));
+        assertEquals("GB", IndicePaesi.codiceIso("Inghilterra"));
+        assertEquals("NL", IndicePaesi.codiceIso("Olanda"));
+    }
+
+    @Test
+    public void nomiNonValidi_rifiutati() {
+        assertFalse(IndicePaesi.esiste("Atlantide"));
+        assertFalse(IndicePaesi.esiste(""));
+        assertFalse(IndicePaesi.esiste("   "));
+        assertFalse(IndicePaesi.esiste(null));
+    }
+}
@@ -0,0 +1,84 @@
+package test.service;
+
+import org.junit.jupiter.api.Test;
+import service.validazione.EsitoValidazione;
+import service.validazione.ValidazioneRegistrazione;
+import service.validazione.Validatori;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static service.validazione.ValidazioneRegistrazione.*;
+
+public class ValidazioneRegistrazioneTest {
+
+    @Test
+    public void codiceFiscale_carattereDiControllo() {
+        assertEquals('U', Validatori.carattereControlloCF("RSSMRA80A01H501U"));
+        // omocodia: cifre sostituite da lettere
+        assertTrue(Validatori.isFormatoCodiceFiscale("RSSMRA80A01H50MU"));
+        assertFalse(Validatori.isFormatoCodiceFiscale("RSSMRA80Z01H501U"));   // mese inesistente
+        assertFalse(Validatori.isFormatoCodiceFiscale("RSSMRA80A01H501"));
+    }
+
+    @Test
+    public void iban_checksumMod97() {
+        assertEquals(1, Validatori.resto97Iban("IT60X0542811101000000123456"));
+        assertEquals(1, Validatori.resto97Iban("GB82WEST12345698765432"));
+        assertNotEquals(1, Validatori.resto97Iban("IT61X0542811101000000123456"));
+        assertFalse(Validatori.isFormatoIban("1T60X0542811101000000123456"));
+    }
+
+    @Test
+    public void datiValidi_normalizzati() {
+        Map<String, String> dati = ValidazioneRegistrazione.normalizza(" mario ", "segreta", "Mario", "Rossi",
+                "rssmra80a01h501u", "italia", "1980-01-01", "it60 x054 2811 1010 0000 0123 456", " Mario@Test.IT ");
+
+        assertTrue(ValidazioneRegistrazione.valida(dati).isValido());
+        assertEquals("mario", dati.get(USERNAME));
+        assertEquals("IT60X0542811101000000123456", dati.get(IBAN));
+        assertEquals("mario@test.it", dati.get(EMAIL));
+    }
+
+    @Test
+    public void datiNonValidi_tuttiGliErroriInUnPassaggio() {
+        Map<String, String> dati = ValidazioneRegistrazione.normalizza("mario", "abc", "", "Rossi",
+                "RSSMRA80A01H501X", "Atlantide", "2099-01-01", "IT61X0542811101000000123456", "mario@");
+
+        EsitoValidazione esito = ValidazioneRegistrazione.valida(dati);
+
+        assertFalse(esito.isValido());
+        assertEquals(7, esito.getErrori().size());
+        assertNull(esito.getErrore(USERNAME));
+        assertEquals("La password deve contenere almeno 4 caratteri.", esito.getErrore(PASSWORD));
+        assertNotNull(esito.getErrore(NOME));
+        assertEquals("Codice fiscale non valido: il carattere di controllo non corrisponde.", esito.getErrore(CF));
+        assertEquals("IBAN non valido: le cifre di controllo non corrispondono.", esito.getErrore(IBAN));
+        assertEquals("La data di nascita non può essere nel futuro.", esito.getErrore(DATA_NASCITA));
+        assertEquals(7, esito.getMessaggio().split("\n").length);
+    }
+
+    @Test
+    public void ibanFacoltativo_vuotoAmmesso() {
+        Map<String, String> dati = ValidazioneRegistrazione.normalizza("mario", "segreta", "Mario", "Rossi",
+                "RSSMRA80A01H501U", "Italia", "1980-01-01", "  ", "mario@test.it");
+
+        assertTrue(ValidazioneRegistrazione.valida(dati).isValido());
+    }
+
+    @Test
+    public void campiOltreLaLunghezzaDelleColonne_rifiutati() {
+        String lungo = String.join("", Collections.nCopies(MAX_TESTO + 1, "a"));
+        Map<String, String> dati = ValidazioneRegistrazione.normalizza(
+                String.join("", Collections.nCopies(MAX_USERNAME + 1, "u")), "segreta", lungo, "Rossi",
+                "RSSMRA80A01H501U", "Italia", "1980-01-01", "", lungo + "@test.it");
+
+        EsitoValidazione esito = ValidazioneRegistrazione.valida(dati);
+
+        assertEquals(3, esito.getErrori().size());
+        assertEquals("Lo username può contenere al massimo 50 caratteri.", esito.getErrore(USERNAME));
+        assertEquals("Il nome può contenere al massimo 100 caratteri.", esito.getErrore(NOME));
+        assertEquals("L'email può contenere al massimo 100 caratteri.", esito.getErrore(EMAIL));
+    }
+}